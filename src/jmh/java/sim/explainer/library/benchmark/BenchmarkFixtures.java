@@ -0,0 +1,134 @@
+package sim.explainer.library.benchmark;
+
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.OWLServiceContext;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.descriptiontree.TreeBuilder;
+import sim.explainer.library.framework.reasoner.DynamicProgrammingSimPiReasonerImpl;
+import sim.explainer.library.framework.reasoner.DynamicProgrammingSimReasonerImpl;
+import sim.explainer.library.framework.reasoner.IReasoner;
+import sim.explainer.library.framework.reasoner.TopDownSimPiReasonerImpl;
+import sim.explainer.library.framework.reasoner.TopDownSimReasonerImpl;
+import sim.explainer.library.framework.unfolding.ConceptDefinitionUnfolderKRSSSyntax;
+import sim.explainer.library.framework.unfolding.ConceptDefinitionUnfolderManchesterSyntax;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Builds the inputs shared by the benchmarks the same way {@code SimilarityService} does, but without its caches.
+ *
+ * The ontologies are generated by {@link SyntheticOntologyGenerator} from a fixed seed. A {@link Shape#DEEP} ontology
+ * of size n defines every concept through a chain of shared definitions, i.e., the description trees of its deepest
+ * concepts are paths of depth n. A {@link Shape#WIDE} ontology of size n defines two concepts with up to n
+ * existential restrictions each, i.e., their description trees have up to n children of depth one.
+ */
+public final class BenchmarkFixtures {
+
+    static final long SEED = 1;
+
+    /**
+     * The shape of a generated ontology. Public, as the benchmarks take it as a parameter and the code JMH generates
+     * for them lives in another package.
+     */
+    public enum Shape {
+        DEEP, WIDE
+    }
+
+    private BenchmarkFixtures() {
+    }
+
+    private static Path createTempFile(String suffix) throws IOException {
+        Path path = Files.createTempFile("sim-explainer-benchmark", suffix);
+        path.toFile().deleteOnExit();
+
+        return path;
+    }
+
+    static SyntheticOntologyGenerator generator(Shape shape, int size) {
+        SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED);
+
+        // Few primitive concepts and roles, so that the two concepts partly match rather than differ at every node.
+        if (shape == Shape.DEEP) {
+            return generator.setConceptCount(2 * size).setPrimitiveConceptCount(2).setRoleCount(2).setDepth(size).setBranching(1).setSharing(1);
+        } else {
+            return generator.setConceptCount(2).setPrimitiveConceptCount(size).setRoleCount(4).setDepth(1).setBranching(size);
+        }
+    }
+
+    /**
+     * Returns one of the two deepest concepts of an ontology of the given shape and size.
+     *
+     * @param index 0 for the first concept and 1 for the second
+     */
+    static String concept(Shape shape, int size, int index) {
+        int depth = shape == Shape.DEEP ? size : 1;
+
+        return "C" + (depth - 1 + index * depth);
+    }
+
+    /**
+     * Writes an ontology of the given shape and size to a temporary KRSS file, deleted when the JVM exits.
+     */
+    static Path writeKRSS(Shape shape, int size) throws IOException {
+        Path path = createTempFile(".krss");
+        generator(shape, size).writeKRSS(path);
+
+        return path;
+    }
+
+    /**
+     * Writes an ontology of the given shape and size to a temporary OWL file in functional syntax, deleted when the JVM
+     * exits.
+     */
+    static Path writeOWL(Shape shape, int size) throws IOException {
+        Path path = createTempFile(".owl");
+        generator(shape, size).writeOWL(path);
+
+        return path;
+    }
+
+    static KRSSServiceContext loadKRSS(Shape shape, int size) throws IOException {
+        KRSSServiceContext krssServiceContext = new KRSSServiceContext();
+        krssServiceContext.init(writeKRSS(shape, size).toString());
+
+        return krssServiceContext;
+    }
+
+    static OWLServiceContext loadOWL(Shape shape, int size) throws IOException {
+        OWLServiceContext owlServiceContext = new OWLServiceContext();
+        owlServiceContext.init(writeOWL(shape, size).toString());
+
+        return owlServiceContext;
+    }
+
+    static Tree<Set<String>> constructKRSSTree(KRSSServiceContext krssServiceContext, String conceptName) {
+        ConceptDefinitionUnfolderKRSSSyntax unfolder = new ConceptDefinitionUnfolderKRSSSyntax(krssServiceContext);
+        String unfolded = unfolder.unfoldConceptDefinitionString(conceptName);
+
+        return new TreeBuilder().constructAccordingToKRSSSyntax(unfolder.getUnfoldedConceptMap(), conceptName, unfolded);
+    }
+
+    static Tree<Set<String>> constructOWLTree(OWLServiceContext owlServiceContext, String conceptName) {
+        ConceptDefinitionUnfolderManchesterSyntax unfolder = new ConceptDefinitionUnfolderManchesterSyntax(owlServiceContext);
+        String unfolded = unfolder.unfoldConceptDefinitionString(conceptName);
+
+        return new TreeBuilder().constructAccordingToManchesterSyntax(unfolder.getUnfoldedConceptMap(), conceptName, unfolded);
+    }
+
+    static IReasoner createReasoner(ImplementationMethod method, PreferenceProfile preferenceProfile) {
+        if (method == ImplementationMethod.DYNAMIC_SIM) {
+            return new DynamicProgrammingSimReasonerImpl(preferenceProfile);
+        } else if (method == ImplementationMethod.DYNAMIC_SIMPI) {
+            return new DynamicProgrammingSimPiReasonerImpl(preferenceProfile);
+        } else if (method == ImplementationMethod.TOPDOWN_SIM) {
+            return new TopDownSimReasonerImpl(preferenceProfile);
+        } else {
+            return new TopDownSimPiReasonerImpl(preferenceProfile);
+        }
+    }
+}
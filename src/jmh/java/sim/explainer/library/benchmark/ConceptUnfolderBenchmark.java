@@ -0,0 +1,60 @@
+package sim.explainer.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.OWLServiceContext;
+import sim.explainer.library.framework.unfolding.ConceptDefinitionUnfolderKRSSSyntax;
+import sim.explainer.library.framework.unfolding.ConceptDefinitionUnfolderManchesterSyntax;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the unfolding of a concept definition by both concept unfolders. Unfolders record the definitions they
+ * have unfolded, hence every invocation starts with a fresh unfolder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConceptUnfolderBenchmark {
+
+    @Param({"DEEP", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+
+    @Param({"4", "16", "64"})
+    private int size;
+
+    private String conceptName;
+    private KRSSServiceContext krssServiceContext;
+    private OWLServiceContext owlServiceContext;
+
+    @Setup
+    public void setUp() throws IOException {
+        conceptName = BenchmarkFixtures.concept(shape, size, 0);
+        krssServiceContext = BenchmarkFixtures.loadKRSS(shape, size);
+        owlServiceContext = BenchmarkFixtures.loadOWL(shape, size);
+    }
+
+    @Benchmark
+    public String unfoldKRSSSyntax() {
+        return new ConceptDefinitionUnfolderKRSSSyntax(krssServiceContext).unfoldConceptDefinitionString(conceptName);
+    }
+
+    @Benchmark
+    public String unfoldManchesterSyntax() {
+        return new ConceptDefinitionUnfolderManchesterSyntax(owlServiceContext).unfoldConceptDefinitionString(conceptName);
+    }
+}
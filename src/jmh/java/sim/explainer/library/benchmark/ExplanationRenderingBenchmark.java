@@ -0,0 +1,92 @@
+package sim.explainer.library.benchmark;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.enumeration.ReasoningDirectionConstant;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.explainer.BacktraceTable;
+import sim.explainer.library.framework.reasoner.IReasoner;
+import sim.explainer.library.framework.unfolding.SuperRoleUnfolderKRSSSyntax;
+import sim.explainer.library.service.ExplanationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering the explanation of a measured concept pair as JSON and as an ASCII tree, and rendering the
+ * description tree of one of its concepts. The natural language conversion is left out as it calls the OpenAI API.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExplanationRenderingBenchmark {
+
+    @Param({"DYNAMIC_SIMPI", "TOPDOWN_SIMPI"})
+    private ImplementationMethod method;
+
+    @Param({"DEEP", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+
+    @Param({"4", "16", "64"})
+    private int size;
+
+    private String conceptName;
+    private ExplanationService explanationService;
+
+    @Setup
+    public void setUp() throws IOException {
+        KRSSServiceContext krssServiceContext = BenchmarkFixtures.loadKRSS(shape, size);
+        conceptName = BenchmarkFixtures.concept(shape, size, 0);
+        Tree<Set<String>> tree1 = BenchmarkFixtures.constructKRSSTree(krssServiceContext, conceptName);
+        Tree<Set<String>> tree2 = BenchmarkFixtures.constructKRSSTree(krssServiceContext, BenchmarkFixtures.concept(shape, size, 1));
+
+        IReasoner reasoner = BenchmarkFixtures.createReasoner(method, new PreferenceProfile().snapshot());
+        reasoner.setRoleUnfoldingStrategy(new SuperRoleUnfolderKRSSSyntax(krssServiceContext));
+
+        BigDecimal forward = reasoner.measureDirectedSimilarity(tree1, tree2);
+        BacktraceTable forwardBacktraceTable = reasoner.getBacktraceTable();
+        BigDecimal backward = reasoner.measureDirectedSimilarity(tree2, tree1);
+        BacktraceTable backwardBacktraceTable = reasoner.getBacktraceTable();
+
+        explanationService = new ExplanationService(forward.add(backward).divide(new BigDecimal("2")), forwardBacktraceTable, backwardBacktraceTable);
+    }
+
+    @Benchmark
+    public JSONObject explanationAsJson() {
+        JSONObject result = new JSONObject();
+        result.put("similarity", explanationService.getSimilarity());
+        result.put("forward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.FORWARD));
+        result.put("backward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.BACKWARD));
+
+        return result;
+    }
+
+    @Benchmark
+    public String explanationTree() {
+        return explanationService.explanationTree(ReasoningDirectionConstant.FORWARD)
+                + explanationService.explanationTree(ReasoningDirectionConstant.BACKWARD);
+    }
+
+    @Benchmark
+    public String treeHierarchy() {
+        return explanationService.treeHierarchy(conceptName);
+    }
+}
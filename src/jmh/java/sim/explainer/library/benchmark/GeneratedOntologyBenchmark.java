@@ -0,0 +1,125 @@
+package sim.explainer.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sim.explainer.library.SimExplainer;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.reasoner.IReasoner;
+import sim.explainer.library.framework.unfolding.CachingRoleUnfolder;
+import sim.explainer.library.framework.unfolding.IRoleUnfolder;
+import sim.explainer.library.framework.unfolding.SuperRoleUnfolderKRSSSyntax;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every implementation method on random concept pairs of ontologies and preference profiles generated by
+ * {@link SyntheticOntologyGenerator}. Every invocation measures the next pair of a fixed sequence drawn from the seed,
+ * so that runs with the same parameters measure the same pairs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratedOntologyBenchmark {
+
+    private static final int PAIRS = 256;
+
+    @Param({"DYNAMIC_SIM", "DYNAMIC_SIMPI", "TOPDOWN_SIM", "TOPDOWN_SIMPI"})
+    private ImplementationMethod method;
+
+    @Param({"1"})
+    private long seed;
+
+    @Param({"1000"})
+    private int concepts;
+
+    @Param({"2", "4", "6"})
+    private int depth;
+
+    @Param({"2", "4"})
+    private int branching;
+
+    @Param({"0.8"})
+    private double sharing;
+
+    @Param({"0.2"})
+    private double density;
+
+    private final List<Tree<Set<String>>> trees1 = new ArrayList<Tree<Set<String>>>();
+    private final List<Tree<Set<String>>> trees2 = new ArrayList<Tree<Set<String>>>();
+    private IRoleUnfolder roleUnfolder;
+    private PreferenceProfile preferenceProfile;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(seed)
+                .setConceptCount(concepts)
+                .setPrimitiveConceptCount(Math.max(1, concepts / 2))
+                .setRoleCount(Math.max(1, concepts / 20))
+                .setDepth(depth)
+                .setBranching(branching)
+                .setSharing(sharing)
+                .setProfileDensity(density);
+
+        // Files registered for deletion later are deleted first, hence the directory is registered before its files.
+        Path directory = Files.createTempDirectory("sim-explainer-benchmark");
+        directory.toFile().deleteOnExit();
+
+        Path ontology = directory.resolve("ontology.krss");
+        generator.writeKRSS(ontology);
+        generator.writePreferenceProfile(directory);
+        ontology.toFile().deleteOnExit();
+        for (String file : generator.generatePreferenceProfile().keySet()) {
+            directory.resolve(file).toFile().deleteOnExit();
+        }
+
+        KRSSServiceContext krssServiceContext = new KRSSServiceContext();
+        krssServiceContext.init(ontology.toString());
+
+        Random random = new Random(seed);
+        for (int i = 0; i < PAIRS; i++) {
+            trees1.add(BenchmarkFixtures.constructKRSSTree(krssServiceContext, "C" + random.nextInt(concepts)));
+            trees2.add(BenchmarkFixtures.constructKRSSTree(krssServiceContext, "C" + random.nextInt(concepts)));
+        }
+
+        roleUnfolder = new CachingRoleUnfolder(new SuperRoleUnfolderKRSSSyntax(krssServiceContext), krssServiceContext);
+        preferenceProfile = new SimExplainer(directory.toString()).getPreferenceProfileSnapshot();
+    }
+
+    @Benchmark
+    public BigDecimal measureSimilarity() {
+        int pair = next;
+        next = (next + 1) % PAIRS;
+
+        IReasoner reasoner = BenchmarkFixtures.createReasoner(method, preferenceProfile);
+        reasoner.setRoleUnfoldingStrategy(roleUnfolder);
+
+        BigDecimal forward = reasoner.measureDirectedSimilarity(trees1.get(pair), trees2.get(pair));
+        BigDecimal backward = reasoner.measureDirectedSimilarity(trees2.get(pair), trees1.get(pair));
+
+        return forward.add(backward);
+    }
+}
@@ -0,0 +1,62 @@
+package sim.explainer.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.OWLServiceContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading an ontology file into a fresh service context, i.e., {@code KRSSServiceContext.init}, which reads
+ * the file with {@code readKRSSFile}, and {@code OWLServiceContext.init}, which loads it with OWLAPI.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OntologyLoadingBenchmark {
+
+    @Param({"DEEP", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+
+    @Param({"16", "256", "1024"})
+    private int size;
+
+    private String krssFilePath;
+    private String owlFilePath;
+
+    @Setup
+    public void setUp() throws IOException {
+        krssFilePath = BenchmarkFixtures.writeKRSS(shape, size).toString();
+        owlFilePath = BenchmarkFixtures.writeOWL(shape, size).toString();
+    }
+
+    @Benchmark
+    public KRSSServiceContext readKRSSFile() {
+        KRSSServiceContext krssServiceContext = new KRSSServiceContext();
+        krssServiceContext.init(krssFilePath);
+
+        return krssServiceContext;
+    }
+
+    @Benchmark
+    public OWLServiceContext initOWLServiceContext() {
+        OWLServiceContext owlServiceContext = new OWLServiceContext();
+        owlServiceContext.init(owlFilePath);
+
+        return owlServiceContext;
+    }
+}
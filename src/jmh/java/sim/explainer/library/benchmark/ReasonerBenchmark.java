@@ -0,0 +1,74 @@
+package sim.explainer.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.reasoner.IReasoner;
+import sim.explainer.library.framework.unfolding.CachingRoleUnfolder;
+import sim.explainer.library.framework.unfolding.IRoleUnfolder;
+import sim.explainer.library.framework.unfolding.SuperRoleUnfolderKRSSSyntax;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures both directions of the similarity between two prebuilt description trees with every implementation
+ * method, i.e., the reasoning alone without unfolding, tree construction or caching.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReasonerBenchmark {
+
+    @Param({"DYNAMIC_SIM", "DYNAMIC_SIMPI", "TOPDOWN_SIM", "TOPDOWN_SIMPI"})
+    private ImplementationMethod method;
+
+    @Param({"DEEP", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+
+    @Param({"4", "16", "64"})
+    private int size;
+
+    private Tree<Set<String>> tree1;
+    private Tree<Set<String>> tree2;
+    private IRoleUnfolder roleUnfolder;
+    private PreferenceProfile preferenceProfile;
+
+    @Setup
+    public void setUp() throws IOException {
+        KRSSServiceContext krssServiceContext = BenchmarkFixtures.loadKRSS(shape, size);
+
+        tree1 = BenchmarkFixtures.constructKRSSTree(krssServiceContext, BenchmarkFixtures.concept(shape, size, 0));
+        tree2 = BenchmarkFixtures.constructKRSSTree(krssServiceContext, BenchmarkFixtures.concept(shape, size, 1));
+        roleUnfolder = new CachingRoleUnfolder(new SuperRoleUnfolderKRSSSyntax(krssServiceContext), krssServiceContext);
+        preferenceProfile = new PreferenceProfile().snapshot();
+    }
+
+    @Benchmark
+    public BigDecimal measureSimilarity() {
+        IReasoner reasoner = BenchmarkFixtures.createReasoner(method, preferenceProfile);
+        reasoner.setRoleUnfoldingStrategy(roleUnfolder);
+
+        BigDecimal forward = reasoner.measureDirectedSimilarity(tree1, tree2);
+        BigDecimal backward = reasoner.measureDirectedSimilarity(tree2, tree1);
+
+        return forward.add(backward);
+    }
+}
@@ -0,0 +1,513 @@
+package sim.explainer.library.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates random ELH TBoxes, in KRSS and in OWL functional syntax, together with matching preference profile files.
+ * Everything generated is determined by the seed and the parameters, so the same ontology can be generated again
+ * instead of being shared.
+ *
+ * A generated TBox defines the concepts {@code C0}, {@code C1}, ... as conjunctions of one of the primitive concepts
+ * {@code P0}, {@code P1}, ... and between one and {@code branching} existential restrictions over the roles
+ * {@code r0}, {@code r1}, .... Concept {@code Ci} unfolds to a description tree of depth {@code 1 + i % depth}: the
+ * fillers of its restrictions are either a defined concept one level below, which is then shared with the other
+ * definitions referring to it, or an anonymous description of that level, with the given sharing probability. The
+ * roles form a hierarchy of the given depth, in which every role below the top level is a sub-role of a role one
+ * level above.
+ *
+ * Anonymous descriptions are generated afresh for every filler, hence a definition of depth d has up to
+ * {@code branching^d} nodes unless most fillers are shared.
+ *
+ * The generator ships with the benchmarks rather than with the library; {@link #main(String[])} writes an ontology and
+ * its preference profile to a directory, e.g., to run {@code SimExplainer} on it outside of JMH.
+ */
+public class SyntheticOntologyGenerator {
+
+    private static final String ONTOLOGY_IRI = "http://example.org/synthetic";
+
+    private final long seed;
+
+    private int conceptCount = 100;
+    private int primitiveConceptCount = 50;
+    private int roleCount = 10;
+    private int depth = 3;
+    private int branching = 3;
+    private int roleHierarchyDepth = 2;
+    private double sharing = 0.5;
+    private double profileDensity = 0.2;
+
+    /**
+     * Constructs a {@code SyntheticOntologyGenerator} with 100 concepts, 50 primitive concepts, 10 roles, a depth of
+     * 3, a branching factor of 3, a role hierarchy depth of 2, a sharing probability of 0.5 and a preference profile
+     * density of 0.2.
+     *
+     * @param seed the seed of the random choices
+     */
+    public SyntheticOntologyGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticOntologyGenerator <outputDirectory> [--seed=N] [--concepts=N] [--primitives=N] [--roles=N] [--depth=N] [--branching=N] [--role-depth=N] [--sharing=P] [--density=P] [--format=krss|owl]");
+            System.exit(2);
+        }
+
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+
+        SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(Long.parseLong(options.getOrDefault("seed", "0")));
+        if (options.containsKey("concepts")) {
+            generator.setConceptCount(Integer.parseInt(options.get("concepts")));
+        }
+        if (options.containsKey("primitives")) {
+            generator.setPrimitiveConceptCount(Integer.parseInt(options.get("primitives")));
+        }
+        if (options.containsKey("roles")) {
+            generator.setRoleCount(Integer.parseInt(options.get("roles")));
+        }
+        if (options.containsKey("depth")) {
+            generator.setDepth(Integer.parseInt(options.get("depth")));
+        }
+        if (options.containsKey("branching")) {
+            generator.setBranching(Integer.parseInt(options.get("branching")));
+        }
+        if (options.containsKey("role-depth")) {
+            generator.setRoleHierarchyDepth(Integer.parseInt(options.get("role-depth")));
+        }
+        if (options.containsKey("sharing")) {
+            generator.setSharing(Double.parseDouble(options.get("sharing")));
+        }
+        if (options.containsKey("density")) {
+            generator.setProfileDensity(Double.parseDouble(options.get("density")));
+        }
+
+        Path directory = Paths.get(args[0]);
+        if (options.getOrDefault("format", "krss").equalsIgnoreCase("owl")) {
+            generator.writeOWL(directory.resolve("ontology.owl"));
+        } else {
+            generator.writeKRSS(directory.resolve("ontology.krss"));
+        }
+        generator.writePreferenceProfile(directory);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void checkPositive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Unable to set " + name + " as " + name + "[" + value + "] is not positive.");
+        }
+    }
+
+    private static void checkProbability(String name, double value) {
+        if (!(value >= 0 && value <= 1)) {
+            throw new IllegalArgumentException("Unable to set " + name + " as " + name + "[" + value + "] is not in [0, 1].");
+        }
+    }
+
+    private static BigDecimal randomDecimal(Random random, double min, double max) {
+        return BigDecimal.valueOf(min + random.nextDouble() * (max - min)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void write(Path path, String content) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write generated file to path[" + path + "].", e);
+        }
+    }
+
+    /**
+     * Returns the parent of every role below the top level of the role hierarchy, keyed by role index.
+     */
+    private Map<Integer, Integer> generateRoleHierarchy(Random random) {
+        Map<Integer, Integer> parents = new HashMap<>();
+
+        for (int role = 0; role < roleCount; role++) {
+            int level = role % roleHierarchyDepth;
+            if (level == 0) {
+                continue;
+            }
+
+            // Roles of the level above have the indices role - 1, role - 1 - roleHierarchyDepth, ... down to 0.
+            int candidates = (role - 1 - (level - 1)) / roleHierarchyDepth + 1;
+            parents.put(role, role - 1 - random.nextInt(candidates) * roleHierarchyDepth);
+        }
+
+        return parents;
+    }
+
+    private Description generateDescription(Random random, int level, List<List<Integer>> conceptsByLevel) {
+        Description description = new Description("P" + random.nextInt(primitiveConceptCount));
+
+        int existentials = 1 + random.nextInt(branching);
+        for (int i = 0; i < existentials; i++) {
+            String role = "r" + random.nextInt(roleCount);
+
+            Existential existential;
+            if (level == 1) {
+                existential = new Existential(role, "P" + random.nextInt(primitiveConceptCount), null);
+            } else if (random.nextDouble() < sharing && !conceptsByLevel.get(level - 1).isEmpty()) {
+                List<Integer> candidates = conceptsByLevel.get(level - 1);
+                existential = new Existential(role, "C" + candidates.get(random.nextInt(candidates.size())), null);
+            } else {
+                existential = new Existential(role, null, generateDescription(random, level - 1, conceptsByLevel));
+            }
+
+            // OWLAPI merges equal conjuncts, hence a restriction is not repeated within a description.
+            if (existential.filler == null || description.fillers.add(existential.role + " " + existential.filler)) {
+                description.existentials.add(existential);
+            }
+        }
+
+        return description;
+    }
+
+    private List<Description> generateDefinitions(Random random) {
+        List<List<Integer>> conceptsByLevel = new ArrayList<>();
+        for (int level = 0; level <= depth; level++) {
+            conceptsByLevel.add(new ArrayList<Integer>());
+        }
+
+        List<Description> definitions = new ArrayList<>();
+        for (int concept = 0; concept < conceptCount; concept++) {
+            definitions.add(null);
+        }
+
+        // Concepts are defined level by level, so that every shared filler is defined before it is referred to.
+        for (int level = 1; level <= depth; level++) {
+            for (int concept = level - 1; concept < conceptCount; concept += depth) {
+                definitions.set(concept, generateDescription(random, level, conceptsByLevel));
+                conceptsByLevel.get(level).add(concept);
+            }
+        }
+
+        return definitions;
+    }
+
+    private String generateSimilarities(Random random, String prefix, int count) {
+        StringBuilder similarities = new StringBuilder();
+        if (count < 2) {
+            return similarities.toString();
+        }
+
+        long pairs = Math.min(Math.round(profileDensity * count), (long) count * (count - 1) / 2);
+        Set<String> seen = new HashSet<>();
+        while (seen.size() < pairs) {
+            int first = random.nextInt(count);
+            int second = random.nextInt(count);
+            if (first == second || !seen.add(Math.min(first, second) + " " + Math.max(first, second))) {
+                continue;
+            }
+
+            similarities.append(prefix).append(first).append(' ').append(prefix).append(second).append(' ')
+                    .append(randomDecimal(random, 0.05, 0.95)).append('\n');
+        }
+
+        return similarities.toString();
+    }
+
+    private static void appendKRSS(StringBuilder builder, Description description) {
+        builder.append("(and ").append(description.primitive);
+        for (Existential existential : description.existentials) {
+            builder.append(" (some ").append(existential.role).append(' ');
+            if (existential.filler != null) {
+                builder.append(existential.filler);
+            } else {
+                appendKRSS(builder, existential.description);
+            }
+            builder.append(')');
+        }
+        builder.append(')');
+    }
+
+    private static void appendOWL(StringBuilder builder, Description description) {
+        builder.append("ObjectIntersectionOf(:").append(description.primitive);
+        for (Existential existential : description.existentials) {
+            builder.append(" ObjectSomeValuesFrom(:").append(existential.role).append(' ');
+            if (existential.filler != null) {
+                builder.append(':').append(existential.filler);
+            } else {
+                appendOWL(builder, existential.description);
+            }
+            builder.append(')');
+        }
+        builder.append(')');
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Generates the TBox in KRSS, i.e., as {@code define-primitive-role} and {@code define-concept} forms. Primitive
+     * concepts and the roles at the top of the role hierarchy are left undefined, as in the OWL document: defining
+     * them as {@code (define-primitive-concept P TOP)} or {@code (define-primitive-role r top)} would unfold every
+     * primitive concept to a fresh name, which the preference profile does not refer to, and make every two nodes and
+     * roles share {@code TOP}, respectively {@code top}. Both documents hence yield the same similarities.
+     *
+     * @return the KRSS document
+     */
+    public String generateKRSS() {
+        Random random = new Random(seed);
+        Map<Integer, Integer> roleParents = generateRoleHierarchy(random);
+        List<Description> definitions = generateDefinitions(random);
+
+        StringBuilder builder = new StringBuilder();
+        for (int role = 0; role < roleCount; role++) {
+            if (roleParents.containsKey(role)) {
+                builder.append("(define-primitive-role r").append(role).append(" r").append(roleParents.get(role)).append(")\n");
+            }
+        }
+        for (int concept = 0; concept < conceptCount; concept++) {
+            builder.append("(define-concept C").append(concept).append(' ');
+            appendKRSS(builder, definitions.get(concept));
+            builder.append(")\n");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Generates the same TBox as {@link #generateKRSS()} in OWL functional syntax.
+     *
+     * @return the OWL document
+     */
+    public String generateOWL() {
+        Random random = new Random(seed);
+        Map<Integer, Integer> roleParents = generateRoleHierarchy(random);
+        List<Description> definitions = generateDefinitions(random);
+
+        StringBuilder builder = new StringBuilder("Prefix(:=<" + ONTOLOGY_IRI + "#>)\nOntology(<" + ONTOLOGY_IRI + ">\n");
+        for (int role = 0; role < roleCount; role++) {
+            builder.append("Declaration(ObjectProperty(:r").append(role).append("))\n");
+            if (roleParents.containsKey(role)) {
+                builder.append("SubObjectPropertyOf(:r").append(role).append(" :r").append(roleParents.get(role)).append(")\n");
+            }
+        }
+        for (int primitive = 0; primitive < primitiveConceptCount; primitive++) {
+            builder.append("Declaration(Class(:P").append(primitive).append("))\n");
+        }
+        for (int concept = 0; concept < conceptCount; concept++) {
+            builder.append("Declaration(Class(:C").append(concept).append("))\n");
+            builder.append("EquivalentClasses(:C").append(concept).append(' ');
+            appendOWL(builder, definitions.get(concept));
+            builder.append(")\n");
+        }
+
+        return builder.append(")\n").toString();
+    }
+
+    /**
+     * Generates the preference profile files, keyed by the file names {@code SimExplainer} reads from a preference
+     * profile directory. Every primitive concept and role gets an importance and every role a discount factor with the
+     * profile density as probability, and the density times the number of primitive concepts, respectively roles,
+     * pairs of distinct primitive concepts, respectively roles, get a similarity.
+     *
+     * @return the contents of the preference profile files keyed by file name
+     */
+    public Map<String, String> generatePreferenceProfile() {
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+
+        StringBuilder conceptImportances = new StringBuilder();
+        for (int primitive = 0; primitive < primitiveConceptCount; primitive++) {
+            if (random.nextDouble() < profileDensity) {
+                conceptImportances.append('P').append(primitive).append(' ').append(randomDecimal(random, 0.5, 2)).append('\n');
+            }
+        }
+
+        StringBuilder roleImportances = new StringBuilder();
+        StringBuilder roleDiscountFactors = new StringBuilder();
+        for (int role = 0; role < roleCount; role++) {
+            if (random.nextDouble() < profileDensity) {
+                roleImportances.append('r').append(role).append(' ').append(randomDecimal(random, 0.5, 2)).append('\n');
+            }
+            if (random.nextDouble() < profileDensity) {
+                roleDiscountFactors.append('r').append(role).append(' ').append(randomDecimal(random, 0.1, 0.9)).append('\n');
+            }
+        }
+
+        Map<String, String> files = new HashMap<>();
+        files.put("primitive-concept-importance.txt", conceptImportances.toString());
+        files.put("role-importance.txt", roleImportances.toString());
+        files.put("primitive-concepts-similarity.txt", generateSimilarities(random, "P", primitiveConceptCount));
+        files.put("primitive-roles-similarity.txt", generateSimilarities(random, "r", roleCount));
+        files.put("role-discount-factor.txt", roleDiscountFactors.toString());
+
+        return files;
+    }
+
+    /**
+     * Writes the TBox in KRSS to the given file, creating its directory if needed.
+     *
+     * @param path the path to the KRSS file
+     */
+    public void writeKRSS(Path path) {
+        write(path, generateKRSS());
+    }
+
+    /**
+     * Writes the TBox in OWL functional syntax to the given file, creating its directory if needed.
+     *
+     * @param path the path to the OWL file
+     */
+    public void writeOWL(Path path) {
+        write(path, generateOWL());
+    }
+
+    /**
+     * Writes the preference profile files to the given directory, creating it if needed.
+     *
+     * @param directory the path to the preference profile directory
+     */
+    public void writePreferenceProfile(Path directory) {
+        for (Map.Entry<String, String> file : generatePreferenceProfile().entrySet()) {
+            write(directory.resolve(file.getKey()), file.getValue());
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getConceptCount() {
+        return conceptCount;
+    }
+
+    public SyntheticOntologyGenerator setConceptCount(int conceptCount) {
+        checkPositive("conceptCount", conceptCount);
+        this.conceptCount = conceptCount;
+        return this;
+    }
+
+    public int getPrimitiveConceptCount() {
+        return primitiveConceptCount;
+    }
+
+    public SyntheticOntologyGenerator setPrimitiveConceptCount(int primitiveConceptCount) {
+        checkPositive("primitiveConceptCount", primitiveConceptCount);
+        this.primitiveConceptCount = primitiveConceptCount;
+        return this;
+    }
+
+    public int getRoleCount() {
+        return roleCount;
+    }
+
+    public SyntheticOntologyGenerator setRoleCount(int roleCount) {
+        checkPositive("roleCount", roleCount);
+        this.roleCount = roleCount;
+        return this;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Sets the maximum unfolding depth, i.e., the depth of the description trees of the deepest concepts.
+     */
+    public SyntheticOntologyGenerator setDepth(int depth) {
+        checkPositive("depth", depth);
+        this.depth = depth;
+        return this;
+    }
+
+    public int getBranching() {
+        return branching;
+    }
+
+    /**
+     * Sets the branching factor, i.e., the maximum number of existential restrictions of a description.
+     */
+    public SyntheticOntologyGenerator setBranching(int branching) {
+        checkPositive("branching", branching);
+        this.branching = branching;
+        return this;
+    }
+
+    public int getRoleHierarchyDepth() {
+        return roleHierarchyDepth;
+    }
+
+    /**
+     * Sets the number of levels of the role hierarchy, where 1 means that all roles are unrelated.
+     */
+    public SyntheticOntologyGenerator setRoleHierarchyDepth(int roleHierarchyDepth) {
+        checkPositive("roleHierarchyDepth", roleHierarchyDepth);
+        this.roleHierarchyDepth = roleHierarchyDepth;
+        return this;
+    }
+
+    public double getSharing() {
+        return sharing;
+    }
+
+    /**
+     * Sets the probability that the filler of an existential restriction is a shared defined concept rather than an
+     * anonymous description.
+     */
+    public SyntheticOntologyGenerator setSharing(double sharing) {
+        checkProbability("sharing", sharing);
+        this.sharing = sharing;
+        return this;
+    }
+
+    public double getProfileDensity() {
+        return profileDensity;
+    }
+
+    /**
+     * Sets the density of the preference profile, i.e., the probability that a primitive concept or role gets an
+     * entry, and the number of similarity entries relative to the number of primitive concepts or roles.
+     */
+    public SyntheticOntologyGenerator setProfileDensity(double profileDensity) {
+        checkProbability("profileDensity", profileDensity);
+        this.profileDensity = profileDensity;
+        return this;
+    }
+
+    private static class Description {
+        private final String primitive;
+        private final List<Existential> existentials = new ArrayList<>();
+        private final Set<String> fillers = new HashSet<>();
+
+        private Description(String primitive) {
+            this.primitive = primitive;
+        }
+    }
+
+    private static class Existential {
+        private final String role;
+        private final String filler;
+        private final Description description;
+
+        private Existential(String role, String filler, Description description) {
+            this.role = role;
+            this.filler = filler;
+            this.description = description;
+        }
+    }
+}
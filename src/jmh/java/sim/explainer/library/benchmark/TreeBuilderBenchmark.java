@@ -0,0 +1,76 @@
+package sim.explainer.library.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.OWLServiceContext;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.descriptiontree.TreeBuilder;
+import sim.explainer.library.framework.unfolding.ConceptDefinitionUnfolderKRSSSyntax;
+import sim.explainer.library.framework.unfolding.ConceptDefinitionUnfolderManchesterSyntax;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of a description tree from an already unfolded concept description, i.e., the parsing of
+ * the description in KRSS and in Manchester syntax.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBuilderBenchmark {
+
+    @Param({"DEEP", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+
+    @Param({"4", "16", "64"})
+    private int size;
+
+    private final TreeBuilder treeBuilder = new TreeBuilder();
+
+    private String conceptName;
+    private String krssDescription;
+    private HashMap<String, String> krssMapper;
+    private String manchesterDescription;
+    private HashMap<String, String> manchesterMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        conceptName = BenchmarkFixtures.concept(shape, size, 0);
+
+        KRSSServiceContext krssServiceContext = BenchmarkFixtures.loadKRSS(shape, size);
+        ConceptDefinitionUnfolderKRSSSyntax krssUnfolder = new ConceptDefinitionUnfolderKRSSSyntax(krssServiceContext);
+        krssDescription = krssUnfolder.unfoldConceptDefinitionString(conceptName);
+        krssMapper = krssUnfolder.getUnfoldedConceptMap();
+
+        OWLServiceContext owlServiceContext = BenchmarkFixtures.loadOWL(shape, size);
+        ConceptDefinitionUnfolderManchesterSyntax manchesterUnfolder = new ConceptDefinitionUnfolderManchesterSyntax(owlServiceContext);
+        manchesterDescription = manchesterUnfolder.unfoldConceptDefinitionString(conceptName);
+        manchesterMapper = manchesterUnfolder.getUnfoldedConceptMap();
+    }
+
+    @Benchmark
+    public Tree<Set<String>> constructAccordingToKRSSSyntax() {
+        return treeBuilder.constructAccordingToKRSSSyntax(krssMapper, conceptName, krssDescription);
+    }
+
+    @Benchmark
+    public Tree<Set<String>> constructAccordingToManchesterSyntax() {
+        return treeBuilder.constructAccordingToManchesterSyntax(manchesterMapper, conceptName, manchesterDescription);
+    }
+}
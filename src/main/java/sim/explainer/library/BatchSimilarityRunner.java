@@ -0,0 +1,286 @@
+package sim.explainer.library;
+
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONObject;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scores a file of concept pairs, one pair per line separated by a tab, a comma or spaces, on a pool of threads and
+ * writes one CSV or JSON line per pair, in the order of the input, as soon as the pair and all pairs before it are
+ * scored. The pairs are streamed: only a window of a few pairs per thread is held in memory at a time. Lines that are
+ * empty or start with {@code #} are skipped, and a pair that cannot be scored, e.g., because a concept does not
+ * exist, is written with its error instead of its score.
+ *
+ * Run from the command line with:
+ * <pre>
+ * BatchSimilarityRunner &lt;ontologyPath&gt; &lt;preferenceProfileDirectory|-&gt; &lt;method&gt; &lt;pairsFile&gt;
+ *     [--threads=N] [--format=csv|jsonl] [--output=path] [--explanations]
+ * </pre>
+ * Progress and throughput are reported on stderr every second.
+ */
+public class BatchSimilarityRunner {
+
+    private static final int WINDOW_PER_THREAD = 16;
+
+    /**
+     * The output format.
+     */
+    public enum Format {
+        CSV, JSONL
+    }
+
+    private final SimExplainer explainer;
+    private final ImplementationMethod method;
+    private final int threads;
+    private final Format format;
+    private final boolean explanations;
+
+    private final AtomicLong scored = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Constructs a {@code BatchSimilarityRunner}. Scores alone are measured without retaining anything, while the
+     * explanation of every pair is retained in the explanation cache of the explainer when explanations are written.
+     *
+     * @param explainer the explainer of the loaded ontology
+     * @param method the implementation method to use for similarity calculation
+     * @param threads the number of threads scoring pairs
+     * @param format the output format
+     * @param explanations whether the explanation of every pair is written with its score
+     */
+    public BatchSimilarityRunner(SimExplainer explainer, ImplementationMethod method, int threads, Format format, boolean explanations) {
+        if (explainer == null || method == null || format == null) {
+            throw new JSimPiException("Unable to create batch runner as explainer[" + explainer + "], method[" + method + "] and format[" + format + "] are null.", ErrorCode.Application_IllegalArguments);
+        }
+        if (threads <= 0) {
+            throw new JSimPiException("Unable to create batch runner as threads[" + threads + "] is not positive.", ErrorCode.Application_IllegalArguments);
+        }
+
+        this.explainer = explainer;
+        this.method = method;
+        this.threads = threads;
+        this.format = format;
+        this.explanations = explanations;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: BatchSimilarityRunner <ontologyPath> <preferenceProfileDirectory|-> <method> <pairsFile> [--threads=N] [--format=csv|jsonl] [--output=path] [--explanations]");
+            System.exit(2);
+        }
+
+        Map<String, String> options = new HashMap<>();
+        for (int i = 4; i < args.length; i++) {
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+
+        SimExplainer explainer = new SimExplainer(args[0], null, null, null, null, null);
+        if (!args[1].equals("-")) {
+            explainer.readPreferenceProfileDirectory(args[1]);
+        }
+
+        BatchSimilarityRunner runner = new BatchSimilarityRunner(explainer,
+                ImplementationMethod.valueOf(args[2].toUpperCase(Locale.ROOT)),
+                Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Format.valueOf(options.getOrDefault("format", "csv").toUpperCase(Locale.ROOT)),
+                options.containsKey("explanations"));
+
+        String output = options.get("output");
+        try (BufferedReader pairs = Files.newBufferedReader(Paths.get(args[3]), StandardCharsets.UTF_8);
+             Writer writer = output != null
+                     ? Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)
+                     : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            runner.run(pairs, writer, System.err);
+        }
+
+        System.exit(runner.getFailedCount() > 0 ? 1 : 0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (StringUtils.containsAny(value, ",\"\n\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        return value;
+    }
+
+    private String header() {
+        return format == Format.CSV ? "concept1,concept2,similarity,error" + (explanations ? ",explanation" : "") + "\n" : "";
+    }
+
+    private String format(String concept1, String concept2, BigDecimal similarity, JSONObject explanation, String error) {
+        if (format == Format.JSONL) {
+            JSONObject line = new JSONObject().put("concept1", concept1).put("concept2", concept2);
+            if (error != null) {
+                line.put("error", error);
+            } else {
+                line.put("similarity", similarity);
+            }
+            if (explanation != null) {
+                line.put("explanation", explanation);
+            }
+
+            return line + "\n";
+        }
+
+        StringBuilder line = new StringBuilder()
+                .append(csv(concept1)).append(',').append(csv(concept2)).append(',')
+                .append(similarity != null ? similarity.toPlainString() : "").append(',')
+                .append(csv(error));
+        if (explanations) {
+            line.append(',').append(csv(explanation != null ? explanation.toString() : null));
+        }
+
+        return line.append('\n').toString();
+    }
+
+    private String score(String line) {
+        String[] concepts = StringUtils.split(line, "\t, ");
+
+        if (concepts.length != 2) {
+            failed.incrementAndGet();
+            return format(line, null, null, null, "Expected two concepts");
+        }
+
+        try {
+            BigDecimal similarity;
+            JSONObject explanation = null;
+            if (explanations) {
+                // the explanation of the very result measured, which a concurrent pair cannot replace in between
+                explanation = explainer.getExplanationAsJson(method, concepts[0], concepts[1]);
+                similarity = explanation.getBigDecimal("similarity");
+            } else {
+                similarity = explainer.measure(method, concepts[0], concepts[1], explainer.getPreferenceProfileSnapshot()).getSimilarity();
+            }
+
+            scored.incrementAndGet();
+            return format(concepts[0], concepts[1], similarity, explanation, null);
+        } catch (JSimPiException e) {
+            failed.incrementAndGet();
+            return format(concepts[0], concepts[1], null, null, e.getMessage());
+        }
+    }
+
+    private void report(PrintStream progress, long startNanos, String prefix) {
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-9);
+        long pairs = scored.get() + failed.get();
+
+        progress.printf(Locale.ROOT, "%s%d pairs (%d failed) in %.1f s, %.1f pairs/s%n", prefix, pairs, failed.get(), seconds, pairs / seconds);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Scores every pair of the reader and writes the results to the writer, in the order of the pairs.
+     *
+     * @param pairs the reader of the pairs, one per line
+     * @param writer the writer of the results
+     * @param progress the stream progress is reported on every second, or {@code null}
+     * @return the number of pairs read
+     * @throws IOException if the pairs cannot be read or the results cannot be written
+     */
+    public long run(BufferedReader pairs, Writer writer, PrintStream progress) throws IOException {
+        if (pairs == null || writer == null) {
+            throw new JSimPiException("Unable to run batch as pairs[" + pairs + "] and writer[" + writer + "] are null.", ErrorCode.Application_IllegalArguments);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sim-explainer-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sim-explainer-batch-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long startNanos = System.nanoTime();
+        if (progress != null) {
+            reporter.scheduleAtFixedRate(() -> report(progress, startNanos, ""), 1, 1, TimeUnit.SECONDS);
+        }
+
+        long count = 0;
+        Deque<Future<String>> window = new ArrayDeque<>();
+        try {
+            writer.write(header());
+
+            String line;
+            while ((line = pairs.readLine()) != null) {
+                String pair = line.trim();
+                if (pair.isEmpty() || pair.startsWith("#")) {
+                    continue;
+                }
+
+                window.add(pool.submit(() -> score(pair)));
+                count++;
+
+                while (window.size() >= threads * WINDOW_PER_THREAD) {
+                    writer.write(window.poll().get());
+                }
+            }
+
+            while (!window.isEmpty()) {
+                writer.write(window.poll().get());
+            }
+            writer.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSimPiException("Interrupted while scoring pairs.", e, ErrorCode.Application_InterruptedException);
+        } catch (ExecutionException e) {
+            throw new JSimPiException("Unable to score pairs.", e.getCause(), ErrorCode.Application_ExecutionException);
+        } finally {
+            pool.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        if (progress != null) {
+            report(progress, startNanos, "Done: ");
+        }
+
+        return count;
+    }
+
+    public long getScoredCount() {
+        return scored.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+}
@@ -0,0 +1,230 @@
+package sim.explainer.library;
+
+import sim.explainer.library.enumeration.FileTypeConstant;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.service.ValidationService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps several loaded ontologies side by side in one process, each in its own {@code SimExplainer}, and addresses
+ * queries to them by ontology ID. Every explainer interns the names of its similarity records in a symbol table of its
+ * own, which is dropped together with the ontology, and the ontologies of one directory share the preference profile
+ * files of that directory.
+ */
+public class OntologyRegistry {
+
+    private final ConcurrentHashMap<String, SimExplainer> explainers = new ConcurrentHashMap<>();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String ontologyId(Path ontologyFile) {
+        String fileName = ontologyFile.getFileName().toString();
+
+        return fileName.substring(0, fileName.lastIndexOf('.'));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Loads an ontology file and registers it under the given ID, replacing the ontology registered under that ID.
+     *
+     * @param ontologyId the ontology ID
+     * @param ontologyPath the path to the ontology file
+     * @param preferenceProfileDirectoryPath the path to the directory containing the preference profile files, or
+     *                                       {@code null}
+     * @return the explainer of the ontology
+     * @throws JSimPiException if any argument is invalid or if the ontology cannot be loaded
+     */
+    public SimExplainer register(String ontologyId, String ontologyPath, String preferenceProfileDirectoryPath) {
+        if (ontologyId == null || ontologyPath == null) {
+            throw new JSimPiException("Unable to register ontology as ontologyId[" + ontologyId + "] and ontologyPath[" + ontologyPath + "] are null.", ErrorCode.Application_IllegalArguments);
+        }
+
+        return register(ontologyId, ontologyPath, preferenceProfileDirectoryPath == null ? null : SimExplainer.readPreferenceProfile(preferenceProfileDirectoryPath));
+    }
+
+    /**
+     * Loads an ontology file and registers it under the given ID, replacing the ontology registered under that ID. The
+     * explainer starts with an empty overlay of the given profile, so that ontologies registered with the same profile
+     * share its entries.
+     *
+     * @param ontologyId the ontology ID
+     * @param ontologyPath the path to the ontology file
+     * @param preferenceProfile the preference profile, e.g., one returned by
+     *                          {@link SimExplainer#readPreferenceProfile(String)}, or {@code null}
+     * @return the explainer of the ontology
+     * @throws JSimPiException if any argument is invalid or if the ontology cannot be loaded
+     */
+    public SimExplainer register(String ontologyId, String ontologyPath, PreferenceProfile preferenceProfile) {
+        if (ontologyId == null || ontologyPath == null) {
+            throw new JSimPiException("Unable to register ontology as ontologyId[" + ontologyId + "] and ontologyPath[" + ontologyPath + "] are null.", ErrorCode.Application_IllegalArguments);
+        }
+
+        SimExplainer explainer = new SimExplainer(ontologyPath, null, null, null, null, null);
+        if (preferenceProfile != null) {
+            explainer.usePreferenceProfile(preferenceProfile);
+        }
+
+        register(ontologyId, explainer);
+
+        return explainer;
+    }
+
+    /**
+     * Registers a loaded explainer under the given ID, replacing the ontology registered under that ID.
+     *
+     * @param ontologyId the ontology ID
+     * @param explainer the explainer
+     */
+    public void register(String ontologyId, SimExplainer explainer) {
+        if (ontologyId == null || explainer == null) {
+            throw new JSimPiException("Unable to register ontology as ontologyId[" + ontologyId + "] and explainer[" + explainer + "] are null.", ErrorCode.Application_IllegalArguments);
+        }
+
+        explainers.put(ontologyId, explainer);
+    }
+
+    /**
+     * Loads every ontology file of a directory, i.e., every {@code .krss}, {@code .owl} and {@code .owx} file, with the
+     * preference profile files of that directory, and registers each of them under its file name without extension.
+     * The preference profile files are read once and their entries are shared by all ontologies of the directory.
+     *
+     * @param directoryPath the path to the directory containing the ontology and preference profile files
+     * @return the IDs of the registered ontologies
+     * @throws JSimPiException if the directory cannot be read, if two ontology files have the same ID, or if any
+     *                         ontology cannot be loaded
+     */
+    public Set<String> registerDirectory(String directoryPath) {
+        if (directoryPath == null) {
+            throw new JSimPiException("Unable to register directory as directoryPath is null.", ErrorCode.Application_IllegalArguments);
+        }
+
+        List<Path> ontologyFiles;
+        try (Stream<Path> stream = Files.walk(Paths.get(directoryPath))) {
+            ontologyFiles = stream.filter(Files::isRegularFile)
+                    .filter(file -> ValidationService.checkOWLandKRSSFile(file.toFile()) != FileTypeConstant.INVALID_FILE)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+        }
+
+        Map<String, Path> ontologyFilesById = new LinkedHashMap<>();
+        for (Path ontologyFile : ontologyFiles) {
+            Path existing = ontologyFilesById.put(ontologyId(ontologyFile), ontologyFile);
+            if (existing != null) {
+                throw new JSimPiException("Unable to register directory as ontology files[" + existing + "] and [" + ontologyFile + "] have the same ID.", ErrorCode.Application_IllegalArguments);
+            }
+        }
+
+        PreferenceProfile preferenceProfile = SimExplainer.readPreferenceProfile(directoryPath);
+        for (Map.Entry<String, Path> entry : ontologyFilesById.entrySet()) {
+            register(entry.getKey(), entry.getValue().toAbsolutePath().toString(), preferenceProfile);
+        }
+
+        return ontologyFilesById.keySet();
+    }
+
+    /**
+     * Removes the ontology registered under the given ID.
+     *
+     * @param ontologyId the ontology ID
+     * @return the explainer of the removed ontology, or {@code null} if no ontology is registered under that ID
+     */
+    public SimExplainer unregister(String ontologyId) {
+        return ontologyId == null ? null : explainers.remove(ontologyId);
+    }
+
+    /**
+     * Returns the explainer of the ontology registered under the given ID.
+     *
+     * @param ontologyId the ontology ID
+     * @return the explainer
+     * @throws JSimPiException if no ontology is registered under that ID
+     */
+    public SimExplainer get(String ontologyId) {
+        SimExplainer explainer = ontologyId == null ? null : explainers.get(ontologyId);
+
+        if (explainer == null) {
+            throw new JSimPiException("Unable to find ontology as ontologyId[" + ontologyId + "] is not registered.", ErrorCode.Application_IllegalArguments);
+        }
+
+        return explainer;
+    }
+
+    /**
+     * Calculates the similarity between two concepts of the ontology registered under the given ID.
+     *
+     * @param ontologyId the ontology ID
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the similarity score between the two concepts
+     */
+    public BigDecimal similarity(String ontologyId, ImplementationMethod optionVal, String concept1, String concept2) {
+        return get(ontologyId).similarity(optionVal, concept1, concept2);
+    }
+
+    /**
+     * Runs a query on the explainer of the ontology registered under the given ID.
+     *
+     * @param ontologyId the ontology ID
+     * @param query the query
+     * @param <T> the type of the result
+     * @return the result of the query
+     */
+    public <T> T query(String ontologyId, Function<SimExplainer, T> query) {
+        return query.apply(get(ontologyId));
+    }
+
+    public Set<String> getOntologyIds() {
+        return new TreeSet<>(explainers.keySet());
+    }
+
+    /**
+     * Returns the estimated resident size of every registered ontology.
+     *
+     * @return the resident sizes keyed by ontology ID
+     */
+    public Map<String, SimExplainer.ResidentSize> getResidentSizes() {
+        Map<String, SimExplainer.ResidentSize> sizes = new TreeMap<>();
+
+        for (Map.Entry<String, SimExplainer> entry : explainers.entrySet()) {
+            sizes.put(entry.getKey(), entry.getValue().getResidentSize());
+        }
+
+        return sizes;
+    }
+
+    /**
+     * Returns the estimated resident size of all registered ontologies together.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getTotalResidentBytes() {
+        long bytes = 0;
+
+        for (SimExplainer explainer : explainers.values()) {
+            bytes += explainer.getResidentSize().getTotalBytes();
+        }
+
+        return bytes;
+    }
+}
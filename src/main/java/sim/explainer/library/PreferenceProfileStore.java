@@ -0,0 +1,340 @@
+package sim.explainer.library;
+
+import org.json.JSONObject;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.enumeration.ReasoningDirectionConstant;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.explainer.ExplanationRecord;
+import sim.explainer.library.framework.explainer.SimilarityResult;
+import sim.explainer.library.service.ExplanationCacheService;
+import sim.explainer.library.service.ExplanationService;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps named preference profiles side by side against one loaded ontology and addresses queries to them by profile
+ * ID. Every profile has its own cache of measured similarities and explanations, while all of them share the
+ * description trees, role closures, compiled ontology and symbol table of the {@code SimExplainer}. The preference
+ * profile of the explainer itself is left untouched.
+ *
+ * The caches of all profiles together are bounded by an estimated heap budget. Once it is exceeded, the caches of the
+ * least recently queried profiles are cleared; the profiles themselves stay registered and their results are measured
+ * again on demand.
+ */
+public class PreferenceProfileStore {
+
+    private final SimExplainer explainer;
+    private final long maxDerivedBytes;
+
+    private final ConcurrentHashMap<String, StoredProfile> profiles = new ConcurrentHashMap<>();
+
+    // the running estimate of the caches of all profiles, which every cache adds to and deducts from
+    private final AtomicLong derivedBytes = new AtomicLong();
+
+    /**
+     * Constructs a {@code PreferenceProfileStore} whose caches share the default explanation cache budget.
+     *
+     * @param explainer the explainer of the loaded ontology
+     */
+    public PreferenceProfileStore(SimExplainer explainer) {
+        this(explainer, ExplanationCacheService.DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructs a {@code PreferenceProfileStore}.
+     *
+     * @param explainer the explainer of the loaded ontology
+     * @param maxDerivedBytes the estimated heap budget in bytes of the caches of all profiles together
+     */
+    public PreferenceProfileStore(SimExplainer explainer, long maxDerivedBytes) {
+        if (explainer == null) {
+            throw new JSimPiException("Unable to create preference profile store as explainer is null.", ErrorCode.Application_IllegalArguments);
+        }
+        if (maxDerivedBytes < 0) {
+            throw new JSimPiException("Unable to create preference profile store as maxDerivedBytes[" + maxDerivedBytes + "] is negative.", ErrorCode.Application_IllegalArguments);
+        }
+
+        this.explainer = explainer;
+        this.maxDerivedBytes = maxDerivedBytes;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private StoredProfile require(String profileId) {
+        StoredProfile stored = profileId == null ? null : profiles.get(profileId);
+
+        if (stored == null) {
+            throw new JSimPiException("Unable to find preference profile as profileId[" + profileId + "] is not registered.", ErrorCode.Application_IllegalArguments);
+        }
+
+        stored.lastAccess = System.nanoTime();
+
+        return stored;
+    }
+
+    /**
+     * Returns the cached explanation of a concept pair measured with a profile, measuring the pair first if it is not
+     * cached, if it was measured with another implementation method, or if either concept has been modified since.
+     */
+    private ExplanationService explain(StoredProfile stored, ImplementationMethod optionVal, String concept1, String concept2) {
+        ExplanationCacheService.CachedExplanation cached = stored.cache.get(concept1, concept2);
+        if (cached != null && cached.getRecord().getMethod() == optionVal
+                && explainer.isCurrentOntology(cached.getRecord().getOntologyVersion(), concept1, concept2)) {
+            return cached.getExplanationService();
+        }
+
+        long version = explainer.currentOntologyVersion();
+        SimilarityResult result = explainer.measure(optionVal, concept1, concept2, stored.profile);
+
+        ExplanationRecord record = new ExplanationRecord(concept1, result.getSimilarity(), optionVal, version, stored.profile.getVersion());
+        ExplanationService explanationService = new ExplanationService(result.getSimilarity(), result.getForwardBacktraceTable(), result.getBackwardBacktraceTable());
+        stored.cache.put(concept1, concept2, record, explanationService);
+
+        // a profile unregistered or replaced meanwhile no longer counts towards the budget
+        if (profiles.get(stored.profileId) != stored) {
+            stored.cache.clear();
+        }
+
+        enforceBudget(stored);
+
+        return explanationService;
+    }
+
+    /**
+     * Clears the caches of the least recently queried profiles, other than the given one, until the caches of all
+     * profiles together fit in the budget again. Within the budget, it only reads the running total.
+     */
+    private void enforceBudget(StoredProfile current) {
+        if (derivedBytes.get() <= maxDerivedBytes) {
+            return;
+        }
+
+        synchronized (this) {
+            if (derivedBytes.get() <= maxDerivedBytes) {
+                return;
+            }
+
+            List<StoredProfile> coldest = new ArrayList<>(profiles.values());
+            coldest.sort(Comparator.comparingLong(stored -> stored.lastAccess));
+
+            // clearing a cache deducts its entries from the running total
+            for (StoredProfile stored : coldest) {
+                if (derivedBytes.get() <= maxDerivedBytes) {
+                    break;
+                }
+                if (stored == current) {
+                    continue;
+                }
+
+                stored.cache.clear();
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Registers an immutable snapshot of a preference profile under the given ID, replacing the profile registered
+     * under that ID together with its cache. Overlays of {@link SimExplainer#getPreferenceProfileSnapshot()} that only
+     * override a few entries are cheap to register in numbers.
+     *
+     * @param profileId the profile ID
+     * @param profile the preference profile
+     * @return the registered snapshot
+     */
+    public PreferenceProfile register(String profileId, PreferenceProfile profile) {
+        if (profileId == null || profile == null) {
+            throw new JSimPiException("Unable to register preference profile as profileId[" + profileId + "] and profile[" + profile + "] are null.", ErrorCode.Application_IllegalArguments);
+        }
+
+        PreferenceProfile snapshot = profile.snapshot();
+        StoredProfile previous = profiles.put(profileId, new StoredProfile(profileId, snapshot, new ExplanationCacheService(maxDerivedBytes, false, derivedBytes)));
+        if (previous != null) {
+            previous.cache.clear();
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Removes the profile registered under the given ID together with its cache.
+     *
+     * @param profileId the profile ID
+     * @return the removed profile, or {@code null} if no profile is registered under that ID
+     */
+    public PreferenceProfile unregister(String profileId) {
+        StoredProfile stored = profileId == null ? null : profiles.remove(profileId);
+        if (stored == null) {
+            return null;
+        }
+
+        stored.cache.clear();
+
+        return stored.profile;
+    }
+
+    /**
+     * Returns the profile registered under the given ID.
+     *
+     * @param profileId the profile ID
+     * @return the immutable profile
+     * @throws JSimPiException if no profile is registered under that ID
+     */
+    public PreferenceProfile get(String profileId) {
+        return require(profileId).profile;
+    }
+
+    /**
+     * Calculates the similarity between two concepts with the profile registered under the given ID. The result and
+     * its explanation are cached for that profile.
+     *
+     * @param profileId the profile ID
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the similarity score between the two concepts
+     * @throws JSimPiException if any of the arguments are null or if no profile is registered under that ID
+     */
+    public BigDecimal similarity(String profileId, ImplementationMethod optionVal, String concept1, String concept2) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concept1 == null || concept2 == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return explain(require(profileId), optionVal, concept1, concept2).getSimilarity();
+    }
+
+    /**
+     * Returns the explanation of the similarity between two concepts with the profile registered under the given ID
+     * as a JSON object. A pair whose explanation is no longer cached is measured again with the implementation method
+     * it was last measured with, or with the given one.
+     *
+     * @param profileId the profile ID
+     * @param optionVal the implementation method to use if the pair has to be measured again
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the explanation of the similarity as a JSON object
+     * @throws JSimPiException if any of the arguments are null or if no profile is registered under that ID
+     */
+    public JSONObject getExplanationAsJson(String profileId, ImplementationMethod optionVal, String concept1, String concept2) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concept1 == null || concept2 == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        StoredProfile stored = require(profileId);
+        ExplanationCacheService.CachedExplanation cached = stored.cache.get(concept1, concept2);
+        ExplanationService explanationService = explain(stored, cached != null ? cached.getRecord().getMethod() : optionVal, concept1, concept2);
+
+        JSONObject explanation = new JSONObject();
+        explanation.put("similarity", explanationService.getSimilarity());
+        explanation.put("forward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.FORWARD));
+        explanation.put("backward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.BACKWARD));
+
+        return explanation;
+    }
+
+    /**
+     * Clears the cache of the profile registered under the given ID, which stays registered.
+     *
+     * @param profileId the profile ID
+     */
+    public void evict(String profileId) {
+        StoredProfile stored = profileId == null ? null : profiles.get(profileId);
+
+        if (stored != null) {
+            stored.cache.clear();
+        }
+    }
+
+    /**
+     * Clears the caches of the profiles that have not been queried for the given time.
+     *
+     * @param idleMillis the idle time in milliseconds
+     * @return the IDs of the profiles whose caches have been cleared
+     */
+    public Set<String> evictIdle(long idleMillis) {
+        long now = System.nanoTime();
+        Set<String> evicted = new TreeSet<>();
+
+        for (Map.Entry<String, StoredProfile> entry : profiles.entrySet()) {
+            StoredProfile stored = entry.getValue();
+
+            if (now - stored.lastAccess >= idleMillis * 1000000L && stored.cache.getEstimatedBytes() > 0) {
+                stored.cache.clear();
+                evicted.add(entry.getKey());
+            }
+        }
+
+        return evicted;
+    }
+
+    public Set<String> getProfileIds() {
+        return new TreeSet<>(profiles.keySet());
+    }
+
+    /**
+     * Returns the estimated heap held by every registered profile, i.e., by its own entries, which exclude the
+     * entries an overlay shares with its base, and by its cache.
+     *
+     * @return the estimated sizes in bytes keyed by profile ID
+     */
+    public Map<String, Long> getResidentBytes() {
+        Map<String, Long> sizes = new TreeMap<>();
+
+        for (Map.Entry<String, StoredProfile> entry : profiles.entrySet()) {
+            sizes.put(entry.getKey(), entry.getValue().estimateResidentBytes());
+        }
+
+        return sizes;
+    }
+
+    /**
+     * Returns the estimated heap held by all registered profiles together, excluding the shared ontology.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getTotalResidentBytes() {
+        long bytes = 0;
+
+        for (StoredProfile stored : profiles.values()) {
+            bytes += stored.estimateResidentBytes();
+        }
+
+        return bytes;
+    }
+
+    public long getMaxDerivedBytes() {
+        return maxDerivedBytes;
+    }
+
+    private static class StoredProfile {
+        private final String profileId;
+        private final PreferenceProfile profile;
+        private final ExplanationCacheService cache;
+        private volatile long lastAccess = System.nanoTime();
+
+        private StoredProfile(String profileId, PreferenceProfile profile, ExplanationCacheService cache) {
+            this.profileId = profileId;
+            this.profile = profile;
+            this.cache = cache;
+        }
+
+        private long estimateResidentBytes() {
+            return profile.estimateResidentBytes() + cache.getEstimatedBytes();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package sim.explainer.library;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Serves similarity queries from a {@code SimExplainer} loaded from ontology and preference profile directories, and
+ * reloads it whenever an ontology file, i.e., a {@code .krss}, {@code .owl} or {@code .owx} file, or a preference
+ * profile file, i.e., a {@code primitive-*} or {@code role-*} file, of those directories changes.
+ *
+ * A reload builds a new {@code SimExplainer} in the background, once the directories have been quiet for a while, and
+ * swaps it in atomically. Queries that started before the swap finish on the previous explainer, queries that start
+ * after it run on the new one, and a failed reload keeps the previous explainer. The explainers that are swapped in
+ * are never loaded again, hence each of them is a consistent snapshot of the directories.
+ */
+public class ReloadingSimExplainer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReloadingSimExplainer.class);
+
+    public static final long DEFAULT_QUIET_PERIOD_MILLIS = 500;
+
+    private final String ontologyDirectoryPath;
+    private final String preferenceProfileDirectoryPath;
+    private final Consumer<SimExplainer> configurer;
+
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    private volatile SimExplainer current;
+    private volatile long quietPeriodMillis = DEFAULT_QUIET_PERIOD_MILLIS;
+    private volatile RuntimeException lastReloadFailure;
+    private final AtomicLong reloadCount = new AtomicLong();
+
+    private ReloadingSimExplainer(String ontologyDirectoryPath, String preferenceProfileDirectoryPath, Consumer<SimExplainer> configurer) {
+        this.ontologyDirectoryPath = ontologyDirectoryPath;
+        this.preferenceProfileDirectoryPath = preferenceProfileDirectoryPath;
+        this.configurer = configurer;
+
+        // The directories are watched before they are first loaded, so that a change made while loading is not missed.
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new JSimPiException("Unable to watch directory[" + ontologyDirectoryPath + "].", e, ErrorCode.Application_IOException);
+        }
+
+        try {
+            register(Paths.get(ontologyDirectoryPath));
+            if (preferenceProfileDirectoryPath != null) {
+                register(Paths.get(preferenceProfileDirectoryPath));
+            }
+
+            this.current = load();
+        } catch (IOException e) {
+            closeWatchService();
+            throw new JSimPiException("Unable to watch directory[" + ontologyDirectoryPath + "].", e, ErrorCode.Application_IOException);
+        } catch (RuntimeException e) {
+            closeWatchService();
+            throw e;
+        }
+
+        this.watcher = new Thread(this::watch, "sim-explainer-reload");
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+    }
+
+    /**
+     * Loads the ontology and preference profile files from a directory, as {@link SimExplainer#SimExplainer(String)}
+     * does, and reloads them whenever they change. A directory with more than one ontology file fails to load, and a
+     * reload that fails keeps the previous explainer.
+     *
+     * @param directoryPath the path to the directory containing the ontology and preference profile files
+     * @return the reloading explainer, which must be closed to stop watching
+     */
+    public static ReloadingSimExplainer watch(String directoryPath) {
+        return watch(directoryPath, null, null);
+    }
+
+    /**
+     * Loads the ontology files and preference profile files from their directories, as
+     * {@link SimExplainer#SimExplainer(String, String)} does, and reloads them whenever they change.
+     *
+     * @param ontologyDirectoryPath the path to the directory containing the ontology files
+     * @param preferenceProfileDirectoryPath the path to the directory containing the preference profile files, or
+     *                                       {@code null} if the ontology directory contains them
+     * @param configurer applied to every loaded explainer before it is swapped in, e.g., to set its executor or
+     *                   explanation cache, or {@code null}
+     * @return the reloading explainer, which must be closed to stop watching
+     */
+    public static ReloadingSimExplainer watch(String ontologyDirectoryPath, String preferenceProfileDirectoryPath, Consumer<SimExplainer> configurer) {
+        if (ontologyDirectoryPath == null) {
+            throw new JSimPiException("Ontology directory not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return new ReloadingSimExplainer(ontologyDirectoryPath, preferenceProfileDirectoryPath, configurer);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private SimExplainer load() {
+        SimExplainer explainer = preferenceProfileDirectoryPath == null
+                ? new SimExplainer(ontologyDirectoryPath)
+                : new SimExplainer(ontologyDirectoryPath, preferenceProfileDirectoryPath);
+
+        if (configurer != null) {
+            configurer.accept(explainer);
+        }
+
+        return explainer;
+    }
+
+    /**
+     * Registers a directory and its subdirectories, as the directory constructors of {@code SimExplainer} read them too.
+     */
+    private void register(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void closeWatchService() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close the watch service of directory[" + ontologyDirectoryPath + "].", e);
+        }
+    }
+
+    private static boolean isWatchedFile(Path file) {
+        String fileName = file.getFileName().toString();
+
+        return fileName.endsWith(".krss") || fileName.endsWith(".owl") || fileName.endsWith(".owx")
+                || fileName.startsWith("primitive-") || fileName.startsWith("role-");
+    }
+
+    /**
+     * Handles the events of one watch key and tells whether any of them concerns a watched file.
+     */
+    private boolean handle(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                    changed = true;
+                } catch (IOException e) {
+                    logger.warn("Unable to watch directory[" + path + "].", e);
+                }
+            } else if (isWatchedFile(path)) {
+                changed = true;
+            }
+        }
+
+        key.reset();
+
+        return changed;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!handle(watchService.take())) {
+                    continue;
+                }
+
+                // Wait until the directories have been quiet, so that a file being written is reloaded once.
+                WatchKey key;
+                while ((key = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+                    handle(key);
+                }
+
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Loads the directories again and swaps the new explainer in. If loading fails, the current explainer is kept.
+     *
+     * @return whether the new explainer has been swapped in
+     */
+    public synchronized boolean reload() {
+        try {
+            SimExplainer explainer = load();
+
+            // An ontology file caught in the middle of being written may parse into an empty ontology.
+            if (explainer.retrieveConceptName().isEmpty()) {
+                throw new JSimPiException("Unable to reload directory[" + ontologyDirectoryPath + "] as its ontology has no concepts.", ErrorCode.Application_IllegalArguments);
+            }
+
+            this.current = explainer;
+            this.lastReloadFailure = null;
+            reloadCount.incrementAndGet();
+
+            if (logger.isInfoEnabled()) {
+                logger.info("Reloaded directory[" + ontologyDirectoryPath + "].");
+            }
+
+            return true;
+        } catch (RuntimeException e) {
+            this.lastReloadFailure = e;
+            logger.warn("Unable to reload directory[" + ontologyDirectoryPath + "], keeping the previous explainer.", e);
+
+            return false;
+        }
+    }
+
+    /**
+     * Returns the current explainer. Several calls on the returned explainer are answered from the same snapshot of the
+     * directories, even if a reload swaps another explainer in meanwhile.
+     *
+     * @return the current explainer
+     */
+    public SimExplainer current() {
+        return current;
+    }
+
+    /**
+     * Runs a query on the current explainer.
+     *
+     * @param query the query, e.g., {@code e -> e.similarity(ImplementationMethod.DYNAMIC_SIMPI, "A", "B")}
+     * @param <T> the type of the result
+     * @return the result of the query
+     */
+    public <T> T query(Function<SimExplainer, T> query) {
+        return query.apply(current);
+    }
+
+    /**
+     * Sets how long the directories must be quiet after a change before they are reloaded.
+     *
+     * @param quietPeriodMillis the quiet period in milliseconds
+     */
+    public void setQuietPeriodMillis(long quietPeriodMillis) {
+        if (quietPeriodMillis < 0) {
+            throw new JSimPiException("Unable to set quiet period as quietPeriodMillis[" + quietPeriodMillis + "] is negative.", ErrorCode.Application_IllegalArguments);
+        }
+
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * Returns the failure of the last reload, or {@code null} if it succeeded.
+     *
+     * @return the failure of the last reload
+     */
+    public RuntimeException getLastReloadFailure() {
+        return lastReloadFailure;
+    }
+
+    /**
+     * Stops watching the directories. The current explainer remains usable.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watcher.interrupt();
+    }
+}
@@ -3,21 +3,40 @@ package sim.explainer.library;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.util.ShortFormProvider;
 import org.semanticweb.owlapi.util.SimpleShortFormProvider;
+import sim.explainer.library.controller.CompiledSimilarityController;
 import sim.explainer.library.controller.KRSSSimilarityController;
 import sim.explainer.library.controller.OWLSimilarityController;
 import sim.explainer.library.enumeration.FileTypeConstant;
 import sim.explainer.library.enumeration.ReasoningDirectionConstant;
 import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.enumeration.MetricStage;
 import sim.explainer.library.exception.ErrorCode;
 import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.DefinitionDependencyGraph;
 import sim.explainer.library.framework.explainer.BacktraceTable;
 import sim.explainer.library.framework.KRSSServiceContext;
 import sim.explainer.library.framework.OWLServiceContext;
 import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.compiled.CompiledOntology;
+import sim.explainer.library.framework.compiled.ConceptIndex;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.descriptiontree.TreeNode;
+import sim.explainer.library.framework.explainer.ConceptPairSimilarity;
+import sim.explainer.library.framework.explainer.ExplanationRecord;
+import sim.explainer.library.framework.explainer.SimRecord;
+import sim.explainer.library.framework.explainer.SimilarityPublisher;
+import sim.explainer.library.framework.explainer.SimilarityResult;
+import sim.explainer.library.framework.metrics.MetricsRegistry;
+import sim.explainer.library.framework.metrics.MetricsSnapshot;
+import sim.explainer.library.framework.unfolding.CompiledRoleUnfolder;
+import sim.explainer.library.framework.unfolding.IRoleUnfolder;
+import sim.explainer.library.service.ExplanationCacheService;
 import sim.explainer.library.service.ExplanationConverterService;
 import sim.explainer.library.service.ExplanationService;
+import sim.explainer.library.service.OntologySnapshotService;
 import sim.explainer.library.service.SimilarityService;
 import sim.explainer.library.service.ValidationService;
 import sim.explainer.library.util.utilstructure.SymmetricPair;
@@ -25,11 +44,27 @@ import sim.explainer.library.util.utilstructure.SymmetricPair;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -39,335 +74,2045 @@ import java.util.stream.Stream;
  */
 public class SimExplainer {
 
-    private FileTypeConstant fileType;
+    private static final long LAZY_EXPLANATION_CACHE_BYTES = 1024L * 1024;
+    private static final int RECORD_BYTES = 96;
+    private static final int IO_THREADS = 16;
+    private static final Executor DEFAULT_IO_EXECUTOR = newIoExecutor();
+    private static final int PUBLISHER_MAX_IN_FLIGHT = Runtime.getRuntime().availableProcessors();
+    private static final int PUBLISHER_CHUNK_SIZE = 256;
+
+    private volatile FileTypeConstant fileType;
     private final PreferenceProfile preferenceProfile = new PreferenceProfile();
+    private volatile PreferenceProfile preferenceProfileSnapshot;
     private final OWLServiceContext owlServiceContext = new OWLServiceContext();
     private final KRSSServiceContext krssServiceContext = new KRSSServiceContext();
-    private final SimilarityService similarityService = new SimilarityService(owlServiceContext, krssServiceContext, preferenceProfile);
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    private final SimilarityService similarityService = new SimilarityService(owlServiceContext, krssServiceContext, metricsRegistry);
     private final ValidationService validationService = new ValidationService(owlServiceContext, krssServiceContext);
+    private final OntologySnapshotService ontologySnapshotService = new OntologySnapshotService(similarityService);
+    private volatile CompiledOntology compiledOntology;
     private static ExplanationConverterService explanationConverterService = new ExplanationConverterService();
-    private final HashMap<SymmetricPair<String>, ExplanationService> explanationMap = new HashMap<>();
+    private volatile ExplanationCacheService explanationCache = new ExplanationCacheService();
+    private final ConcurrentHashMap<SymmetricPair<String>, ExplanationRecord> explanationRecords = new ConcurrentHashMap<>();
+    private volatile boolean lazyExplanations = false;
+    private volatile long ontologyVersion = 0;
+    private volatile long loadedOntologyVersion = 0;
+    private final ConcurrentHashMap<String, Long> definitionVersions = new ConcurrentHashMap<>();
+    private volatile DefinitionDependencyGraph definitionDependencyGraph; // guarded by the source lock
+    private volatile Executor executor = ForkJoinPool.commonPool();
+    private volatile Executor ioExecutor = DEFAULT_IO_EXECUTOR;
+    private final ConcurrentHashMap<String, TreeNode<Set<String>>> conceptTrees = new ConcurrentHashMap<>();
+    private volatile ConceptIndex conceptIndex;
+    private final ConcurrentHashMap<String, Set<String>> conceptDependencies = new ConcurrentHashMap<>();
+
+    private SimExplainer() {
+    }
+
+    /**
+     * Creates a pool of at most {@link #IO_THREADS} daemon threads, which are released after a minute without tasks.
+     * Further tasks wait in the queue, so that a burst of calls does not start a thread per call.
+     */
+    private static Executor newIoExecutor() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(IO_THREADS, IO_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+            Thread thread = new Thread(runnable, "sim-explainer-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+
+        return pool;
+    }
+
+    /**
+     * Constructs a {@code SimExplainer} object and initializes it from a compiled snapshot of the specified ontology.
+     * The snapshot is loaded without parsing the ontology if it was compiled from the current content of the
+     * ontology file. Otherwise, the ontology is loaded, compiled and the snapshot is (re)written.
+     *
+     * @param ontologyPath the path to the ontology file
+     * @param snapshotPath the path to the snapshot file
+     * @return the {@code SimExplainer} object
+     */
+    public static SimExplainer withSnapshot(String ontologyPath, String snapshotPath) {
+        if (ontologyPath == null || snapshotPath == null) {
+            throw new JSimPiException("Ontology or snapshot not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        SimExplainer explainer = new SimExplainer();
+        explainer.load_ontology(ontologyPath, snapshotPath);
+
+        return explainer;
+    }
 
     /**
      * Constructs a {@code SimExplainer} object and initializes it by loading ontologies and preference
      * profile files from the specified directory.
      *
      * @param directoryPath the path to the directory containing the ontology and preference profile files
+     * @throws JSimPiException if the directory cannot be read or contains more than one ontology file, which
+     *                         {@link OntologyRegistry#registerDirectory(String)} loads side by side instead
      */
     public SimExplainer(String directoryPath) {
-        Path onto_dir = Paths.get(directoryPath);
+        for (Path file : listDirectory(directoryPath)) {
+            String fileName = file.getFileName().toString();
+            String fileAbsPath = file.toAbsolutePath().toString();
 
-        // ontology path
-        try (Stream<Path> stream = Files.walk(onto_dir)) {
-            stream.filter(Files::isRegularFile)
-                    .forEach(file -> {
-                        String fileName = file.getFileName().toString();
-                        String fileAbsPath = file.toAbsolutePath().toString();
+            if (isOntologyFile(file)) {
+                load_ontology(fileAbsPath);
+            }
 
-                        if (fileName.endsWith(".krss") || fileName.endsWith(".owl") || fileName.endsWith(".owx")) {
-                            load_ontology(fileAbsPath);
-                        }
+            try {
+                if (fileName.startsWith("primitive-concept-importance")) {
+                    ReadInputPrimitiveConceptImportances(fileAbsPath);
+                } else if (fileName.startsWith("role-importance")) {
+                    ReadInputRoleImportances(fileAbsPath);
+                } else if (fileName.startsWith("primitive-concepts-similarity")) {
+                    ReadInputPrimitiveConceptsSimilarities(fileAbsPath);
+                } else if (fileName.startsWith("primitive-roles-similarity")) {
+                    ReadInputPrimitiveRolesSimilarities(fileAbsPath);
+                } else if (fileName.startsWith("role-discount-factor")) {
+                    ReadInputRoleDiscountFactors(fileAbsPath);
+                }
+            } catch (IOException e) {
+                throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+            }
+        }
+    }
+
+    /**
+     * Constructs a {@code SimExplainer} object and initializes it by loading ontologies from the specified
+     * ontology directory and preference profiles from the specified preference profile directory.
+     *
+     * @param ontologyDirectoryPath the path to the directory containing the ontology files
+     * @param preferenceProfileDirectoryPath the path to the directory containing the preference profile files
+     * @throws JSimPiException if a directory cannot be read or the ontology directory contains more than one ontology
+     *                         file, which {@link OntologyRegistry#registerDirectory(String)} loads side by side instead
+     */
+    public SimExplainer(String ontologyDirectoryPath, String preferenceProfileDirectoryPath) {
+        for (Path file : listDirectory(ontologyDirectoryPath)) {
+            if (isOntologyFile(file)) {
+                load_ontology(file.toAbsolutePath().toString());
+            }
+        }
+
+        if (preferenceProfileDirectoryPath == null) {
+            return;
+        }
+
+        readPreferenceProfileDirectory(preferenceProfileDirectoryPath);
+    }
+
+    private static boolean isOntologyFile(Path file) {
+        String fileName = file.getFileName().toString();
+
+        return fileName.endsWith(".krss") || fileName.endsWith(".owl") || fileName.endsWith(".owx");
+    }
+
+    /**
+     * Lists the regular files of a directory and its subdirectories, and checks that at most one of them is an ontology
+     * file. Loading several would replace every ontology by the next one, so that only the last one would be queried.
+     *
+     * @param directoryPath the path to the directory
+     * @return the files, in the order they are walked
+     */
+    private static List<Path> listDirectory(String directoryPath) {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(Paths.get(directoryPath))) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+        }
+
+        List<Path> ontologyFiles = files.stream().filter(SimExplainer::isOntologyFile).collect(Collectors.toList());
+        if (ontologyFiles.size() > 1) {
+            throw new JSimPiException("Unable to load directory[" + directoryPath + "] as it contains ontology files" + ontologyFiles
+                    + ", of which an explainer holds only one. Use OntologyRegistry.registerDirectory to load them side by side.", ErrorCode.Application_IllegalArguments);
+        }
+
+        return files;
+    }
+
+    /**
+     * Reads every preference profile file of the specified directory, i.e., every file whose name starts with
+     * "primitive-concept-importance", "role-importance", "primitive-concepts-similarity", "primitive-roles-similarity"
+     * or "role-discount-factor", and adds its entries to the preference profile.
+     *
+     * @param preferenceProfileDirectoryPath the path to the directory containing the preference profile files
+     * @throws JSimPiException if the directory cannot be read
+     */
+    public void readPreferenceProfileDirectory(String preferenceProfileDirectoryPath) {
+        if (preferenceProfileDirectoryPath == null) {
+            throw new JSimPiException("Preference profile directory not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            readPreferenceProfileFiles(preferenceProfileDirectoryPath, preferenceProfile);
+        }
+    }
+
+    /**
+     * Reads every preference profile file of the specified directory, as {@link #readPreferenceProfileDirectory(String)}
+     * does, into a new profile, e.g., to share it between several explainers with
+     * {@link #usePreferenceProfile(PreferenceProfile)} instead of reading the files once per explainer.
+     *
+     * @param preferenceProfileDirectoryPath the path to the directory containing the preference profile files
+     * @return an immutable snapshot of the profile read
+     * @throws JSimPiException if the directory cannot be read
+     */
+    public static PreferenceProfile readPreferenceProfile(String preferenceProfileDirectoryPath) {
+        if (preferenceProfileDirectoryPath == null) {
+            throw new JSimPiException("Preference profile directory not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        PreferenceProfile profile = new PreferenceProfile();
+        readPreferenceProfileFiles(preferenceProfileDirectoryPath, profile);
+
+        return profile.snapshot();
+    }
+
+    /**
+     * Replaces the preference profile of this explainer with an empty overlay of the given profile, whose entries are
+     * shared rather than copied. Entries added to this explainer afterwards only override the shared ones.
+     *
+     * @param profile the preference profile, e.g., one returned by {@link #readPreferenceProfile(String)}
+     */
+    public void usePreferenceProfile(PreferenceProfile profile) {
+        if (profile == null) {
+            throw new JSimPiException("Preference profile not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            preferenceProfile.resetTo(profile);
+        }
+    }
+
+    /**
+     * Constructs a {@code SimExplainer} object and initializes it by loading the ontology and preference
+     * profile files from the specified paths.
+     *
+     * @param ontologyPath the path to the ontology file
+     * @param primitiveConceptImportancePath the path to the primitive concept importance file
+     * @param roleImportancePath the path to the role importance file
+     * @param primitiveConceptsSimilarityPath the path to the primitive concepts similarity file
+     * @param primitiveRolesSimilarityPath the path to the primitive roles similarity file
+     * @param roleDiscountFactorPath the path to the role discount factor file
+     */
+    public SimExplainer(
+            String ontologyPath,
+            String primitiveConceptImportancePath,
+            String roleImportancePath,
+            String primitiveConceptsSimilarityPath,
+            String primitiveRolesSimilarityPath,
+            String roleDiscountFactorPath) {
+
+        // ontology
+        load_ontology(ontologyPath);
+
+        // preferences profile file
+        try {
+            if (primitiveConceptImportancePath != null) {
+                this.ReadInputPrimitiveConceptImportances(primitiveConceptImportancePath);
+            }
+            if (roleImportancePath != null) {
+                this.ReadInputRoleImportances(roleImportancePath);
+            }
+            if (primitiveConceptsSimilarityPath != null) {
+                this.ReadInputPrimitiveConceptsSimilarities(primitiveConceptsSimilarityPath);
+            }
+            if (primitiveRolesSimilarityPath != null) {
+                this.ReadInputPrimitiveRolesSimilarities(primitiveRolesSimilarityPath);
+            }
+            if (roleDiscountFactorPath != null) {
+                this.ReadInputRoleDiscountFactors(roleDiscountFactorPath);
+            }
+        } catch (IOException exception) {
+            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+        }
+    }
+
+    /**
+     * Loads the ontology from the specified path and initializes the appropriate service context based on
+     * the file type.
+     *
+     * @param ontologyPath the path to the ontology file
+     * @throws JSimPiException if the file type is not supported
+     */
+    private void load_ontology(String ontologyPath) {
+        File ontologyFile = new File(ontologyPath);
+
+        this.fileType = ValidationService.checkOWLandKRSSFile(ontologyFile);
+        this.compiledOntology = null;
+        this.ontologyVersion++;
+        this.loadedOntologyVersion = this.ontologyVersion;
+        this.definitionVersions.clear();
+        this.definitionDependencyGraph = null;
+        this.conceptTrees.clear();
+        this.conceptIndex = null;
+        this.conceptDependencies.clear();
+        this.explanationRecords.clear();
+        this.explanationCache.clear();
+        similarityService.reset();
+        validationService.reset();
+
+        switch (fileType) {
+            case OWL_FILE:
+                owlServiceContext.init(ontologyPath);
+                break;
+            case KRSS_FILE:
+                krssServiceContext.init(ontologyPath);
+                break;
+            default:
+                throw new JSimPiException("File type not supported", ErrorCode.Application_InvalidFileType);
+        }
+    }
+
+    /**
+     * Loads the ontology from the specified snapshot if it is up to date with the ontology file. Otherwise, loads the
+     * ontology file, compiles it and writes the snapshot.
+     *
+     * @param ontologyPath the path to the ontology file
+     * @param snapshotPath the path to the snapshot file
+     * @throws JSimPiException if the file type is not supported
+     */
+    private void load_ontology(String ontologyPath, String snapshotPath) {
+        FileTypeConstant sourceFileType = ValidationService.checkOWLandKRSSFile(new File(ontologyPath));
+        if (sourceFileType == FileTypeConstant.INVALID_FILE) {
+            throw new JSimPiException("File type not supported", ErrorCode.Application_InvalidFileType);
+        }
+
+        String sourceHash = OntologySnapshotService.contentHash(ontologyPath);
+        CompiledOntology snapshot = ontologySnapshotService.readIfFresh(snapshotPath, sourceHash);
+
+        if (snapshot == null || snapshot.getFileType() != sourceFileType) {
+            load_ontology(ontologyPath);
+            snapshot = ontologySnapshotService.compile(fileType, sourceHash, retrieveConceptName());
+            ontologySnapshotService.write(snapshot, snapshotPath);
+        }
+
+        this.fileType = snapshot.getFileType();
+        this.compiledOntology = snapshot;
+        this.ontologyVersion++;
+        this.loadedOntologyVersion = this.ontologyVersion;
+        this.definitionVersions.clear();
+        this.definitionDependencyGraph = null;
+        this.conceptTrees.clear();
+        this.conceptIndex = null;
+        this.conceptDependencies.clear();
+        this.explanationRecords.clear();
+        this.explanationCache.clear();
+    }
+
+    /**
+     * Writes a compiled snapshot of the loaded ontology, i.e., its concept names, the unfolded description trees of
+     * all concepts and the role closures, to the specified file. The snapshot can be loaded with
+     * {@link #withSnapshot(String, String)}.
+     *
+     * @param snapshotPath the path to the snapshot file
+     * @throws JSimPiException if no ontology has been loaded
+     */
+    public void writeSnapshot(String snapshotPath) {
+        if (snapshotPath == null) {
+            throw new JSimPiException("Snapshot path not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        if (compiledOntology == null) {
+            File ontologyFile;
+
+            switch (fileType) {
+                case OWL_FILE:
+                    ontologyFile = owlServiceContext.getOwlFile();
+                    break;
+                case KRSS_FILE:
+                    ontologyFile = krssServiceContext.getKrssFile();
+                    break;
+                default:
+                    throw new JSimPiException("File type not supported", ErrorCode.Application_InvalidFileType);
+            }
+
+            String sourceHash = OntologySnapshotService.contentHash(ontologyFile.getAbsolutePath());
+            compiledOntology = ontologySnapshotService.compile(fileType, sourceHash, retrieveConceptName());
+        }
+
+        ontologySnapshotService.write(compiledOntology, snapshotPath);
+    }
+
+    /**
+     * Adds a concept definition to the loaded KRSS ontology, or replaces the definition of that concept. Only the
+     * description trees, role closures and similarities of the concepts and roles that transitively depend on the
+     * concept are invalidated.
+     *
+     * @param definition the definition, i.e., {@code (define-concept Name desc)} or
+     *                   {@code (define-primitive-concept Name desc)}
+     * @return the invalidated concept and role names
+     * @throws JSimPiException if the loaded ontology is not a KRSS file or if the definition is malformed
+     */
+    public Set<String> defineConcept(String definition) {
+        if (definition == null) {
+            throw new JSimPiException("Definition not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return updateKRSSDefinition(() -> krssServiceContext.putConceptDefinition(definition));
+    }
+
+    /**
+     * Removes a concept definition from the loaded KRSS ontology. The concept is then a primitive concept in the
+     * definitions that refer to it.
+     *
+     * @param conceptName the concept name
+     * @return the invalidated concept and role names
+     * @throws JSimPiException if the loaded ontology is not a KRSS file or if the concept is not defined
+     */
+    public Set<String> removeConcept(String conceptName) {
+        if (conceptName == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return updateKRSSDefinition(() -> {
+            if (!krssServiceContext.removeConceptDefinition(conceptName)) {
+                throw new JSimPiException("Unable to remove concept[" + conceptName + "] as it is not defined.", ErrorCode.Application_IllegalArguments);
+            }
+
+            return conceptName;
+        });
+    }
+
+    /**
+     * Adds a role definition to the loaded KRSS ontology, or replaces the definition of that role. Only the role
+     * closures, description trees and similarities that transitively depend on the role are invalidated.
+     *
+     * @param definition the definition, i.e., {@code (define-role name desc)} or {@code (define-primitive-role name desc)}
+     * @return the invalidated concept and role names
+     * @throws JSimPiException if the loaded ontology is not a KRSS file or if the definition is malformed
+     */
+    public Set<String> defineRole(String definition) {
+        if (definition == null) {
+            throw new JSimPiException("Definition not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return updateKRSSDefinition(() -> krssServiceContext.putRoleDefinition(definition));
+    }
+
+    /**
+     * Removes a role definition from the loaded KRSS ontology. The role then has no super-roles.
+     *
+     * @param roleName the role name
+     * @return the invalidated concept and role names
+     * @throws JSimPiException if the loaded ontology is not a KRSS file or if the role is not defined
+     */
+    public Set<String> removeRole(String roleName) {
+        if (roleName == null) {
+            throw new JSimPiException("Role not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return updateKRSSDefinition(() -> {
+            if (!krssServiceContext.removeRoleDefinition(roleName)) {
+                throw new JSimPiException("Unable to remove role[" + roleName + "] as it is not defined.", ErrorCode.Application_IllegalArguments);
+            }
+
+            return roleName;
+        });
+    }
+
+    /**
+     * Applies axiom changes, e.g., adding or removing the equivalent class, subclass or sub-property axioms that
+     * define classes and object properties, to the loaded OWL ontology. Only the description trees, role closures
+     * and similarities of the classes and properties that transitively depend on the defined names are invalidated.
+     *
+     * @param changes the axiom changes
+     * @return the invalidated concept and role names
+     * @throws JSimPiException if the loaded ontology is not an OWL file or if a change is not an axiom change
+     */
+    public Set<String> applyOntologyChanges(List<? extends OWLOntologyChange> changes) {
+        if (changes == null) {
+            throw new JSimPiException("Changes not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        requireSourceOntology(FileTypeConstant.OWL_FILE);
+
+        Set<String> names = new HashSet<>();
+        for (OWLOntologyChange change : changes) {
+            if (!change.isAxiomChange()) {
+                throw new JSimPiException("Unable to apply change[" + change + "] as it is not an axiom change.", ErrorCode.Application_IllegalArguments);
+            }
+
+            names.addAll(DefinitionDependencyGraph.definedNames(change.getAxiom()));
+        }
+
+        Set<String> affected;
+        synchronized (owlServiceContext) {
+            DefinitionDependencyGraph graph = definitionDependencyGraph(FileTypeConstant.OWL_FILE);
+            owlServiceContext.getOwlOntologyManager().applyChanges(changes);
+
+            for (String name : names) {
+                graph.updateOWLDefinition(owlServiceContext.getOwlOntology(), name);
+            }
+
+            affected = graph.dependents(names);
+            invalidateDefinitions(FileTypeConstant.OWL_FILE, affected);
+        }
+
+        invalidateDerivedResults(affected);
+
+        return affected;
+    }
+
+    /**
+     * Modifies one definition of the loaded KRSS ontology and invalidates whatever transitively depends on it.
+     *
+     * @param update the modification, which returns the modified concept or role name
+     * @return the invalidated concept and role names
+     */
+    private Set<String> updateKRSSDefinition(Supplier<String> update) {
+        requireSourceOntology(FileTypeConstant.KRSS_FILE);
+
+        Set<String> affected;
+        synchronized (krssServiceContext) {
+            DefinitionDependencyGraph graph = definitionDependencyGraph(FileTypeConstant.KRSS_FILE);
+            String name = update.get();
+
+            graph.updateKRSSDefinition(krssServiceContext, name);
+            affected = graph.dependents(Collections.singleton(name));
+            invalidateDefinitions(FileTypeConstant.KRSS_FILE, affected);
+        }
+
+        invalidateDerivedResults(affected);
+
+        return affected;
+    }
+
+    private void requireSourceOntology(FileTypeConstant type) {
+        if (fileType != type) {
+            throw new JSimPiException("Unable to update definitions as the loaded ontology is not a " + type + ".", ErrorCode.Application_InvalidFileType);
+        }
+
+        File sourceFile = type == FileTypeConstant.KRSS_FILE ? krssServiceContext.getKrssFile() : owlServiceContext.getOwlFile();
+        if (sourceFile == null) {
+            throw new JSimPiException("Unable to update definitions as the ontology has only been loaded from a compiled snapshot.", ErrorCode.Application_IllegalArguments);
+        }
+    }
+
+    /**
+     * Returns the definition dependency graph of the loaded ontology, building it on the first update. It must be
+     * called while holding the lock of the source ontology.
+     *
+     * @param type the file type of the loaded ontology
+     * @return the definition dependency graph
+     */
+    private DefinitionDependencyGraph definitionDependencyGraph(FileTypeConstant type) {
+        DefinitionDependencyGraph graph = this.definitionDependencyGraph;
+
+        if (graph == null) {
+            graph = type == FileTypeConstant.KRSS_FILE
+                    ? DefinitionDependencyGraph.fromKRSS(krssServiceContext)
+                    : DefinitionDependencyGraph.fromOWL(owlServiceContext.getOwlOntology());
+            this.definitionDependencyGraph = graph;
+        }
+
+        return graph;
+    }
+
+    /**
+     * Drops the trees and role closures of the modified names and publishes a new ontology version, in which those
+     * names have changed, so that every result measured before is no longer reused for them. It must be called while
+     * holding the lock of the source ontology, once the modification has been applied.
+     *
+     * @param type the file type of the loaded ontology
+     * @param affected the modified names together with their transitive dependents
+     */
+    private void invalidateDefinitions(FileTypeConstant type, Set<String> affected) {
+        similarityService.invalidate(type, affected);
+        validationService.invalidate(affected);
+
+        // The compiled ontology no longer matches the source ontology.
+        this.compiledOntology = null;
+
+        long version = this.ontologyVersion + 1;
+        for (String name : affected) {
+            definitionVersions.put(name, version);
+        }
+        this.ontologyVersion = version;
+    }
+
+    /**
+     * Drops the indexed trees, profile dependencies, records and cached explanations of the modified names.
+     *
+     * @param affected the modified names together with their transitive dependents
+     */
+    private void invalidateDerivedResults(Set<String> affected) {
+        conceptTrees.keySet().removeAll(affected);
+        conceptDependencies.keySet().removeAll(affected);
+        synchronized (conceptTrees) {
+            this.conceptIndex = null;
+        }
+
+        explanationRecords.keySet().removeIf(pair -> affected.contains(pair.getFirst()) || affected.contains(pair.getSecond()));
+        explanationCache.invalidateConcepts(affected);
+    }
+
+    private long definitionVersion(String name) {
+        Long version = definitionVersions.get(name);
+
+        return version != null ? version : 0;
+    }
+
+    private static String[] readLines(String pathToFile) throws IOException {
+        return StringUtils.split(FileUtils.readFileToString(new File(pathToFile)), "\n");
+    }
+
+    private static void addPrimitiveConceptImportances(PreferenceProfile profile, String[] primitiveConceptImportances) {
+        for (String primitiveConceptImportance : primitiveConceptImportances) {
+            String[] str = StringUtils.split(primitiveConceptImportance);
+            profile.addPrimitiveConceptImportance(str[0], new BigDecimal(str[1]));
+        }
+    }
+
+    private static void addRoleImportances(PreferenceProfile profile, String[] roleImportances) {
+        for (String roleImportance : roleImportances) {
+            String[] str = StringUtils.split(roleImportance);
+            profile.addRoleImportance(str[0], new BigDecimal(str[1]));
+        }
+    }
+
+    private static void addPrimitiveConceptsSimilarities(PreferenceProfile profile, String[] primitiveConceptsSimilarities) {
+        for (String primitiveConceptsSimilarity : primitiveConceptsSimilarities) {
+            String[] str = StringUtils.split(primitiveConceptsSimilarity);
+            profile.addPrimitveConceptsSimilarity(str[0], str[1], new BigDecimal(str[2]));
+        }
+    }
+
+    private static void addPrimitiveRolesSimilarities(PreferenceProfile profile, String[] primitiveRolesSimilarities) {
+        for (String primitiveRolesSimilarity : primitiveRolesSimilarities) {
+            String[] str = StringUtils.split(primitiveRolesSimilarity);
+            profile.addPrimitiveRolesSimilarity(str[0], str[1], new BigDecimal(str[2]));
+        }
+    }
+
+    private static void addRoleDiscountFactors(PreferenceProfile profile, String[] roleDiscountFactors) {
+        for (String roleDiscountFactor : roleDiscountFactors) {
+            String[] str = StringUtils.split(roleDiscountFactor);
+            profile.addRoleDiscountFactor(str[0], new BigDecimal(str[1]));
+        }
+    }
+
+    /**
+     * Reads every preference profile file of the specified directory and adds its entries to the given profile.
+     *
+     * @param preferenceProfileDirectoryPath the path to the directory containing the preference profile files
+     * @param profile the profile to add the entries to
+     * @throws JSimPiException if the directory cannot be read
+     */
+    private static void readPreferenceProfileFiles(String preferenceProfileDirectoryPath, PreferenceProfile profile) {
+        Path prefer_dir = Paths.get(preferenceProfileDirectoryPath);
+
+        try (Stream<Path> stream = Files.walk(prefer_dir)) {
+            stream.filter(Files::isRegularFile)
+                    .forEach(file -> {
+                        String fileName = file.getFileName().toString();
+                        String fileAbsPath = file.toAbsolutePath().toString();
+
+                        try {
+                            if (fileName.startsWith("primitive-concept-importance")) {
+                                addPrimitiveConceptImportances(profile, readLines(fileAbsPath));
+                            } else if (fileName.startsWith("role-importance")) {
+                                addRoleImportances(profile, readLines(fileAbsPath));
+                            } else if (fileName.startsWith("primitive-concepts-similarity")) {
+                                addPrimitiveConceptsSimilarities(profile, readLines(fileAbsPath));
+                            } else if (fileName.startsWith("primitive-roles-similarity")) {
+                                addPrimitiveRolesSimilarities(profile, readLines(fileAbsPath));
+                            } else if (fileName.startsWith("role-discount-factor")) {
+                                addRoleDiscountFactors(profile, readLines(fileAbsPath));
+                            }
+                        } catch (IOException e) {
+                            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+                        }
+
+                    });
+        } catch (IOException e) {
+            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+        }
+    }
+
+    /**
+     * Reads primitive concept importances from the specified file and adds them to the preference profile.
+     *
+     * @param pathToFile the path to the file containing primitive concept importances
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public void ReadInputPrimitiveConceptImportances(String pathToFile) throws IOException {
+        String[] primitiveConceptImportances = readLines(pathToFile);
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            addPrimitiveConceptImportances(preferenceProfile, primitiveConceptImportances);
+        }
+    }
+
+    /**
+     * Reads role importances from the specified file and adds them to the preference profile.
+     *
+     * @param pathToFile the path to the file containing role importances
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public void ReadInputRoleImportances(String pathToFile) throws IOException {
+        String[] roleImportances = readLines(pathToFile);
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            addRoleImportances(preferenceProfile, roleImportances);
+        }
+    }
+
+    /**
+     * Reads primitive concepts similarities from the specified file and adds them to the preference profile.
+     *
+     * @param pathToFile the path to the file containing primitive concepts similarities
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public void ReadInputPrimitiveConceptsSimilarities(String pathToFile) throws IOException {
+        String[] primitiveConceptsSimilarities = readLines(pathToFile);
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            addPrimitiveConceptsSimilarities(preferenceProfile, primitiveConceptsSimilarities);
+        }
+    }
+
+    /**
+     * Reads primitive roles similarities from the specified file and adds them to the preference profile.
+     *
+     * @param pathToFile the path to the file containing primitive roles similarities
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public void ReadInputPrimitiveRolesSimilarities(String pathToFile) throws IOException {
+        String[] primitiveRolesSimilarities = readLines(pathToFile);
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            addPrimitiveRolesSimilarities(preferenceProfile, primitiveRolesSimilarities);
+        }
+    }
+
+    /**
+     * Reads role discount factors from the specified file and adds them to the preference profile.
+     *
+     * @param pathToFile the path to the file containing role discount factors
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public void ReadInputRoleDiscountFactors(String pathToFile) throws IOException {
+        String[] roleDiscountFactors = readLines(pathToFile);
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            addRoleDiscountFactors(preferenceProfile, roleDiscountFactors);
+        }
+    }
+
+    /**
+     * Sets the default role discount factor in the preference profile.
+     *
+     * @param value the default role discount factor
+     */
+    public void setDefaultRoleDiscountFactor(BigDecimal value) {
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            preferenceProfile.setDefaultRoleDiscountFactor(value);
+        }
+    }
+
+    /**
+     * Modifies the preference profile with the given function, e.g., to add several entries at once, under the lock
+     * every other modification of the preference profile holds. The snapshot of the preference profile is dropped, so
+     * that the next similarity computation takes a new one. The profile must not be kept beyond the call.
+     *
+     * @param update the function modifying the preference profile
+     */
+    public void updatePreferenceProfile(Consumer<PreferenceProfile> update) {
+        if (update == null) {
+            throw new JSimPiException("Preference profile update not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            update.accept(preferenceProfile);
+        }
+    }
+
+    /**
+     * Resets the preference profile to its default state.
+     */
+    public void resetPreferenceProfile() {
+        synchronized (preferenceProfile) {
+            preferenceProfileSnapshot = null;
+            preferenceProfile.reset();
+        }
+    }
+
+    /**
+     * Returns an immutable snapshot of the current preference profile. The snapshot is shared by all similarity
+     * computations until the preference profile is modified again.
+     *
+     * @return the preference profile snapshot
+     */
+    private PreferenceProfile currentPreferenceProfile() {
+        PreferenceProfile snapshot = preferenceProfileSnapshot;
+
+        if (snapshot == null) {
+            synchronized (preferenceProfile) {
+                snapshot = preferenceProfileSnapshot;
+                if (snapshot == null) {
+                    snapshot = preferenceProfile.snapshot();
+                    preferenceProfileSnapshot = snapshot;
+                }
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Calculates the similarity between two concepts using the specified implementation method.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the similarity score between the two concepts
+     * @throws JSimPiException if any of the arguments are null or if the file type is not supported
+     */
+    public BigDecimal similarity(ImplementationMethod optionVal, String concept1, String concept2) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concept1 == null || concept2 == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return similarity(optionVal, concept1, concept2, currentPreferenceProfile(), true);
+    }
+
+    /**
+     * Returns an immutable snapshot of the current preference profile, e.g., to create overlays of it with
+     * {@link PreferenceProfile#overlay()} that override a few entries per request.
+     *
+     * @return the preference profile snapshot
+     */
+    public PreferenceProfile getPreferenceProfileSnapshot() {
+        return currentPreferenceProfile();
+    }
+
+    /**
+     * Calculates the similarity between two concepts with the given preference profile instead of the preference
+     * profile of this explainer, which is left untouched. The result is neither retained nor taken from the results
+     * retained for the preference profile of this explainer, unless the given profile is the current snapshot of it.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile the preference profile, e.g., an overlay of {@link #getPreferenceProfileSnapshot()}; a mutable
+     *                profile is snapshotted first, which only copies the overriding entries of an overlay
+     * @return the similarity score between the two concepts
+     * @throws JSimPiException if any of the arguments are null or if the file type is not supported
+     */
+    public BigDecimal similarity(ImplementationMethod optionVal, String concept1, String concept2, PreferenceProfile profile) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concept1 == null || concept2 == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (profile == null) {
+            throw new JSimPiException("Preference profile not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        PreferenceProfile snapshot = profile.snapshot();
+        if (snapshot == preferenceProfileSnapshot) {
+            return similarity(optionVal, concept1, concept2, snapshot, true);
+        }
+
+        return measure(optionVal, concept1, concept2, snapshot).getSimilarity();
+    }
+
+    /**
+     * Calculates the similarity between two concepts, reusing a retained result of the same pair if there is one.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile the immutable preference profile snapshot
+     * @param keepExplanation whether the explanation of a newly measured pair is retained
+     * @return the similarity score between the two concepts
+     */
+    private BigDecimal similarity(ImplementationMethod optionVal, String concept1, String concept2, PreferenceProfile profile, boolean keepExplanation) {
+        BigDecimal retained = retainedSimilarity(optionVal, concept1, concept2, profile);
+        if (retained != null) {
+            return retained;
+        }
+
+        long version = this.ontologyVersion;
+
+        SimilarityResult result = measure(optionVal, concept1, concept2, profile);
+
+        if (keepExplanation) {
+            retain(optionVal, concept1, concept2, profile, version, result);
+        }
+
+        return result.getSimilarity();
+    }
+
+    /**
+     * Looks up the similarity between two concepts among the retained results, and counts the lookup as a cache hit
+     * or miss.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile the immutable preference profile snapshot
+     * @return the retained similarity score, or {@code null} if the pair has to be measured
+     */
+    private BigDecimal retainedSimilarity(ImplementationMethod optionVal, String concept1, String concept2, PreferenceProfile profile) {
+        if (lazyExplanations) {
+            SymmetricPair<String> pair = new SymmetricPair<>(concept1, concept2);
+            ExplanationRecord record = explanationRecords.get(pair);
+            if (record != null && record.getMethod() == optionVal && isCurrent(record, concept1, concept2, profile)) {
+                if (record.getProfileVersion() < profile.getVersion()) {
+                    explanationRecords.replace(pair, record, record.withProfileVersion(profile.getVersion()));
+                }
+
+                metricsRegistry.recordCacheHit(optionVal);
+                return record.getSimilarity();
+            }
+        }
+
+        ExplanationCacheService.CachedExplanation cached = explanationCache.get(concept1, concept2);
+        if (cached != null && cached.getRecord().getMethod() == optionVal && isCurrent(cached.getRecord(), concept1, concept2, profile)) {
+            ExplanationService explanationService = cached.getExplanationService();
+
+            // a result validated against a newer snapshot is stamped with it, so that the next lookup skips the check
+            if (cached.getRecord().getProfileVersion() < profile.getVersion()) {
+                explanationCache.replaceRecord(concept1, concept2, cached.getRecord(), cached.getRecord().withProfileVersion(profile.getVersion()));
+            }
+
+            if (!conceptTrees.containsKey(concept1) || !conceptTrees.containsKey(concept2)) {
+                indexConceptTrees(explanationService.getForwardBacktraceTable(), cached.getRecord().getOntologyVersion());
+            }
+
+            metricsRegistry.recordCacheHit(optionVal);
+            return explanationService.getSimilarity();
+        }
+
+        metricsRegistry.recordCacheMiss(optionVal);
+        return null;
+    }
+
+    /**
+     * Retains the result of a newly measured pair, i.e., its explanation, or only its record in lazy explanation mode,
+     * where explanations are cached by {@link #materializeExplanation(String, String)} alone.
+     *
+     * @param optionVal the implementation method the pair was measured with
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile the immutable preference profile snapshot the pair was measured with
+     * @param version the ontology version read before measuring
+     * @param result the result
+     * @return the cached explanation of the result, or {@code null} in lazy explanation mode
+     */
+    private ExplanationService retain(ImplementationMethod optionVal, String concept1, String concept2, PreferenceProfile profile, long version, SimilarityResult result) {
+        ExplanationRecord record = new ExplanationRecord(concept1, result.getSimilarity(), optionVal, version, profile.getVersion());
+
+        ExplanationService explanationService = null;
+        if (lazyExplanations) {
+            explanationRecords.put(new SymmetricPair<>(concept1, concept2), record);
+        } else {
+            explanationService = addExplanationMap(concept1, concept2, record, result.getForwardBacktraceTable(), result.getBackwardBacktraceTable());
+        }
+
+        indexConceptTrees(result.getForwardBacktraceTable(), version);
+
+        return explanationService;
+    }
+
+    /**
+     * Calculates the similarity between every row concept and every column concept, and retains the explanations.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param rows the row concepts
+     * @param cols the column concepts
+     * @return the similarity matrix, i.e., {@code matrix[i][j]} is the similarity between {@code rows.get(i)} and
+     *         {@code cols.get(j)}
+     * @throws JSimPiException if any of the arguments are null or if any concept does not exist
+     */
+    public double[][] similarityMatrix(ImplementationMethod optionVal, List<String> rows, List<String> cols) {
+        return similarityMatrix(optionVal, rows, cols, true);
+    }
+
+    /**
+     * Calculates the similarity between every row concept and every column concept. The description tree of every
+     * distinct concept is built once before the pairs are measured, row by row, on the configured executor. All pairs
+     * are measured against the same snapshot of the preference profile.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param rows the row concepts
+     * @param cols the column concepts
+     * @param keepExplanations whether the explanations of the measured pairs are retained; skipping them saves the
+     *                         time and memory of caching a backtrace table per pair
+     * @return the similarity matrix, i.e., {@code matrix[i][j]} is the similarity between {@code rows.get(i)} and
+     *         {@code cols.get(j)}
+     * @throws JSimPiException if any of the arguments are null or if any concept does not exist
+     */
+    public double[][] similarityMatrix(ImplementationMethod optionVal, List<String> rows, List<String> cols, boolean keepExplanations) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (rows == null || cols == null || rows.contains(null) || cols.contains(null)) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        Set<String> concepts = new LinkedHashSet<>(rows);
+        concepts.addAll(cols);
+        prepareConcepts(concepts);
+
+        PreferenceProfile profile = currentPreferenceProfile();
+        double[][] matrix = new double[rows.size()][cols.size()];
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            final int row = i;
+
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int col = 0; col < cols.size(); col++) {
+                    matrix[row][col] = similarity(optionVal, rows.get(row), cols.get(col), profile, keepExplanations).doubleValue();
+                }
+            }, executor));
+        }
+
+        join(futures, "Unable to measure similarity matrix.");
+
+        return matrix;
+    }
+
+    /**
+     * Calculates the similarity of every pair of concepts at the same position of both lists. As for
+     * {@link #similarityMatrix(ImplementationMethod, List, List, boolean)}, the description tree of every distinct
+     * concept is built once, the pairs are measured on the configured executor, and all of them against the same
+     * snapshot of the preference profile.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concepts1 the first concept of every pair
+     * @param concepts2 the second concept of every pair
+     * @param keepExplanations whether the explanations of the measured pairs are retained
+     * @return the similarities, i.e., the {@code i}-th one is the similarity between {@code concepts1.get(i)} and
+     *         {@code concepts2.get(i)}
+     * @throws JSimPiException if any of the arguments are null, if the lists differ in size or if any concept does not
+     *                         exist
+     */
+    public BigDecimal[] similarityPairs(ImplementationMethod optionVal, List<String> concepts1, List<String> concepts2, boolean keepExplanations) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concepts1 == null || concepts2 == null || concepts1.contains(null) || concepts2.contains(null)) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concepts1.size() != concepts2.size()) {
+            throw new JSimPiException("Unable to measure similarity pairs as concepts1[" + concepts1.size() + "] and concepts2[" + concepts2.size() + "] differ in size.", ErrorCode.Application_IllegalArguments);
+        }
+
+        Set<String> concepts = new LinkedHashSet<>(concepts1);
+        concepts.addAll(concepts2);
+        prepareConcepts(concepts);
+
+        PreferenceProfile profile = currentPreferenceProfile();
+        BigDecimal[] similarities = new BigDecimal[concepts1.size()];
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(concepts1.size());
+        for (int i = 0; i < concepts1.size(); i++) {
+            final int pair = i;
+
+            futures.add(CompletableFuture.runAsync(() ->
+                    similarities[pair] = similarity(optionVal, concepts1.get(pair), concepts2.get(pair), profile, keepExplanations), executor));
+        }
+
+        join(futures, "Unable to measure similarity pairs.");
+
+        return similarities;
+    }
+
+    private static void join(List<CompletableFuture<Void>> futures, String message) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof JSimPiException) {
+                throw (JSimPiException) e.getCause();
+            }
+
+            throw new JSimPiException(message, e.getCause(), ErrorCode.Application_IllegalArguments);
+        }
+    }
+
+    /**
+     * Retrieves the {@code k} concepts most similar to the given concept, the concept itself excluded. Every candidate
+     * of the concept index is first bounded from above by the roots of both description trees, which is much cheaper
+     * than measuring it, while the similarity of every other concept is 0.
+     * Candidates are then measured in decreasing order of their bounds until no remaining bound reaches the k-th best
+     * similarity found so far, so that the result is the same as that of measuring every candidate. Only the
+     * explanations of the returned concepts are retained.
+     *
+     * @param concept the concept
+     * @param k the number of concepts to retrieve
+     * @param optionVal the implementation method to use for similarity calculation
+     * @return the most similar concepts mapped to their similarities, in decreasing order of similarity and then by
+     *         name
+     * @throws JSimPiException if any of the arguments are null, if {@code k} is not positive or if the concept does
+     *                         not exist
+     */
+    public LinkedHashMap<String, BigDecimal> topK(String concept, int k, ImplementationMethod optionVal) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concept == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (k <= 0) {
+            throw new JSimPiException("Unable to retrieve top k concepts as k[" + k + "] is not positive.", ErrorCode.Application_IllegalArguments);
+        }
+
+        // the index covers every concept of the ontology and is only rebuilt after the ontology has been modified
+        ConceptIndex index = conceptIndex();
+        Set<String> concepts = index.getConceptNames();
+        if (!concepts.contains(concept)) {
+            throw new JSimPiException("Unable to retrieve top k concepts as concept[" + concept + "] does not exist.", ErrorCode.Application_IllegalArguments);
+        }
+
+        long version = this.ontologyVersion;
+        PreferenceProfile profile = currentPreferenceProfile();
+        Set<String> candidates = index.candidates(concept, profile);
+        Comparator<Map.Entry<String, BigDecimal>> bySimilarity = Map.Entry.<String, BigDecimal>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+
+        List<Map.Entry<String, BigDecimal>> bounds = new ArrayList<>(concepts.size());
+        for (String candidate : concepts) {
+            if (!candidate.equals(concept)) {
+                BigDecimal bound = candidates.contains(candidate) ? upperBound(optionVal, concept, candidate, profile) : BigDecimal.ZERO;
+                bounds.add(new AbstractMap.SimpleImmutableEntry<>(candidate, bound));
+            }
+        }
+        bounds.sort(bySimilarity);
+
+        // the worst of the best k found so far is at the head; newly measured results are kept until the end, so that
+        // only the explanations of the best k are retained
+        PriorityQueue<Map.Entry<String, BigDecimal>> best = new PriorityQueue<>(k + 1, bySimilarity.reversed());
+        Map<String, SimilarityResult> measured = new HashMap<>();
+        for (Map.Entry<String, BigDecimal> bound : bounds) {
+            if (best.size() == k && bound.getValue().compareTo(best.peek().getValue()) < 0) {
+                break;
+            }
+
+            BigDecimal similarity = retainedSimilarity(optionVal, concept, bound.getKey(), profile);
+            if (similarity == null) {
+                SimilarityResult result = measure(optionVal, concept, bound.getKey(), profile);
+                measured.put(bound.getKey(), result);
+                similarity = result.getSimilarity();
+            }
+            best.add(new AbstractMap.SimpleImmutableEntry<>(bound.getKey(), similarity));
+
+            if (best.size() > k) {
+                measured.remove(best.poll().getKey());
+            }
+        }
+
+        List<Map.Entry<String, BigDecimal>> entries = new ArrayList<>(best);
+        entries.sort(bySimilarity);
+
+        LinkedHashMap<String, BigDecimal> result = new LinkedHashMap<>();
+        for (Map.Entry<String, BigDecimal> entry : entries) {
+            SimilarityResult measuredResult = measured.get(entry.getKey());
+            if (measuredResult != null) {
+                retain(optionVal, concept, entry.getKey(), profile, version, measuredResult);
+            }
+
+            result.put(entry.getKey(), entry.getValue());
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds every pair of a concept of {@code concepts1} and a concept of {@code concepts2} whose similarity is at
+     * least the given threshold. For a positive threshold, only the pairs of candidates of the concept index are
+     * considered. Every such pair is bounded from above by the roots of both description trees, and only the pairs
+     * whose bound reaches the threshold are measured. The concepts of {@code concepts1} are processed in parallel on
+     * the configured executor, and every matching pair is passed to the consumer as soon as it is measured, one call at
+     * a time, in no particular order.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concepts1 the first concepts
+     * @param concepts2 the second concepts
+     * @param threshold the minimum similarity of the pairs to retrieve
+     * @param consumer the consumer of the matching pairs
+     * @return the number of matching pairs
+     * @throws JSimPiException if any of the arguments are null or if any concept does not exist
+     */
+    public long similarityJoin(ImplementationMethod optionVal, Collection<String> concepts1, Collection<String> concepts2, BigDecimal threshold, Consumer<ConceptPairSimilarity> consumer) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concepts1 == null || concepts2 == null || concepts1.contains(null) || concepts2.contains(null)) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (threshold == null || consumer == null) {
+            throw new JSimPiException("Unable to join concepts as threshold[" + threshold + "] and consumer[" + consumer + "] are null.", ErrorCode.Application_IllegalArguments);
+        }
+
+        List<String> rows = new ArrayList<>(new LinkedHashSet<>(concepts1));
+        List<String> cols = new ArrayList<>(new LinkedHashSet<>(concepts2));
+
+        Set<String> concepts = new LinkedHashSet<>(rows);
+        concepts.addAll(cols);
+        prepareConcepts(concepts);
+
+        PreferenceProfile profile = currentPreferenceProfile();
+        ConceptIndex index = threshold.signum() > 0 ? conceptIndex() : null;
+        AtomicLong count = new AtomicLong();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(rows.size());
+        for (String row : rows) {
+            futures.add(CompletableFuture.runAsync(() -> joinRow(optionVal, row, cols, threshold, profile, index, match -> {
+                synchronized (consumer) {
+                    consumer.accept(match);
+                }
+                count.incrementAndGet();
+            }), executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false));
+
+            if (e.getCause() instanceof JSimPiException) {
+                throw (JSimPiException) e.getCause();
+            }
+
+            throw new JSimPiException("Unable to join concepts.", e.getCause(), ErrorCode.Application_IllegalArguments);
+        }
+
+        return count.get();
+    }
+
+    /**
+     * Finds every concept of {@code cols} whose similarity to the row concept is at least the given threshold, as
+     * {@link #similarityJoin} does for one of its rows.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param row the row concept
+     * @param cols the column concepts
+     * @param threshold the minimum similarity of the pairs to retrieve
+     * @param profile the immutable preference profile snapshot
+     * @param index the concept index to restrict the columns to the candidates of the row, or {@code null}
+     * @param matches the consumer of the matching pairs, called from the calling thread
+     */
+    private void joinRow(ImplementationMethod optionVal, String row, List<String> cols, BigDecimal threshold, PreferenceProfile profile, ConceptIndex index, Consumer<ConceptPairSimilarity> matches) {
+        Set<String> candidates = index != null ? index.candidates(row, profile) : null;
+
+        for (String col : cols) {
+            if (candidates != null && !candidates.contains(col)) {
+                continue;
+            }
+            if (upperBound(optionVal, row, col, profile).compareTo(threshold) < 0) {
+                continue;
+            }
+
+            BigDecimal similarity = similarity(optionVal, row, col, profile, false);
+            if (similarity.compareTo(threshold) >= 0) {
+                matches.accept(new ConceptPairSimilarity(row, col, similarity));
+            }
+        }
+    }
+
+    /**
+     * Publishes every pair of a concept of {@code concepts1} and a concept of {@code concepts2} whose similarity is at
+     * least the given threshold, as {@link #similarityJoin} finds them, while the subscriber demands them. Every
+     * concept of {@code concepts1} is a task of the publisher, run on the configured executor.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concepts1 the first concepts
+     * @param concepts2 the second concepts
+     * @param threshold the minimum similarity of the pairs to publish
+     * @return the publisher, which measures the pairs anew for every subscriber
+     * @throws JSimPiException if any of the arguments are null or if any concept does not exist
+     */
+    public Flow.Publisher<ConceptPairSimilarity> similarityJoinPublisher(ImplementationMethod optionVal, Collection<String> concepts1, Collection<String> concepts2, BigDecimal threshold) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concepts1 == null || concepts2 == null || concepts1.contains(null) || concepts2.contains(null)) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (threshold == null) {
+            throw new JSimPiException("Threshold not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        List<String> rows = new ArrayList<>(new LinkedHashSet<>(concepts1));
+        List<String> cols = new ArrayList<>(new LinkedHashSet<>(concepts2));
+
+        Set<String> concepts = new LinkedHashSet<>(rows);
+        concepts.addAll(cols);
+        prepareConcepts(concepts);
+
+        PreferenceProfile profile = currentPreferenceProfile();
+        ConceptIndex index = threshold.signum() > 0 ? conceptIndex() : null;
+
+        return new SimilarityPublisher(() -> rows.stream().<Supplier<List<ConceptPairSimilarity>>>map(row -> () -> {
+            List<ConceptPairSimilarity> matches = new ArrayList<>();
+            joinRow(optionVal, row, cols, threshold, profile, index, matches::add);
+            return matches;
+        }).iterator(), executor, PUBLISHER_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Publishes the {@code k} concepts most similar to every given concept, as {@link #topK} retrieves them, while the
+     * subscriber demands them. Every given concept is a task of the publisher, run on the configured executor, whose
+     * results are published in decreasing order of similarity.
+     *
+     * @param concepts the concepts
+     * @param k the number of concepts to retrieve per concept
+     * @param optionVal the implementation method to use for similarity calculation
+     * @return the publisher of the pairs of every given concept and its most similar concepts, which measures the
+     *         pairs anew for every subscriber
+     * @throws JSimPiException if any of the arguments are null, if {@code k} is not positive or if any concept does
+     *                         not exist
+     */
+    public Flow.Publisher<ConceptPairSimilarity> topKPublisher(Collection<String> concepts, int k, ImplementationMethod optionVal) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concepts == null || concepts.contains(null)) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (k <= 0) {
+            throw new JSimPiException("Unable to retrieve top k concepts as k[" + k + "] is not positive.", ErrorCode.Application_IllegalArguments);
+        }
+
+        List<String> rows = new ArrayList<>(new LinkedHashSet<>(concepts));
+        Set<String> names = conceptIndex().getConceptNames();
+        for (String row : rows) {
+            if (!names.contains(row)) {
+                throw new JSimPiException("Unable to retrieve top k concepts as concept[" + row + "] does not exist.", ErrorCode.Application_IllegalArguments);
+            }
+        }
+
+        return new SimilarityPublisher(() -> rows.stream().<Supplier<List<ConceptPairSimilarity>>>map(row -> () -> {
+            List<ConceptPairSimilarity> best = new ArrayList<>(k);
+            for (Map.Entry<String, BigDecimal> entry : topK(row, k, optionVal).entrySet()) {
+                best.add(new ConceptPairSimilarity(row, entry.getKey(), entry.getValue()));
+            }
+            return best;
+        }).iterator(), executor, PUBLISHER_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Publishes the similarity between every pair of distinct concepts of the loaded ontology, as
+     * {@link #similarityAllPairs(ImplementationMethod, Writer)} measures them, while the subscriber demands them. Every
+     * row of the upper triangle is split into tasks of a bounded number of pairs, run on the configured executor.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @return the publisher, which measures the pairs anew for every subscriber
+     * @throws JSimPiException if the implementation method is null
+     */
+    public Flow.Publisher<ConceptPairSimilarity> similarityAllPairsPublisher(ImplementationMethod optionVal) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        List<String> concepts = retrieveConceptName();
+        Collections.sort(concepts);
+        prepareConcepts(new LinkedHashSet<>(concepts));
+
+        PreferenceProfile profile = currentPreferenceProfile();
+
+        return new SimilarityPublisher(() -> new Iterator<Supplier<List<ConceptPairSimilarity>>>() {
+            private int row = 0;
+            private int from = 1;
+
+            @Override
+            public boolean hasNext() {
+                return from < concepts.size();
+            }
+
+            @Override
+            public Supplier<List<ConceptPairSimilarity>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                String concept1 = concepts.get(row);
+                int start = from;
+                int end = Math.min(from + PUBLISHER_CHUNK_SIZE, concepts.size());
+
+                from = end;
+                if (from == concepts.size()) {
+                    row++;
+                    from = row + 1;
+                }
+
+                return () -> {
+                    List<ConceptPairSimilarity> results = new ArrayList<>(end - start);
+                    for (int col = start; col < end; col++) {
+                        String concept2 = concepts.get(col);
+                        results.add(new ConceptPairSimilarity(concept1, concept2, similarity(optionVal, concept1, concept2, profile, false)));
+                    }
+                    return results;
+                };
+            }
+        }, executor, PUBLISHER_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Retrieves the concepts whose similarity to the given concept may be greater than 0 with the current preference
+     * profile, according to the inverted index from the primitives and roles of the concepts. The similarity between
+     * the given concept and any other concept of the ontology is 0.
+     *
+     * @param concept the concept
+     * @return the candidate concepts, which include the concept itself
+     * @throws JSimPiException if the concept is null or does not exist
+     */
+    public Set<String> candidates(String concept) {
+        if (concept == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        return conceptIndex().candidates(concept, currentPreferenceProfile());
+    }
+
+    /**
+     * Returns the concept index of the loaded ontology, building it, together with the description trees of all
+     * concepts, on the first request.
+     *
+     * @return the concept index
+     */
+    private ConceptIndex conceptIndex() {
+        ConceptIndex index = this.conceptIndex;
+
+        if (index == null) {
+            synchronized (conceptTrees) {
+                index = this.conceptIndex;
+                if (index == null) {
+                    CompiledOntology compiled = this.compiledOntology;
+                    FileTypeConstant type = this.fileType;
+                    Set<String> concepts = new LinkedHashSet<>(retrieveConceptName());
+                    prepareConcepts(concepts);
+
+                    if (compiled != null) {
+                        index = new ConceptIndex(compiled.getTrees(), new CompiledRoleUnfolder(compiled.getRoleClosures()));
+                    } else {
+                        Map<String, Tree<Set<String>>> trees = new HashMap<>();
+                        for (String concept : concepts) {
+                            trees.put(concept, similarityService.getOrConstructTree(type, concept));
+                        }
+
+                        index = new ConceptIndex(trees, similarityService.getRoleUnfolder(type));
+                    }
+
+                    this.conceptIndex = index;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Validates the given concepts once and builds their description trees, so that measuring many pairs of them
+     * neither repeats the work nor contends for the source ontology.
+     *
+     * @param concepts the distinct concepts
+     * @throws JSimPiException if any concept does not exist or if the file type is not supported
+     */
+    private void prepareConcepts(Set<String> concepts) {
+        String[] names = concepts.toArray(new String[0]);
+        CompiledOntology compiled = this.compiledOntology;
+        FileTypeConstant type = this.fileType;
+
+        boolean valid;
+        if (compiled != null) {
+            valid = validationService.validateIfCompiledClassNamesExist(compiled, names);
+        } else if (type == FileTypeConstant.KRSS_FILE) {
+            valid = validationService.validateIfKRSSClassNamesExist(names);
+        } else if (type == FileTypeConstant.OWL_FILE) {
+            valid = validationService.validateIfOWLClassNamesExist(names);
+        } else {
+            throw new JSimPiException("File type not supported.", ErrorCode.Application_InvalidFileType);
+        }
+
+        if (!valid) {
+            throw new JSimPiException("Unable to measure similarity as concepts" + concepts + " contain invalid names.", ErrorCode.Application_IllegalArguments);
+        }
+
+        if (compiled == null) {
+            for (String name : names) {
+                similarityService.getOrConstructTree(type, name);
+            }
+        }
+    }
+
+    /**
+     * Calculates the similarity between every pair of distinct concepts of the loaded ontology and writes the results
+     * to the specified file, one tab-separated {@code concept1, concept2, similarity} line per pair. As the measures are
+     * symmetric, only the pairs of the upper triangle are measured. The rows are measured in parallel on the
+     * configured executor, and every row is written as soon as it is complete, so that neither the scores nor their
+     * explanations are retained. The first pair that fails stops the job: the rows that have not started are
+     * cancelled, and the running ones stop before their next pair.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param outputPath the path to the output file
+     * @return the number of pairs written
+     * @throws JSimPiException if any of the arguments are null or if the output file cannot be written
+     */
+    public long similarityAllPairs(ImplementationMethod optionVal, String outputPath) {
+        if (outputPath == null) {
+            throw new JSimPiException("Output path not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(outputPath), StandardCharsets.UTF_8)) {
+            return similarityAllPairs(optionVal, writer);
+        } catch (IOException e) {
+            throw new JSimPiException("Unable to write similarities to path[" + outputPath + "].", e, ErrorCode.Application_IOException);
+        }
+    }
+
+    /**
+     * Calculates the similarity between every pair of distinct concepts of the loaded ontology and writes the results
+     * to the specified writer, as {@link #similarityAllPairs(ImplementationMethod, String)} does. The rows are written
+     * in the order they complete.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param writer the writer the results are written to
+     * @return the number of pairs written
+     * @throws JSimPiException if any of the arguments are null or if the results cannot be written
+     */
+    public long similarityAllPairs(ImplementationMethod optionVal, Writer writer) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (writer == null) {
+            throw new JSimPiException("Writer not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        List<String> concepts = retrieveConceptName();
+        Collections.sort(concepts);
+        prepareConcepts(new LinkedHashSet<>(concepts));
+
+        PreferenceProfile profile = currentPreferenceProfile();
+        AtomicLong count = new AtomicLong();
+        // the first failure of any row, which stops the rows still running before their next pair
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(concepts.size());
+        for (int i = 0; i < concepts.size() - 1; i++) {
+            final int row = i;
+
+            futures.add(CompletableFuture.runAsync(() -> {
+                StringBuilder lines = new StringBuilder();
+                String concept1 = concepts.get(row);
+
+                for (int col = row + 1; col < concepts.size(); col++) {
+                    if (failure.get() != null) {
+                        return;
+                    }
+
+                    String concept2 = concepts.get(col);
+                    BigDecimal similarity = measure(optionVal, concept1, concept2, profile).getSimilarity();
+
+                    lines.append(concept1).append('\t').append(concept2).append('\t').append(similarity.toPlainString()).append('\n');
+                }
+
+                try {
+                    synchronized (writer) {
+                        if (failure.get() != null) {
+                            return;
+                        }
+
+                        writer.write(lines.toString());
+                    }
+                } catch (IOException e) {
+                    throw new JSimPiException("Unable to write similarities of concept[" + concept1 + "].", e, ErrorCode.Application_IOException);
+                }
+
+                count.addAndGet(concepts.size() - 1 - row);
+            }, executor));
+        }
+
+        // The first row to fail cancels the rows that have not started yet. The completions are awaited through
+        // whenComplete, so that the failure is recorded before it is rethrown.
+        List<CompletableFuture<Void>> completions = new ArrayList<>(futures.size());
+        for (CompletableFuture<Void> future : futures) {
+            completions.add(future.whenComplete((ignored, e) -> {
+                if (e != null && failure.compareAndSet(null, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e)) {
+                    futures.forEach(other -> other.cancel(false));
+                }
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(completions.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = failure.get() != null ? failure.get() : e.getCause();
+
+            if (cause instanceof JSimPiException) {
+                throw (JSimPiException) cause;
+            }
+
+            throw new JSimPiException("Unable to measure all pairs of concepts.", cause, ErrorCode.Application_IllegalArguments);
+        }
+
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JSimPiException("Unable to write similarities.", e, ErrorCode.Application_IOException);
+        }
+
+        return count.get();
+    }
+
+    /**
+     * Sets the executor that runs batch computations, e.g., {@link #similarityMatrix(ImplementationMethod, List, List)},
+     * and the CPU-bound part of the asynchronous calls, e.g., {@link #similarityAsync(ImplementationMethod, String, String)}.
+     * The common fork-join pool is used by default.
+     *
+     * @param executor the executor
+     */
+    public void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new JSimPiException("Executor not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the executor that runs the I/O-bound part of the asynchronous calls, i.e., the conversion of explanations
+     * into natural language by {@link #getExplantionAsNaturalLanguageAsync(String, String)}. A pool of 16 daemon threads
+     * is used by default. On Java 21 and later, {@code Executors.newVirtualThreadPerTaskExecutor()} runs every call on
+     * a virtual thread instead.
+     *
+     * @param ioExecutor the executor
+     */
+    public void setIoExecutor(Executor ioExecutor) {
+        if (ioExecutor == null) {
+            throw new JSimPiException("Executor not provided", ErrorCode.Application_IllegalArguments);
+        }
+
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Calculates the similarity between two concepts on the configured executor, as
+     * {@link #similarity(ImplementationMethod, String, String)} does.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the future similarity score, which completes exceptionally with the {@code JSimPiException} of an invalid
+     *         call
+     */
+    public CompletableFuture<BigDecimal> similarityAsync(ImplementationMethod optionVal, String concept1, String concept2) {
+        return CompletableFuture.supplyAsync(() -> similarity(optionVal, concept1, concept2), executor);
+    }
+
+    /**
+     * Calculates the similarity between two concepts with the given preference profile on the configured executor, as
+     * {@link #similarity(ImplementationMethod, String, String, PreferenceProfile)} does.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile the preference profile
+     * @return the future similarity score
+     */
+    public CompletableFuture<BigDecimal> similarityAsync(ImplementationMethod optionVal, String concept1, String concept2, PreferenceProfile profile) {
+        return CompletableFuture.supplyAsync(() -> similarity(optionVal, concept1, concept2, profile), executor);
+    }
+
+    /**
+     * Returns the explanation for the similarity between two concepts as a JSON object on the configured executor, as
+     * {@link #getExplanationAsJson(String, String)} does. It may be composed with {@link #similarityAsync}, e.g.,
+     * {@code similarityAsync(m, c1, c2).thenCompose(s -> getExplanationAsJsonAsync(c1, c2))}.
+     *
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the future explanation
+     */
+    public CompletableFuture<JSONObject> getExplanationAsJsonAsync(String concept1, String concept2) {
+        return CompletableFuture.supplyAsync(() -> getExplanationAsJson(concept1, concept2), executor);
+    }
+
+    /**
+     * Converts the explanation for the similarity between two concepts into natural language, as
+     * {@link #getExplantionAsNaturalLanguage(String, String)} does. The explanation is materialized on the configured
+     * executor, while the calls to the OpenAI API, which mostly wait, run on the I/O executor.
+     *
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the future explanation as natural language in JSON format
+     */
+    public CompletableFuture<JSONObject> getExplantionAsNaturalLanguageAsync(String concept1, String concept2) {
+        return getExplanationAsJsonAsync(concept1, concept2)
+                .thenApplyAsync(this::convertToNaturalLanguage, ioExecutor);
+    }
+
+    private JSONObject convertToNaturalLanguage(JSONObject explanation) {
+        return metricsRegistry.time(MetricStage.NATURAL_LANGUAGE_CONVERSION, null,
+                () -> ExplanationConverterService.convertExplanationBiDirectionTree(explanation));
+    }
+
+    /**
+     * Indexes the description trees of the measured concepts by concept name, so that their hierarchies can be looked
+     * up without searching the cached explanations. The trees are shared with the similarity service. A tree whose
+     * concept has been modified since it was built is not indexed.
+     *
+     * @param backtraceTable_forward the forward backtrace table, whose level 0 pairs the roots of both trees
+     * @param version the ontology version the trees were built with
+     */
+    private void indexConceptTrees(BacktraceTable backtraceTable_forward, long version) {
+        HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord> levelMap = backtraceTable_forward.getTable().get(0);
+
+        if (levelMap == null) {
+            return;
+        }
+
+        for (SymmetricPair<TreeNode<Set<String>>> rootPair : levelMap.keySet()) {
+            for (TreeNode<Set<String>> root : Arrays.asList(rootPair.getFirst(), rootPair.getSecond())) {
+                conceptTrees.putIfAbsent(root.getConceptName(), root);
+
+                if (definitionVersion(root.getConceptName()) > version) {
+                    conceptTrees.remove(root.getConceptName(), root);
+                }
+            }
+        }
+    }
+
+    /**
+     * Measures the similarity between two concepts of the loaded ontology with the given preference profile.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile the immutable preference profile snapshot
+     * @return the similarity score together with its backtrace tables
+     */
+    SimilarityResult measure(ImplementationMethod optionVal, String concept1, String concept2, PreferenceProfile profile) {
+        CompiledOntology compiled = this.compiledOntology;
+        FileTypeConstant type = this.fileType;
+
+        if (compiled != null) {
+            CompiledSimilarityController compiledSimilarityController = new CompiledSimilarityController(validationService, similarityService);
+
+            return compiledSimilarityController.measureSimilarity(compiled, concept1, concept2, optionVal, profile);
+        }
+
+        switch (type) {
+            case KRSS_FILE -> {
+                KRSSSimilarityController krssSimilarityController = new KRSSSimilarityController(validationService, similarityService);
+
+                return krssSimilarityController.measureSimilarity(concept1, concept2, optionVal, type, profile);
+            }
+            case OWL_FILE -> {
+                OWLSimilarityController owlSimilarityController = new OWLSimilarityController(validationService, similarityService);
+
+                return owlSimilarityController.measureSimilarity(concept1, concept2, optionVal, type, profile);
+            }
+            default -> throw new JSimPiException("File type not supported.", ErrorCode.Application_InvalidFileType);
+        }
+    }
+
+    /**
+     * Bounds the similarity between two concepts of the loaded ontology from above with the given preference profile.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile the immutable preference profile snapshot
+     * @return an upper bound of the similarity score between the two concepts
+     */
+    private BigDecimal upperBound(ImplementationMethod optionVal, String concept1, String concept2, PreferenceProfile profile) {
+        CompiledOntology compiled = this.compiledOntology;
 
-                        try {
-                            if (fileName.startsWith("primitive-concept-importance")) {
-                                ReadInputPrimitiveConceptImportances(fileAbsPath);
-                            } else if (fileName.startsWith("role-importance")) {
-                                ReadInputRoleImportances(fileAbsPath);
-                            } else if (fileName.startsWith("primitive-concepts-similarity")) {
-                                ReadInputPrimitiveConceptsSimilarities(fileAbsPath);
-                            } else if (fileName.startsWith("primitive-roles-similarity")) {
-                                ReadInputPrimitiveRolesSimilarities(fileAbsPath);
-                            } else if (fileName.startsWith("role-discount-factor")) {
-                                ReadInputRoleDiscountFactors(fileAbsPath);
-                            }
-                        } catch (IOException e) {
-                            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
-                        }
-                    });
-        } catch (IOException e) {
-            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+        if (compiled != null) {
+            return similarityService.upperBoundCompiledConcepts(compiled, concept1, concept2, optionVal, profile);
         }
+
+        return similarityService.upperBoundConceptWithType(concept1, concept2, optionVal, this.fileType, profile);
     }
 
     /**
-     * Constructs a {@code SimExplainer} object and initializes it by loading ontologies from the specified
-     * ontology directory and preference profiles from the specified preference profile directory.
+     * Checks whether a result of a concept pair measured with the given ontology version was measured on the loaded
+     * ontology and neither concept has been modified since.
      *
-     * @param ontologyDirectoryPath the path to the directory containing the ontology files
-     * @param preferenceProfileDirectoryPath the path to the directory containing the preference profile files
+     * @param version the ontology version the result was measured with
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return whether the result is up to date with the ontology
      */
-    public SimExplainer(String ontologyDirectoryPath, String preferenceProfileDirectoryPath) {
-        Path onto_dir = Paths.get(ontologyDirectoryPath);
+    boolean isCurrentOntology(long version, String concept1, String concept2) {
+        return version >= loadedOntologyVersion && version >= definitionVersion(concept1) && version >= definitionVersion(concept2);
+    }
 
-        // ontology path
-        try (Stream<Path> stream = Files.walk(onto_dir)) {
-            stream.filter(Files::isRegularFile)
-                    .forEach(file -> {
-                        String fileName = file.getFileName().toString();
-                        String fileAbsPath = file.toAbsolutePath().toString();
+    /**
+     * Returns the version of the ontology to record with a result that is about to be measured.
+     *
+     * @return the ontology version
+     */
+    long currentOntologyVersion() {
+        return ontologyVersion;
+    }
 
-                        if (fileName.endsWith(".krss") || fileName.endsWith(".owl") || fileName.endsWith(".owx")) {
-                            load_ontology(fileAbsPath);
-                        }
-                    });
-        } catch (IOException e) {
-            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+    /**
+     * Checks whether a retained result of a concept pair is what measuring the pair with the given preference profile
+     * snapshot would produce, i.e., whether it was measured on the loaded ontology, neither concept has been modified
+     * since, and no entry of the preference profile it depends on differs between the snapshot it was measured with
+     * and the given one. The Sim measures only depend on the default role discount factor, while the SimPi measures
+     * also depend on the entries of the primitive concept and role names of both description trees.
+     *
+     * @param record the record of the retained result
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param profile a snapshot of the preference profile of this explainer, e.g., the one a batch has captured
+     * @return whether the result is up to date with respect to the snapshot
+     */
+    private boolean isCurrent(ExplanationRecord record, String concept1, String concept2, PreferenceProfile profile) {
+        if (!isCurrentOntology(record.getOntologyVersion(), concept1, concept2)) {
+            return false;
         }
 
-        if (preferenceProfileDirectoryPath == null) {
-            return;
+        if (record.getProfileVersion() == profile.getVersion()) {
+            return true;
         }
 
-        Path prefer_dir = Paths.get(preferenceProfileDirectoryPath);
-
-        try (Stream<Path> stream = Files.walk(prefer_dir)) {
-            stream.filter(Files::isRegularFile)
-                    .forEach(file -> {
-                        String fileName = file.getFileName().toString();
-                        String fileAbsPath = file.toAbsolutePath().toString();
-
-                        try {
-                            if (fileName.startsWith("primitive-concept-importance")) {
-                                ReadInputPrimitiveConceptImportances(fileAbsPath);
-                            } else if (fileName.startsWith("role-importance")) {
-                                ReadInputRoleImportances(fileAbsPath);
-                            } else if (fileName.startsWith("primitive-concepts-similarity")) {
-                                ReadInputPrimitiveConceptsSimilarities(fileAbsPath);
-                            } else if (fileName.startsWith("primitive-roles-similarity")) {
-                                ReadInputPrimitiveRolesSimilarities(fileAbsPath);
-                            } else if (fileName.startsWith("role-discount-factor")) {
-                                ReadInputRoleDiscountFactors(fileAbsPath);
-                            }
-                        } catch (IOException e) {
-                            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
-                        }
+        // the names modified since the older of both versions include those modified between them
+        long sinceVersion = Math.min(record.getProfileVersion(), profile.getVersion());
 
-                    });
-        } catch (IOException e) {
-            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
+        if (record.getMethod() == ImplementationMethod.DYNAMIC_SIM || record.getMethod() == ImplementationMethod.TOPDOWN_SIM) {
+            return !preferenceProfile.isModifiedSince(sinceVersion, Collections.emptySet());
         }
+
+        return !preferenceProfile.isModifiedSince(sinceVersion, profileDependencies(concept1))
+                && !preferenceProfile.isModifiedSince(sinceVersion, profileDependencies(concept2));
     }
 
     /**
-     * Constructs a {@code SimExplainer} object and initializes it by loading the ontology and preference
-     * profile files from the specified paths.
+     * Returns the names of the preference profile entries that the similarities of a concept may depend on, i.e.,
+     * every primitive concept name of its description tree and every role name of its edges together with their
+     * super-roles.
      *
-     * @param ontologyPath the path to the ontology file
-     * @param primitiveConceptImportancePath the path to the primitive concept importance file
-     * @param roleImportancePath the path to the role importance file
-     * @param primitiveConceptsSimilarityPath the path to the primitive concepts similarity file
-     * @param primitiveRolesSimilarityPath the path to the primitive roles similarity file
-     * @param roleDiscountFactorPath the path to the role discount factor file
+     * @param concept the concept
+     * @return the names
      */
-    public SimExplainer(
-            String ontologyPath,
-            String primitiveConceptImportancePath,
-            String roleImportancePath,
-            String primitiveConceptsSimilarityPath,
-            String primitiveRolesSimilarityPath,
-            String roleDiscountFactorPath) {
+    private Set<String> profileDependencies(String concept) {
+        Set<String> names = conceptDependencies.get(concept);
 
-        // ontology
-        load_ontology(ontologyPath);
+        if (names == null) {
+            long version = this.ontologyVersion;
+            CompiledOntology compiled = this.compiledOntology;
+            FileTypeConstant type = this.fileType;
 
-        // preferences profile file
-        try {
-            if (primitiveConceptImportancePath != null) {
-                this.ReadInputPrimitiveConceptImportances(primitiveConceptImportancePath);
-            }
-            if (roleImportancePath != null) {
-                this.ReadInputRoleImportances(roleImportancePath);
-            }
-            if (primitiveConceptsSimilarityPath != null) {
-                this.ReadInputPrimitiveConceptsSimilarities(primitiveConceptsSimilarityPath);
-            }
-            if (primitiveRolesSimilarityPath != null) {
-                this.ReadInputPrimitiveRolesSimilarities(primitiveRolesSimilarityPath);
+            Tree<Set<String>> tree = compiled != null ? compiled.getTree(concept) : similarityService.getOrConstructTree(type, concept);
+            IRoleUnfolder roleUnfolder = compiled != null ? new CompiledRoleUnfolder(compiled.getRoleClosures()) : similarityService.getRoleUnfolder(type);
+
+            names = new HashSet<>();
+            for (TreeNode<Set<String>> node : tree.getNodes().values()) {
+                names.addAll(node.getData());
+
+                if (node.getEdgeToParent() != null) {
+                    names.add(node.getEdgeToParent());
+                    names.addAll(roleUnfolder.unfoldRoleHierarchy(node.getEdgeToParent()));
+                }
             }
-            if (roleDiscountFactorPath != null) {
-                this.ReadInputRoleDiscountFactors(roleDiscountFactorPath);
+
+            conceptDependencies.putIfAbsent(concept, names);
+
+            if (definitionVersion(concept) > version) {
+                conceptDependencies.remove(concept, names);
             }
-        } catch (IOException exception) {
-            throw new JSimPiException("File not found", ErrorCode.Application_InvalidPath);
         }
+
+        return names;
     }
 
     /**
-     * Loads the ontology from the specified path and initializes the appropriate service context based on
-     * the file type.
+     * Returns the explanation of a measured concept pair, oriented from {@code concept1} to {@code concept2}. An
+     * explanation that is no longer cached is recomputed from its record, with the same implementation method, and is
+     * cached again. It is recomputed with the current ontology and preference profile, which yields the recorded result
+     * unless either concept, or an entry of the preference profile the pair depends on, has been modified since.
      *
-     * @param ontologyPath the path to the ontology file
-     * @throws JSimPiException if the file type is not supported
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the explanation
+     * @throws JSimPiException if the pair has not been measured, or if its explanation can no longer be recomputed
      */
-    private void load_ontology(String ontologyPath) {
-        File ontologyFile = new File(ontologyPath);
+    private ExplanationService materializeExplanation(String concept1, String concept2) {
+        ExplanationCacheService.CachedExplanation cached = explanationCache.get(concept1, concept2);
+        ExplanationRecord record = cached != null ? cached.getRecord() : explanationRecords.get(new SymmetricPair<>(concept1, concept2));
 
-        this.fileType = ValidationService.checkOWLandKRSSFile(ontologyFile);
+        if (record == null) {
+            throw new JSimPiException("Similarity between [" + concept1 + "] and [" + concept2 + "] has not been calculated yet or its explanation has been evicted.", ErrorCode.Application_IllegalArguments);
+        }
 
-        switch (fileType) {
-            case OWL_FILE:
-                owlServiceContext.init(ontologyPath);
-                break;
-            case KRSS_FILE:
-                krssServiceContext.init(ontologyPath);
-                break;
-            default:
-                throw new JSimPiException("File type not supported", ErrorCode.Application_InvalidFileType);
+        if (record.getOntologyVersion() < loadedOntologyVersion) {
+            throw new JSimPiException("Explanation between [" + concept1 + "] and [" + concept2 + "] cannot be recomputed as another ontology has been loaded since.", ErrorCode.Application_IllegalArguments);
         }
-    }
 
-    /**
-     * Reads primitive concept importances from the specified file and adds them to the preference profile.
-     *
-     * @param pathToFile the path to the file containing primitive concept importances
-     * @throws IOException if an I/O error occurs while reading the file
-     */
-    public void ReadInputPrimitiveConceptImportances(String pathToFile) throws IOException {
-        String[] primitiveConceptImportances = StringUtils.split(FileUtils.readFileToString(new File(pathToFile)), "\n");
-        for (String primitiveConceptImportance : primitiveConceptImportances) {
-            String[] str = StringUtils.split(primitiveConceptImportance);
-            preferenceProfile.addPrimitiveConceptImportance(str[0], new BigDecimal(str[1]));
+        PreferenceProfile profile = currentPreferenceProfile();
+        if (cached != null && isCurrent(record, concept1, concept2, profile)) {
+            return cached.getExplanationService();
+        }
+
+        long version = this.ontologyVersion;
+        SimilarityResult result = measure(record.getMethod(), concept1, concept2, profile);
+        ExplanationRecord materialized = new ExplanationRecord(concept1, result.getSimilarity(), record.getMethod(), version, profile.getVersion());
+
+        if (lazyExplanations) {
+            explanationRecords.put(new SymmetricPair<>(concept1, concept2), materialized);
         }
+
+        ExplanationService explanationService = new ExplanationService(result.getSimilarity(), result.getForwardBacktraceTable(), result.getBackwardBacktraceTable());
+        explanationCache.put(concept1, concept2, materialized, explanationService);
+
+        return explanationService;
     }
 
     /**
-     * Reads role importances from the specified file and adds them to the preference profile.
+     * Switches between keeping the explanation of every measured pair, up to the explanation cache budget, and keeping
+     * only a small record per pair, i.e., its score, implementation method and the ontology and preference profile
+     * versions. In the latter mode, explanations are recomputed on demand and only the recently materialized ones
+     * are cached. Switching clears every cached explanation and record.
      *
-     * @param pathToFile the path to the file containing role importances
-     * @throws IOException if an I/O error occurs while reading the file
+     * @param lazyExplanations whether explanations are recomputed on demand
      */
-    public void ReadInputRoleImportances(String pathToFile) throws IOException {
-        String[] roleImportances = StringUtils.split(FileUtils.readFileToString(new File(pathToFile)), "\n");
-        for (String roleImportance : roleImportances) {
-            String[] str = StringUtils.split(roleImportance);
-            preferenceProfile.addRoleImportance(str[0], new BigDecimal(str[1]));
-        }
+    public void setLazyExplanations(boolean lazyExplanations) {
+        this.lazyExplanations = lazyExplanations;
+        this.explanationRecords.clear();
+        this.explanationCache = lazyExplanations
+                ? new ExplanationCacheService(LAZY_EXPLANATION_CACHE_BYTES, false)
+                : new ExplanationCacheService();
     }
 
     /**
-     * Reads primitive concepts similarities from the specified file and adds them to the preference profile.
+     * Adds an explanation of the similarity between two concepts to the explanation cache.
      *
-     * @param pathToFile the path to the file containing primitive concepts similarities
-     * @throws IOException if an I/O error occurs while reading the file
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param record the record of the evaluation
+     * @param backtraceTable_forward the forward backtrace table
+     * @param backtraceTable_backward the backward backtrace table
      */
-    public void ReadInputPrimitiveConceptsSimilarities(String pathToFile) throws IOException {
-        String[] primitiveConceptsSimilarities = StringUtils.split(FileUtils.readFileToString(new File(pathToFile)), "\n");
-        for (String primitiveConceptsSimilarity : primitiveConceptsSimilarities) {
-            String[] str = StringUtils.split(primitiveConceptsSimilarity);
-            preferenceProfile.addPrimitveConceptsSimilarity(str[0], str[1], new BigDecimal(str[2]));
-        }
+    private ExplanationService addExplanationMap(String concept1, String concept2, ExplanationRecord record, BacktraceTable backtraceTable_forward, BacktraceTable backtraceTable_backward) {
+        ExplanationService explanationService;
+
+        explanationService = new ExplanationService(record.getSimilarity(), backtraceTable_forward, backtraceTable_backward);
+
+        explanationCache.put(concept1, concept2, record, explanationService);
+
+        return explanationService;
     }
 
     /**
-     * Reads primitive roles similarities from the specified file and adds them to the preference profile.
+     * Replaces the explanation cache by an empty one with the given budget. Explanations are evicted, least recently
+     * used first, once the estimated heap held by their backtrace tables exceeds the budget. An evicted explanation
+     * is computed again by the next {@code similarity} call of its concept pair.
      *
-     * @param pathToFile the path to the file containing primitive roles similarities
-     * @throws IOException if an I/O error occurs while reading the file
+     * @param maxBytes the estimated heap budget in bytes
+     * @param softValues whether cached explanations may also be reclaimed by the garbage collector under memory pressure
      */
-    public void ReadInputPrimitiveRolesSimilarities(String pathToFile) throws IOException {
-        String[] primitiveRolesSimilarities = StringUtils.split(FileUtils.readFileToString(new File(pathToFile)), "\n");
-        for (String primitiveRolesSimilarity : primitiveRolesSimilarities) {
-            String[] str = StringUtils.split(primitiveRolesSimilarity);
-            preferenceProfile.addPrimitiveRolesSimilarity(str[0], str[1], new BigDecimal(str[2]));
-        }
+    public void configureExplanationCache(long maxBytes, boolean softValues) {
+        this.explanationCache = new ExplanationCacheService(maxBytes, softValues);
     }
 
     /**
-     * Reads role discount factors from the specified file and adds them to the preference profile.
+     * Returns the hit, miss and eviction counts and the estimated size of the explanation cache.
      *
-     * @param pathToFile the path to the file containing role discount factors
-     * @throws IOException if an I/O error occurs while reading the file
+     * @return the explanation cache statistics
      */
-    public void ReadInputRoleDiscountFactors(String pathToFile) throws IOException {
-        String[] roleDiscountFactors = StringUtils.split(FileUtils.readFileToString(new File(pathToFile)), "\n");
-        for (String roleDiscountFactor : roleDiscountFactors) {
-            String[] str = StringUtils.split(roleDiscountFactor);
-            preferenceProfile.addRoleDiscountFactor(str[0], new BigDecimal(str[1]));
-        }
+    public ExplanationCacheService.Statistics getExplanationCacheStatistics() {
+        return explanationCache.getStatistics();
     }
 
     /**
-     * Sets the default role discount factor in the preference profile.
+     * Returns the latencies of every evaluation stage, i.e., unfolding, tree building, forward and backward reasoning,
+     * explanation rendering and natural language conversion, together with the node pairs evaluated and the hits and
+     * misses of retained results per implementation method, cumulative since this explainer was created or the
+     * metrics were last reset. The snapshot can be exported with {@link MetricsSnapshot#toJson()} or
+     * {@link MetricsSnapshot#toPrometheus()}.
      *
-     * @param value the default role discount factor
+     * @return the metrics snapshot
      */
-    public void setDefaultRoleDiscountFactor(BigDecimal value) {
-        preferenceProfile.setDefaultRoleDiscountFactor(value);
+    public MetricsSnapshot getMetricsSnapshot() {
+        return metricsRegistry.snapshot();
     }
 
     /**
-     * Resets the preference profile to its default state.
+     * Drops every latency and count recorded so far.
      */
-    public void resetPreferenceProfile() {
-        preferenceProfile.reset();
+    public void resetMetrics() {
+        metricsRegistry.reset();
     }
 
     /**
-     * Calculates the similarity between two concepts using the specified implementation method.
+     * Estimates the heap held by the loaded ontology, i.e., by its definitions, by the description trees and role
+     * closures built so far, and by the retained explanations and records.
      *
-     * @param optionVal the implementation method to use for similarity calculation
-     * @param concept1 the first concept
-     * @param concept2 the second concept
-     * @return the similarity score between the two concepts
-     * @throws JSimPiException if any of the arguments are null or if the file type is not supported
+     * @return the estimated resident size
      */
-    public BigDecimal similarity(ImplementationMethod optionVal, String concept1, String concept2) {
-        if (optionVal == null) {
-            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+    public ResidentSize getResidentSize() {
+        long sourceBytes = 0;
+        if (krssServiceContext.getKrssFile() != null) {
+            sourceBytes += krssServiceContext.estimateResidentBytes();
         }
-        if (concept1 == null || concept2 == null) {
-            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
+        if (owlServiceContext.getOwlFile() != null) {
+            sourceBytes += owlServiceContext.estimateResidentBytes();
         }
 
-        // result variable
-        BigDecimal result;
-
-        SymmetricPair<String> pair = new SymmetricPair<>(concept1, concept2);
-
-        if (explanationMap.containsKey(pair)) {
-            return explanationMap.get(pair).getSimilarity();
+        // Trees of a compiled ontology are shared with the similarity service unless it was loaded from a snapshot.
+        long compiledBytes = similarityService.estimateResidentBytes();
+        CompiledOntology compiled = this.compiledOntology;
+        if (compiled != null && sourceBytes == 0) {
+            compiledBytes += compiled.estimateResidentBytes();
         }
 
-        switch (this.fileType) {
-            case KRSS_FILE -> {
-                KRSSSimilarityController krssSimilarityController = new KRSSSimilarityController(validationService, similarityService);
-
-                result = krssSimilarityController.measureSimilarity(concept1, concept2, optionVal, this.fileType);
-                List<BacktraceTable> backtraceTables = krssSimilarityController.getBacktraceTables();
-
-                addExplanationMap(concept1, concept2, result, backtraceTables.get(0), backtraceTables.get(1));
-            }
-            case OWL_FILE -> {
-                OWLSimilarityController owlSimilarityController = new OWLSimilarityController(validationService, similarityService);
-
-                result = owlSimilarityController.measureSimilarity(concept1, concept2, optionVal, this.fileType);
-                List<BacktraceTable> backtraceTables = owlSimilarityController.getBacktraceTables();
-
-                addExplanationMap(concept1, concept2, result, backtraceTables.get(0), backtraceTables.get(1));
-            }
-            default -> throw new JSimPiException("File type not supported.", ErrorCode.Application_InvalidFileType);
-        }
+        long explanationBytes = explanationCache.getStatistics().getEstimatedBytes()
+                + (long) RECORD_BYTES * explanationRecords.size();
 
-        return result;
+        return new ResidentSize(sourceBytes, compiledBytes, explanationBytes);
     }
 
     /**
-     * Adds an explanation of the similarity between two concepts to the explanation map.
-     *
-     * @param concept1 the first concept
-     * @param concept2 the second concept
-     * @param similarity the similarity score between the two concepts
-     * @param backtraceTable_forward the forward backtrace table
-     * @param backtraceTable_backward the backward backtrace table
+     * Estimated resident size of a loaded ontology.
      */
-    private void addExplanationMap(String concept1, String concept2, BigDecimal similarity, BacktraceTable backtraceTable_forward, BacktraceTable backtraceTable_backward) {
-        ExplanationService explanationService;
+    public static class ResidentSize {
+        private final long sourceBytes;
+        private final long compiledBytes;
+        private final long explanationBytes;
+
+        public ResidentSize(long sourceBytes, long compiledBytes, long explanationBytes) {
+            this.sourceBytes = sourceBytes;
+            this.compiledBytes = compiledBytes;
+            this.explanationBytes = explanationBytes;
+        }
+
+        public long getSourceBytes() {
+            return sourceBytes;
+        }
+
+        public long getCompiledBytes() {
+            return compiledBytes;
+        }
 
-        explanationService = new ExplanationService(similarity, backtraceTable_forward, backtraceTable_backward);
+        public long getExplanationBytes() {
+            return explanationBytes;
+        }
 
-        SymmetricPair<String> pair = new SymmetricPair<>(concept1, concept2);
+        public long getTotalBytes() {
+            return sourceBytes + compiledBytes + explanationBytes;
+        }
 
-        explanationMap.put(pair, explanationService);
+        @Override
+        public String toString() {
+            return "ResidentSize{sourceBytes=" + sourceBytes + ", compiledBytes=" + compiledBytes
+                    + ", explanationBytes=" + explanationBytes + ", totalBytes=" + getTotalBytes() + "}";
+        }
     }
 
     /**
@@ -385,15 +2130,10 @@ public class SimExplainer {
         StringBuilder builder = new StringBuilder();
 
         for (String concept : concepts) {
-            for (Map.Entry<SymmetricPair<String>, ExplanationService> entry : explanationMap.entrySet()) {
-                ExplanationService explanationService = entry.getValue();
+            TreeNode<Set<String>> root = conceptTrees.get(concept);
 
-                try {
-                    builder.append(explanationService.treeHierarchy(concept));
-                    break;
-                } catch (JSimPiException e) {
-                    // do nothing
-                }
+            if (root != null) {
+                builder.append(ExplanationService.treeHierarchy(root));
             }
         }
 
@@ -412,16 +2152,10 @@ public class SimExplainer {
             throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
         }
 
-        JSONObject resultJson = new JSONObject();
-
-        for (Map.Entry<SymmetricPair<String>, ExplanationService> entry : explanationMap.entrySet()) {
-            ExplanationService explanationService = entry.getValue();
+        TreeNode<Set<String>> root = conceptTrees.get(concept);
 
-            try {
-                return explanationService.treeHierarchyAsJson(concept);
-            } catch (JSimPiException e) {
-                // do nothing
-            }
+        if (root != null) {
+            return ExplanationService.treeHierarchyAsJson(root);
         }
 
         throw new JSimPiException("[" + concept + "] has not been processed yet", ErrorCode.Application_IllegalArguments);
@@ -461,30 +2195,16 @@ public class SimExplainer {
             throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
         }
 
-        SymmetricPair<String> pair = new SymmetricPair<>(concept1, concept2);
-
-        if (!explanationMap.containsKey(pair)) {
-            throw new JSimPiException("Similarity between [" + concept1 + "] and [" + concept2 + "] has not been calculated yet.", ErrorCode.Application_IllegalArguments);
-        }
-
-        ExplanationService explanationService = null;
-        for (SymmetricPair<String> key : explanationMap.keySet()) {
-            if (key.equals(pair)) {
-                if (key.equalsOrder(pair)) {
-                    explanationService = explanationMap.get(pair);
-                } else {
-                    ExplanationService tmp = explanationMap.get(pair);
-                    explanationService = new ExplanationService(tmp.getSimilarity(), tmp.getBackwardBacktraceTable(), tmp.getForwardBacktraceTable());
-                }
-            }
-        }
+        ExplanationService explanationService = materializeExplanation(concept1, concept2);
 
-        Explanation explanation = new Explanation();
-        explanation.similarity = explanationService.getSimilarity();
-        explanation.forward = explanationService.explanationTree(ReasoningDirectionConstant.FORWARD);
-        explanation.backward = explanationService.explanationTree(ReasoningDirectionConstant.BACKWARD);
+        return metricsRegistry.time(MetricStage.EXPLANATION_RENDERING, null, () -> {
+            Explanation explanation = new Explanation();
+            explanation.similarity = explanationService.getSimilarity();
+            explanation.forward = explanationService.explanationTree(ReasoningDirectionConstant.FORWARD);
+            explanation.backward = explanationService.explanationTree(ReasoningDirectionConstant.BACKWARD);
 
-        return explanation;
+            return explanation;
+        });
     }
 
     class Explanation {
@@ -508,30 +2228,61 @@ public class SimExplainer {
             throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
         }
 
-        SymmetricPair<String> pair = new SymmetricPair<>(concept1, concept2);
+        return explanationAsJson(materializeExplanation(concept1, concept2));
+    }
 
-        if (!explanationMap.containsKey(pair)) {
-            throw new JSimPiException("Similarity between [" + concept1 + "] and [" + concept2 + "] has not been calculated yet.", ErrorCode.Application_IllegalArguments);
+    /**
+     * Calculates the similarity between two concepts, as {@link #similarity(ImplementationMethod, String, String)}
+     * does, and returns the explanation of that very result as a JSON object. Unlike calling {@code similarity} and
+     * then {@link #getExplanationAsJson(String, String)}, the explanation cannot be replaced in between by a
+     * concurrent measurement of the same pair with another implementation method.
+     *
+     * @param optionVal the implementation method to use for similarity calculation
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the explanation of the similarity as a JSON object
+     * @throws JSimPiException if any of the arguments are null or if any concept does not exist
+     */
+    public JSONObject getExplanationAsJson(ImplementationMethod optionVal, String concept1, String concept2) {
+        if (optionVal == null) {
+            throw new JSimPiException("Option not provided", ErrorCode.Application_IllegalArguments);
+        }
+        if (concept1 == null || concept2 == null) {
+            throw new JSimPiException("Concept not provided", ErrorCode.Application_IllegalArguments);
         }
 
-        ExplanationService explanationService = null;
-        for (SymmetricPair<String> key : explanationMap.keySet()) {
-            if (key.equals(pair)) {
-                if (key.equalsOrder(pair)) {
-                    explanationService = explanationMap.get(pair);
-                } else {
-                    ExplanationService tmp = explanationMap.get(pair);
-                    explanationService = new ExplanationService(tmp.getSimilarity(), tmp.getBackwardBacktraceTable(), tmp.getForwardBacktraceTable());
-                }
+        PreferenceProfile profile = currentPreferenceProfile();
+
+        ExplanationService explanationService;
+        ExplanationCacheService.CachedExplanation cached = explanationCache.get(concept1, concept2);
+        if (cached != null && cached.getRecord().getMethod() == optionVal && isCurrent(cached.getRecord(), concept1, concept2, profile)) {
+            metricsRegistry.recordCacheHit(optionVal);
+            explanationService = cached.getExplanationService();
+        } else {
+            metricsRegistry.recordCacheMiss(optionVal);
+
+            long version = this.ontologyVersion;
+            SimilarityResult result = measure(optionVal, concept1, concept2, profile);
+            explanationService = retain(optionVal, concept1, concept2, profile, version, result);
+
+            // in lazy explanation mode, the result just measured is rendered without being cached
+            if (explanationService == null) {
+                explanationService = new ExplanationService(result.getSimilarity(), result.getForwardBacktraceTable(), result.getBackwardBacktraceTable());
             }
         }
 
-        JSONObject explanation = new JSONObject();
-        explanation.put("similarity", explanationService.getSimilarity());
-        explanation.put("forward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.FORWARD));
-        explanation.put("backward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.BACKWARD));
+        return explanationAsJson(explanationService);
+    }
+
+    private JSONObject explanationAsJson(ExplanationService explanationService) {
+        return metricsRegistry.time(MetricStage.EXPLANATION_RENDERING, null, () -> {
+            JSONObject explanation = new JSONObject();
+            explanation.put("similarity", explanationService.getSimilarity());
+            explanation.put("forward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.FORWARD));
+            explanation.put("backward", explanationService.explanationTreeAsJson(ReasoningDirectionConstant.BACKWARD));
 
-        return explanation;
+            return explanation;
+        });
     }
 
     /**
@@ -583,7 +2334,7 @@ public class SimExplainer {
     public JSONObject getExplantionAsNaturalLanguage(String concept1, String concept2) {
         JSONObject explanation = getExplanationAsJson(concept1, concept2);
 
-        return ExplanationConverterService.convertExplanationBiDirectionTree(explanation);
+        return convertToNaturalLanguage(explanation);
     }
 
     /**
@@ -616,6 +2367,11 @@ public class SimExplainer {
     public List<String> retrieveConceptName() {
         List<String> conceptNames = new ArrayList<>();
 
+        if (compiledOntology != null) {
+            conceptNames.addAll(compiledOntology.getConceptNames());
+            return conceptNames;
+        }
+
         switch (fileType) {
             case OWL_FILE:
                 ShortFormProvider shortFormProvider = new SimpleShortFormProvider();
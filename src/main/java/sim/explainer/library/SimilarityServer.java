@@ -0,0 +1,432 @@
+package sim.explainer.library;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.metrics.MetricsSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Serves the similarity queries of a {@code SimExplainer} over HTTP, with JSON responses:
+ * <ul>
+ *     <li>{@code GET /similarity?concept1=A&concept2=B&method=DYNAMIC_SIMPI}</li>
+ *     <li>{@code POST /similarity/batch} with a {@code {"method": "DYNAMIC_SIMPI", "pairs": [["A", "B"], ...]}} body</li>
+ *     <li>{@code GET /topk?concept=A&k=10&method=DYNAMIC_SIMPI}</li>
+ *     <li>{@code GET /explanation?concept1=A&concept2=B&method=DYNAMIC_SIMPI}</li>
+ *     <li>{@code GET /health}</li>
+ *     <li>{@code GET /metrics}, in the Prometheus text format, or {@code GET /metrics?format=json}</li>
+ * </ul>
+ * The method parameter is optional and defaults to {@code DYNAMIC_SIMPI}.
+ *
+ * Requests are queued for a fixed pool of worker threads. A request that finds the queue full is answered with
+ * {@code 503 Service Unavailable} right away, as is an explanation request beyond the limit of concurrent
+ * explanations, so that a load balancer can retry it elsewhere. Invalid requests are answered with {@code 400}, and
+ * any other failure with {@code 500}. A batch body above {@link #MAX_PAIR_BYTES} bytes per pair of the batch size
+ * limit is answered with {@code 413} before it is read in full.
+ * Metrics are answered right away without being queued, so that they can be scraped also while the queue is full.
+ */
+public class SimilarityServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarityServer.class);
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 10000;
+
+    /**
+     * The body bytes allowed per pair of a batch, which leave room for long concept names and for the JSON around them.
+     */
+    static final int MAX_PAIR_BYTES = 1024;
+
+    private static final ImplementationMethod DEFAULT_METHOD = ImplementationMethod.DYNAMIC_SIMPI;
+
+    private final SimExplainer explainer;
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore explanationPermits;
+    private final int maxBatchSize;
+    private final int maxBodyBytes;
+
+    private SimilarityServer(SimExplainer explainer, int port, int workerThreads, int queueCapacity, int maxBatchSize, int maxConcurrentExplanations) throws IOException {
+        this.explainer = explainer;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBodyBytes = (int) Math.min(Integer.MAX_VALUE - 8, (long) maxBatchSize * MAX_PAIR_BYTES + MAX_PAIR_BYTES);
+        this.explanationPermits = new Semaphore(maxConcurrentExplanations);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "sim-explainer-http-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext("/similarity", exchange -> dispatch(exchange, "GET", this::similarity));
+        this.server.createContext("/similarity/batch", exchange -> dispatch(exchange, "POST", this::similarityBatch));
+        this.server.createContext("/topk", exchange -> dispatch(exchange, "GET", this::topK));
+        this.server.createContext("/explanation", exchange -> dispatch(exchange, "GET", this::explanation));
+        this.server.createContext("/health", exchange -> dispatch(exchange, "GET", this::health));
+        this.server.createContext("/metrics", this::metrics);
+        this.server.start();
+    }
+
+    /**
+     * Starts serving an explainer on the given port with one worker per available processor, the default queue
+     * capacity and batch size, and as many concurrent explanations as workers.
+     *
+     * @param explainer the explainer
+     * @param port the port, or 0 for an ephemeral port
+     * @return the running server, which must be closed to stop serving
+     */
+    public static SimilarityServer start(SimExplainer explainer, int port) {
+        int workerThreads = Runtime.getRuntime().availableProcessors();
+
+        return start(explainer, port, workerThreads, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH_SIZE, workerThreads);
+    }
+
+    /**
+     * Starts serving an explainer on the given port.
+     *
+     * @param explainer the explainer
+     * @param port the port, or 0 for an ephemeral port
+     * @param workerThreads the number of worker threads answering requests
+     * @param queueCapacity the maximum number of requests waiting for a worker
+     * @param maxBatchSize the maximum number of pairs of a batch request
+     * @param maxConcurrentExplanations the maximum number of explanation requests answered at a time
+     * @return the running server, which must be closed to stop serving
+     * @throws JSimPiException if any argument is invalid or if the port cannot be bound
+     */
+    public static SimilarityServer start(SimExplainer explainer, int port, int workerThreads, int queueCapacity, int maxBatchSize, int maxConcurrentExplanations) {
+        if (explainer == null) {
+            throw new JSimPiException("Unable to start server as explainer is null.", ErrorCode.Application_IllegalArguments);
+        }
+        if (workerThreads <= 0 || queueCapacity <= 0 || maxBatchSize <= 0 || maxConcurrentExplanations <= 0) {
+            throw new JSimPiException("Unable to start server as workerThreads[" + workerThreads + "], queueCapacity[" + queueCapacity + "], maxBatchSize["
+                    + maxBatchSize + "] and maxConcurrentExplanations[" + maxConcurrentExplanations + "] are not all positive.", ErrorCode.Application_IllegalArguments);
+        }
+
+        try {
+            return new SimilarityServer(explainer, port, workerThreads, queueCapacity, maxBatchSize, maxConcurrentExplanations);
+        } catch (IOException e) {
+            throw new JSimPiException("Unable to start server on port[" + port + "].", e, ErrorCode.Application_IOException);
+        }
+    }
+
+    /**
+     * Loads the ontology and preference profile files from a directory and serves them until the process is stopped.
+     *
+     * @param args the directory, optionally followed by {@code --port=}, {@code --workers=}, {@code --queue=},
+     *             {@code --max-batch=} and {@code --max-explanations=} options
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: SimilarityServer <ontologyAndProfileDirectory> [--port=8080] [--workers=N] [--queue=1024] [--max-batch=10000] [--max-explanations=N]");
+            System.exit(2);
+        }
+
+        Map<String, String> options = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+
+        int workerThreads = Integer.parseInt(options.getOrDefault("workers", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        SimilarityServer server = start(new SimExplainer(args[0]),
+                Integer.parseInt(options.getOrDefault("port", String.valueOf(DEFAULT_PORT))),
+                workerThreads,
+                Integer.parseInt(options.getOrDefault("queue", String.valueOf(DEFAULT_QUEUE_CAPACITY))),
+                Integer.parseInt(options.getOrDefault("max-batch", String.valueOf(DEFAULT_MAX_BATCH_SIZE))),
+                Integer.parseInt(options.getOrDefault("max-explanations", String.valueOf(workerThreads))));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Serving directory[" + args[0] + "] on port[" + server.getPort() + "].");
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Queues a request for the workers, or answers it right away if it cannot be queued or does not match its
+     * context exactly.
+     */
+    private void dispatch(HttpExchange exchange, String method, Function<HttpExchange, JSONObject> handler) {
+        if (!accept(exchange, method)) {
+            return;
+        }
+
+        try {
+            workers.execute(() -> respond(exchange, handler));
+        } catch (RejectedExecutionException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, error("Request queue is full"));
+        }
+    }
+
+    /**
+     * Answers a request that does not match its context exactly or uses another method.
+     *
+     * @return whether the request matches its context and method, and is still to be answered
+     */
+    private static boolean accept(HttpExchange exchange, String method) {
+        if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+            send(exchange, 404, error("Not found"));
+            return false;
+        }
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            send(exchange, 405, error("Method not allowed"));
+            return false;
+        }
+
+        return true;
+    }
+
+    private void respond(HttpExchange exchange, Function<HttpExchange, JSONObject> handler) {
+        try {
+            send(exchange, 200, handler.apply(exchange));
+        } catch (StatusException e) {
+            if (e.status == 503) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            send(exchange, e.status, error(e.getMessage()));
+        } catch (JSimPiException e) {
+            int status = status(e.getErrorCode());
+            if (status == 500) {
+                logger.warn("Unable to answer request[" + exchange.getRequestURI() + "].", e);
+            }
+            send(exchange, status, error(e.getMessage()).put("code", e.getErrorCode().toString()));
+        } catch (JSONException | IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.warn("Unable to answer request[" + exchange.getRequestURI() + "].", e);
+            send(exchange, 500, error("Internal server error"));
+        }
+    }
+
+    /**
+     * Maps the error code of a failed request to its HTTP status: invalid arguments and unknown concept names are the
+     * client's error, anything else, e.g., an I/O failure or an interrupted computation, is the server's.
+     */
+    static int status(ErrorCode errorCode) {
+        String code = errorCode.getCode();
+
+        return code.endsWith("_IllegalArguments") || code.endsWith("_InvalidConceptNames") ? 400 : 500;
+    }
+
+    private static void send(HttpExchange exchange, int status, JSONObject body) {
+        send(exchange, status, "application/json; charset=utf-8", body.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            logger.debug("Unable to send response to request[" + exchange.getRequestURI() + "].", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static JSONObject error(String message) {
+        return new JSONObject().put("error", message);
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                parameters.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8), pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+
+        return parameters;
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+
+        if (value == null || value.isEmpty()) {
+            throw new StatusException(400, "Parameter[" + name + "] not provided");
+        }
+
+        return value;
+    }
+
+    private static ImplementationMethod method(String name) {
+        return name == null || name.isEmpty() ? DEFAULT_METHOD : ImplementationMethod.valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    private static JSONObject pair(String concept1, String concept2, BigDecimal similarity) {
+        return new JSONObject().put("concept1", concept1).put("concept2", concept2).put("similarity", similarity);
+    }
+
+    private JSONObject similarity(HttpExchange exchange) {
+        Map<String, String> parameters = parameters(exchange);
+        String concept1 = required(parameters, "concept1");
+        String concept2 = required(parameters, "concept2");
+
+        return pair(concept1, concept2, explainer.similarity(method(parameters.get("method")), concept1, concept2));
+    }
+
+    private JSONObject similarityBatch(HttpExchange exchange) {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && Long.parseLong(contentLength) > maxBodyBytes) {
+            throw new StatusException(413, "Body of " + contentLength + " bytes exceeds the limit of " + maxBodyBytes);
+        }
+
+        // A chunked body has no length, hence it is read up to the limit only.
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(maxBodyBytes + 1);
+        } catch (IOException e) {
+            throw new StatusException(400, "Unable to read request body");
+        }
+        if (body.length > maxBodyBytes) {
+            throw new StatusException(413, "Body exceeds the limit of " + maxBodyBytes + " bytes");
+        }
+
+        JSONObject request = new JSONObject(new String(body, StandardCharsets.UTF_8));
+
+        ImplementationMethod method = method(request.optString("method", null));
+        JSONArray pairs = request.getJSONArray("pairs");
+        if (pairs.length() > maxBatchSize) {
+            throw new StatusException(413, "Batch of " + pairs.length() + " pairs exceeds the limit of " + maxBatchSize);
+        }
+
+        List<String> concepts1 = new ArrayList<>(pairs.length());
+        List<String> concepts2 = new ArrayList<>(pairs.length());
+        for (int i = 0; i < pairs.length(); i++) {
+            JSONArray concepts = pairs.getJSONArray(i);
+            concepts1.add(concepts.getString(0));
+            concepts2.add(concepts.getString(1));
+        }
+
+        // Scores alone are returned, hence the explanations of the batch are not retained.
+        BigDecimal[] similarities = explainer.similarityPairs(method, concepts1, concepts2, false);
+
+        JSONArray results = new JSONArray();
+        for (int i = 0; i < similarities.length; i++) {
+            results.put(pair(concepts1.get(i), concepts2.get(i), similarities[i]));
+        }
+
+        return new JSONObject().put("method", method.toString()).put("results", results);
+    }
+
+    private JSONObject topK(HttpExchange exchange) {
+        Map<String, String> parameters = parameters(exchange);
+        String concept = required(parameters, "concept");
+        int k = Integer.parseInt(parameters.getOrDefault("k", "10"));
+
+        JSONArray results = new JSONArray();
+        for (Map.Entry<String, BigDecimal> entry : explainer.topK(concept, k, method(parameters.get("method"))).entrySet()) {
+            results.put(new JSONObject().put("concept", entry.getKey()).put("similarity", entry.getValue()));
+        }
+
+        return new JSONObject().put("concept", concept).put("results", results);
+    }
+
+    private JSONObject explanation(HttpExchange exchange) {
+        Map<String, String> parameters = parameters(exchange);
+        String concept1 = required(parameters, "concept1");
+        String concept2 = required(parameters, "concept2");
+
+        if (!explanationPermits.tryAcquire()) {
+            throw new StatusException(503, "Too many concurrent explanations");
+        }
+
+        try {
+            return explainer.getExplanationAsJson(method(parameters.get("method")), concept1, concept2);
+        } finally {
+            explanationPermits.release();
+        }
+    }
+
+    private JSONObject health(HttpExchange exchange) {
+        return new JSONObject()
+                .put("status", "ok")
+                .put("activeWorkers", workers.getActiveCount())
+                .put("queuedRequests", workers.getQueue().size())
+                .put("queueCapacity", workers.getQueue().size() + workers.getQueue().remainingCapacity());
+    }
+
+    private void metrics(HttpExchange exchange) {
+        if (!accept(exchange, "GET")) {
+            return;
+        }
+
+        MetricsSnapshot snapshot = explainer.getMetricsSnapshot();
+        if ("json".equalsIgnoreCase(parameters(exchange).get("format"))) {
+            send(exchange, 200, snapshot.toJson());
+        } else {
+            send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", snapshot.toPrometheus());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for the exchanges in progress and stops the workers.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        workers.shutdownNow();
+    }
+
+    /**
+     * A request that is answered with the given HTTP status.
+     */
+    private static class StatusException extends RuntimeException {
+        private final int status;
+
+        private StatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
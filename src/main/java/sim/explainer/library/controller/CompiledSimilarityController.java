@@ -0,0 +1,70 @@
+package sim.explainer.library.controller;
+
+import org.springframework.stereotype.Controller;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.compiled.CompiledOntology;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.explainer.SimilarityResult;
+import sim.explainer.library.service.SimilarityService;
+import sim.explainer.library.service.ValidationService;
+
+/**
+ * Controller for measuring similarity between concepts of a compiled ontology.
+ */
+@Controller
+public class CompiledSimilarityController {
+    private final ValidationService validationService;
+    private final SimilarityService similarityService;
+
+    /**
+     * Constructs a {@code CompiledSimilarityController} with the given validation and similarity services.
+     *
+     * @param validationService the validation service
+     * @param similarityService the similarity service
+     */
+    public CompiledSimilarityController(ValidationService validationService, SimilarityService similarityService) {
+        this.validationService = validationService;
+        this.similarityService = similarityService;
+    }
+
+    /**
+     * Validates the given concept names to ensure they exist in the symbol table of the compiled ontology.
+     *
+     * @param compiledOntology the compiled ontology
+     * @param conceptName1 the first concept name
+     * @param conceptName2 the second concept name
+     * @throws JSimPiException if any of the concept names are invalid
+     */
+    private void validateInputs(CompiledOntology compiledOntology, String conceptName1, String conceptName2) {
+        if (!validationService.validateIfCompiledClassNamesExist(compiledOntology, conceptName1, conceptName2)) {
+            throw new JSimPiException("Unable to measure similarity with compiled sim as conceptName1["
+                    + conceptName1 + "] and conceptName2[" + conceptName2 + "] are invalid names.",
+                    ErrorCode.CompiledSimilarityController_InvalidConceptNames);
+        }
+    }
+
+    /**
+     * Measures the similarity between two concepts of a compiled ontology using the specified implementation method.
+     *
+     * @param compiledOntology the compiled ontology
+     * @param conceptName1 the first concept name
+     * @param conceptName2 the second concept name
+     * @param type the implementation method
+     * @param preferenceProfile the preference profile, which must not change during the measurement
+     * @return the similarity score between the two concepts together with its backtrace tables
+     * @throws JSimPiException if any of the concept names are null or invalid
+     */
+    public SimilarityResult measureSimilarity(CompiledOntology compiledOntology, String conceptName1, String conceptName2, ImplementationMethod type, PreferenceProfile preferenceProfile) {
+        if (conceptName1 == null || conceptName2 == null) {
+            throw new JSimPiException("Unable to measure similarity with " + type.getDescription() + " as conceptName1[" + conceptName1
+                    + "] and conceptName2[" + conceptName2 + "] are null.",
+                    ErrorCode.CompiledSimilarityController_IllegalArguments);
+        }
+
+        validateInputs(compiledOntology, conceptName1, conceptName2);
+
+        return similarityService.measureCompiledConcepts(compiledOntology, conceptName1, conceptName2, type, preferenceProfile);
+    }
+}
@@ -1,7 +1,8 @@
 package sim.explainer.library.controller;
 
 import sim.explainer.library.enumeration.FileTypeConstant;
-import sim.explainer.library.framework.explainer.BacktraceTable;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.explainer.SimilarityResult;
 import sim.explainer.library.service.SimilarityService;
 import org.springframework.stereotype.Controller;
 import sim.explainer.library.enumeration.ImplementationMethod;
@@ -9,9 +10,6 @@ import sim.explainer.library.exception.ErrorCode;
 import sim.explainer.library.exception.JSimPiException;
 import sim.explainer.library.service.ValidationService;
 
-import java.math.BigDecimal;
-import java.util.List;
-
 /**
  * Controller for measuring similarity between KRSS concepts.
  */
@@ -53,10 +51,11 @@ public class KRSSSimilarityController {
      * @param conceptName2 the second concept name
      * @param type the implementation method
      * @param fileType the file type
-     * @return the similarity score between the two concepts
+     * @param preferenceProfile the preference profile, which must not change during the measurement
+     * @return the similarity score between the two concepts together with its backtrace tables
      * @throws JSimPiException if any of the concept names are null or invalid
      */
-    public BigDecimal measureSimilarity(String conceptName1, String conceptName2, ImplementationMethod type, FileTypeConstant fileType) {
+    public SimilarityResult measureSimilarity(String conceptName1, String conceptName2, ImplementationMethod type, FileTypeConstant fileType, PreferenceProfile preferenceProfile) {
         if (conceptName1 == null || conceptName2 == null) {
             throw new JSimPiException("Unable to measure similarity with " + type.getDescription() + " as conceptName1[" + conceptName1
                     + "] and conceptName2[" + conceptName2 + "] are null.",
@@ -65,15 +64,6 @@ public class KRSSSimilarityController {
 
         validateInputs(conceptName1, conceptName2);
 
-        return similarityService.measureConceptWithType(conceptName1, conceptName2, type, fileType);
-    }
-
-    /**
-     * Returns the backtrace tables generated during the similarity measurement.
-     *
-     * @return the list of backtrace tables
-     */
-    public List<BacktraceTable> getBacktraceTables() {
-        return similarityService.getBacktraceTables();
+        return similarityService.measureConceptWithType(conceptName1, conceptName2, type, fileType, preferenceProfile);
     }
 }
@@ -2,16 +2,14 @@ package sim.explainer.library.controller;
 
 import org.springframework.stereotype.Controller;
 import sim.explainer.library.enumeration.FileTypeConstant;
-import sim.explainer.library.framework.explainer.BacktraceTable;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.explainer.SimilarityResult;
 import sim.explainer.library.service.SimilarityService;
 import sim.explainer.library.service.ValidationService;
 import sim.explainer.library.enumeration.ImplementationMethod;
 import sim.explainer.library.exception.ErrorCode;
 import sim.explainer.library.exception.JSimPiException;
 
-import java.math.BigDecimal;
-import java.util.List;
-
 /**
  * Controller for measuring similarity between OWL concepts.
  */
@@ -53,10 +51,11 @@ public class OWLSimilarityController {
      * @param conceptName2 the second concept name
      * @param type the implementation method
      * @param fileType the file type
-     * @return the similarity score between the two concepts
+     * @param preferenceProfile the preference profile, which must not change during the measurement
+     * @return the similarity score between the two concepts together with its backtrace tables
      * @throws JSimPiException if any of the concept names are null or invalid
      */
-    public BigDecimal measureSimilarity(String conceptName1, String conceptName2, ImplementationMethod type, FileTypeConstant fileType) {
+    public SimilarityResult measureSimilarity(String conceptName1, String conceptName2, ImplementationMethod type, FileTypeConstant fileType, PreferenceProfile preferenceProfile) {
         if (conceptName1 == null || conceptName2 == null) {
             throw new JSimPiException("Unable to measure similarity with " + type.getDescription() + " as conceptName1[" + conceptName1
                     + "] and conceptName2[" + conceptName2 + "] are null.",
@@ -65,15 +64,6 @@ public class OWLSimilarityController {
 
         validateInputs(conceptName1, conceptName2);
 
-        return similarityService.measureConceptWithType(conceptName1, conceptName2, type, fileType);
-    }
-
-    /**
-     * Returns the backtrace tables generated during the similarity measurement.
-     *
-     * @return the list of backtrace tables
-     */
-    public List<BacktraceTable> getBacktraceTables() {
-        return similarityService.getBacktraceTables();
+        return similarityService.measureConceptWithType(conceptName1, conceptName2, type, fileType, preferenceProfile);
     }
 }
@@ -0,0 +1,20 @@
+package sim.explainer.library.enumeration;
+
+public enum MetricStage {
+    UNFOLDING("unfolding"),
+    TREE_BUILDING("tree_building"),
+    FORWARD_REASONING("forward_reasoning"),
+    BACKWARD_REASONING("backward_reasoning"),
+    EXPLANATION_RENDERING("explanation_rendering"),
+    NATURAL_LANGUAGE_CONVERSION("natural_language_conversion");
+
+    private final String label;
+
+    MetricStage(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
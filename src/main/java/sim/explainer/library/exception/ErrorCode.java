@@ -6,14 +6,21 @@ public enum ErrorCode {
     Application_IllegalArguments("Application_IllegalArguments"),
     Application_InvalidFileType("Application_InvalidFileType"),
     Application_InvalidPath("Application_InvalidPath"),
+    Application_IOException("Application_IOException"),
+    Application_InterruptedException("Application_InterruptedException"),
+    Application_ExecutionException("Application_ExecutionException"),
 
     // Controller
     OwlSimilarityController_IllegalArguments("OwlSimilarityController_IllegalArguments"),
     OwlSimilarityController_InvalidConceptNames("OwlSimilarityController_InvalidConceptNames"),
     KrssSimilarityController_IllegalArguments("KrssSimilarityController_IllegalArguments"),
     KrssSimilarityController_InvalidConceptNames("KrssSimilarityController_InvalidConceptNames"),
+    CompiledSimilarityController_IllegalArguments("CompiledSimilarityController_IllegalArguments"),
+    CompiledSimilarityController_InvalidConceptNames("CompiledSimilarityController_InvalidConceptNames"),
 
     // Framework
+    ConceptIndex_IllegalArguments("ConceptIndex_IllegalArguments"),
+    DefinitionDependencyGraph_IllegalArguments("DefinitionDependencyGraph_IllegalArguments"),
     ConceptUnfolderManchesterSyntax_IllegalArguments("ConceptUnfolderManchesterSyntax_IllegalArguments"),
     KRSSServiceContext_IllegalArguments("KRSSServiceContext_IllegalArguments"),
     KRSSServiceContext_FileNotFoundException("KRSSServiceContext_FileNotFoundException"),
@@ -27,12 +34,16 @@ public enum ErrorCode {
     PreferenceProfile_NotPrimitiveRoleException("PreferenceProfile_NotPrimitiveRoleException"),
     PreferenceProfile_NotUnitIntervalException("PreferenceProfile_NotUnitIntervalException"),
     PreferenceProfile_NegativeNumberException("PreferenceProfile_NegativeNumberException"),
+    PreferenceProfile_ImmutableException("PreferenceProfile_ImmutableException"),
     ServiceContext_OWLOntologyCreationException("ServiceContext_OWLOntologyCreationException"),
     SuperRoleUnfolderManchesterSyntax_IllegalArguments("SuperRoleUnfolderManchesterSyntax_IllegalArguments"),
 
     // Framework Descriptiontree
     TreeBuilder_IllegalArguments("TreeBuilder_IllegalArguments"),
 
+    // Framework Explainer
+    SimilarityPublisher_IllegalArguments("SimilarityPublisher_IllegalArguments"),
+
     // Framework Reasoner
     DynamicProgrammingSimReasonerImpl_IllegalArguments("DynamicProgrammingSimReasonerImpl_IllegalArguments"),
     DynamicProgrammingSimPiReasonerImpl_IllegalArguments("DynamicProgrammingSimPiReasonerImpl_IllegalArguments"),
@@ -40,6 +51,8 @@ public enum ErrorCode {
     TopDownSimPiReasonerImpl_IllegalArguments("TopDownSimPiReasonerImpl_IllegalArguments"),
 
     // Framework Unfolding
+    CachingRoleUnfolder_IllegalArguments("CachingRoleUnfolder_IllegalArguments"),
+    CompiledRoleUnfolder_IllegalArguments("CompiledRoleUnfolder_IllegalArguments"),
     ConceptDefinitionUnfolderKRSSSyntax_IllegalArguments("ConceptDefinitionUnfolderKRSSSyntax_IllegalArguments"),
     ConceptDefinitionUnfolderKRSSSyntax_InvalidRoleNameException("ConceptDefinitionUnfolderKRSSSyntax_InvalidRoleNameException"),
     SuperRoleUnfolderKRSSSyntax_IllegalArguments("SuperRoleUnfolderKRSSSyntax_IllegalArguments"),
@@ -47,7 +60,11 @@ public enum ErrorCode {
 
     // Service
     OWLSimService_IllegalArguments("OWLSimService_IllegalArguments"),
+    ExplanationCacheService_IllegalArguments("ExplanationCacheService_IllegalArguments"),
     ExplanationConverterService_NoConfiguration("ExplanationConverterService_NoConfiguration"),
+    OntologySnapshotService_IllegalArguments("OntologySnapshotService_IllegalArguments"),
+    OntologySnapshotService_IOException("OntologySnapshotService_IOException"),
+    OntologySnapshotService_InvalidSnapshot("OntologySnapshotService_InvalidSnapshot"),
 
     // Util
     OWLConceptDefinitionUtil_IllegalArguments("OWLConceptDefinitionUtil_IllegalArguments"),
@@ -0,0 +1,270 @@
+package sim.explainer.library.framework;
+
+import org.apache.commons.lang3.StringUtils;
+import org.semanticweb.owlapi.model.*;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.util.*;
+
+/**
+ * Records, for every defined concept and role name, the names its definition refers to, i.e., the concept names it
+ * is unfolded with and the role names of its existentials or super-roles. The description tree of a concept and the
+ * closure of a role only depend on the definitions of the names they transitively refer to, hence modifying a
+ * definition only invalidates the trees and closures of its transitive dependents.
+ *
+ * The graph is not thread-safe and is guarded by the lock of the source ontology context it was built from.
+ */
+public class DefinitionDependencyGraph {
+
+    private static final Set<String> KRSS_KEYWORDS = new HashSet<String>(Arrays.asList("and", "some"));
+
+    private final Map<String, Set<String>> references = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> referencedBy = new HashMap<String, Set<String>>();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static Set<String> krssReferences(String description) {
+        Set<String> names = new HashSet<String>();
+
+        if (description != null) {
+            for (String token : StringUtils.split(description, "() ")) {
+                if (!KRSS_KEYWORDS.contains(token)) {
+                    names.add(token);
+                }
+            }
+        }
+
+        return names;
+    }
+
+    private static Set<String> owlReferences(Set<? extends OWLAxiom> axioms) {
+        Set<String> names = new HashSet<String>();
+
+        for (OWLAxiom axiom : axioms) {
+            for (OWLEntity entity : axiom.getSignature()) {
+                names.add(entity.getIRI().getFragment());
+            }
+        }
+
+        return names;
+    }
+
+    private static void collectOWLReferences(OWLOntology owlOntology, OWLEntity entity, Set<String> names) {
+        if (entity.isOWLClass()) {
+            names.addAll(owlReferences(owlOntology.getEquivalentClassesAxioms(entity.asOWLClass())));
+            names.addAll(owlReferences(owlOntology.getSubClassAxiomsForSubClass(entity.asOWLClass())));
+        } else if (entity.isOWLObjectProperty()) {
+            names.addAll(owlReferences(owlOntology.getObjectSubPropertyAxiomsForSubProperty(entity.asOWLObjectProperty())));
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Builds the graph of every concept and role definition of a loaded KRSS ontology.
+     *
+     * @param krssServiceContext the KRSS service context
+     * @return the graph
+     */
+    public static DefinitionDependencyGraph fromKRSS(KRSSServiceContext krssServiceContext) {
+        if (krssServiceContext == null) {
+            throw new JSimPiException("Unable to build definition dependency graph as krssServiceContext is null.", ErrorCode.DefinitionDependencyGraph_IllegalArguments);
+        }
+
+        DefinitionDependencyGraph graph = new DefinitionDependencyGraph();
+
+        Set<String> names = new HashSet<String>();
+        names.addAll(krssServiceContext.getFullConceptDefinitionMap().keySet());
+        names.addAll(krssServiceContext.getPrimitiveConceptDefinitionMap().keySet());
+        names.addAll(krssServiceContext.getFullRoleDefinitionMap().keySet());
+        names.addAll(krssServiceContext.getPrimitiveRoleDefinitionMap().keySet());
+
+        for (String name : names) {
+            graph.updateKRSSDefinition(krssServiceContext, name);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Builds the graph of every class and object property of a loaded OWL ontology.
+     *
+     * @param owlOntology the OWL ontology
+     * @return the graph
+     */
+    public static DefinitionDependencyGraph fromOWL(OWLOntology owlOntology) {
+        if (owlOntology == null) {
+            throw new JSimPiException("Unable to build definition dependency graph as owlOntology is null.", ErrorCode.DefinitionDependencyGraph_IllegalArguments);
+        }
+
+        DefinitionDependencyGraph graph = new DefinitionDependencyGraph();
+
+        Map<String, Set<String>> names = new HashMap<String, Set<String>>();
+        Set<OWLEntity> entities = new HashSet<OWLEntity>();
+        entities.addAll(owlOntology.getClassesInSignature());
+        entities.addAll(owlOntology.getObjectPropertiesInSignature());
+
+        for (OWLEntity entity : entities) {
+            String name = entity.getIRI().getFragment();
+            if (!names.containsKey(name)) {
+                names.put(name, new HashSet<String>());
+            }
+            collectOWLReferences(owlOntology, entity, names.get(name));
+        }
+
+        for (Map.Entry<String, Set<String>> entry : names.entrySet()) {
+            graph.setReferences(entry.getKey(), entry.getValue());
+        }
+
+        return graph;
+    }
+
+    /**
+     * Returns the names whose definitions an OWL axiom contributes to, i.e., the named classes it defines and the
+     * sub-property it declares. Any other axiom is conservatively taken to contribute to every name of its signature.
+     *
+     * @param axiom the axiom
+     * @return the defined names
+     */
+    public static Set<String> definedNames(OWLAxiom axiom) {
+        if (axiom == null) {
+            throw new JSimPiException("Unable to find defined names as axiom is null.", ErrorCode.DefinitionDependencyGraph_IllegalArguments);
+        }
+
+        Set<String> names = new HashSet<String>();
+
+        if (axiom instanceof OWLSubClassOfAxiom && !((OWLSubClassOfAxiom) axiom).getSubClass().isAnonymous()) {
+            names.add(((OWLSubClassOfAxiom) axiom).getSubClass().asOWLClass().getIRI().getFragment());
+        } else if (axiom instanceof OWLEquivalentClassesAxiom) {
+            for (OWLClass owlClass : ((OWLEquivalentClassesAxiom) axiom).getNamedClasses()) {
+                names.add(owlClass.getIRI().getFragment());
+            }
+        } else if (axiom instanceof OWLSubObjectPropertyOfAxiom && !((OWLSubObjectPropertyOfAxiom) axiom).getSubProperty().isAnonymous()) {
+            names.add(((OWLSubObjectPropertyOfAxiom) axiom).getSubProperty().asOWLObjectProperty().getIRI().getFragment());
+        } else {
+            for (OWLEntity entity : axiom.getSignature()) {
+                names.add(entity.getIRI().getFragment());
+            }
+        }
+
+        return names;
+    }
+
+    /**
+     * Replaces the references of a name by those of its current definitions in a KRSS ontology, if any.
+     *
+     * @param krssServiceContext the KRSS service context
+     * @param name the concept or role name
+     */
+    public void updateKRSSDefinition(KRSSServiceContext krssServiceContext, String name) {
+        Set<String> names = new HashSet<String>();
+        names.addAll(krssReferences(krssServiceContext.getFullConceptDefinitionMap().get(name)));
+        names.addAll(krssReferences(krssServiceContext.getPrimitiveConceptDefinitionMap().get(name)));
+        names.addAll(krssReferences(krssServiceContext.getFullRoleDefinitionMap().get(name)));
+        names.addAll(krssReferences(krssServiceContext.getPrimitiveRoleDefinitionMap().get(name)));
+
+        setReferences(name, names);
+    }
+
+    /**
+     * Replaces the references of a name by those of its current defining axioms in an OWL ontology, i.e., the
+     * equivalent and super classes of the class and the super-properties of the object property of that name.
+     *
+     * @param owlOntology the OWL ontology
+     * @param name the class or object property name
+     */
+    public void updateOWLDefinition(OWLOntology owlOntology, String name) {
+        Set<String> names = new HashSet<String>();
+
+        for (OWLClass owlClass : owlOntology.getClassesInSignature()) {
+            if (name.equals(owlClass.getIRI().getFragment())) {
+                collectOWLReferences(owlOntology, owlClass, names);
+            }
+        }
+        for (OWLObjectProperty owlObjectProperty : owlOntology.getObjectPropertiesInSignature()) {
+            if (name.equals(owlObjectProperty.getIRI().getFragment())) {
+                collectOWLReferences(owlOntology, owlObjectProperty, names);
+            }
+        }
+
+        setReferences(name, names);
+    }
+
+    /**
+     * Replaces the names the definition of a name refers to. A name without references is removed from the graph.
+     *
+     * @param name the defined name
+     * @param names the names its definition refers to
+     */
+    public void setReferences(String name, Set<String> names) {
+        if (name == null || names == null) {
+            throw new JSimPiException("Unable to set references as name[" + name + "] and names[" + names + "] are null.", ErrorCode.DefinitionDependencyGraph_IllegalArguments);
+        }
+
+        Set<String> previous = references.remove(name);
+        if (previous != null) {
+            for (String reference : previous) {
+                Set<String> dependents = referencedBy.get(reference);
+                dependents.remove(name);
+                if (dependents.isEmpty()) {
+                    referencedBy.remove(reference);
+                }
+            }
+        }
+
+        if (names.isEmpty()) {
+            return;
+        }
+
+        references.put(name, new HashSet<String>(names));
+        for (String reference : names) {
+            Set<String> dependents = referencedBy.get(reference);
+            if (dependents == null) {
+                dependents = new HashSet<String>();
+                referencedBy.put(reference, dependents);
+            }
+            dependents.add(name);
+        }
+    }
+
+    /**
+     * Returns the given names together with every name whose definition transitively refers to any of them.
+     *
+     * @param names the modified names
+     * @return the names whose trees or closures may have changed
+     */
+    public Set<String> dependents(Collection<String> names) {
+        if (names == null) {
+            throw new JSimPiException("Unable to find dependents as names is null.", ErrorCode.DefinitionDependencyGraph_IllegalArguments);
+        }
+
+        Set<String> visited = new HashSet<String>(names);
+        Deque<String> queue = new ArrayDeque<String>(names);
+
+        while (!queue.isEmpty()) {
+            Set<String> dependents = referencedBy.get(queue.poll());
+            if (dependents == null) {
+                continue;
+            }
+
+            for (String dependent : dependents) {
+                if (visited.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+
+        return visited;
+    }
+
+    public Set<String> getReferences(String name) {
+        Set<String> names = references.get(name);
+
+        return names != null ? Collections.unmodifiableSet(names) : Collections.<String>emptySet();
+    }
+}
@@ -2,6 +2,7 @@ package sim.explainer.library.framework;
 
 import sim.explainer.library.exception.ErrorCode;
 import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.util.MemoryUtils;
 import sim.explainer.library.util.ParserUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -9,8 +10,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,10 +22,11 @@ public class KRSSServiceContext {
 
     private File krssFile;
 
-    private Map<String, String> fullConceptDefinitionMap = new HashMap<String, String>();;
-    private Map<String, String> primitiveConceptDefinitionMap = new HashMap<String, String>();
-    private Map<String, String> fullRoleDefinitionMap = new HashMap<String, String>();
-    private Map<String, String> primitiveRoleDefinitionMap = new HashMap<String, String>();
+    // Definitions may be modified at runtime while concept names are validated without the context lock.
+    private Map<String, String> fullConceptDefinitionMap = new ConcurrentHashMap<String, String>();
+    private Map<String, String> primitiveConceptDefinitionMap = new ConcurrentHashMap<String, String>();
+    private Map<String, String> fullRoleDefinitionMap = new ConcurrentHashMap<String, String>();
+    private Map<String, String> primitiveRoleDefinitionMap = new ConcurrentHashMap<String, String>();
 
     private static final Pattern PATTERN_FULL_CONCEPT_DEFINITION =
             Pattern.compile("^\\(define\\-concept ([a-zA-Z]+[0-9_']*|[0-9_']+) (.+)\\)");
@@ -39,6 +41,38 @@ public class KRSSServiceContext {
     // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Conjoins the description of a primitive concept with a fresh name, which stands for what the definition leaves
+     * unsaid.
+     */
+    private static String primitiveConceptDescription(String name, String description) {
+        String freshName = ParserUtils.generateFreshName(name);
+
+        StringBuilder builder = new StringBuilder("(and");
+        builder.append(StringUtils.SPACE);
+        builder.append(freshName);
+        builder.append(StringUtils.SPACE);
+        builder.append(description);
+        builder.append(")");
+
+        return builder.toString();
+    }
+
+    private static String primitiveRoleDescription(String name, String description) {
+        // TODO - remove fresh name
+//        String freshName = ParserUtils.generateFreshName(name);
+        String freshName = name;
+
+        StringBuilder builder = new StringBuilder("(and");
+        builder.append(StringUtils.SPACE);
+        builder.append(freshName);
+        builder.append(StringUtils.SPACE);
+        builder.append(description);
+        builder.append(")");
+
+        return builder.toString();
+    }
+
     private void resetAllMaps() {
         this.fullConceptDefinitionMap.clear();
         this.primitiveConceptDefinitionMap.clear();
@@ -92,16 +126,7 @@ public class KRSSServiceContext {
                         "duplicated defined primitive concept name[" + name + "].", ErrorCode.KRSSServiceContext_NotDefinatorialTBoxException);
             }
 
-            String freshName = ParserUtils.generateFreshName(name);
-
-            StringBuilder builder = new StringBuilder("(and");
-            builder.append(StringUtils.SPACE);
-            builder.append(freshName);
-            builder.append(StringUtils.SPACE);
-            builder.append(description);
-            builder.append(")");
-
-            primitiveConceptDefinitionMap.put(name, builder.toString());
+            primitiveConceptDefinitionMap.put(name, primitiveConceptDescription(name, description));
 
             return true;
         }
@@ -151,18 +176,7 @@ public class KRSSServiceContext {
                         "duplicated defined primitive role name[" + name + "].", ErrorCode.KRSSServiceContext_NotDefinatorialTBoxException);
             }
 
-            // TODO - remove fresh name
-//            String freshName = ParserUtils.generateFreshName(name);
-            String freshName = name;
-
-            StringBuilder builder = new StringBuilder("(and");
-            builder.append(StringUtils.SPACE);
-            builder.append(freshName);
-            builder.append(StringUtils.SPACE);
-            builder.append(description);
-            builder.append(")");
-
-            primitiveRoleDefinitionMap.put(name, builder.toString());
+            primitiveRoleDefinitionMap.put(name, primitiveRoleDescription(name, description));
 
             return true;
         }
@@ -260,6 +274,128 @@ public class KRSSServiceContext {
         }
     }
 
+    /**
+     * Adds a full or primitive concept definition, replacing the definition of that concept if there is one. The new
+     * definition is written before the old one is removed, so that a concurrent reader never finds the concept
+     * undefined.
+     *
+     * @param definition the definition, i.e., {@code (define-concept Name desc)} or
+     *                   {@code (define-primitive-concept Name desc)}
+     * @return the name of the defined concept
+     */
+    public String putConceptDefinition(String definition) {
+        if (definition == null) {
+            throw new JSimPiException("Unable to put a concept definition as definition is null.", ErrorCode.KRSSServiceContext_IllegalArguments);
+        }
+
+        String compactDefinition = ParserUtils.compactConceptDescriptionString(definition);
+
+        Matcher matcher = PATTERN_FULL_CONCEPT_DEFINITION.matcher(compactDefinition);
+        if (matcher.matches()) {
+            String name = matcher.group(1);
+
+            fullConceptDefinitionMap.put(name, matcher.group(2));
+            primitiveConceptDefinitionMap.remove(name);
+
+            return name;
+        }
+
+        matcher = PATTERN_PRIMITIVE_CONCEPT_DEFINITION.matcher(compactDefinition);
+        if (matcher.matches()) {
+            String name = matcher.group(1);
+
+            primitiveConceptDefinitionMap.put(name, primitiveConceptDescription(name, matcher.group(2)));
+            fullConceptDefinitionMap.remove(name);
+
+            return name;
+        }
+
+        throw new JSimPiException("Unable to put a concept definition as definition[" + definition + "] is not a concept definition.", ErrorCode.KRSSServiceContext_IllegalArguments);
+    }
+
+    /**
+     * Removes the definition of a concept.
+     *
+     * @param conceptName the concept name
+     * @return whether the concept was defined
+     */
+    public boolean removeConceptDefinition(String conceptName) {
+        if (conceptName == null) {
+            throw new JSimPiException("Unable to remove a concept definition as conceptName is null.", ErrorCode.KRSSServiceContext_IllegalArguments);
+        }
+
+        boolean hasFullConceptDefinition = fullConceptDefinitionMap.remove(conceptName) != null;
+        boolean hasPrimitiveConceptDefinition = primitiveConceptDefinitionMap.remove(conceptName) != null;
+
+        return hasFullConceptDefinition || hasPrimitiveConceptDefinition;
+    }
+
+    /**
+     * Adds a full or primitive role definition, replacing the definition of that role if there is one. As for
+     * concepts, the new definition is written before the old one is removed.
+     *
+     * @param definition the definition, i.e., {@code (define-role name desc)} or {@code (define-primitive-role name desc)}
+     * @return the name of the defined role
+     */
+    public String putRoleDefinition(String definition) {
+        if (definition == null) {
+            throw new JSimPiException("Unable to put a role definition as definition is null.", ErrorCode.KRSSServiceContext_IllegalArguments);
+        }
+
+        String compactDefinition = ParserUtils.compactConceptDescriptionString(definition);
+
+        Matcher matcher = PATTERN_FULL_ROLE_DEFINITION.matcher(compactDefinition);
+        if (matcher.matches()) {
+            String name = matcher.group(1);
+
+            fullRoleDefinitionMap.put(name, matcher.group(2));
+            primitiveRoleDefinitionMap.remove(name);
+
+            return name;
+        }
+
+        matcher = PATTERN_PRIMITIVE_ROLE_DEFINITION.matcher(compactDefinition);
+        if (matcher.matches()) {
+            String name = matcher.group(1);
+
+            primitiveRoleDefinitionMap.put(name, primitiveRoleDescription(name, matcher.group(2)));
+            fullRoleDefinitionMap.remove(name);
+
+            return name;
+        }
+
+        throw new JSimPiException("Unable to put a role definition as definition[" + definition + "] is not a role definition.", ErrorCode.KRSSServiceContext_IllegalArguments);
+    }
+
+    /**
+     * Removes the definition of a role.
+     *
+     * @param roleName the role name
+     * @return whether the role was defined
+     */
+    public boolean removeRoleDefinition(String roleName) {
+        if (roleName == null) {
+            throw new JSimPiException("Unable to remove a role definition as roleName is null.", ErrorCode.KRSSServiceContext_IllegalArguments);
+        }
+
+        boolean hasFullRoleDefinition = fullRoleDefinitionMap.remove(roleName) != null;
+        boolean hasPrimitiveRoleDefinition = primitiveRoleDefinitionMap.remove(roleName) != null;
+
+        return hasFullRoleDefinition || hasPrimitiveRoleDefinition;
+    }
+
+    /**
+     * Estimates the heap held by the concept and role definitions.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateResidentBytes() {
+        return MemoryUtils.estimateDefinitionBytes(fullConceptDefinitionMap)
+                + MemoryUtils.estimateDefinitionBytes(primitiveConceptDefinitionMap)
+                + MemoryUtils.estimateDefinitionBytes(fullRoleDefinitionMap)
+                + MemoryUtils.estimateDefinitionBytes(primitiveRoleDefinitionMap);
+    }
+
     public void resetFullConceptDefinitionMap() {
         this.fullConceptDefinitionMap.clear();
     }
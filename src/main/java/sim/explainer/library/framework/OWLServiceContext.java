@@ -18,6 +18,8 @@ public class OWLServiceContext{
 
     private static final Logger logger = LoggerFactory.getLogger(OWLServiceContext.class);
 
+    private static final int AXIOM_BYTES = 512; // an axiom together with its class expressions and indexes
+
     private OWLOntology owlOntology;
     private String owlOntologyDocumentIRI;
     private OWLDataFactory owlDataFactory;
@@ -74,6 +76,15 @@ public class OWLServiceContext{
         }
     }
 
+    /**
+     * Estimates the heap held by the loaded ontology from its number of axioms.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateResidentBytes() {
+        return owlOntology == null ? 0 : (long) AXIOM_BYTES * owlOntology.getAxiomCount();
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // Getters /////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -7,10 +7,16 @@ import org.springframework.stereotype.Component;
 import sim.explainer.library.exception.ErrorCode;
 import sim.explainer.library.exception.JSimPiException;
 import sim.explainer.library.framework.unfolding.SuperRoleUnfolderManchesterSyntax;
+import sim.explainer.library.util.MemoryUtils;
+import sim.explainer.library.util.utilstructure.OverlayMap;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 public class PreferenceProfile {
@@ -25,20 +31,163 @@ public class PreferenceProfile {
 
     private BigDecimal defaultRoleDiscountFactor = BigDecimal.valueOf(0.4);
 
+    // the immutable profile whose entries the maps above override, or null
+    private PreferenceProfile base;
+
+    // the maps above, or views of them on top of the base, built once whenever the maps or the base are replaced
+    private Map<String, BigDecimal> primitiveConceptImportanceView = primitiveConceptImportance;
+    private Map<String, BigDecimal> roleImportanceView = roleImportance;
+    private Map<String, Map<String, BigDecimal>> primitiveConceptsSimilarityView = primitiveConceptsSimilarity;
+    private Map<String, Map<String, BigDecimal>> primitiveRolesSimilarityView = primitiveRolesSimilarity;
+    private Map<String, BigDecimal> roleDiscountFactorView = roleDiscountFactor;
+
+    private boolean immutable = false;
+    private long version = 0;
+
+    private static final int MAX_LOGGED_MODIFICATIONS = 100000;
+
+    // the newest logged modification, which links back to the older ones; modifications are logged by the writer of
+    // this profile and are read without locking
+    private volatile Modification lastModification;
+
     @Autowired
     private OWLServiceContext OWLServiceContext;
     @Autowired
     private SuperRoleUnfolderManchesterSyntax superRoleUnfolderManchesterSyntax;
 
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Checks that this profile may be modified and logs the modification as a new version.
+     *
+     * @param operation the modifying operation
+     * @param names the primitive concept and role names whose entries are modified, or none if every entry may be
+     */
+    private void beforeModification(String operation, String... names) {
+        if (immutable) {
+            throw new JSimPiException("Unable to " + operation + " as this preference profile is an immutable snapshot.", ErrorCode.PreferenceProfile_ImmutableException);
+        }
+
+        Modification previous = lastModification;
+        if (previous != null && previous.logged == MAX_LOGGED_MODIFICATIONS) {
+            previous = null;
+        }
+
+        Set<String> modifiedNames = names.length == 0 ? null : Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(names)));
+        lastModification = new Modification(version + 1, modifiedNames, previous);
+        version++;
+    }
+
+    /**
+     * Builds the maps returned by the getters. The views of an overlay read both maps on every access, hence they
+     * reflect later modifications of the overlay and only need to be rebuilt when a map or the base is replaced.
+     */
+    private void buildViews() {
+        if (base == null) {
+            primitiveConceptImportanceView = primitiveConceptImportance;
+            roleImportanceView = roleImportance;
+            primitiveConceptsSimilarityView = primitiveConceptsSimilarity;
+            primitiveRolesSimilarityView = primitiveRolesSimilarity;
+            roleDiscountFactorView = roleDiscountFactor;
+        } else {
+            primitiveConceptImportanceView = new OverlayMap<String, BigDecimal>(base.getPrimitiveConceptImportance(), primitiveConceptImportance);
+            roleImportanceView = new OverlayMap<String, BigDecimal>(base.getRoleImportance(), roleImportance);
+            primitiveConceptsSimilarityView = OverlayMap.nested(base.getPrimitiveConceptsSimilarity(), primitiveConceptsSimilarity);
+            primitiveRolesSimilarityView = OverlayMap.nested(base.getPrimitiveRolesSimilarity(), primitiveRolesSimilarity);
+            roleDiscountFactorView = new OverlayMap<String, BigDecimal>(base.getRoleDiscountFactor(), roleDiscountFactor);
+        }
+    }
+
+    private static Map<String, BigDecimal> copyOf(Map<String, BigDecimal> map) {
+        return Collections.unmodifiableMap(new HashMap<String, BigDecimal>(map));
+    }
+
+    private static Map<String, Map<String, BigDecimal>> deepCopyOf(Map<String, Map<String, BigDecimal>> map) {
+        Map<String, Map<String, BigDecimal>> copy = new HashMap<String, Map<String, BigDecimal>>();
+        for (Map.Entry<String, Map<String, BigDecimal>> entry : map.entrySet()) {
+            copy.put(entry.getKey(), copyOf(entry.getValue()));
+        }
+
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static long estimateBytes(Map<String, BigDecimal> map) {
+        long bytes = 0;
+
+        for (String key : map.keySet()) {
+            bytes += MemoryUtils.ENTRY_BYTES + MemoryUtils.estimateBytes(key) + MemoryUtils.ELEMENT_BYTES;
+        }
+
+        return bytes;
+    }
+
+    private static long estimateNestedBytes(Map<String, Map<String, BigDecimal>> map) {
+        long bytes = 0;
+
+        for (Map.Entry<String, Map<String, BigDecimal>> entry : map.entrySet()) {
+            bytes += MemoryUtils.ENTRY_BYTES + MemoryUtils.estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+        }
+
+        return bytes;
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Returns an immutable deep copy of this profile. Snapshots can be shared by concurrent evaluations, and any attempt
+     * to modify one throws a {@code JSimPiException}. The snapshot of an overlay only copies its overriding entries and
+     * shares its base.
+     *
+     * @return the immutable snapshot
+     */
+    public PreferenceProfile snapshot() {
+        if (immutable) {
+            return this;
+        }
+
+        PreferenceProfile snapshot = new PreferenceProfile();
+        snapshot.primitiveConceptImportance = copyOf(primitiveConceptImportance);
+        snapshot.roleImportance = copyOf(roleImportance);
+        snapshot.primitiveConceptsSimilarity = deepCopyOf(primitiveConceptsSimilarity);
+        snapshot.primitiveRolesSimilarity = deepCopyOf(primitiveRolesSimilarity);
+        snapshot.roleDiscountFactor = copyOf(roleDiscountFactor);
+        snapshot.defaultRoleDiscountFactor = defaultRoleDiscountFactor;
+        snapshot.base = base;
+        snapshot.version = version;
+        snapshot.immutable = true;
+        snapshot.buildViews();
+
+        return snapshot;
+    }
+
+    /**
+     * Returns an empty profile on top of an immutable snapshot of this profile. Every entry added to the overlay
+     * overrides the entry of its base, e.g., the similarity of a single pair of primitive concepts, and every other
+     * entry is read from the base, which is shared rather than copied. Overlays of one snapshot can therefore be
+     * created cheaply per request and modified without affecting this profile or each other.
+     *
+     * @return the overlay, whose version starts at 0
+     */
+    public PreferenceProfile overlay() {
+        PreferenceProfile overlay = new PreferenceProfile();
+        overlay.base = snapshot();
+        overlay.defaultRoleDiscountFactor = overlay.base.defaultRoleDiscountFactor;
+        overlay.buildViews();
+
+        return overlay;
+    }
+
     public void addPrimitiveConceptImportance(String key, BigDecimal val) {
         if (key == null || val == null) {
             throw new JSimPiException("Unable to add primitive concept importance as key[" + key + "] and val[" + val + "] are null.", ErrorCode.PreferenceProfile_IllegalArguments);
         }
 
+        beforeModification("add primitive concept importance", key);
+
 //        // Validate input
 //        boolean isFreshName = OWLOntologyUtil.isValidFreshConceptName(OWLServiceContext.getOwlDataFactory(), OWLServiceContext.getOwlOntologyManager(), OWLServiceContext.getOwlOntology(), key);
 //
@@ -69,6 +218,8 @@ public class PreferenceProfile {
             throw new JSimPiException("Unable to add role importance as key[" + key + "] and val[" + val + "] are null.", ErrorCode.PreferenceProfile_IllegalArguments);
         }
 
+        beforeModification("add role importance", key);
+
 //        // Validate input
 //        boolean isFreshName = OWLOntologyUtil.isValidFreshRoleName(OWLServiceContext.getOwlDataFactory(), OWLServiceContext.getOwlOntologyManager(), OWLServiceContext.getOwlOntology(), key);
 //
@@ -93,6 +244,8 @@ public class PreferenceProfile {
             throw new JSimPiException("Unable to add primitive concepts similarity as key1[" + key1 + "], key2[" + key2 + "], and val[" + val + "] are null.", ErrorCode.PreferenceProfile_IllegalArguments);
         }
 
+        beforeModification("add primitive concepts similarity", key1, key2);
+
 //        // Validate input
 //        boolean isFreshName1 = OWLOntologyUtil.isValidFreshConceptName(OWLServiceContext.getOwlDataFactory(), OWLServiceContext.getOwlOntologyManager(), OWLServiceContext.getOwlOntology(), key1);
 //        boolean isFreshName2 = OWLOntologyUtil.isValidFreshConceptName(OWLServiceContext.getOwlDataFactory(), OWLServiceContext.getOwlOntologyManager(), OWLServiceContext.getOwlOntology(), key2);
@@ -150,6 +303,8 @@ public class PreferenceProfile {
             throw new JSimPiException("Unable to add primitive roles similarity as key1[" + key1 + "], key2[" + key2 + "], and val[" + val + "] are null.", ErrorCode.PreferenceProfile_IllegalArguments);
         }
 
+        beforeModification("add primitive roles similarity", key1, key2);
+
 //        // Validate input
 //        boolean isFreshName1 = OWLOntologyUtil.isValidFreshRoleName(OWLServiceContext.getOwlDataFactory(), OWLServiceContext.getOwlOntologyManager(), OWLServiceContext.getOwlOntology(), key1);
 //        boolean isFreshName2 = OWLOntologyUtil.isValidFreshRoleName(OWLServiceContext.getOwlDataFactory(), OWLServiceContext.getOwlOntologyManager(), OWLServiceContext.getOwlOntology(), key2);
@@ -208,6 +363,8 @@ public class PreferenceProfile {
             throw new JSimPiException("Unable to add role discount factor as key[" + key + "] and val[" + val + "] are null.", ErrorCode.PreferenceProfile_IllegalArguments);
         }
 
+        beforeModification("add role discount factor", key);
+
 //        // Validate input
 //        boolean isFreshName = OWLOntologyUtil.isValidFreshRoleName(OWLServiceContext.getOwlDataFactory(), OWLServiceContext.getOwlOntologyManager(), OWLServiceContext.getOwlOntology(), key);
 //
@@ -229,16 +386,49 @@ public class PreferenceProfile {
     }
 
     public void setDefaultRoleDiscountFactor(BigDecimal roleDiscountFactor) {
+        beforeModification("set default role discount factor");
+
         defaultRoleDiscountFactor = roleDiscountFactor;
     }
 
     public void reset() {
+        beforeModification("reset");
+
         this.primitiveConceptImportance.clear();
         this.roleImportance.clear();
         this.primitiveConceptsSimilarity.clear();
         this.primitiveRolesSimilarity.clear();
         this.roleDiscountFactor.clear();
         this.defaultRoleDiscountFactor = BigDecimal.valueOf(0.4);
+        this.base = null;
+        buildViews();
+    }
+
+    /**
+     * Resets this profile to an empty overlay of an immutable snapshot of the given profile, as {@link #overlay()}
+     * creates, while keeping its version history.
+     *
+     * @param profile the profile whose snapshot becomes the base of this one
+     */
+    public void resetTo(PreferenceProfile profile) {
+        PreferenceProfile snapshot = profile.snapshot();
+
+        reset();
+
+        this.base = snapshot;
+        this.defaultRoleDiscountFactor = snapshot.defaultRoleDiscountFactor;
+        buildViews();
+    }
+
+    /**
+     * Estimates the heap held by the entries of this profile. The entries of the base of an overlay are not included,
+     * as the base is shared.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateResidentBytes() {
+        return estimateBytes(primitiveConceptImportance) + estimateBytes(roleImportance) + estimateBytes(roleDiscountFactor)
+                + estimateNestedBytes(primitiveConceptsSimilarity) + estimateNestedBytes(primitiveRolesSimilarity);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -246,24 +436,108 @@ public class PreferenceProfile {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public Map<String, BigDecimal> getPrimitiveConceptImportance() {
-        return primitiveConceptImportance;
+        return primitiveConceptImportanceView;
     }
 
     public Map<String, BigDecimal> getRoleImportance() {
-        return roleImportance;
+        return roleImportanceView;
     }
 
     public Map<String, Map<String, BigDecimal>> getPrimitiveConceptsSimilarity() {
-        return primitiveConceptsSimilarity;
+        return primitiveConceptsSimilarityView;
     }
 
     public Map<String, Map<String, BigDecimal>> getPrimitiveRolesSimilarity() {
-        return primitiveRolesSimilarity;
+        return primitiveRolesSimilarityView;
     }
 
     public Map<String, BigDecimal> getRoleDiscountFactor() {
-        return roleDiscountFactor;
+        return roleDiscountFactorView;
     }
 
     public BigDecimal getDefaultRoleDiscountFactor() { return defaultRoleDiscountFactor; }
-}
\ No newline at end of file
+
+    /**
+     * Returns the immutable profile whose entries this overlay overrides.
+     *
+     * @return the base, or {@code null} if this profile is not an overlay
+     */
+    public PreferenceProfile getBase() {
+        return base;
+    }
+
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * Returns the number of modifications made to this profile. A snapshot keeps the version of the profile it was
+     * taken from.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the entry of any of the given primitive concept and role names may have been modified after the
+     * given version, e.g., the importance of one of the primitives a result depends on. Results that depend on none of
+     * the modified names are unaffected by the modifications. The log of modifications is immutable once written, so
+     * that it is read without locking this profile.
+     *
+     * @param sinceVersion the version
+     * @param names the names
+     * @return whether any of the names may have been modified, which is also the case if the modifications are not
+     *         known by name, e.g., because the default role discount factor has been changed or the profile has been
+     *         reset, or if they are no longer logged
+     */
+    public boolean isModifiedSince(long sinceVersion, Set<String> names) {
+        Modification modification = lastModification;
+
+        if (modification == null) {
+            return sinceVersion != version;
+        }
+        if (sinceVersion > modification.version) {
+            return true;
+        }
+
+        for (; modification != null && modification.version > sinceVersion; modification = modification.previous) {
+            if (modification.names == null) {
+                return true;
+            }
+
+            for (String name : modification.names) {
+                if (names.contains(name)) {
+                    return true;
+                }
+            }
+
+            // the oldest logged modification is more recent than the version
+            if (modification.previous == null && modification.version - 1 > sinceVersion) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * A logged modification, i.e., the version it created and the names whose entries it modified.
+     */
+    private static class Modification {
+        private final long version;
+        // or null if every entry may have been modified
+        private final Set<String> names;
+        // or null if this is the oldest logged modification
+        private final Modification previous;
+        private final int logged;
+
+        private Modification(long version, Set<String> names, Modification previous) {
+            this.version = version;
+            this.names = names;
+            this.previous = previous;
+            this.logged = previous == null ? 1 : previous.logged + 1;
+        }
+    }
+}
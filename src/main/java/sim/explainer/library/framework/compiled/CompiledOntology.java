@@ -0,0 +1,126 @@
+package sim.explainer.library.framework.compiled;
+
+import sim.explainer.library.enumeration.FileTypeConstant;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.util.MemoryUtils;
+
+import java.util.*;
+
+/**
+ * Holds the compiled state of a loaded ontology, i.e., the symbol table of concept names, the unfolded description
+ * trees of all concepts and the super-role closures of all roles that occur in those trees.
+ */
+public class CompiledOntology {
+
+    private final FileTypeConstant fileType;
+    private final String sourceHash;
+    private final List<String> conceptNames;
+    private final Set<String> conceptNameSet;
+    private final Map<String, Tree<Set<String>>> trees;
+    private final Map<String, Set<String>> roleClosures;
+    private final Set<String> skippedConceptNames;
+
+    /**
+     * Constructs a {@code CompiledOntology}.
+     *
+     * @param fileType the file type of the source ontology
+     * @param sourceHash the content hash of the source ontology
+     * @param conceptNames the symbol table of concept names
+     * @param trees the unfolded description trees keyed by concept name
+     * @param roleClosures the super-role closures keyed by role name
+     * @param skippedConceptNames the concept names whose description trees could not be compiled
+     */
+    public CompiledOntology(FileTypeConstant fileType, String sourceHash, List<String> conceptNames,
+                            Map<String, Tree<Set<String>>> trees, Map<String, Set<String>> roleClosures,
+                            Set<String> skippedConceptNames) {
+        this.fileType = fileType;
+        this.sourceHash = sourceHash;
+        this.conceptNames = Collections.unmodifiableList(new ArrayList<>(conceptNames));
+        this.conceptNameSet = Collections.unmodifiableSet(new HashSet<>(conceptNames));
+        this.trees = Collections.unmodifiableMap(new HashMap<>(trees));
+        this.roleClosures = Collections.unmodifiableMap(new HashMap<>(roleClosures));
+        this.skippedConceptNames = Collections.unmodifiableSet(new LinkedHashSet<>(skippedConceptNames));
+    }
+
+    /**
+     * Checks whether all the given concept names are in the symbol table.
+     *
+     * @param conceptNames the concept names
+     * @return {@code true} if every concept name is known
+     */
+    public boolean containsConcepts(String... conceptNames) {
+        if (conceptNames == null) {
+            return false;
+        }
+
+        for (String conceptName : conceptNames) {
+            if (!conceptNameSet.contains(conceptName)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the compiled description tree of the given concept.
+     *
+     * @param conceptName the concept name
+     * @return the description tree, or {@code null} if the concept has not been compiled
+     */
+    public Tree<Set<String>> getTree(String conceptName) {
+        return trees.get(conceptName);
+    }
+
+    /**
+     * Checks whether the description tree of every concept has been compiled.
+     *
+     * @return {@code true} if no concept has been skipped
+     */
+    public boolean isComplete() {
+        return skippedConceptNames.isEmpty();
+    }
+
+    /**
+     * Estimates the heap held by the compiled state.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateResidentBytes() {
+        long bytes = MemoryUtils.estimateTreeBytes(trees.values()) + MemoryUtils.estimateClosureBytes(roleClosures);
+
+        for (String conceptName : conceptNames) {
+            bytes += MemoryUtils.ENTRY_BYTES + MemoryUtils.estimateBytes(conceptName);
+        }
+
+        return bytes;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Getters /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public FileTypeConstant getFileType() {
+        return fileType;
+    }
+
+    public String getSourceHash() {
+        return sourceHash;
+    }
+
+    public List<String> getConceptNames() {
+        return conceptNames;
+    }
+
+    public Map<String, Tree<Set<String>>> getTrees() {
+        return trees;
+    }
+
+    public Map<String, Set<String>> getRoleClosures() {
+        return roleClosures;
+    }
+
+    public Set<String> getSkippedConceptNames() {
+        return skippedConceptNames;
+    }
+}
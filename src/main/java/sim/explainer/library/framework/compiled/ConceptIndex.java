@@ -0,0 +1,229 @@
+package sim.explainer.library.framework.compiled;
+
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.descriptiontree.TreeNode;
+import sim.explainer.library.framework.unfolding.IRoleUnfolder;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Inverted index from the primitive concept names and the role names, after super-role closure, of the roots of
+ * description trees to the concepts of those trees. The similarity of two concepts depends on the deeper levels of
+ * their trees only through the matching of root edges, hence two concepts whose roots share no primitive, directly or
+ * through a primitive concept similarity, and no compatible role have similarity 0 under every implementation method.
+ * The index generates, for a concept, a superset of the concepts whose similarity to it may be greater than 0.
+ */
+public class ConceptIndex {
+
+    private final Set<String> conceptNames = new HashSet<String>();
+    private final Map<String, Set<String>> conceptsByPrimitive = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> conceptsByRole = new HashMap<String, Set<String>>();
+
+    private final Map<String, Set<String>> rootPrimitives = new HashMap<String, Set<String>>();
+    private final Map<String, List<Set<String>>> rootRoleClosures = new HashMap<String, List<Set<String>>>();
+
+    private final Set<String> emptyRoots = new HashSet<String>(); // concepts whose roots have neither primitives nor edges
+    private final Set<String> rootsWithEdges = new HashSet<String>();
+    private final Set<String> rootsWithTopRole = new HashSet<String>(); // concepts with a root edge of an empty closure
+
+    /**
+     * Constructs a {@code ConceptIndex}.
+     *
+     * @param trees the description trees keyed by concept name
+     * @param iRoleUnfolder the role unfolder that computes super-role closures
+     */
+    public ConceptIndex(Map<String, Tree<Set<String>>> trees, IRoleUnfolder iRoleUnfolder) {
+        if (trees == null || iRoleUnfolder == null) {
+            throw new JSimPiException("Unable to create concept index as trees[" + trees + "] and iRoleUnfolder[" + iRoleUnfolder + "] are null.", ErrorCode.ConceptIndex_IllegalArguments);
+        }
+
+        for (Map.Entry<String, Tree<Set<String>>> entry : trees.entrySet()) {
+            String conceptName = entry.getKey();
+            TreeNode<Set<String>> root = entry.getValue().getNodes().get(0);
+
+            conceptNames.add(conceptName);
+            rootPrimitives.put(conceptName, new HashSet<String>(root.getData()));
+            for (String primitive : root.getData()) {
+                index(conceptsByPrimitive, primitive, conceptName);
+            }
+
+            List<Set<String>> closures = new ArrayList<Set<String>>();
+            for (TreeNode<Set<String>> child : root.getChildren()) {
+                Set<String> closure = new HashSet<String>(iRoleUnfolder.unfoldRoleHierarchy(child.getEdgeToParent()));
+                closures.add(closure);
+
+                for (String role : closure) {
+                    index(conceptsByRole, role, conceptName);
+                }
+                if (closure.isEmpty()) {
+                    rootsWithTopRole.add(conceptName);
+                }
+            }
+            rootRoleClosures.put(conceptName, closures);
+
+            if (!root.getChildren().isEmpty()) {
+                rootsWithEdges.add(conceptName);
+            } else if (root.getData().isEmpty()) {
+                emptyRoots.add(conceptName);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void index(Map<String, Set<String>> index, String key, String conceptName) {
+        Set<String> concepts = index.get(key);
+        if (concepts == null) {
+            concepts = new HashSet<String>();
+            index.put(key, concepts);
+        }
+        concepts.add(conceptName);
+    }
+
+    /**
+     * Expands names by the names that are similar to them in either direction.
+     */
+    private static Set<String> expand(Set<String> names, Map<String, Map<String, BigDecimal>> similarities) {
+        Set<String> expanded = new HashSet<String>(names);
+
+        for (Map.Entry<String, Map<String, BigDecimal>> entry : similarities.entrySet()) {
+            boolean fromName = names.contains(entry.getKey());
+
+            for (Map.Entry<String, BigDecimal> similarity : entry.getValue().entrySet()) {
+                if (similarity.getValue().signum() <= 0) {
+                    continue;
+                }
+
+                if (fromName) {
+                    expanded.add(similarity.getKey());
+                }
+                if (names.contains(similarity.getKey())) {
+                    expanded.add(entry.getKey());
+                }
+            }
+        }
+
+        return expanded;
+    }
+
+    /**
+     * A closure of zero importance, e.g., that of the top role, matches every role with degree 1.
+     */
+    private static boolean matchesEveryRole(Set<String> closure, Map<String, BigDecimal> roleImportance) {
+        for (String role : closure) {
+            BigDecimal importance = roleImportance.get(role);
+            if (importance == null || importance.signum() != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Set<String> lookup(Map<String, Set<String>> index, Set<String> keys) {
+        Set<String> concepts = new HashSet<String>();
+
+        for (String key : keys) {
+            Set<String> indexed = index.get(key);
+            if (indexed != null) {
+                concepts.addAll(indexed);
+            }
+        }
+
+        return concepts;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the indexed concepts whose similarity to the given concept may be greater than 0 with the given
+     * preference profile. The similarity to every other indexed concept is 0.
+     *
+     * @param conceptName the concept
+     * @param preferenceProfile the preference profile
+     * @return the candidate concepts, which include the concept itself
+     */
+    public Set<String> candidates(String conceptName, PreferenceProfile preferenceProfile) {
+        if (conceptName == null || preferenceProfile == null) {
+            throw new JSimPiException("Unable to generate candidates as conceptName[" + conceptName + "] and preferenceProfile[" + preferenceProfile + "] are null.", ErrorCode.ConceptIndex_IllegalArguments);
+        }
+
+        if (!conceptNames.contains(conceptName)) {
+            throw new JSimPiException("Unable to generate candidates as conceptName[" + conceptName + "] has not been indexed.", ErrorCode.ConceptIndex_IllegalArguments);
+        }
+
+        if (emptyRoots.contains(conceptName)) {
+            return new HashSet<String>(conceptNames);
+        }
+
+        Set<String> candidates = new HashSet<String>(emptyRoots);
+        candidates.add(conceptName);
+
+        Set<String> primitives = expand(rootPrimitives.get(conceptName), preferenceProfile.getPrimitiveConceptsSimilarity());
+        candidates.addAll(lookup(conceptsByPrimitive, primitives));
+
+        List<Set<String>> closures = rootRoleClosures.get(conceptName);
+        if (closures.isEmpty()) {
+            return candidates;
+        }
+
+        Map<String, BigDecimal> roleImportance = preferenceProfile.getRoleImportance();
+        Set<String> roles = new HashSet<String>();
+        for (Set<String> closure : closures) {
+            if (matchesEveryRole(closure, roleImportance)) {
+                candidates.addAll(rootsWithEdges);
+                return candidates;
+            }
+
+            roles.addAll(closure);
+        }
+
+        candidates.addAll(lookup(conceptsByRole, expand(roles, preferenceProfile.getPrimitiveRolesSimilarity())));
+        candidates.addAll(rootsWithTopRole);
+
+        // roots with an edge whose closure consists of roles of zero importance only
+        for (Map.Entry<String, BigDecimal> entry : roleImportance.entrySet()) {
+            if (entry.getValue().signum() != 0 || !conceptsByRole.containsKey(entry.getKey())) {
+                continue;
+            }
+
+            for (String candidate : conceptsByRole.get(entry.getKey())) {
+                for (Set<String> closure : rootRoleClosures.get(candidate)) {
+                    if (matchesEveryRole(closure, roleImportance)) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+    public Set<String> getConceptsByPrimitive(String primitive) {
+        Set<String> concepts = conceptsByPrimitive.get(primitive);
+
+        return concepts != null ? Collections.unmodifiableSet(concepts) : Collections.<String>emptySet();
+    }
+
+    public Set<String> getConceptsByRole(String role) {
+        Set<String> concepts = conceptsByRole.get(role);
+
+        return concepts != null ? Collections.unmodifiableSet(concepts) : Collections.<String>emptySet();
+    }
+
+    public Set<String> getConceptNames() {
+        return Collections.unmodifiableSet(conceptNames);
+    }
+
+    public int size() {
+        return conceptNames.size();
+    }
+}
@@ -3,6 +3,8 @@ package sim.explainer.library.framework.descriptiontree;
 import org.apache.commons.lang3.StringUtils;
 import sim.explainer.library.enumeration.TraversalStrategy;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -90,6 +92,33 @@ public class Tree<T> {
         return node;
     }
 
+    /**
+     * Copies the tree. The copied nodes are new instances with the same ids, concept names, edges and data.
+     *
+     * @return the copy
+     */
+    public Tree<T> copy() {
+        Tree<T> copy = new Tree<T>(label, traversalStrategy);
+        copy.runningNodeId = runningNodeId;
+
+        TreeNode<T> root = nodes.get(DEFAULT_ROOT_LEVEL);
+        if (root != null) {
+            Deque<TreeNode<T>> stack = new ArrayDeque<TreeNode<T>>();
+            stack.push(root.copy());
+
+            while (!stack.isEmpty()) {
+                TreeNode<T> node = stack.pop();
+                copy.nodes.put(node.getId(), node);
+
+                for (TreeNode<T> child : node.getChildren()) {
+                    stack.push(child);
+                }
+            }
+        }
+
+        return copy;
+    }
+
     public String toString(int id) {
         StringBuilder builder = new StringBuilder();
 
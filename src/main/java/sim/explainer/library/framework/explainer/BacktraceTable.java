@@ -4,14 +4,19 @@ import sim.explainer.library.framework.descriptiontree.TreeNode;
 import sim.explainer.library.util.utilstructure.SymmetricPair;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
- * Represents a table used to trace back similarity records across different levels of a tree.
+ * Represents a table used to trace back similarity records across different levels of a tree. Besides the records
+ * keyed by node pair, the table indexes, per level, every node of the first tree by identity to the first pair it
+ * occurs in, so that an explanation tree can be rendered in time linear in the number of nodes.
  */
 public class BacktraceTable {
 
     private final HashMap<Integer, HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord>> table = new HashMap<>();
+    private volatile HashMap<Integer, IdentityHashMap<TreeNode<Set<String>>, SymmetricPair<TreeNode<Set<String>>>>> nodeIndex;
 
     /**
      * Constructs an empty {@code BacktraceTable}.
@@ -31,6 +36,57 @@ public class BacktraceTable {
         table.computeIfAbsent(level, k -> new HashMap<>())
                 .merge(pair, record, (existingRecord, newRecord) ->
                         existingRecord.getDeg().compareTo(newRecord.getDeg()) <= 0 ? newRecord : existingRecord);
+
+        nodeIndex = null;
+    }
+
+    private HashMap<Integer, IdentityHashMap<TreeNode<Set<String>>, SymmetricPair<TreeNode<Set<String>>>>> nodeIndex() {
+        HashMap<Integer, IdentityHashMap<TreeNode<Set<String>>, SymmetricPair<TreeNode<Set<String>>>>> index = nodeIndex;
+
+        if (index == null) {
+            index = new HashMap<>();
+
+            // Follows the iteration order of every level, so that a node is paired as a scan of the level would pair it.
+            for (Map.Entry<Integer, HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord>> level : table.entrySet()) {
+                IdentityHashMap<TreeNode<Set<String>>, SymmetricPair<TreeNode<Set<String>>>> levelIndex = new IdentityHashMap<>();
+                for (SymmetricPair<TreeNode<Set<String>>> pair : level.getValue().keySet()) {
+                    levelIndex.putIfAbsent(pair.getFirst(), pair);
+                }
+
+                index.put(level.getKey(), levelIndex);
+            }
+
+            nodeIndex = index;
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the first pair of the specified level whose first node is the given node. The index behind it is built
+     * on the first call, once the table is complete.
+     *
+     * @param level the level in the table
+     * @param node the tree node of the first tree, compared by identity
+     * @return the pair, or {@code null} if the node has no record at that level
+     */
+    public SymmetricPair<TreeNode<Set<String>>> getPair(int level, TreeNode<Set<String>> node) {
+        IdentityHashMap<TreeNode<Set<String>>, SymmetricPair<TreeNode<Set<String>>>> levelIndex = nodeIndex().get(level);
+
+        return levelIndex == null ? null : levelIndex.get(node);
+    }
+
+    /**
+     * Returns the record of a pair at the specified level.
+     *
+     * @param level the level in the table
+     * @param pair the pair of tree nodes
+     * @return the record, or {@code null} if the pair has no record at that level
+     */
+    public SimRecord getRecord(int level, SymmetricPair<TreeNode<Set<String>>> pair) {
+        HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord> levelMap = table.get(level);
+
+        return levelMap == null ? null : levelMap.get(pair);
     }
 
     /**
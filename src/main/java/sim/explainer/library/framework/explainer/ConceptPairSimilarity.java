@@ -0,0 +1,44 @@
+package sim.explainer.library.framework.explainer;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents the similarity degree of one concept pair, as produced by batch computations that do not retain the
+ * backtrace tables.
+ */
+public class ConceptPairSimilarity {
+
+    private final String concept1;
+    private final String concept2;
+    private final BigDecimal similarity;
+
+    /**
+     * Constructs a {@code ConceptPairSimilarity}.
+     *
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param similarity the similarity degree
+     */
+    public ConceptPairSimilarity(String concept1, String concept2, BigDecimal similarity) {
+        this.concept1 = concept1;
+        this.concept2 = concept2;
+        this.similarity = similarity;
+    }
+
+    public String getConcept1() {
+        return concept1;
+    }
+
+    public String getConcept2() {
+        return concept2;
+    }
+
+    public BigDecimal getSimilarity() {
+        return similarity;
+    }
+
+    @Override
+    public String toString() {
+        return "ConceptPairSimilarity{concept1=" + concept1 + ", concept2=" + concept2 + ", similarity=" + similarity + "}";
+    }
+}
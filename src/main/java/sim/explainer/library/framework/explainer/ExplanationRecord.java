@@ -0,0 +1,68 @@
+package sim.explainer.library.framework.explainer;
+
+import sim.explainer.library.enumeration.ImplementationMethod;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents what is kept of a similarity evaluation when its explanation is not retained, i.e., everything needed to
+ * recompute the same backtrace tables on demand. Only the version of the preference profile is kept rather than the
+ * profile snapshot itself, so that records do not pin superseded snapshots: as long as no entry the evaluation depends
+ * on has been modified since that version, measuring the pair again with the current profile yields the same result.
+ */
+public class ExplanationRecord {
+
+    private final String concept1;
+    private final BigDecimal similarity;
+    private final ImplementationMethod method;
+    private final long ontologyVersion;
+    private final long profileVersion;
+
+    /**
+     * Constructs an {@code ExplanationRecord}.
+     *
+     * @param concept1 the first concept of the evaluation, i.e., the one the forward direction starts from
+     * @param similarity the similarity degree
+     * @param method the implementation method
+     * @param ontologyVersion the version of the loaded ontology
+     * @param profileVersion the version of the preference profile
+     */
+    public ExplanationRecord(String concept1, BigDecimal similarity, ImplementationMethod method, long ontologyVersion, long profileVersion) {
+        this.concept1 = concept1;
+        this.similarity = similarity;
+        this.method = method;
+        this.ontologyVersion = ontologyVersion;
+        this.profileVersion = profileVersion;
+    }
+
+    /**
+     * Returns a copy of this record stamped with another version of the preference profile, e.g., a newer one the
+     * result has been validated against.
+     *
+     * @param profileVersion the version of the preference profile
+     * @return the copy
+     */
+    public ExplanationRecord withProfileVersion(long profileVersion) {
+        return new ExplanationRecord(concept1, similarity, method, ontologyVersion, profileVersion);
+    }
+
+    public String getConcept1() {
+        return concept1;
+    }
+
+    public BigDecimal getSimilarity() {
+        return similarity;
+    }
+
+    public ImplementationMethod getMethod() {
+        return method;
+    }
+
+    public long getOntologyVersion() {
+        return ontologyVersion;
+    }
+
+    public long getProfileVersion() {
+        return profileVersion;
+    }
+}
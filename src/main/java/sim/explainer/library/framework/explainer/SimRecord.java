@@ -1,75 +1,269 @@
 package sim.explainer.library.framework.explainer;
 
+import sim.explainer.library.util.utilstructure.SymbolTable;
 import sim.explainer.library.util.utilstructure.SymmetricPair;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * Records how a homomorphism degree between two nodes was derived. Names are stored as interned ids in packed int
+ * arrays, i.e., {@code [first0, second0, first1, second1, ...]}, which are only allocated on the first append. A pair
+ * that was already appended, in either order, is not appended again; beyond a few pairs, they are looked up in an
+ * open-addressed index, so that filling a record stays linear in its size. The getters materialize the same
+ * {@code HashSet}s and {@code HashMap}s of {@code SymmetricPair}s as before, so that explanations iterate, and render,
+ * the pairs in the same order.
+ */
 public class SimRecord {
-    private BigDecimal deg = new BigDecimal(0.0); // homomorphism degree
-    private HashSet<SymmetricPair<String>> pri = new HashSet<>(); // a set of primitives between 2 comparing concepts that derives deg.
-    private HashSet<SymmetricPair<String>> exi = new HashSet<>(); // a set of existentials between 2 comparing existentials that derives deg.
-    private HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>> emb = new HashMap<>(); // a set of embeddings in embedding space that derives deg.
+    private BigDecimal deg = BigDecimal.ZERO; // homomorphism degree
+    private Pairs pri; // a set of primitives between 2 comparing concepts that derives deg.
+    private Pairs exi; // a set of existentials between 2 comparing existentials that derives deg.
+    private Pairs embKeys; // the existential pairs that have embeddings.
+    private Pairs[] embValues; // a set of embeddings in embedding space per existential pair that derives deg.
 
-    public SimRecord() {
+    private final SymbolTable symbolTable;
+
+    /**
+     * Constructs a {@code SimRecord} that interns its names in the given table.
+     *
+     * @param symbolTable the symbol table of the loaded ontology
+     */
+    public SimRecord(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static int size(Pairs pairs) {
+        return pairs == null ? 0 : pairs.size;
     }
 
+    private static Pairs append(Pairs pairs, int first, int second) {
+        if (pairs == null) {
+            pairs = new Pairs();
+        }
+
+        pairs.add(first, second);
+
+        return pairs;
+    }
+
+    private HashSet<SymmetricPair<String>> materialize(Pairs pairs) {
+        HashSet<SymmetricPair<String>> set = new HashSet<>();
+
+        for (int i = 0; i < size(pairs); i++) {
+            set.add(new SymmetricPair<>(symbolTable.name(pairs.first(i)), symbolTable.name(pairs.second(i))));
+        }
+
+        return set;
+    }
+
+    private int embIndex(String name1, String name2) {
+        if (embKeys == null) {
+            embKeys = new Pairs();
+        }
+
+        int index = embKeys.add(symbolTable.intern(name1), symbolTable.intern(name2));
+
+        if (embValues == null) {
+            embValues = new Pairs[2];
+        } else if (index == embValues.length) {
+            embValues = Arrays.copyOf(embValues, embValues.length * 2);
+        }
+
+        return index;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
     public BigDecimal getDeg() {
         return deg;
     }
 
     public HashSet<SymmetricPair<String>> getPri() {
-        return pri;
+        return materialize(pri);
     }
 
     public HashSet<SymmetricPair<String>> getExi() {
-        return exi;
+        return materialize(exi);
     }
 
     public HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>> getEmb() {
+        HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>> emb = new HashMap<>();
+
+        for (int i = 0; i < size(embKeys); i++) {
+            emb.put(new SymmetricPair<>(symbolTable.name(embKeys.first(i)), symbolTable.name(embKeys.second(i))), materialize(embValues[i]));
+        }
+
         return emb;
     }
 
+    public int getPriSize() {
+        return size(pri);
+    }
+
+    public int getExiSize() {
+        return size(exi);
+    }
+
+    public int getEmbSize() {
+        return size(embKeys);
+    }
+
     public void setDeg(BigDecimal deg) {
         this.deg = deg;
     }
 
     public void appendPri(String pri1, String pri2) {
-        SymmetricPair<String> pair = new SymmetricPair<>(pri1, pri2);
-        this.pri.add(pair);
+        this.pri = append(this.pri, symbolTable.intern(pri1), symbolTable.intern(pri2));
     }
 
     public void appendExi(String exi1, String exi2) {
-        SymmetricPair<String> pair = new SymmetricPair<>(exi1, exi2);
-        this.exi.add(pair);
+        this.exi = append(this.exi, symbolTable.intern(exi1), symbolTable.intern(exi2));
     }
 
     public void appendEmb(String name1, String name2, String value1, String value2) {
-        SymmetricPair<String> pairName = new SymmetricPair<>(name1, name2);
-        SymmetricPair<String> pairEmb = new SymmetricPair<>(value1, value2);
+        int index = embIndex(name1, name2);
 
-        Set<SymmetricPair<String>> embeddings = emb.getOrDefault(pairName, new HashSet<>());
-        embeddings.add(pairEmb);
-        emb.put(pairName, embeddings);
+        embValues[index] = append(embValues[index], symbolTable.intern(value1), symbolTable.intern(value2));
     }
 
     public void appendEmb(String name1, String name2, HashSet<SymmetricPair<String>> values) {
-        SymmetricPair<String> pairName = new SymmetricPair<>(name1, name2);
+        int index = embIndex(name1, name2);
 
-        Set<SymmetricPair<String>> embeddings = emb.getOrDefault(pairName, new HashSet<>());
-        embeddings.addAll(values);
-        emb.put(pairName, embeddings);
+        for (SymmetricPair<String> value : values) {
+            embValues[index] = append(embValues[index], symbolTable.intern(value.getFirst()), symbolTable.intern(value.getSecond()));
+        }
     }
 
     public void setEmb(HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>> emb) {
-        this.emb = emb;
+        this.embKeys = null;
+        this.embValues = null;
+
+        for (Map.Entry<SymmetricPair<String>, Set<SymmetricPair<String>>> entry : emb.entrySet()) {
+            int index = embIndex(entry.getKey().getFirst(), entry.getKey().getSecond());
+
+            for (SymmetricPair<String> value : entry.getValue()) {
+                embValues[index] = append(embValues[index], symbolTable.intern(value.getFirst()), symbolTable.intern(value.getSecond()));
+            }
+        }
     }
 
     @Override
     public String toString() {
         return String.format("SimRecord{deg=%s, pri=%s, exi=%s, emb=%s}",
-                deg, pri, exi, emb);
+                deg, getPri(), getExi(), getEmb());
+    }
+
+    /**
+     * Pairs of interned names in insertion order, compared regardless of their order as {@code SymmetricPair} equality
+     * does. Up to {@link #SCAN_LIMIT} pairs are looked up by a linear scan; beyond that, the positions of the pairs are
+     * kept in an open-addressed table with linear probing, which is at most half full.
+     */
+    private static final class Pairs {
+        private static final int SCAN_LIMIT = 8;
+
+        private int[] names = new int[4]; // first0, second0, first1, second1, ...
+        private int size = 0;
+        private int[] slots; // the position of a pair plus one, or 0 for a free slot
+
+        private static int hash(int first, int second) {
+            int h = Math.min(first, second) * 0x9E3779B9 + Math.max(first, second);
+            return h ^ (h >>> 16);
+        }
+
+        private boolean matches(int index, int first, int second) {
+            int a = names[2 * index];
+            int b = names[2 * index + 1];
+
+            return (a == first && b == second) || (a == second && b == first);
+        }
+
+        private int indexOf(int first, int second) {
+            if (slots == null) {
+                for (int i = 0; i < size; i++) {
+                    if (matches(i, first, second)) {
+                        return i;
+                    }
+                }
+
+                return -1;
+            }
+
+            int mask = slots.length - 1;
+            for (int slot = hash(first, second) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (matches(slots[slot] - 1, first, second)) {
+                    return slots[slot] - 1;
+                }
+            }
+
+            return -1;
+        }
+
+        private void index(int index) {
+            int mask = slots.length - 1;
+            int slot = hash(names[2 * index], names[2 * index + 1]) & mask;
+
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+
+            for (int i = 0; i < size; i++) {
+                index(i);
+            }
+        }
+
+        /**
+         * Appends a pair unless it is already present.
+         *
+         * @return the position of the pair
+         */
+        int add(int first, int second) {
+            int index = indexOf(first, second);
+
+            if (index >= 0) {
+                return index;
+            }
+
+            if (2 * size == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            names[2 * size] = first;
+            names[2 * size + 1] = second;
+            index = size++;
+
+            if (slots == null) {
+                if (size > SCAN_LIMIT) {
+                    rehash(4 * SCAN_LIMIT);
+                }
+            } else if (2 * size > slots.length) {
+                rehash(slots.length * 2);
+            } else {
+                index(index);
+            }
+
+            return index;
+        }
+
+        int first(int index) {
+            return names[2 * index];
+        }
+
+        int second(int index) {
+            return names[2 * index + 1];
+        }
     }
 }
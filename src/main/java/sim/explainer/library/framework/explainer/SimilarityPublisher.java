@@ -0,0 +1,210 @@
+package sim.explainer.library.framework.explainer;
+
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the results of a batch computation, e.g., of all pairs of concepts, as they are measured. The computation
+ * is split into tasks, e.g., one per row of concept pairs, that are run on an executor only as far as the subscriber
+ * demands results: a task is started only while fewer results are buffered than requested, and at most
+ * {@code maxInFlight} tasks run at a time. A slow subscriber hence throttles the computation, and at most the results
+ * of the running tasks are buffered beyond its demand. Cancelling the subscription stops starting tasks and drops
+ * the results of the running ones.
+ *
+ * Every subscriber gets its own run of the computation. Results are delivered in the order their tasks complete.
+ */
+public class SimilarityPublisher implements Flow.Publisher<ConceptPairSimilarity> {
+
+    private final Supplier<Iterator<Supplier<List<ConceptPairSimilarity>>>> tasks;
+    private final Executor executor;
+    private final int maxInFlight;
+
+    /**
+     * Constructs a {@code SimilarityPublisher}.
+     *
+     * @param tasks creates the tasks of one run of the computation; every task returns the results it has measured
+     * @param executor the executor the tasks are run on
+     * @param maxInFlight the maximum number of tasks running at a time
+     */
+    public SimilarityPublisher(Supplier<Iterator<Supplier<List<ConceptPairSimilarity>>>> tasks, Executor executor, int maxInFlight) {
+        if (tasks == null || executor == null) {
+            throw new JSimPiException("Unable to create similarity publisher as tasks[" + tasks + "] and executor[" + executor + "] are null.", ErrorCode.SimilarityPublisher_IllegalArguments);
+        }
+        if (maxInFlight <= 0) {
+            throw new JSimPiException("Unable to create similarity publisher as maxInFlight[" + maxInFlight + "] is not positive.", ErrorCode.SimilarityPublisher_IllegalArguments);
+        }
+
+        this.tasks = tasks;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ConceptPairSimilarity> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+
+        subscriber.onSubscribe(new Subscription(subscriber));
+    }
+
+    private class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ConceptPairSimilarity> subscriber;
+        private Iterator<Supplier<List<ConceptPairSimilarity>>> iterator; // only accessed while draining
+
+        private final Queue<ConceptPairSimilarity> ready = new ConcurrentLinkedQueue<ConceptPairSimilarity>();
+        private final AtomicInteger buffered = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private boolean exhausted; // only accessed while draining
+        private boolean terminated; // only accessed while draining
+
+        private Subscription(Flow.Subscriber<? super ConceptPairSimilarity> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void fail(Throwable e) {
+            if (error == null) {
+                error = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            }
+        }
+
+        private void start(Supplier<List<ConceptPairSimilarity>> task) {
+            inFlight.incrementAndGet();
+
+            CompletableFuture.supplyAsync(task, executor).whenComplete((results, e) -> {
+                if (e != null) {
+                    fail(e);
+                } else if (!cancelled) {
+                    ready.addAll(results);
+                    buffered.addAndGet(results.size());
+                }
+
+                inFlight.decrementAndGet();
+                drain();
+            });
+        }
+
+        /**
+         * Emits the buffered results as far as requested, starts tasks as far as they are needed to meet the rest of
+         * the demand, and completes the subscriber once every task has completed. Only one thread drains at a time.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                if (!terminated) {
+                    drainOnce();
+                }
+                if (terminated) {
+                    ready.clear();
+                }
+
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (cancelled) {
+                terminated = true;
+                return;
+            }
+            if (error != null) {
+                terminated = true;
+                subscriber.onError(error);
+                return;
+            }
+
+            long demand = requested.get();
+            long emitted = 0;
+            while (emitted != demand && !cancelled) {
+                ConceptPairSimilarity result = ready.poll();
+                if (result == null) {
+                    break;
+                }
+
+                buffered.decrementAndGet();
+                subscriber.onNext(result);
+                emitted++;
+            }
+
+            if (emitted != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+
+            try {
+                if (iterator == null) {
+                    iterator = tasks.get();
+                }
+
+                while (!exhausted && !cancelled && inFlight.get() < maxInFlight && buffered.get() < requested.get()) {
+                    if (iterator.hasNext()) {
+                        start(iterator.next());
+                    } else {
+                        exhausted = true;
+                    }
+                }
+
+                // completes without further demand once the last result has been emitted
+                if (!exhausted && inFlight.get() == 0 && ready.isEmpty() && !iterator.hasNext()) {
+                    exhausted = true;
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+                terminated = true;
+                subscriber.onError(error);
+                return;
+            }
+
+            if (exhausted && !cancelled && inFlight.get() == 0 && ready.isEmpty() && error == null) {
+                terminated = true;
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Non-positive request[" + n + "] violates rule 3.9 of the Reactive Streams specification."));
+            } else {
+                long current;
+                long next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+    }
+}
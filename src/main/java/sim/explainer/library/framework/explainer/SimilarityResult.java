@@ -0,0 +1,39 @@
+package sim.explainer.library.framework.explainer;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents the outcome of one similarity evaluation, i.e., the similarity degree together with the backtrace tables
+ * that were built by the forward and the backward directed measurements.
+ */
+public class SimilarityResult {
+
+    private final BigDecimal similarity;
+    private final BacktraceTable forwardBacktraceTable;
+    private final BacktraceTable backwardBacktraceTable;
+
+    /**
+     * Constructs a {@code SimilarityResult}.
+     *
+     * @param similarity the similarity degree
+     * @param forwardBacktraceTable the forward backtrace table
+     * @param backwardBacktraceTable the backward backtrace table
+     */
+    public SimilarityResult(BigDecimal similarity, BacktraceTable forwardBacktraceTable, BacktraceTable backwardBacktraceTable) {
+        this.similarity = similarity;
+        this.forwardBacktraceTable = forwardBacktraceTable;
+        this.backwardBacktraceTable = backwardBacktraceTable;
+    }
+
+    public BigDecimal getSimilarity() {
+        return similarity;
+    }
+
+    public BacktraceTable getForwardBacktraceTable() {
+        return forwardBacktraceTable;
+    }
+
+    public BacktraceTable getBackwardBacktraceTable() {
+        return backwardBacktraceTable;
+    }
+}
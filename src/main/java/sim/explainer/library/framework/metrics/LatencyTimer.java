@@ -0,0 +1,97 @@
+package sim.explainer.library.framework.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latencies in nanoseconds into a histogram of fixed buckets, i.e., 1, 2 and 5 times every power of ten from
+ * one microsecond up to ten seconds, plus an overflow bucket. Recording only increments striped counters, hence it
+ * neither locks nor allocates and can be called from any number of threads at once.
+ */
+class LatencyTimer {
+
+    static final long[] BUCKET_BOUNDS = bucketBounds();
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyTimer() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long[] bucketBounds() {
+        long[] bounds = new long[22];
+
+        long decade = 1000L;
+        for (int i = 0; i < bounds.length; i = i + 3) {
+            bounds[i] = decade;
+            if (i + 1 < bounds.length) {
+                bounds[i + 1] = 2 * decade;
+                bounds[i + 2] = 5 * decade;
+            }
+            decade = decade * 10;
+        }
+
+        return bounds;
+    }
+
+    private static int bucketOf(long nanos) {
+        int low = 0;
+        int high = BUCKET_BOUNDS.length;
+
+        // the first bucket whose bound is not below the latency, or the overflow bucket
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (BUCKET_BOUNDS[middle] < nanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Package /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    void record(long nanos) {
+        long latency = Math.max(0, nanos);
+
+        buckets[bucketOf(latency)].increment();
+        totalNanos.add(latency);
+        maxNanos.accumulate(latency);
+    }
+
+    /**
+     * Reads the counters. The reads are not atomic with respect to concurrent recordings, hence the count is derived
+     * from the buckets, so that it always agrees with them.
+     *
+     * @return the counts of every bucket, the overflow bucket last
+     */
+    long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        return counts;
+    }
+
+    long totalNanos() {
+        return totalNanos.sum();
+    }
+
+    long maxNanos() {
+        return maxNanos.get();
+    }
+}
@@ -0,0 +1,152 @@
+package sim.explainer.library.framework.metrics;
+
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.enumeration.MetricStage;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collects the latencies of every stage of an evaluation, i.e., unfolding, tree building, forward and backward
+ * reasoning, explanation rendering and natural language conversion, together with the number of node pairs evaluated
+ * and the explanation cache hits and misses per implementation method. The latencies of a stage are kept per
+ * implementation method where the stage depends on it, and once for all methods otherwise.
+ *
+ * The registry is safe to use from multiple threads. Recording never locks, and a snapshot reads the counters without
+ * stopping the recordings in progress.
+ */
+public class MetricsRegistry {
+
+    private final ConcurrentHashMap<TimerKey, LatencyTimer> timers = new ConcurrentHashMap<TimerKey, LatencyTimer>();
+    private final Map<ImplementationMethod, LongAdder> nodePairs = counters();
+    private final Map<ImplementationMethod, LongAdder> cacheHits = counters();
+    private final Map<ImplementationMethod, LongAdder> cacheMisses = counters();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static Map<ImplementationMethod, LongAdder> counters() {
+        Map<ImplementationMethod, LongAdder> counters = new EnumMap<ImplementationMethod, LongAdder>(ImplementationMethod.class);
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            counters.put(method, new LongAdder());
+        }
+
+        return counters;
+    }
+
+    private static Map<ImplementationMethod, Long> sums(Map<ImplementationMethod, LongAdder> counters) {
+        Map<ImplementationMethod, Long> sums = new EnumMap<ImplementationMethod, Long>(ImplementationMethod.class);
+
+        for (Map.Entry<ImplementationMethod, LongAdder> entry : counters.entrySet()) {
+            sums.put(entry.getKey(), entry.getValue().sum());
+        }
+
+        return sums;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Records the latency of one execution of a stage.
+     *
+     * @param stage the stage
+     * @param method the implementation method, or {@code null} if the stage does not depend on it
+     * @param nanos the latency in nanoseconds, e.g., the difference of two {@link System#nanoTime()} readings
+     */
+    public void record(MetricStage stage, ImplementationMethod method, long nanos) {
+        timers.computeIfAbsent(new TimerKey(stage, method), key -> new LatencyTimer()).record(nanos);
+    }
+
+    /**
+     * Runs a stage and records its latency, also if it fails.
+     *
+     * @param stage the stage
+     * @param method the implementation method, or {@code null} if the stage does not depend on it
+     * @param task the stage
+     * @return the result of the stage
+     */
+    public <T> T time(MetricStage stage, ImplementationMethod method, Supplier<T> task) {
+        long start = System.nanoTime();
+
+        try {
+            return task.get();
+        } finally {
+            record(stage, method, System.nanoTime() - start);
+        }
+    }
+
+    public void addNodePairs(ImplementationMethod method, long count) {
+        nodePairs.get(method).add(count);
+    }
+
+    public void recordCacheHit(ImplementationMethod method) {
+        cacheHits.get(method).increment();
+    }
+
+    public void recordCacheMiss(ImplementationMethod method) {
+        cacheMisses.get(method).increment();
+    }
+
+    /**
+     * Reads every timer and counter. The values recorded while the snapshot is taken may or may not be included.
+     *
+     * @return an immutable snapshot of the metrics
+     */
+    public MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.TimerSnapshot> snapshots = new ArrayList<MetricsSnapshot.TimerSnapshot>();
+
+        for (Map.Entry<TimerKey, LatencyTimer> entry : timers.entrySet()) {
+            LatencyTimer timer = entry.getValue();
+            snapshots.add(new MetricsSnapshot.TimerSnapshot(entry.getKey().stage, entry.getKey().method,
+                    timer.bucketCounts(), timer.totalNanos(), timer.maxNanos()));
+        }
+
+        return new MetricsSnapshot(snapshots, sums(nodePairs), sums(cacheHits), sums(cacheMisses));
+    }
+
+    /**
+     * Drops every recorded latency and count. Recordings in progress may still be added afterwards.
+     */
+    public void reset() {
+        timers.clear();
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            nodePairs.get(method).reset();
+            cacheHits.get(method).reset();
+            cacheMisses.get(method).reset();
+        }
+    }
+
+    private static class TimerKey {
+        private final MetricStage stage;
+        private final ImplementationMethod method;
+
+        private TimerKey(MetricStage stage, ImplementationMethod method) {
+            this.stage = stage;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TimerKey that = (TimerKey) o;
+            return stage == that.stage && method == that.method;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stage, method);
+        }
+    }
+}
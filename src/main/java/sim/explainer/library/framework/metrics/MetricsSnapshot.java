@@ -0,0 +1,286 @@
+package sim.explainer.library.framework.metrics;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.enumeration.MetricStage;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a {@link MetricsRegistry}, which can be exported as JSON or in the Prometheus text
+ * exposition format. Counts and latencies are cumulative since the registry was created or last reset.
+ */
+public class MetricsSnapshot {
+
+    private static final String PREFIX = "simexplainer_";
+
+    private final List<TimerSnapshot> timers;
+    private final Map<ImplementationMethod, Long> nodePairs;
+    private final Map<ImplementationMethod, Long> cacheHits;
+    private final Map<ImplementationMethod, Long> cacheMisses;
+
+    MetricsSnapshot(List<TimerSnapshot> timers, Map<ImplementationMethod, Long> nodePairs, Map<ImplementationMethod, Long> cacheHits, Map<ImplementationMethod, Long> cacheMisses) {
+        List<TimerSnapshot> sorted = new ArrayList<TimerSnapshot>(timers);
+        sorted.sort(Comparator.comparing(TimerSnapshot::getStage)
+                .thenComparing(TimerSnapshot::getMethod, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        this.timers = Collections.unmodifiableList(sorted);
+        this.nodePairs = Collections.unmodifiableMap(nodePairs);
+        this.cacheHits = Collections.unmodifiableMap(cacheHits);
+        this.cacheMisses = Collections.unmodifiableMap(cacheMisses);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos).movePointLeft(9).stripTrailingZeros().toPlainString();
+    }
+
+    private static String labels(TimerSnapshot timer) {
+        StringBuilder builder = new StringBuilder("stage=\"").append(timer.getStage().getLabel()).append('"');
+        if (timer.getMethod() != null) {
+            builder.append(",method=\"").append(timer.getMethod()).append('"');
+        }
+
+        return builder.toString();
+    }
+
+    private static void appendCounter(StringBuilder builder, String name, String help, Map<ImplementationMethod, Long> counts) {
+        builder.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(PREFIX).append(name).append(" counter\n");
+
+        for (Map.Entry<ImplementationMethod, Long> entry : counts.entrySet()) {
+            builder.append(PREFIX).append(name).append("{method=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue()).append('\n');
+        }
+    }
+
+    private static JSONObject counterAsJson(Map<ImplementationMethod, Long> counts) {
+        JSONObject json = new JSONObject();
+
+        for (Map.Entry<ImplementationMethod, Long> entry : counts.entrySet()) {
+            json.put(entry.getKey().toString(), entry.getValue());
+        }
+
+        return json;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the timers that recorded at least one latency, ordered by stage and implementation method.
+     *
+     * @return the timer snapshots
+     */
+    public List<TimerSnapshot> getTimers() {
+        return timers;
+    }
+
+    /**
+     * Returns the timer of a stage.
+     *
+     * @param stage the stage
+     * @param method the implementation method, or {@code null} for a stage that does not depend on it
+     * @return the timer snapshot, or {@code null} if the stage has not recorded any latency
+     */
+    public TimerSnapshot getTimer(MetricStage stage, ImplementationMethod method) {
+        for (TimerSnapshot timer : timers) {
+            if (timer.getStage() == stage && timer.getMethod() == method) {
+                return timer;
+            }
+        }
+
+        return null;
+    }
+
+    public long getNodePairs(ImplementationMethod method) {
+        return nodePairs.get(method);
+    }
+
+    public long getCacheHits(ImplementationMethod method) {
+        return cacheHits.get(method);
+    }
+
+    public long getCacheMisses(ImplementationMethod method) {
+        return cacheMisses.get(method);
+    }
+
+    /**
+     * Exports the snapshot as JSON, with latencies in nanoseconds, e.g.,
+     * {@code {"timers": [{"stage": "forward_reasoning", "method": "DYNAMIC_SIMPI", "count": 3, "totalNanos": ...,
+     * "meanNanos": ..., "maxNanos": ..., "p50Nanos": ..., "p90Nanos": ..., "p99Nanos": ...}],
+     * "nodePairs": {"DYNAMIC_SIMPI": 42, ...}, "cacheHits": {...}, "cacheMisses": {...}}}.
+     *
+     * @return the snapshot as JSON
+     */
+    public JSONObject toJson() {
+        JSONArray timersJson = new JSONArray();
+
+        for (TimerSnapshot timer : timers) {
+            JSONObject timerJson = new JSONObject()
+                    .put("stage", timer.getStage().getLabel())
+                    .put("count", timer.getCount())
+                    .put("totalNanos", timer.getTotalNanos())
+                    .put("meanNanos", timer.getMeanNanos())
+                    .put("maxNanos", timer.getMaxNanos())
+                    .put("p50Nanos", timer.getPercentileNanos(0.5))
+                    .put("p90Nanos", timer.getPercentileNanos(0.9))
+                    .put("p99Nanos", timer.getPercentileNanos(0.99));
+            if (timer.getMethod() != null) {
+                timerJson.put("method", timer.getMethod().toString());
+            }
+
+            timersJson.put(timerJson);
+        }
+
+        return new JSONObject()
+                .put("timers", timersJson)
+                .put("nodePairs", counterAsJson(nodePairs))
+                .put("cacheHits", counterAsJson(cacheHits))
+                .put("cacheMisses", counterAsJson(cacheMisses));
+    }
+
+    /**
+     * Exports the snapshot in the Prometheus text exposition format, with latencies in seconds. Every timer is exported
+     * as a histogram {@code simexplainer_stage_duration_seconds} labelled by stage, and by implementation method where
+     * the stage depends on it, next to a gauge of its maximum latency. The counts are exported as counters labelled by
+     * implementation method.
+     *
+     * @return the snapshot in the Prometheus text format
+     */
+    public String toPrometheus() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("# HELP ").append(PREFIX).append("stage_duration_seconds Latency of every stage of an evaluation.\n");
+        builder.append("# TYPE ").append(PREFIX).append("stage_duration_seconds histogram\n");
+        for (TimerSnapshot timer : timers) {
+            String labels = labels(timer);
+
+            long cumulative = 0;
+            for (int i = 0; i < LatencyTimer.BUCKET_BOUNDS.length; i++) {
+                cumulative += timer.bucketCounts[i];
+                builder.append(PREFIX).append("stage_duration_seconds_bucket{").append(labels).append(",le=\"")
+                        .append(seconds(LatencyTimer.BUCKET_BOUNDS[i])).append("\"} ").append(cumulative).append('\n');
+            }
+            builder.append(PREFIX).append("stage_duration_seconds_bucket{").append(labels).append(",le=\"+Inf\"} ")
+                    .append(timer.getCount()).append('\n');
+            builder.append(PREFIX).append("stage_duration_seconds_sum{").append(labels).append("} ")
+                    .append(seconds(timer.getTotalNanos())).append('\n');
+            builder.append(PREFIX).append("stage_duration_seconds_count{").append(labels).append("} ")
+                    .append(timer.getCount()).append('\n');
+        }
+
+        builder.append("# HELP ").append(PREFIX).append("stage_duration_max_seconds Maximum latency of every stage of an evaluation.\n");
+        builder.append("# TYPE ").append(PREFIX).append("stage_duration_max_seconds gauge\n");
+        for (TimerSnapshot timer : timers) {
+            builder.append(PREFIX).append("stage_duration_max_seconds{").append(labels(timer)).append("} ")
+                    .append(seconds(timer.getMaxNanos())).append('\n');
+        }
+
+        appendCounter(builder, "node_pairs_total", "Node pairs evaluated by the reasoners.", nodePairs);
+        appendCounter(builder, "explanation_cache_hits_total", "Similarity requests answered from a retained result.", cacheHits);
+        appendCounter(builder, "explanation_cache_misses_total", "Similarity requests that had to be measured.", cacheMisses);
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson().toString();
+    }
+
+    /**
+     * The latencies recorded by one timer, i.e., the count of every histogram bucket together with their sum and
+     * maximum.
+     */
+    public static class TimerSnapshot {
+        private final MetricStage stage;
+        private final ImplementationMethod method;
+        private final long[] bucketCounts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        TimerSnapshot(MetricStage stage, ImplementationMethod method, long[] bucketCounts, long totalNanos, long maxNanos) {
+            this.stage = stage;
+            this.method = method;
+            this.bucketCounts = bucketCounts;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+
+            long count = 0;
+            for (long bucketCount : bucketCounts) {
+                count += bucketCount;
+            }
+            this.count = count;
+        }
+
+        public MetricStage getStage() {
+            return stage;
+        }
+
+        /**
+         * @return the implementation method, or {@code null} for a stage that does not depend on it
+         */
+        public ImplementationMethod getMethod() {
+            return method;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * Approximates a percentile by the upper bound of the histogram bucket it falls into, capped by the maximum
+         * latency. Above one microsecond, the approximation exceeds the exact value by at most a factor of 2.5.
+         *
+         * @param quantile the quantile, between 0 and 1
+         * @return the approximate percentile in nanoseconds, or 0 if no latency has been recorded
+         */
+        public long getPercentileNanos(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+
+            long cumulative = 0;
+            for (int i = 0; i < LatencyTimer.BUCKET_BOUNDS.length; i++) {
+                cumulative += bucketCounts[i];
+                if (cumulative >= rank) {
+                    return Math.min(LatencyTimer.BUCKET_BOUNDS[i], maxNanos);
+                }
+            }
+
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "TimerSnapshot{stage=" + stage + ", method=" + method + ", count=" + count + ", totalNanos=" + totalNanos
+                    + ", maxNanos=" + maxNanos + "}";
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package sim.explainer.library.framework.reasoner;
 
-import org.joda.time.DateTime;
 import org.springframework.stereotype.Component;
 import sim.explainer.library.exception.ErrorCode;
 import sim.explainer.library.exception.JSimPiException;
@@ -10,7 +9,6 @@ import sim.explainer.library.framework.descriptiontree.Tree;
 import sim.explainer.library.framework.descriptiontree.TreeNode;
 import sim.explainer.library.framework.PreferenceProfile;
 import sim.explainer.library.framework.explainer.SimRecord;
-import sim.explainer.library.util.TimeUtils;
 import sim.explainer.library.util.utilstructure.SymmetricPair;
 
 import java.math.BigDecimal;
@@ -21,8 +19,6 @@ public class DynamicProgrammingSimPiReasonerImpl extends TopDownSimPiReasonerImp
 
     private Map<Integer, Map<Integer, BigDecimal>> nodePairHdValMap = new HashMap<Integer, Map<Integer, BigDecimal>>();
 
-    private List<DateTime> markedTime = new ArrayList<DateTime>();
-
     public DynamicProgrammingSimPiReasonerImpl(PreferenceProfile preferenceProfile) {
         super(preferenceProfile);
     }
@@ -84,19 +80,13 @@ public class DynamicProgrammingSimPiReasonerImpl extends TopDownSimPiReasonerImp
 
         this.backtraceTable = new BacktraceTable();
 
-        markedTime.clear();
+        this.evaluatedNodePairs = 0;
 
-        markedTime.add(DateTime.now());
         BreadthFirstTreeIterator<Set<String>> breadthFirstTree1 = (BreadthFirstTreeIterator<Set<String>>) tree1.iterator(0);
-        markedTime.add(DateTime.now());
-
-        markedTime.add(DateTime.now());
         BreadthFirstTreeIterator<Set<String>> breadthFirstTree2 = (BreadthFirstTreeIterator<Set<String>>) tree2.iterator(0);
-        markedTime.add(DateTime.now());
 
         int heightTree1 = breadthFirstTree1.getNodesOnEachLevel().size();
 
-        markedTime.add(DateTime.now());
         for (int i = heightTree1 - 1; i >= 0; i--) {
             List<TreeNode<Set<String>>> list1 = breadthFirstTree1.getNodesOnEachLevel().get(i);
             List<TreeNode<Set<String>>> list2 = breadthFirstTree2.getNodesOnEachLevel().get(i);
@@ -105,8 +95,9 @@ public class DynamicProgrammingSimPiReasonerImpl extends TopDownSimPiReasonerImp
 
                 for (int j = 0; list2 != null && j < list2.size(); j++) {
                     TreeNode<Set<String>> treeNode2 = list2.get(j);
+                    evaluatedNodePairs++;
 
-                    SimRecord record = new SimRecord();
+                    SimRecord record = new SimRecord(symbolTable);
 
                     BigDecimal phd = phdPi(record, treeNode1, treeNode2);
 
@@ -130,20 +121,6 @@ public class DynamicProgrammingSimPiReasonerImpl extends TopDownSimPiReasonerImp
                 }
             }
         }
-        BigDecimal value = nodePairHdValMap.get(0).get(0);
-        markedTime.add(DateTime.now());
-
-        return value;
-    }
-
-    @Override
-    public List<String> getExecutionTimes() {
-        List<String> results = new LinkedList<String>();
-
-        for (int i = 0; i < markedTime.size(); i = i + 2) {
-            results.add(TimeUtils.getTotalTimeDifferenceStringInMillis(markedTime.get(i), markedTime.get(i + 1)));
-        }
-
-        return results;
+        return nodePairHdValMap.get(0).get(0);
     }
 }
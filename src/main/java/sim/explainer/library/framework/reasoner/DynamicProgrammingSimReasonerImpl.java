@@ -1,6 +1,5 @@
 package sim.explainer.library.framework.reasoner;
 
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -12,7 +11,6 @@ import sim.explainer.library.framework.descriptiontree.Tree;
 import sim.explainer.library.framework.descriptiontree.TreeNode;
 import sim.explainer.library.framework.PreferenceProfile;
 import sim.explainer.library.framework.explainer.SimRecord;
-import sim.explainer.library.util.TimeUtils;
 import sim.explainer.library.util.utilstructure.SymmetricPair;
 
 import java.math.BigDecimal;
@@ -25,8 +23,6 @@ public class DynamicProgrammingSimReasonerImpl extends TopDownSimReasonerImpl {
 
     private Map<Integer, Map<Integer, BigDecimal>> nodePairHdValMap = new HashMap<Integer, Map<Integer, BigDecimal>>();
 
-    private List<DateTime> markedTime = new ArrayList<DateTime>();
-
     public DynamicProgrammingSimReasonerImpl(PreferenceProfile preferenceProfile) {
         super(preferenceProfile);
     }
@@ -89,15 +85,10 @@ public class DynamicProgrammingSimReasonerImpl extends TopDownSimReasonerImpl {
 
         this.backtraceTable = new BacktraceTable();
 
-        markedTime.clear();
+        this.evaluatedNodePairs = 0;
 
-        markedTime.add(DateTime.now());
         BreadthFirstTreeIterator<Set<String>> breadthFirstTree1 = (BreadthFirstTreeIterator<Set<String>>) tree1.iterator(0);
-        markedTime.add(DateTime.now());
-
-        markedTime.add(DateTime.now());
         BreadthFirstTreeIterator<Set<String>> breadthFirstTree2 = (BreadthFirstTreeIterator<Set<String>>) tree2.iterator(0);
-        markedTime.add(DateTime.now());
 
         int heightTree1 = breadthFirstTree1.getNodesOnEachLevel().size();
 
@@ -105,7 +96,6 @@ public class DynamicProgrammingSimReasonerImpl extends TopDownSimReasonerImpl {
             logger.debug("measureDirectedSimilarity - height[" + heightTree1 + "].");
         }
 
-        markedTime.add(DateTime.now());
         for (int i = heightTree1 - 1; i >= 0; i--) { // from the lowest level to the root
             List<TreeNode<Set<String>>> list1 = breadthFirstTree1.getNodesOnEachLevel().get(i);
             List<TreeNode<Set<String>>> list2 = breadthFirstTree2.getNodesOnEachLevel().get(i);
@@ -114,8 +104,9 @@ public class DynamicProgrammingSimReasonerImpl extends TopDownSimReasonerImpl {
 
                 for (int j = 0; list2 != null && j < list2.size(); j++) {
                     TreeNode<Set<String>> treeNode2 = list2.get(j);
+                    evaluatedNodePairs++;
 
-                    SimRecord record = new SimRecord();
+                    SimRecord record = new SimRecord(symbolTable);
 
                     BigDecimal phd = phd(record, treeNode1, treeNode2);
 
@@ -149,20 +140,6 @@ public class DynamicProgrammingSimReasonerImpl extends TopDownSimReasonerImpl {
                 }
             }
         }
-        BigDecimal value = nodePairHdValMap.get(0).get(0);
-        markedTime.add(DateTime.now());
-
-        return value;
-    }
-
-    @Override
-    public List<String> getExecutionTimes() {
-        List<String> results = new LinkedList<String>();
-
-        for (int i = 0; i < markedTime.size(); i = i + 2) {
-            results.add(TimeUtils.getTotalTimeDifferenceStringInMillis(markedTime.get(i), markedTime.get(i + 1)));
-        }
-
-        return results;
+        return nodePairHdValMap.get(0).get(0);
     }
 }
@@ -3,19 +3,49 @@ package sim.explainer.library.framework.reasoner;
 import sim.explainer.library.framework.descriptiontree.Tree;
 import sim.explainer.library.framework.explainer.BacktraceTable;
 import sim.explainer.library.framework.unfolding.IRoleUnfolder;
+import sim.explainer.library.util.utilstructure.SymbolTable;
 
 import java.math.BigDecimal;
-import java.util.List;
 import java.util.Set;
 
+/**
+ * Measures directed similarity between description trees. Implementations keep the state of the evaluation in
+ * progress, e.g., the backtrace table, and therefore a reasoner must not be shared between threads.
+ */
 public interface IReasoner {
 
     BacktraceTable getBacktraceTable();
 
     BigDecimal measureDirectedSimilarity(Tree<Set<String>> tree1, Tree<Set<String>> tree2);
 
+    /**
+     * Bounds the directed similarity from above by inspecting the roots of both trees only, i.e., their primitives and
+     * the role similarities of their outgoing edges. The bound is never below the value returned by
+     * {@link #measureDirectedSimilarity(Tree, Tree)} for the same trees and preference profile, and it neither reads
+     * nor replaces the backtrace table.
+     *
+     * @param tree1 the first tree
+     * @param tree2 the second tree
+     * @return an upper bound of the directed similarity
+     */
+    BigDecimal upperBoundDirectedSimilarity(Tree<Set<String>> tree1, Tree<Set<String>> tree2);
+
     void setRoleUnfoldingStrategy(IRoleUnfolder iRoleUnfolder);
 
-    List<String> getExecutionTimes();
+    /**
+     * Sets the table the similarity records intern their names in, i.e., the one of the loaded ontology. Without it,
+     * the reasoner interns into a table of its own.
+     *
+     * @param symbolTable the symbol table
+     */
+    void setSymbolTable(SymbolTable symbolTable);
+
+    /**
+     * Returns the number of node pairs the last call of {@link #measureDirectedSimilarity(Tree, Tree)} evaluated, e.g.,
+     * to relate its latency to the size of the trees.
+     *
+     * @return the number of node pairs evaluated
+     */
+    long getEvaluatedNodePairs();
 
 }
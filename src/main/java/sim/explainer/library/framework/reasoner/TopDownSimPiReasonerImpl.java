@@ -1,6 +1,5 @@
 package sim.explainer.library.framework.reasoner;
 
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -13,11 +12,12 @@ import sim.explainer.library.framework.explainer.SimRecord;
 import sim.explainer.library.framework.unfolding.IRoleUnfolder;
 import sim.explainer.library.framework.PreferenceProfile;
 import sim.explainer.library.util.MyStringUtils;
-import sim.explainer.library.util.TimeUtils;
+import sim.explainer.library.util.utilstructure.SymbolTable;
 import sim.explainer.library.util.utilstructure.SymmetricPair;
 
 import javax.annotation.Resource;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
 
 @Component("topDownSimPiReasonerImpl")
@@ -30,10 +30,12 @@ public class TopDownSimPiReasonerImpl implements IReasoner {
     @Resource(name = "superRoleUnfolderManchesterSyntax")
     private IRoleUnfolder iRoleUnfolder;
 
-    private List<DateTime> markedTime = new ArrayList<>();
+    protected long evaluatedNodePairs = 0;
 
     protected BacktraceTable backtraceTable = new BacktraceTable();
 
+    protected SymbolTable symbolTable = new SymbolTable();
+
     /**
      * Constructs a {@code TopDownSimPiReasonerImpl} with the given preference profile.
      *
@@ -57,7 +59,9 @@ public class TopDownSimPiReasonerImpl implements IReasoner {
                     node1 + "] and node2[" + node2 + "] are null.", ErrorCode.TopDownSimPiReasonerImpl_IllegalArguments);
         }
 
-        SimRecord record = new SimRecord(); // Create a new similarity record
+        evaluatedNodePairs++;
+
+        SimRecord record = new SimRecord(symbolTable); // Create a new similarity record
 
         BigDecimal muPi = muPi(node1);
         BigDecimal primitiveOperations = muPi.multiply(phdPi(record, node1, node2));
@@ -424,12 +428,61 @@ public class TopDownSimPiReasonerImpl implements IReasoner {
         TreeNode<Set<String>> rootTree1 = tree1.getNodes().get(0);
         TreeNode<Set<String>> rootTree2 = tree2.getNodes().get(0);
 
-        markedTime.clear();
-        markedTime.add(DateTime.now());
-        BigDecimal value = measureDirectedSimilarity(0, rootTree1, rootTree2);
-        markedTime.add(DateTime.now());
+        this.evaluatedNodePairs = 0;
+
+        return measureDirectedSimilarity(0, rootTree1, rootTree2);
+    }
+
+    /**
+     * Bounds the degree of potential homomorphism on the matching edges from above, by crediting every edge with its
+     * role similarity alone, i.e., as if the subtrees below were identical.
+     *
+     * @param node1 the first tree node
+     * @param node2 the second tree node
+     * @return an upper bound of {@code eSetHdPi} of the two nodes
+     */
+    private BigDecimal eSetHdPiUpperBound(TreeNode<Set<String>> node1, TreeNode<Set<String>> node2) {
+        if (sumRoleImportance(node1).equals(BigDecimal.ZERO)) {
+            return BigDecimal.ONE;
+        } else if (sumRoleImportance(node2).equals(BigDecimal.ZERO)) {
+            return BigDecimal.ZERO;
+        } else {
+            BigDecimal sum = BigDecimal.ZERO;
+
+            for (TreeNode<Set<String>> node1Child : node1.getChildren()) {
+                BigDecimal max = BigDecimal.ZERO;
+
+                for (TreeNode<Set<String>> node2Child : node2.getChildren()) {
+                    max = max.max(gammaPi(new HashSet<SymmetricPair<String>>(), node1Child.getEdgeToParent(), node2Child.getEdgeToParent()));
+                }
+
+                BigDecimal roleImportance = preferenceProfile.getRoleImportance().get(node1Child.getEdgeToParent());
+                if (roleImportance == null) {
+                    roleImportance = BigDecimal.ONE;
+                }
+
+                sum = sum.add(roleImportance.multiply(max));
+            }
+
+            return sum.divide(sumRoleImportance(node1), 5, RoundingMode.UP);
+        }
+    }
+
+    @Override
+    public BigDecimal upperBoundDirectedSimilarity(Tree<Set<String>> tree1, Tree<Set<String>> tree2) {
+        if (tree1 == null || tree2 == null || preferenceProfile == null) {
+            throw new JSimPiException("Unable to bound directed similarity as tree1["
+                    + tree1 + "] and tree2[" + tree2 + " are null.", ErrorCode.TopDownSimPiReasonerImpl_IllegalArguments);
+        }
+
+        TreeNode<Set<String>> rootTree1 = tree1.getNodes().get(0);
+        TreeNode<Set<String>> rootTree2 = tree2.getNodes().get(0);
+
+        BigDecimal muPi = muPi(rootTree1);
+        BigDecimal primitiveOperations = muPi.multiply(phdPi(new SimRecord(symbolTable), rootTree1, rootTree2));
+        BigDecimal edgeOperations = BigDecimal.ONE.subtract(muPi).multiply(eSetHdPiUpperBound(rootTree1, rootTree2));
 
-        return value;
+        return primitiveOperations.add(edgeOperations);
     }
 
     @Override
@@ -438,13 +491,12 @@ public class TopDownSimPiReasonerImpl implements IReasoner {
     }
 
     @Override
-    public List<String> getExecutionTimes() {
-        List<String> results = new LinkedList<>();
-
-        for (int i = 0; i < markedTime.size(); i = i + 2) {
-            results.add(TimeUtils.getTotalTimeDifferenceStringInMillis(markedTime.get(i), markedTime.get(i + 1)));
-        }
+    public void setSymbolTable(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
 
-        return results;
+    @Override
+    public long getEvaluatedNodePairs() {
+        return evaluatedNodePairs;
     }
 }
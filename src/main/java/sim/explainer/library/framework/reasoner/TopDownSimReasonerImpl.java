@@ -2,7 +2,6 @@ package sim.explainer.library.framework.reasoner;
 
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.text.StrBuilder;
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -15,11 +14,12 @@ import sim.explainer.library.framework.explainer.SimRecord;
 import sim.explainer.library.framework.unfolding.IRoleUnfolder;
 import sim.explainer.library.framework.PreferenceProfile;
 import sim.explainer.library.util.MyStringUtils;
-import sim.explainer.library.util.TimeUtils;
+import sim.explainer.library.util.utilstructure.SymbolTable;
 import sim.explainer.library.util.utilstructure.SymmetricPair;
 
 import javax.annotation.Resource;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
 
 @Component("topDownSimReasonerImpl")
@@ -32,10 +32,12 @@ public class TopDownSimReasonerImpl implements IReasoner {
     @Resource(name = "superRoleUnfolderManchesterSyntax")
     private IRoleUnfolder iRoleUnfolder;
 
-    private List<DateTime> markedTime = new ArrayList<>();
+    protected long evaluatedNodePairs = 0;
 
     protected BacktraceTable backtraceTable = new BacktraceTable();
 
+    protected SymbolTable symbolTable = new SymbolTable();
+
     /**
      * Constructs a {@code TopDownSimReasonerImpl} with the given preference profile.
      *
@@ -59,8 +61,10 @@ public class TopDownSimReasonerImpl implements IReasoner {
                     node1 + "] and node2[" + node2 + "] are null.", ErrorCode.TopDownSimReasonerImpl_IllegalArguments);
         }
 
+        evaluatedNodePairs++;
+
         // Create a new similarity record
-        SimRecord record = new SimRecord();
+        SimRecord record = new SimRecord(symbolTable);
 
         BigDecimal mu = mu(node1);
         BigDecimal primitiveOperations = mu.multiply(phd(record, node1, node2));
@@ -296,13 +300,62 @@ public class TopDownSimReasonerImpl implements IReasoner {
         TreeNode<Set<String>> rootTree1 = tree1.getNodes().get(0);
         TreeNode<Set<String>> rootTree2 = tree2.getNodes().get(0);
 
-        markedTime.clear();
+        this.evaluatedNodePairs = 0;
+
+        return measureDirectedSimilarity(0, rootTree1, rootTree2);
+    }
+
+    /**
+     * Bounds the degree of potential homomorphism on the matching edges from above, by crediting every edge with its
+     * role similarity alone, i.e., as if the subtrees below were identical.
+     *
+     * @param node1 the first tree node
+     * @param node2 the second tree node
+     * @return an upper bound of {@code eSetHd} of the two nodes
+     */
+    private BigDecimal eSetHdUpperBound(TreeNode<Set<String>> node1, TreeNode<Set<String>> node2) {
+        List<TreeNode<Set<String>>> node1Children = node1.getChildren();
+        List<TreeNode<Set<String>>> node2Children = node2.getChildren();
+
+        if (node1Children.isEmpty()) {
+            return BigDecimal.ONE;
+        } else if (node2Children.isEmpty()) {
+            return BigDecimal.ZERO;
+        } else {
+            BigDecimal sum = BigDecimal.ZERO;
+
+            for (TreeNode<Set<String>> node1Child : node1Children) {
+                BigDecimal max = BigDecimal.ZERO;
 
-        markedTime.add(DateTime.now());
-        BigDecimal value = measureDirectedSimilarity(0, rootTree1, rootTree2);
-        markedTime.add(DateTime.now());
+                for (TreeNode<Set<String>> node2Child : node2Children) {
+                    max = max.max(gamma(new HashSet<SymmetricPair<String>>(), node1Child.getEdgeToParent(), node2Child.getEdgeToParent()));
+                }
 
-        return value;
+                sum = sum.add(max);
+            }
+
+            StringBuilder builder = new StringBuilder().append(node1Children.size());
+            BigDecimal divisor = new BigDecimal(builder.toString());
+
+            return sum.divide(divisor, 5, RoundingMode.HALF_UP);
+        }
+    }
+
+    @Override
+    public BigDecimal upperBoundDirectedSimilarity(Tree<Set<String>> tree1, Tree<Set<String>> tree2) {
+        if (tree1 == null || tree2 == null) {
+            throw new JSimPiException("Unable to bound directed similarity as tree1[" + tree1 + "] " +
+                    "and tree2[" + tree2 + "] are null.", ErrorCode.TopDownSimReasonerImpl_IllegalArguments);
+        }
+
+        TreeNode<Set<String>> rootTree1 = tree1.getNodes().get(0);
+        TreeNode<Set<String>> rootTree2 = tree2.getNodes().get(0);
+
+        BigDecimal mu = mu(rootTree1);
+        BigDecimal primitiveOperations = mu.multiply(phd(new SimRecord(symbolTable), rootTree1, rootTree2));
+        BigDecimal edgeOperations = BigDecimal.ONE.subtract(mu).multiply(eSetHdUpperBound(rootTree1, rootTree2));
+
+        return primitiveOperations.add(edgeOperations);
     }
 
     @Override
@@ -311,13 +364,12 @@ public class TopDownSimReasonerImpl implements IReasoner {
     }
 
     @Override
-    public List<String> getExecutionTimes() {
-        List<String> results = new LinkedList<>();
-
-        for (int i = 0; i < markedTime.size(); i = i + 2) {
-            results.add(TimeUtils.getTotalTimeDifferenceStringInMillis(markedTime.get(i), markedTime.get(i + 1)));
-        }
+    public void setSymbolTable(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
 
-        return results;
+    @Override
+    public long getEvaluatedNodePairs() {
+        return evaluatedNodePairs;
     }
 }
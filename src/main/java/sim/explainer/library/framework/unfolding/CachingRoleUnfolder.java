@@ -0,0 +1,71 @@
+package sim.explainer.library.framework.unfolding;
+
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.util.MemoryUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizes the super-role closures of another role unfolder so that concurrent reasoners can share them. The
+ * delegate is only invoked on a cache miss, while holding the lock of the source ontology it reads from.
+ */
+public class CachingRoleUnfolder implements IRoleUnfolder {
+
+    private final IRoleUnfolder iRoleUnfolder;
+    private final Object sourceLock;
+
+    private final ConcurrentHashMap<String, Set<String>> roleClosures = new ConcurrentHashMap<String, Set<String>>();
+
+    public CachingRoleUnfolder(IRoleUnfolder iRoleUnfolder, Object sourceLock) {
+        this.iRoleUnfolder = iRoleUnfolder;
+        this.sourceLock = sourceLock;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Set<String> unfoldRoleHierarchy(String roleName) {
+        if (roleName == null) {
+            throw new JSimPiException("Unable to unfold role hierarchy as roleName is null.", ErrorCode.CachingRoleUnfolder_IllegalArguments);
+        }
+
+        Set<String> closure = roleClosures.get(roleName);
+
+        if (closure == null) {
+            // Cached under the lock, so that a closure is never cached after its role has been invalidated.
+            synchronized (sourceLock) {
+                closure = roleClosures.get(roleName);
+                if (closure == null) {
+                    closure = Collections.unmodifiableSet(iRoleUnfolder.unfoldRoleHierarchy(roleName));
+                    roleClosures.put(roleName, closure);
+                }
+            }
+        }
+
+        return closure;
+    }
+
+    /**
+     * Drops the closures of the given roles, e.g., after their definitions or those of their super-roles have been
+     * modified. It must be called while holding the lock of the source ontology.
+     *
+     * @param roleNames the role names
+     */
+    public void invalidate(Collection<String> roleNames) {
+        roleClosures.keySet().removeAll(roleNames);
+    }
+
+    public long estimateResidentBytes() {
+        return MemoryUtils.estimateClosureBytes(roleClosures);
+    }
+
+    public void reset() {
+        roleClosures.clear();
+    }
+}
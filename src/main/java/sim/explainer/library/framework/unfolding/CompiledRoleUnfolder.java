@@ -0,0 +1,43 @@
+package sim.explainer.library.framework.unfolding;
+
+import sim.explainer.library.enumeration.KRSSConstant;
+import sim.explainer.library.enumeration.OWLConstant;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unfolds role hierarchies from pre-computed super-role closures, e.g., those restored from an ontology snapshot.
+ */
+public class CompiledRoleUnfolder implements IRoleUnfolder {
+
+    private final Map<String, Set<String>> roleClosures;
+
+    public CompiledRoleUnfolder(Map<String, Set<String>> roleClosures) {
+        this.roleClosures = roleClosures;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Set<String> unfoldRoleHierarchy(String roleName) {
+        if (roleName == null) {
+            throw new JSimPiException("Unable to unfold role hierarchy as roleName is null.", ErrorCode.CompiledRoleUnfolder_IllegalArguments);
+        }
+
+        if (roleName.equals(KRSSConstant.TOP_ROLE.getStr()) || roleName.equals(OWLConstant.TOP_ROLE.getOwlSyntax())) {
+            return new HashSet<String>();
+        }
+
+        Set<String> closure = roleClosures.get(roleName);
+
+        // A role without a compiled closure has no defined hierarchy.
+        return (closure != null) ? new HashSet<String>(closure) : new HashSet<String>(Collections.singleton(roleName));
+    }
+}
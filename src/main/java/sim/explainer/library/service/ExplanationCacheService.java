@@ -0,0 +1,361 @@
+package sim.explainer.library.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import org.springframework.stereotype.Service;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.descriptiontree.TreeNode;
+import sim.explainer.library.framework.explainer.BacktraceTable;
+import sim.explainer.library.framework.explainer.ExplanationRecord;
+import sim.explainer.library.framework.explainer.SimRecord;
+import sim.explainer.library.util.utilstructure.SymmetricPair;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of explanations keyed by concept pair. Every entry is weighed by an estimate of the heap held by its
+ * backtrace tables, i.e., their similarity records and the description tree nodes they reference, and the least
+ * recently used entries are evicted once the estimated total exceeds the configured budget.
+ */
+@Service
+public class ExplanationCacheService {
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private static final int ENTRY_BYTES = 256;
+    private static final int RECORD_BYTES = 192;
+    private static final int NODE_BYTES = 128;
+    private static final int ELEMENT_BYTES = 64;
+
+    // Guava splits the budget evenly across its segments and evicts within a segment, so that a small budget is kept
+    // in fewer segments, each of which still holds several explanations.
+    private static final int MAX_SEGMENTS = 4;
+    private static final long MIN_SEGMENT_BYTES = 16L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final boolean softValues;
+
+    private final Cache<SymmetricPair<String>, CachedExplanation> cache;
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicLong sharedBytes;
+
+    /**
+     * Constructs an {@code ExplanationCacheService} with the default budget and strongly referenced entries.
+     */
+    public ExplanationCacheService() {
+        this(DEFAULT_MAX_BYTES, false);
+    }
+
+    /**
+     * Constructs an {@code ExplanationCacheService}.
+     *
+     * @param maxBytes the estimated heap budget in bytes
+     * @param softValues whether entries are softly referenced, so that the garbage collector may reclaim them under
+     *                   memory pressure before the budget is reached
+     */
+    public ExplanationCacheService(long maxBytes, boolean softValues) {
+        this(maxBytes, softValues, new AtomicLong());
+    }
+
+    /**
+     * Constructs an {@code ExplanationCacheService} that also adds its running estimate to a total shared with other
+     * caches, so that a budget across all of them can be checked without visiting each one.
+     *
+     * @param maxBytes the estimated heap budget in bytes
+     * @param softValues whether entries are softly referenced
+     * @param sharedBytes the running estimate of all caches sharing it
+     */
+    public ExplanationCacheService(long maxBytes, boolean softValues, AtomicLong sharedBytes) {
+        if (sharedBytes == null) {
+            throw new JSimPiException("Unable to create explanation cache as sharedBytes is null.", ErrorCode.ExplanationCacheService_IllegalArguments);
+        }
+        if (maxBytes < 0) {
+            throw new JSimPiException("Unable to create explanation cache as maxBytes[" + maxBytes + "] is negative.", ErrorCode.ExplanationCacheService_IllegalArguments);
+        }
+
+        this.maxBytes = maxBytes;
+        this.softValues = softValues;
+        this.sharedBytes = sharedBytes;
+
+        CacheBuilder<SymmetricPair<String>, CachedExplanation> builder = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .concurrencyLevel((int) Math.max(1, Math.min(MAX_SEGMENTS, maxBytes / MIN_SEGMENT_BYTES)))
+                .weigher(new Weigher<SymmetricPair<String>, CachedExplanation>() {
+                    @Override
+                    public int weigh(SymmetricPair<String> key, CachedExplanation value) {
+                        return value.weight;
+                    }
+                })
+                .removalListener(new RemovalListener<SymmetricPair<String>, CachedExplanation>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<SymmetricPair<String>, CachedExplanation> notification) {
+                        if (notification.getValue() != null) {
+                            addBytes(-notification.getValue().weight);
+                        }
+                    }
+                })
+                .recordStats();
+
+        if (softValues) {
+            builder.softValues();
+        }
+
+        this.cache = builder.build();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void addBytes(long bytes) {
+        estimatedBytes.addAndGet(bytes);
+        sharedBytes.addAndGet(bytes);
+    }
+
+    private static long estimateBytes(BacktraceTable backtraceTable, Set<TreeNode<Set<String>>> visitedNodes) {
+        long bytes = 0;
+
+        for (HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord> levelMap : backtraceTable.getTable().values()) {
+            for (Map.Entry<SymmetricPair<TreeNode<Set<String>>>, SimRecord> entry : levelMap.entrySet()) {
+                SimRecord record = entry.getValue();
+                bytes += RECORD_BYTES + (long) ELEMENT_BYTES * (record.getPriSize() + record.getExiSize() + record.getEmbSize());
+
+                for (TreeNode<Set<String>> node : Arrays.asList(entry.getKey().getFirst(), entry.getKey().getSecond())) {
+                    if (visitedNodes.add(node)) {
+                        bytes += NODE_BYTES + (long) ELEMENT_BYTES * node.getData().size();
+                    }
+                }
+            }
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Estimates the heap held by an explanation, i.e., by the records of both backtrace tables and by the distinct
+     * description tree nodes they reference.
+     *
+     * @param explanationService the explanation
+     * @return the estimated size in bytes, capped at {@code Integer.MAX_VALUE}
+     */
+    static int estimateBytes(ExplanationService explanationService) {
+        Set<TreeNode<Set<String>>> visitedNodes = Collections.newSetFromMap(new IdentityHashMap<TreeNode<Set<String>>, Boolean>());
+
+        long bytes = ENTRY_BYTES
+                + estimateBytes(explanationService.getForwardBacktraceTable(), visitedNodes)
+                + estimateBytes(explanationService.getBackwardBacktraceTable(), visitedNodes);
+
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Caches the explanation of a concept pair, replacing the cached explanation of that pair if there is one.
+     *
+     * @param concept1 the first concept, i.e., the one the forward backtrace table starts from
+     * @param concept2 the second concept
+     * @param record the record of the evaluation that produced the explanation
+     * @param explanationService the explanation of that pair
+     */
+    public void put(String concept1, String concept2, ExplanationRecord record, ExplanationService explanationService) {
+        if (concept1 == null || concept2 == null || record == null || explanationService == null) {
+            throw new JSimPiException("Unable to cache explanation as concept1[" + concept1 + "], concept2[" + concept2 + "], record[" + record + "] and explanationService[" + explanationService + "] are null.", ErrorCode.ExplanationCacheService_IllegalArguments);
+        }
+
+        SymmetricPair<String> pair = new SymmetricPair<String>(concept1, concept2);
+
+        CachedExplanation cached = new CachedExplanation(concept1, record, explanationService, estimateBytes(explanationService));
+        addBytes(cached.weight);
+        cache.put(pair, cached);
+    }
+
+    /**
+     * Returns the cached explanation of a concept pair, oriented from {@code concept1} to {@code concept2}, together
+     * with the record of the evaluation that produced it.
+     *
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @return the cached explanation, or {@code null} if the pair is not cached
+     */
+    public CachedExplanation get(String concept1, String concept2) {
+        CachedExplanation cached = cache.getIfPresent(new SymmetricPair<String>(concept1, concept2));
+
+        if (cached == null || cached.concept1.equals(concept1)) {
+            return cached;
+        }
+
+        ExplanationService explanationService = cached.explanationService;
+        return new CachedExplanation(concept1, cached.record, new ExplanationService(explanationService.getSimilarity(), explanationService.getBackwardBacktraceTable(), explanationService.getForwardBacktraceTable()), cached.weight);
+    }
+
+    /**
+     * Replaces the record of the cached explanation of a concept pair, e.g., to stamp it with a newer preference profile
+     * version it has been validated against, unless the entry has been replaced or evicted meanwhile.
+     *
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     * @param record the record of the cached explanation
+     * @param replacement the record that replaces it
+     */
+    public void replaceRecord(String concept1, String concept2, ExplanationRecord record, ExplanationRecord replacement) {
+        SymmetricPair<String> pair = new SymmetricPair<String>(concept1, concept2);
+        CachedExplanation cached = cache.asMap().get(pair);
+
+        if (cached == null || cached.record != record) {
+            return;
+        }
+
+        // the removal listener deducts the weight of the replaced entry
+        addBytes(cached.weight);
+        if (!cache.asMap().replace(pair, cached, new CachedExplanation(cached.concept1, replacement, cached.explanationService, cached.weight))) {
+            addBytes(-cached.weight);
+        }
+    }
+
+    /**
+     * Removes the cached explanation of a concept pair.
+     *
+     * @param concept1 the first concept
+     * @param concept2 the second concept
+     */
+    public void invalidate(String concept1, String concept2) {
+        cache.invalidate(new SymmetricPair<String>(concept1, concept2));
+    }
+
+    /**
+     * Removes the cached explanations of every pair that contains any of the given concepts.
+     *
+     * @param concepts the concepts
+     */
+    public void invalidateConcepts(Collection<String> concepts) {
+        cache.asMap().keySet().removeIf(pair -> concepts.contains(pair.getFirst()) || concepts.contains(pair.getSecond()));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts together with the current size of the cache.
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        cache.cleanUp();
+
+        long size = 0;
+        long estimatedBytes = 0;
+        for (CachedExplanation cached : cache.asMap().values()) {
+            size++;
+            estimatedBytes += cached.weight;
+        }
+
+        CacheStats stats = cache.stats();
+        return new Statistics(stats.hitCount(), stats.missCount(), stats.evictionCount(), size, estimatedBytes, maxBytes);
+    }
+
+    /**
+     * Returns a running estimate of the heap held by the cached explanations, which, unlike {@link #getStatistics()},
+     * does not iterate the entries. Entries reclaimed by the garbage collector are not deducted from it.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    public boolean isSoftValues() {
+        return softValues;
+    }
+
+    /**
+     * A cached explanation together with the record of the evaluation that produced it, i.e., its implementation
+     * method and the ontology and preference profile versions it was computed with.
+     */
+    public static class CachedExplanation {
+        private final String concept1;
+        private final ExplanationRecord record;
+        private final ExplanationService explanationService;
+        private final int weight;
+
+        private CachedExplanation(String concept1, ExplanationRecord record, ExplanationService explanationService, int weight) {
+            this.concept1 = concept1;
+            this.record = record;
+            this.explanationService = explanationService;
+            this.weight = weight;
+        }
+
+        public ExplanationRecord getRecord() {
+            return record;
+        }
+
+        public ExplanationService getExplanationService() {
+            return explanationService;
+        }
+    }
+
+    /**
+     * Statistics of an {@code ExplanationCacheService}.
+     */
+    public static class Statistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long size;
+        private final long estimatedBytes;
+        private final long maxBytes;
+
+        public Statistics(long hitCount, long missCount, long evictionCount, long size, long estimatedBytes, long maxBytes) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.estimatedBytes = estimatedBytes;
+            this.maxBytes = maxBytes;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public double getHitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount
+                    + ", size=" + size + ", estimatedBytes=" + estimatedBytes + ", maxBytes=" + maxBytes + "}";
+        }
+    }
+}
@@ -52,13 +52,23 @@ public class ExplanationService {
             throw new JSimPiException("Tree not found", ErrorCode.Application_IllegalArguments);
         }
 
+        return treeHierarchy(root);
+    }
+
+    /**
+     * Generates an ASCII representation of the tree hierarchy rooted at the given node.
+     *
+     * @param root the root node of the description tree
+     * @return the ASCII representation of the tree hierarchy
+     */
+    public static String treeHierarchy(TreeNode<Set<String>> root) {
         StringBuilder result = new StringBuilder();
         buildTreeAscii(root, result, "", true);
 
         return result.toString();
     }
 
-    private void buildTreeAscii(TreeNode<Set<String>> node, StringBuilder result, String prefix, boolean isTail) {
+    private static void buildTreeAscii(TreeNode<Set<String>> node, StringBuilder result, String prefix, boolean isTail) {
         result.append(prefix).append(isTail ? "└── " : "├── ")
                 .append(node.getEdgeToParent() == null ? node.getConceptName() : node.getEdgeToParent())
                 .append(" : ")
@@ -86,13 +96,23 @@ public class ExplanationService {
             throw new JSimPiException("Tree not found", ErrorCode.Application_IllegalArguments);
         }
 
+        return treeHierarchyAsJson(root);
+    }
+
+    /**
+     * Generates a JSON representation of the tree hierarchy rooted at the given node.
+     *
+     * @param root the root node of the description tree
+     * @return the JSON representation of the tree hierarchy
+     */
+    public static JSONObject treeHierarchyAsJson(TreeNode<Set<String>> root) {
         root = root.copy();
         root.setEdgeToParent(null);
 
         return buildTreeHierarchyAsJson(root);
     }
 
-    private JSONObject buildTreeHierarchyAsJson(TreeNode<Set<String>> node) {
+    private static JSONObject buildTreeHierarchyAsJson(TreeNode<Set<String>> node) {
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("roleName", node.getEdgeToParent() == null ? null : node.getEdgeToParent());
         jsonObject.put("conceptName", node.getConceptName());
@@ -132,20 +152,14 @@ public class ExplanationService {
     }
 
     private void buildExplanationTreeAscii(BacktraceTable backtraceTable, TreeNode<Set<String>> node, StringBuilder result, String prefix, boolean isTail, int level) {
-        if (!backtraceTable.getTable().containsKey(level)) {
-            return;
-        }
-
-        SymmetricPair<TreeNode<Set<String>>> pair = backtraceTable.getTable().get(level).keySet().stream()
-                .filter(p -> p.getFirst().equals(node) || p.getSecond().equals(node))
-                .findFirst().orElse(null);
+        SymmetricPair<TreeNode<Set<String>>> pair = backtraceTable.getPair(level, node);
 
         if (pair == null) {
             return;
         }
 
-        TreeNode<Set<String>> comparingNode = pair.getFirst().equals(node) ? pair.getSecond() : pair.getFirst();
-        SimRecord simRecord = backtraceTable.getTable().get(level).get(pair);
+        TreeNode<Set<String>> comparingNode = pair.getSecond();
+        SimRecord simRecord = backtraceTable.getRecord(level, pair);
 
         result.append(prefix).append(isTail ? "└── " : "├── ")
                 .append("[")
@@ -200,20 +214,14 @@ public class ExplanationService {
     }
 
     private JSONObject buildExplanationTreeAsJson(BacktraceTable backtraceTable, TreeNode<Set<String>> node, int level) {
-        if (!backtraceTable.getTable().containsKey(level)) {
-            return null;
-        }
-
-        SymmetricPair<TreeNode<Set<String>>> pair = backtraceTable.getTable().get(level).keySet().stream()
-                .filter(p -> p.getFirst().equals(node) || p.getSecond().equals(node))
-                .findFirst().orElse(null);
+        SymmetricPair<TreeNode<Set<String>>> pair = backtraceTable.getPair(level, node);
 
         if (pair == null) {
             return null;
         }
 
-        TreeNode<Set<String>> comparingNode = pair.getFirst().equals(node) ? pair.getSecond() : pair.getFirst();
-        SimRecord simRecord = backtraceTable.getTable().get(level).get(pair);
+        TreeNode<Set<String>> comparingNode = pair.getSecond();
+        SimRecord simRecord = backtraceTable.getRecord(level, pair);
 
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("comparingConcept1", node.getConceptName());
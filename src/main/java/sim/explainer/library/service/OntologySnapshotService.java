@@ -0,0 +1,390 @@
+package sim.explainer.library.service;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import sim.explainer.library.enumeration.FileTypeConstant;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.compiled.CompiledOntology;
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.descriptiontree.TreeNode;
+import sim.explainer.library.framework.unfolding.IRoleUnfolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Compiles a loaded ontology into a {@link CompiledOntology}, and writes/reads it as a binary snapshot so that
+ * a restart does not have to parse and unfold the source ontology again.
+ *
+ * <p>A snapshot consists of a header (magic number, format version, content hash of the source ontology and file
+ * type), a string table shared by every name in the snapshot, the symbol table of concept names, the description
+ * trees in pre-order, the super-role closures and the concept names that could not be compiled. A snapshot that left
+ * out any concept is never considered fresh.</p>
+ */
+@Service
+public class OntologySnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OntologySnapshotService.class);
+
+    private static final int MAGIC = 0x53494D58; // "SIMX"
+    private static final int FORMAT_VERSION = 2;
+    private static final int NO_STRING = -1;
+
+    private final SimilarityService similarityService;
+
+    public OntologySnapshotService(SimilarityService similarityService) {
+        this.similarityService = similarityService;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static int symbol(Map<String, Integer> stringTable, String str) {
+        if (str == null) {
+            return NO_STRING;
+        }
+
+        Integer index = stringTable.get(str);
+        if (index == null) {
+            index = stringTable.size();
+            stringTable.put(str, index);
+        }
+
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String lookup(String[] strings, int index) throws IOException {
+        if (index == NO_STRING) {
+            return null;
+        }
+
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Invalid string table index[" + index + "].");
+        }
+
+        return strings[index];
+    }
+
+    private static void writeTree(DataOutputStream out, Map<String, Integer> stringTable, Tree<Set<String>> tree) throws IOException {
+        TreeNode<Set<String>> root = tree.getNodes().get(0);
+
+        out.writeInt(symbol(stringTable, tree.getLabel()));
+        out.writeInt(tree.getNodes().size());
+
+        // Nodes are written in pre-order, which is the order in which TreeBuilder assigns the node ids.
+        Deque<TreeNode<Set<String>>> stack = new ArrayDeque<TreeNode<Set<String>>>();
+        Map<Integer, Integer> parentIds = new HashMap<Integer, Integer>();
+        stack.push(root);
+        parentIds.put(root.getId(), NO_STRING);
+
+        while (!stack.isEmpty()) {
+            TreeNode<Set<String>> node = stack.pop();
+
+            out.writeInt(node.getId());
+            out.writeInt(parentIds.get(node.getId()));
+            out.writeInt(symbol(stringTable, node.getConceptName()));
+            out.writeInt(symbol(stringTable, node.getEdgeToParent()));
+            out.writeInt(node.getData().size());
+            for (String primitive : node.getData()) {
+                out.writeInt(symbol(stringTable, primitive));
+            }
+
+            List<TreeNode<Set<String>>> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                parentIds.put(children.get(i).getId(), node.getId());
+                stack.push(children.get(i));
+            }
+        }
+    }
+
+    private static Tree<Set<String>> readTree(DataInputStream in, String[] strings) throws IOException {
+        Tree<Set<String>> tree = new Tree<Set<String>>(lookup(strings, in.readInt()));
+        int numberOfNodes = in.readInt();
+
+        for (int i = 0; i < numberOfNodes; i++) {
+            int id = in.readInt();
+            int parentId = in.readInt();
+            String conceptName = lookup(strings, in.readInt());
+            String edge = lookup(strings, in.readInt());
+
+            int numberOfPrimitives = in.readInt();
+            Set<String> primitives = new HashSet<String>();
+            for (int j = 0; j < numberOfPrimitives; j++) {
+                primitives.add(lookup(strings, in.readInt()));
+            }
+
+            TreeNode<Set<String>> parent = (parentId == NO_STRING) ? null : tree.getNodes().get(parentId);
+            if (parentId != NO_STRING && parent == null) {
+                throw new IOException("Node[" + id + "] refers to an unknown parent[" + parentId + "].");
+            }
+
+            TreeNode<Set<String>> node = tree.addNode(conceptName, edge, parent, primitives);
+            if (node.getId() != id) {
+                throw new IOException("Node[" + id + "] is restored with a different id[" + node.getId() + "].");
+            }
+        }
+
+        return tree;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Computes the content hash of a source ontology file.
+     *
+     * @param ontologyPath the path to the ontology file
+     * @return the SHA-256 hash of the file content as a hexadecimal string
+     */
+    public static String contentHash(String ontologyPath) {
+        if (ontologyPath == null) {
+            throw new JSimPiException("Unable to compute content hash as ontologyPath is null.", ErrorCode.OntologySnapshotService_IllegalArguments);
+        }
+
+        try {
+            return com.google.common.io.Files.hash(new File(ontologyPath), Hashing.sha256()).toString();
+        } catch (IOException e) {
+            throw new JSimPiException("Unable to compute content hash of path[" + ontologyPath + "].", e, ErrorCode.OntologySnapshotService_IOException);
+        }
+    }
+
+    /**
+     * Unfolds every given concept of the currently loaded ontology and collects the super-role closures of every
+     * role that occurs in the resulting description trees. The concepts that cannot be unfolded are recorded as
+     * skipped, see {@link CompiledOntology#getSkippedConceptNames()}.
+     *
+     * @param fileType the file type of the loaded ontology
+     * @param sourceHash the content hash of the source ontology
+     * @param conceptNames the concept names to compile
+     * @return the compiled ontology
+     */
+    public CompiledOntology compile(FileTypeConstant fileType, String sourceHash, List<String> conceptNames) {
+        if (fileType == null || conceptNames == null) {
+            throw new JSimPiException("Unable to compile ontology as fileType[" + fileType + "] and conceptNames[" + conceptNames + "] are null.", ErrorCode.OntologySnapshotService_IllegalArguments);
+        }
+
+        IRoleUnfolder roleUnfolder = similarityService.getRoleUnfolder(fileType);
+
+        Map<String, Tree<Set<String>>> trees = new HashMap<String, Tree<Set<String>>>();
+        Map<String, Set<String>> roleClosures = new HashMap<String, Set<String>>();
+        Set<String> skippedConceptNames = new LinkedHashSet<String>();
+
+        for (String conceptName : conceptNames) {
+            Tree<Set<String>> tree;
+            try {
+                tree = similarityService.getOrConstructTree(fileType, conceptName);
+            } catch (JSimPiException e) {
+                logger.warn("Unable to compile concept[" + conceptName + "], it is left out of the snapshot: " + e.getMessage());
+                skippedConceptNames.add(conceptName);
+                continue;
+            }
+
+            trees.put(conceptName, tree);
+
+            for (TreeNode<Set<String>> node : tree.getNodes().values()) {
+                String role = node.getEdgeToParent();
+                if (role != null && !roleClosures.containsKey(role)) {
+                    roleClosures.put(role, roleUnfolder.unfoldRoleHierarchy(role));
+                }
+            }
+        }
+
+        return new CompiledOntology(fileType, sourceHash, conceptNames, trees, roleClosures, skippedConceptNames);
+    }
+
+    /**
+     * Writes a compiled ontology as a snapshot file. The snapshot is written to a temporary file next to it first and
+     * then moved in place atomically, so that a reader sees either the previous snapshot or the complete new one.
+     *
+     * @param compiledOntology the compiled ontology
+     * @param snapshotPath the path to the snapshot file
+     */
+    public void write(CompiledOntology compiledOntology, String snapshotPath) {
+        if (compiledOntology == null || snapshotPath == null) {
+            throw new JSimPiException("Unable to write snapshot as compiledOntology[" + compiledOntology + "] and snapshotPath[" + snapshotPath + "] are null.", ErrorCode.OntologySnapshotService_IllegalArguments);
+        }
+
+        try {
+            // The body is written first so that the string table can be collected along the way.
+            Map<String, Integer> stringTable = new LinkedHashMap<String, Integer>();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            DataOutputStream bodyOut = new DataOutputStream(body);
+
+            bodyOut.writeInt(compiledOntology.getConceptNames().size());
+            for (String conceptName : compiledOntology.getConceptNames()) {
+                bodyOut.writeInt(symbol(stringTable, conceptName));
+            }
+
+            bodyOut.writeInt(compiledOntology.getTrees().size());
+            for (Map.Entry<String, Tree<Set<String>>> entry : compiledOntology.getTrees().entrySet()) {
+                bodyOut.writeInt(symbol(stringTable, entry.getKey()));
+                writeTree(bodyOut, stringTable, entry.getValue());
+            }
+
+            bodyOut.writeInt(compiledOntology.getRoleClosures().size());
+            for (Map.Entry<String, Set<String>> entry : compiledOntology.getRoleClosures().entrySet()) {
+                bodyOut.writeInt(symbol(stringTable, entry.getKey()));
+                bodyOut.writeInt(entry.getValue().size());
+                for (String superRole : entry.getValue()) {
+                    bodyOut.writeInt(symbol(stringTable, superRole));
+                }
+            }
+
+            bodyOut.writeInt(compiledOntology.getSkippedConceptNames().size());
+            for (String conceptName : compiledOntology.getSkippedConceptNames()) {
+                bodyOut.writeInt(symbol(stringTable, conceptName));
+            }
+            bodyOut.flush();
+
+            Path target = Paths.get(snapshotPath).toAbsolutePath();
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    writeString(out, compiledOntology.getSourceHash() == null ? "" : compiledOntology.getSourceHash());
+                    writeString(out, compiledOntology.getFileType().name());
+
+                    out.writeInt(stringTable.size());
+                    for (String str : stringTable.keySet()) {
+                        writeString(out, str);
+                    }
+
+                    body.writeTo(out);
+                }
+
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new JSimPiException("Unable to write snapshot to path[" + snapshotPath + "].", e, ErrorCode.OntologySnapshotService_IOException);
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Snapshot of " + compiledOntology.getTrees().size() + " concepts has been written to path[" + snapshotPath + "].");
+        }
+    }
+
+    /**
+     * Reads a compiled ontology from a snapshot file.
+     *
+     * @param snapshotPath the path to the snapshot file
+     * @return the compiled ontology
+     */
+    public CompiledOntology read(String snapshotPath) {
+        if (snapshotPath == null) {
+            throw new JSimPiException("Unable to read snapshot as snapshotPath is null.", ErrorCode.OntologySnapshotService_IllegalArguments);
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new JSimPiException("Unable to read snapshot from path[" + snapshotPath + "] as it is not a snapshot of this format version.", ErrorCode.OntologySnapshotService_InvalidSnapshot);
+            }
+
+            String sourceHash = readString(in);
+            FileTypeConstant fileType = FileTypeConstant.valueOf(readString(in));
+
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                // Interning makes every restored tree share the same name instances.
+                strings[i] = readString(in).intern();
+            }
+
+            int numberOfConcepts = in.readInt();
+            List<String> conceptNames = new ArrayList<String>(numberOfConcepts);
+            for (int i = 0; i < numberOfConcepts; i++) {
+                conceptNames.add(lookup(strings, in.readInt()));
+            }
+
+            int numberOfTrees = in.readInt();
+            Map<String, Tree<Set<String>>> trees = new HashMap<String, Tree<Set<String>>>();
+            for (int i = 0; i < numberOfTrees; i++) {
+                String conceptName = lookup(strings, in.readInt());
+                trees.put(conceptName, readTree(in, strings));
+            }
+
+            int numberOfRoles = in.readInt();
+            Map<String, Set<String>> roleClosures = new HashMap<String, Set<String>>();
+            for (int i = 0; i < numberOfRoles; i++) {
+                String role = lookup(strings, in.readInt());
+                int numberOfSuperRoles = in.readInt();
+                Set<String> superRoles = new HashSet<String>();
+                for (int j = 0; j < numberOfSuperRoles; j++) {
+                    superRoles.add(lookup(strings, in.readInt()));
+                }
+                roleClosures.put(role, superRoles);
+            }
+
+            int numberOfSkippedConcepts = in.readInt();
+            Set<String> skippedConceptNames = new LinkedHashSet<String>();
+            for (int i = 0; i < numberOfSkippedConcepts; i++) {
+                skippedConceptNames.add(lookup(strings, in.readInt()));
+            }
+
+            return new CompiledOntology(fileType, sourceHash, conceptNames, trees, roleClosures, skippedConceptNames);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new JSimPiException("Unable to read snapshot from path[" + snapshotPath + "].", e, ErrorCode.OntologySnapshotService_InvalidSnapshot);
+        }
+    }
+
+    /**
+     * Reads a compiled ontology from a snapshot file if the snapshot was compiled from a source with the given
+     * content hash and no concept has been left out of it.
+     *
+     * @param snapshotPath the path to the snapshot file
+     * @param sourceHash the content hash of the current source ontology
+     * @return the compiled ontology, or {@code null} if the snapshot does not exist, is unreadable, is stale or is
+     *         partial
+     */
+    public CompiledOntology readIfFresh(String snapshotPath, String sourceHash) {
+        if (snapshotPath == null || !new File(snapshotPath).isFile()) {
+            return null;
+        }
+
+        try {
+            CompiledOntology compiledOntology = read(snapshotPath);
+
+            if (!compiledOntology.getSourceHash().equals(sourceHash)) {
+                if (logger.isInfoEnabled()) {
+                    logger.info("Snapshot from path[" + snapshotPath + "] is stale and will be rebuilt.");
+                }
+                return null;
+            }
+
+            if (!compiledOntology.isComplete()) {
+                if (logger.isInfoEnabled()) {
+                    logger.info("Snapshot from path[" + snapshotPath + "] left out concepts" + compiledOntology.getSkippedConceptNames() + " and will be rebuilt.");
+                }
+                return null;
+            }
+
+            return compiledOntology;
+        } catch (JSimPiException e) {
+            logger.warn("Snapshot from path[" + snapshotPath + "] is unreadable and will be rebuilt: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -2,76 +2,182 @@ package sim.explainer.library.service;
 
 import sim.explainer.library.enumeration.FileTypeConstant;
 import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.enumeration.MetricStage;
 import sim.explainer.library.exception.ErrorCode;
 import sim.explainer.library.exception.JSimPiException;
-import sim.explainer.library.framework.explainer.BacktraceTable;
 import sim.explainer.library.framework.KRSSServiceContext;
 import sim.explainer.library.framework.OWLServiceContext;
 import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.compiled.CompiledOntology;
 import sim.explainer.library.framework.descriptiontree.Tree;
 import sim.explainer.library.framework.descriptiontree.TreeBuilder;
+import sim.explainer.library.framework.explainer.BacktraceTable;
+import sim.explainer.library.framework.explainer.SimilarityResult;
+import sim.explainer.library.framework.metrics.MetricsRegistry;
 import sim.explainer.library.framework.reasoner.*;
 import sim.explainer.library.framework.unfolding.*;
+import sim.explainer.library.util.MemoryUtils;
+import sim.explainer.library.util.utilstructure.SymbolTable;
 
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Measures similarity degrees between concepts. The service is safe to use from multiple threads: every evaluation
+ * runs on its own reasoner instance, while the description trees and role closures are built once per concept and
+ * role, under the lock of the source ontology context, and are then shared read-only.
+ */
 @Service
 public class SimilarityService {
 
     private final BigDecimal TWO = new BigDecimal("2");
 
-    private IReasoner topDownSimReasonerImpl;
-    private IReasoner topDownSimPiReasonerImpl;
-    private IReasoner dynamicProgrammingSimReasonerImpl;
-    private IReasoner dynamicProgrammingSimPiReasonerImpl;
+    private OWLServiceContext owlServiceContext;
+    private KRSSServiceContext krssServiceContext;
 
     private IConceptUnfolder conceptDefinitionUnfolderManchesterSyntax;
     private IConceptUnfolder conceptDefinitionUnfolderKRSSSyntax;
-    private IRoleUnfolder superRoleUnfolderManchesterSyntax;
-    private IRoleUnfolder superRoleUnfolderKRSSSyntax;
+    private CachingRoleUnfolder superRoleUnfolderManchesterSyntax;
+    private CachingRoleUnfolder superRoleUnfolderKRSSSyntax;
 
     private TreeBuilder treeBuilder = new TreeBuilder();
 
-    private BacktraceTable backtraceTable_forward = new BacktraceTable();
-    private BacktraceTable backtraceTable_backward = new BacktraceTable();
+    private final ConcurrentHashMap<String, Tree<Set<String>>> compiledTrees = new ConcurrentHashMap<String, Tree<Set<String>>>();
+
+    private volatile SymbolTable symbolTable = new SymbolTable();
+
+    private final MetricsRegistry metricsRegistry;
+
+    public SimilarityService(OWLServiceContext owlServiceContext, KRSSServiceContext krssServiceContext) {
+        this(owlServiceContext, krssServiceContext, new MetricsRegistry());
+    }
+
+    /**
+     * Constructs a {@code SimilarityService} that records the latencies of unfolding, tree building and reasoning,
+     * and the node pairs evaluated, into the given registry.
+     *
+     * @param owlServiceContext the OWL service context
+     * @param krssServiceContext the KRSS service context
+     * @param metricsRegistry the metrics registry
+     */
+    public SimilarityService(OWLServiceContext owlServiceContext, KRSSServiceContext krssServiceContext, MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        this.owlServiceContext = owlServiceContext;
+        this.krssServiceContext = krssServiceContext;
 
-    public SimilarityService(OWLServiceContext owlServiceContext, KRSSServiceContext krssServiceContext, PreferenceProfile preferenceProfile) {
         this.conceptDefinitionUnfolderManchesterSyntax = new ConceptDefinitionUnfolderManchesterSyntax(owlServiceContext);
         this.conceptDefinitionUnfolderKRSSSyntax = new ConceptDefinitionUnfolderKRSSSyntax(krssServiceContext);
-        this.superRoleUnfolderManchesterSyntax = new SuperRoleUnfolderManchesterSyntax(owlServiceContext);
-        this.superRoleUnfolderKRSSSyntax = new SuperRoleUnfolderKRSSSyntax(krssServiceContext);
-
-        this.topDownSimReasonerImpl = new TopDownSimReasonerImpl(preferenceProfile);
-        this.topDownSimPiReasonerImpl = new TopDownSimPiReasonerImpl(preferenceProfile);
-        this.dynamicProgrammingSimReasonerImpl = new DynamicProgrammingSimReasonerImpl(preferenceProfile);
-        this.dynamicProgrammingSimPiReasonerImpl = new DynamicProgrammingSimPiReasonerImpl(preferenceProfile);
+        this.superRoleUnfolderManchesterSyntax = new CachingRoleUnfolder(new SuperRoleUnfolderManchesterSyntax(owlServiceContext), owlServiceContext);
+        this.superRoleUnfolderKRSSSyntax = new CachingRoleUnfolder(new SuperRoleUnfolderKRSSSyntax(krssServiceContext), krssServiceContext);
     }
 
     public Tree<Set<String>> unfoldAndConstructTree(IConceptUnfolder iConceptUnfolder, String conceptName1) {
+        long start = System.nanoTime();
         String unfoldConceptName1 = iConceptUnfolder.unfoldConceptDefinitionString(conceptName1);
         HashMap<String, String> mapper = iConceptUnfolder.getUnfoldedConceptMap();
+        long unfolded = System.nanoTime();
+        metricsRegistry.record(MetricStage.UNFOLDING, null, unfolded - start);
 
+        Tree<Set<String>> tree;
         if (iConceptUnfolder instanceof ConceptDefinitionUnfolderManchesterSyntax) {
-            return treeBuilder.constructAccordingToManchesterSyntax(mapper, conceptName1, unfoldConceptName1);
+            tree = treeBuilder.constructAccordingToManchesterSyntax(mapper, conceptName1, unfoldConceptName1);
         }
 
         else {
-            return treeBuilder.constructAccordingToKRSSSyntax(mapper, conceptName1, unfoldConceptName1);
+            tree = treeBuilder.constructAccordingToKRSSSyntax(mapper, conceptName1, unfoldConceptName1);
+        }
+        metricsRegistry.record(MetricStage.TREE_BUILDING, null, System.nanoTime() - unfolded);
+
+        return tree;
+    }
+
+    /**
+     * Returns the description tree of a concept, unfolding and constructing it only on the first request.
+     *
+     * @param conceptType concept type, i.e., KRSS or OWL
+     * @param conceptName the concept name
+     * @return the shared description tree of that concept
+     */
+    public Tree<Set<String>> getOrConstructTree(FileTypeConstant conceptType, String conceptName) {
+        Tree<Set<String>> tree = compiledTrees.get(conceptName);
+
+        if (tree == null) {
+            IConceptUnfolder iConceptUnfolder = getConceptUnfolder(conceptType);
+
+            // Unfolders keep state and OWLAPI is not thread-safe, hence trees are built under the source lock.
+            synchronized (getSourceLock(conceptType)) {
+                tree = compiledTrees.get(conceptName);
+                if (tree == null) {
+                    tree = unfoldAndConstructTree(iConceptUnfolder, conceptName);
+                    compiledTrees.put(conceptName, tree);
+                }
+            }
         }
+
+        return tree;
     }
 
-    private BigDecimal computeSimilarity(IReasoner iReasoner, IRoleUnfolder iRoleUnfolder, Tree<Set<String>> tree1, Tree<Set<String>> tree2) {
+    private SimilarityResult computeSimilarity(ImplementationMethod measurementType, IReasoner iReasoner, IRoleUnfolder iRoleUnfolder, Tree<Set<String>> tree1, Tree<Set<String>> tree2) {
         iReasoner.setRoleUnfoldingStrategy(iRoleUnfolder);
 
+        // Trees are shared per concept. The backtrace tables key node pairs symmetrically, hence a concept compared
+        // with itself needs a second tree, otherwise a pair of nodes and its mirror would share one record.
+        if (tree2 == tree1) {
+            tree2 = tree1.copy();
+        }
+
+        long start = System.nanoTime();
         BigDecimal forwardDistance = iReasoner.measureDirectedSimilarity(tree1, tree2);
-        this.backtraceTable_forward = iReasoner.getBacktraceTable();
+        BacktraceTable forwardBacktraceTable = iReasoner.getBacktraceTable();
+        long forwardEnd = System.nanoTime();
+        metricsRegistry.record(MetricStage.FORWARD_REASONING, measurementType, forwardEnd - start);
+        metricsRegistry.addNodePairs(measurementType, iReasoner.getEvaluatedNodePairs());
+
         BigDecimal backwardDistance = iReasoner.measureDirectedSimilarity(tree2, tree1);
-        this.backtraceTable_backward = iReasoner.getBacktraceTable();
+        BacktraceTable backwardBacktraceTable = iReasoner.getBacktraceTable();
+        metricsRegistry.record(MetricStage.BACKWARD_REASONING, measurementType, System.nanoTime() - forwardEnd);
+        metricsRegistry.addNodePairs(measurementType, iReasoner.getEvaluatedNodePairs());
 
-        return forwardDistance.add(backwardDistance).divide(TWO);
+        return new SimilarityResult(forwardDistance.add(backwardDistance).divide(TWO), forwardBacktraceTable, backwardBacktraceTable);
+    }
+
+    private BigDecimal computeUpperBound(IReasoner iReasoner, IRoleUnfolder iRoleUnfolder, Tree<Set<String>> tree1, Tree<Set<String>> tree2) {
+        iReasoner.setRoleUnfoldingStrategy(iRoleUnfolder);
+
+        BigDecimal forwardBound = iReasoner.upperBoundDirectedSimilarity(tree1, tree2);
+        BigDecimal backwardBound = iReasoner.upperBoundDirectedSimilarity(tree2, tree1);
+
+        return forwardBound.add(backwardBound).divide(TWO);
+    }
+
+    /**
+     * Creates a fresh reasoner for one evaluation. Reasoners keep per-evaluation state and must not be shared.
+     *
+     * @param measurementType measurement type, i.e., dynamic/top down and sim/simpi
+     * @param preferenceProfile the preference profile of the evaluation
+     * @return a new reasoner
+     */
+    private IReasoner createReasoner(ImplementationMethod measurementType, PreferenceProfile preferenceProfile) {
+        IReasoner iReasoner;
+
+        if (measurementType == ImplementationMethod.DYNAMIC_SIM) {
+            iReasoner = new DynamicProgrammingSimReasonerImpl(preferenceProfile);
+        } else if (measurementType == ImplementationMethod.DYNAMIC_SIMPI) {
+            iReasoner = new DynamicProgrammingSimPiReasonerImpl(preferenceProfile);
+        } else if (measurementType == ImplementationMethod.TOPDOWN_SIM) {
+            iReasoner = new TopDownSimReasonerImpl(preferenceProfile);
+        } else if (measurementType == ImplementationMethod.TOPDOWN_SIMPI) {
+            iReasoner = new TopDownSimPiReasonerImpl(preferenceProfile);
+        } else {
+            throw new JSimPiException("Unable measure with this approach.", ErrorCode.OWLSimService_IllegalArguments);
+        }
+
+        iReasoner.setSymbolTable(symbolTable);
+
+        return iReasoner;
     }
 
     /**
@@ -81,54 +187,183 @@ public class SimilarityService {
      * @param conceptName2 second concept
      * @param measurementType  concept type, i.e., KRSS or OWL
      * @param conceptType  measurement type, i.e., dynamic/top down and sim/simpi
-     * @return similarity degree of that concept pair
+     * @param preferenceProfile the preference profile, which must not change during the measurement
+     * @return similarity degree of that concept pair together with its backtrace tables
      */
-    public BigDecimal measureConceptWithType(String conceptName1, String conceptName2, ImplementationMethod measurementType, FileTypeConstant conceptType) {
+    public SimilarityResult measureConceptWithType(String conceptName1, String conceptName2, ImplementationMethod measurementType, FileTypeConstant conceptType, PreferenceProfile preferenceProfile) {
 
-        IConceptUnfolder conceptT;
         IRoleUnfolder roleUnfolderT;
         IReasoner reasonerT;
-        BigDecimal result;
 
         if (conceptName1 == null || conceptName2 == null) {
             throw new JSimPiException("Unable measure with " + measurementType + " as conceptName1[" + conceptName1 + "] and " +
                     "conceptName2[" + conceptName2 + "] are null.", ErrorCode.OWLSimService_IllegalArguments);
         }
 
+        roleUnfolderT = getRoleUnfolder(conceptType);
+        reasonerT = createReasoner(measurementType, preferenceProfile);
+
+        Tree<Set<String>> tree1 = getOrConstructTree(conceptType, conceptName1);
+        Tree<Set<String>> tree2 = getOrConstructTree(conceptType, conceptName2);
+
+        return computeSimilarity(measurementType, reasonerT, roleUnfolderT, tree1, tree2);
+    }
+
+    /**
+     * Measure a similarity degree from given concepts of a compiled ontology, without unfolding any definition.
+     *
+     * @param compiledOntology the compiled ontology
+     * @param conceptName1 first concept
+     * @param conceptName2 second concept
+     * @param measurementType measurement type, i.e., dynamic/top down and sim/simpi
+     * @param preferenceProfile the preference profile, which must not change during the measurement
+     * @return similarity degree of that concept pair together with its backtrace tables
+     */
+    public SimilarityResult measureCompiledConcepts(CompiledOntology compiledOntology, String conceptName1, String conceptName2, ImplementationMethod measurementType, PreferenceProfile preferenceProfile) {
+        if (compiledOntology == null || conceptName1 == null || conceptName2 == null) {
+            throw new JSimPiException("Unable measure with " + measurementType + " as compiledOntology[" + compiledOntology + "], conceptName1[" + conceptName1 + "] and " +
+                    "conceptName2[" + conceptName2 + "] are null.", ErrorCode.OWLSimService_IllegalArguments);
+        }
+
+        Tree<Set<String>> tree1 = compiledOntology.getTree(conceptName1);
+        Tree<Set<String>> tree2 = compiledOntology.getTree(conceptName2);
+
+        if (tree1 == null || tree2 == null) {
+            throw new JSimPiException("Unable measure with " + measurementType + " as conceptName1[" + conceptName1 + "] and " +
+                    "conceptName2[" + conceptName2 + "] have not been compiled.", ErrorCode.OWLSimService_IllegalArguments);
+        }
+
+        return computeSimilarity(measurementType, createReasoner(measurementType, preferenceProfile), new CompiledRoleUnfolder(compiledOntology.getRoleClosures()), tree1, tree2);
+    }
+
+    /**
+     * Bounds the similarity degree of given concepts from above, from the roots of their description trees only. The
+     * bound is never below the degree {@link #measureConceptWithType} returns for the same arguments.
+     *
+     * @param conceptName1 first concept
+     * @param conceptName2 second concept
+     * @param measurementType measurement type, i.e., dynamic/top down and sim/simpi
+     * @param conceptType concept type, i.e., KRSS or OWL
+     * @param preferenceProfile the preference profile, which must not change during the measurement
+     * @return an upper bound of the similarity degree of that concept pair
+     */
+    public BigDecimal upperBoundConceptWithType(String conceptName1, String conceptName2, ImplementationMethod measurementType, FileTypeConstant conceptType, PreferenceProfile preferenceProfile) {
+        if (conceptName1 == null || conceptName2 == null) {
+            throw new JSimPiException("Unable bound with " + measurementType + " as conceptName1[" + conceptName1 + "] and " +
+                    "conceptName2[" + conceptName2 + "] are null.", ErrorCode.OWLSimService_IllegalArguments);
+        }
+
+        Tree<Set<String>> tree1 = getOrConstructTree(conceptType, conceptName1);
+        Tree<Set<String>> tree2 = getOrConstructTree(conceptType, conceptName2);
+
+        return computeUpperBound(createReasoner(measurementType, preferenceProfile), getRoleUnfolder(conceptType), tree1, tree2);
+    }
+
+    /**
+     * Bounds the similarity degree of given concepts of a compiled ontology from above, as
+     * {@link #upperBoundConceptWithType} does.
+     *
+     * @param compiledOntology the compiled ontology
+     * @param conceptName1 first concept
+     * @param conceptName2 second concept
+     * @param measurementType measurement type, i.e., dynamic/top down and sim/simpi
+     * @param preferenceProfile the preference profile, which must not change during the measurement
+     * @return an upper bound of the similarity degree of that concept pair
+     */
+    public BigDecimal upperBoundCompiledConcepts(CompiledOntology compiledOntology, String conceptName1, String conceptName2, ImplementationMethod measurementType, PreferenceProfile preferenceProfile) {
+        if (compiledOntology == null || conceptName1 == null || conceptName2 == null) {
+            throw new JSimPiException("Unable bound with " + measurementType + " as compiledOntology[" + compiledOntology + "], conceptName1[" + conceptName1 + "] and " +
+                    "conceptName2[" + conceptName2 + "] are null.", ErrorCode.OWLSimService_IllegalArguments);
+        }
+
+        Tree<Set<String>> tree1 = compiledOntology.getTree(conceptName1);
+        Tree<Set<String>> tree2 = compiledOntology.getTree(conceptName2);
+
+        if (tree1 == null || tree2 == null) {
+            throw new JSimPiException("Unable bound with " + measurementType + " as conceptName1[" + conceptName1 + "] and " +
+                    "conceptName2[" + conceptName2 + "] have not been compiled.", ErrorCode.OWLSimService_IllegalArguments);
+        }
+
+        return computeUpperBound(createReasoner(measurementType, preferenceProfile), new CompiledRoleUnfolder(compiledOntology.getRoleClosures()), tree1, tree2);
+    }
+
+    public IConceptUnfolder getConceptUnfolder(FileTypeConstant conceptType) {
         if (conceptType == FileTypeConstant.KRSS_FILE) {
-            conceptT = conceptDefinitionUnfolderKRSSSyntax;
-            roleUnfolderT = superRoleUnfolderKRSSSyntax;
-        } else if (conceptType  == FileTypeConstant.OWL_FILE) {
-            conceptT = conceptDefinitionUnfolderManchesterSyntax;
-            roleUnfolderT = superRoleUnfolderManchesterSyntax;
+            return conceptDefinitionUnfolderKRSSSyntax;
+        } else if (conceptType == FileTypeConstant.OWL_FILE) {
+            return conceptDefinitionUnfolderManchesterSyntax;
         } else {
             throw new JSimPiException("Unable measure with this file type.", ErrorCode.OWLSimService_IllegalArguments);
         }
+    }
 
-        if (measurementType == ImplementationMethod.DYNAMIC_SIM) {
-            reasonerT = dynamicProgrammingSimReasonerImpl;
-        } else if (measurementType == ImplementationMethod.DYNAMIC_SIMPI) {
-            reasonerT = dynamicProgrammingSimPiReasonerImpl;
-        } else if (measurementType == ImplementationMethod.TOPDOWN_SIM) {
-            reasonerT = topDownSimReasonerImpl;
-        } else if (measurementType == ImplementationMethod.TOPDOWN_SIMPI) {
-            reasonerT = topDownSimPiReasonerImpl;
+    public IRoleUnfolder getRoleUnfolder(FileTypeConstant conceptType) {
+        if (conceptType == FileTypeConstant.KRSS_FILE) {
+            return superRoleUnfolderKRSSSyntax;
+        } else if (conceptType == FileTypeConstant.OWL_FILE) {
+            return superRoleUnfolderManchesterSyntax;
         } else {
-            throw new JSimPiException("Unable measure with this approach.", ErrorCode.OWLSimService_IllegalArguments);
+            throw new JSimPiException("Unable measure with this file type.", ErrorCode.OWLSimService_IllegalArguments);
         }
+    }
 
-        Tree<Set<String>> tree1 = unfoldAndConstructTree(conceptT, conceptName1);
-        Tree<Set<String>> tree2 = unfoldAndConstructTree(conceptT, conceptName2);
+    /**
+     * Returns the lock that guards every access to the source ontology of the given type after it has been loaded.
+     *
+     * @param conceptType concept type, i.e., KRSS or OWL
+     * @return the service context of that type
+     */
+    public Object getSourceLock(FileTypeConstant conceptType) {
+        if (conceptType == FileTypeConstant.KRSS_FILE) {
+            return krssServiceContext;
+        } else if (conceptType == FileTypeConstant.OWL_FILE) {
+            return owlServiceContext;
+        } else {
+            throw new JSimPiException("Unable measure with this file type.", ErrorCode.OWLSimService_IllegalArguments);
+        }
+    }
 
-        result = computeSimilarity(reasonerT, roleUnfolderT, tree1, tree2);
+    /**
+     * Drops the trees and role closures of the given names, e.g., after their definitions or those of the names they
+     * transitively refer to have been modified. It must be called while holding the lock of the source ontology, so
+     * that no tree or closure of the previous definitions is cached afterwards.
+     *
+     * @param conceptType concept type, i.e., KRSS or OWL
+     * @param names the concept and role names
+     */
+    public void invalidate(FileTypeConstant conceptType, Collection<String> names) {
+        compiledTrees.keySet().removeAll(names);
+
+        if (conceptType == FileTypeConstant.KRSS_FILE) {
+            superRoleUnfolderKRSSSyntax.invalidate(names);
+        } else if (conceptType == FileTypeConstant.OWL_FILE) {
+            superRoleUnfolderManchesterSyntax.invalidate(names);
+        }
+    }
 
-        return result;
+    /**
+     * Estimates the heap held by the trees and role closures built so far.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateResidentBytes() {
+        return MemoryUtils.estimateTreeBytes(compiledTrees.values())
+                + superRoleUnfolderManchesterSyntax.estimateResidentBytes()
+                + superRoleUnfolderKRSSSyntax.estimateResidentBytes();
     }
 
-    public List<BacktraceTable> getBacktraceTables() {
-        List<BacktraceTable> backtraceTables = new ArrayList<>();
-        backtraceTables.add(backtraceTable_forward);
-        backtraceTables.add(backtraceTable_backward);
-        return backtraceTables;
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Drops every tree, role closure and interned name built so far. It must be called whenever a new ontology is
+     * loaded. Records measured earlier keep the symbol table they were built with.
+     */
+    public void reset() {
+        compiledTrees.clear();
+        symbolTable = new SymbolTable();
+        superRoleUnfolderManchesterSyntax.reset();
+        superRoleUnfolderKRSSSyntax.reset();
     }
 }
@@ -7,15 +7,22 @@ import org.springframework.stereotype.Service;
 import sim.explainer.library.enumeration.FileTypeConstant;
 import sim.explainer.library.framework.KRSSServiceContext;
 import sim.explainer.library.framework.OWLServiceContext;
+import sim.explainer.library.framework.compiled.CompiledOntology;
 import sim.explainer.library.util.OWLOntologyUtil;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ValidationService {
     private OWLServiceContext owlServiceContext;
     private KRSSServiceContext krssServiceContext;
 
+    // OWLAPI lookups are not thread-safe, hence names are checked once under the context lock and remembered.
+    private final Set<String> validOWLClassNames = ConcurrentHashMap.newKeySet();
+
     public ValidationService(OWLServiceContext owlServiceContext, KRSSServiceContext krssServiceContext) {
         this.owlServiceContext = owlServiceContext;
         this.krssServiceContext = krssServiceContext;
@@ -32,10 +39,18 @@ public class ValidationService {
 
         else {
             for (String conceptName : conceptNames) {
-                OWLClass owlClass = OWLOntologyUtil.getOWLClass(owlServiceContext.getOwlDataFactory(), owlServiceContext.getOwlOntologyManager(), owlServiceContext.getOwlOntology(), conceptName);
+                if (validOWLClassNames.contains(conceptName)) {
+                    continue;
+                }
 
-                if (!OWLOntologyUtil.containClassName(owlServiceContext.getOwlOntology(), owlClass)) {
-                    return false;
+                synchronized (owlServiceContext) {
+                    OWLClass owlClass = OWLOntologyUtil.getOWLClass(owlServiceContext.getOwlDataFactory(), owlServiceContext.getOwlOntologyManager(), owlServiceContext.getOwlOntology(), conceptName);
+
+                    if (!OWLOntologyUtil.containClassName(owlServiceContext.getOwlOntology(), owlClass)) {
+                        return false;
+                    }
+
+                    validOWLClassNames.add(conceptName);
                 }
             }
         }
@@ -71,6 +86,10 @@ public class ValidationService {
             return false;
         } else {
             for (String conceptName : conceptNames) {
+                if (conceptName == null) {
+                    return false;
+                }
+
                 if (!krssServiceContext.getFullConceptDefinitionMap().containsKey(conceptName) &&
                         !krssServiceContext.getPrimitiveConceptDefinitionMap().containsKey(conceptName)) {
                     return false;
@@ -97,6 +116,35 @@ public class ValidationService {
         return false;
     }
 
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Compiled ////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean validateIfCompiledClassNamesExist(CompiledOntology compiledOntology, String... conceptNames) {
+        if (compiledOntology == null || conceptNames == null) {
+            return false;
+        }
+
+        return compiledOntology.containsConcepts(conceptNames);
+    }
+
+    /**
+     * Forgets the given concept names, e.g., after their definitions have been modified. It must be called while
+     * holding the lock of the OWL service context.
+     *
+     * @param conceptNames the concept names
+     */
+    public void invalidate(Collection<String> conceptNames) {
+        validOWLClassNames.removeAll(conceptNames);
+    }
+
+    /**
+     * Forgets every concept name validated so far. It must be called whenever a new ontology is loaded.
+     */
+    public void reset() {
+        validOWLClassNames.clear();
+    }
+
     public static FileTypeConstant checkOWLandKRSSFile(File file) {
         if (file.getName().endsWith(".owl") || file.getName().endsWith(".owx")) {
             return FileTypeConstant.OWL_FILE;
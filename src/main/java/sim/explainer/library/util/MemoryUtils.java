@@ -0,0 +1,64 @@
+package sim.explainer.library.util;
+
+import sim.explainer.library.framework.descriptiontree.Tree;
+import sim.explainer.library.framework.descriptiontree.TreeNode;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rough estimates of the heap held by the structures of a loaded ontology, for reporting resident sizes. The
+ * estimates assume a 64-bit JVM with compressed references and are not meant to be exact.
+ */
+public class MemoryUtils {
+
+    public static final int ENTRY_BYTES = 48;
+    public static final int NODE_BYTES = 128;
+    public static final int ELEMENT_BYTES = 64;
+    public static final int STRING_BYTES = 40;
+
+    public static long estimateBytes(String str) {
+        return str == null ? 0 : STRING_BYTES + 2L * str.length();
+    }
+
+    public static long estimateBytes(Tree<Set<String>> tree) {
+        long bytes = ENTRY_BYTES;
+
+        for (TreeNode<Set<String>> node : tree.getNodes().values()) {
+            bytes += NODE_BYTES + (long) ELEMENT_BYTES * node.getData().size();
+        }
+
+        return bytes;
+    }
+
+    public static long estimateTreeBytes(Collection<Tree<Set<String>>> trees) {
+        long bytes = 0;
+
+        for (Tree<Set<String>> tree : trees) {
+            bytes += estimateBytes(tree);
+        }
+
+        return bytes;
+    }
+
+    public static long estimateClosureBytes(Map<String, Set<String>> closures) {
+        long bytes = 0;
+
+        for (Map.Entry<String, Set<String>> entry : closures.entrySet()) {
+            bytes += ENTRY_BYTES + estimateBytes(entry.getKey()) + (long) ELEMENT_BYTES * entry.getValue().size();
+        }
+
+        return bytes;
+    }
+
+    public static long estimateDefinitionBytes(Map<String, String> definitions) {
+        long bytes = 0;
+
+        for (Map.Entry<String, String> entry : definitions.entrySet()) {
+            bytes += ENTRY_BYTES + estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+        }
+
+        return bytes;
+    }
+}
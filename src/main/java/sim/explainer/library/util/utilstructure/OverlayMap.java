@@ -0,0 +1,139 @@
+package sim.explainer.library.util.utilstructure;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only view of a map of overriding entries on top of a base map. A key of the overrides maps to its overriding
+ * value and any other key to its value in the base map. Neither map is copied, hence the view reflects later
+ * modifications of both.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class OverlayMap<K, V> extends AbstractMap<K, V> {
+
+    private final Map<K, V> base;
+    private final Map<K, V> overrides;
+
+    public OverlayMap(Map<K, V> base, Map<K, V> overrides) {
+        this.base = base;
+        this.overrides = overrides;
+    }
+
+    /**
+     * Returns a view of nested maps in which the inner map of a key present in both maps is itself overlaid, i.e., in
+     * which the overrides replace single inner entries rather than whole inner maps.
+     *
+     * @param base the base map
+     * @param overrides the overriding map
+     * @param <K> the type of the outer keys
+     * @param <L> the type of the inner keys
+     * @param <V> the type of the inner values
+     * @return the view
+     */
+    public static <K, L, V> Map<K, Map<L, V>> nested(Map<K, Map<L, V>> base, Map<K, Map<L, V>> overrides) {
+        return new OverlayMap<K, Map<L, V>>(base, overrides) {
+            @Override
+            protected Map<L, V> merge(Map<L, V> baseValue, Map<L, V> overridingValue) {
+                return new OverlayMap<L, V>(baseValue != null ? baseValue : Collections.<L, V>emptyMap(), overridingValue);
+            }
+        };
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Private /////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the value of a key that has an overriding value.
+     *
+     * @param baseValue the value of the key in the base map, or {@code null}
+     * @param overridingValue the overriding value
+     * @return the value of the view
+     */
+    protected V merge(V baseValue, V overridingValue) {
+        return overridingValue;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public V get(Object key) {
+        V overridingValue = overrides.get(key);
+
+        return overridingValue != null ? merge(base.get(key), overridingValue) : base.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overrides.containsKey(key) || base.containsKey(key);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<K> overridingKeys = overrides.keySet().iterator();
+                final Iterator<Entry<K, V>> baseEntries = base.entrySet().iterator();
+
+                return new Iterator<Entry<K, V>>() {
+                    private Entry<K, V> next = advance();
+
+                    private Entry<K, V> advance() {
+                        if (overridingKeys.hasNext()) {
+                            K key = overridingKeys.next();
+                            return new SimpleImmutableEntry<K, V>(key, get(key));
+                        }
+
+                        while (baseEntries.hasNext()) {
+                            Entry<K, V> entry = baseEntries.next();
+                            if (!overrides.containsKey(entry.getKey())) {
+                                return entry;
+                            }
+                        }
+
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Entry<K, V> entry = next;
+                        next = advance();
+
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = overrides.size();
+                for (K key : base.keySet()) {
+                    if (!overrides.containsKey(key)) {
+                        size++;
+                    }
+                }
+
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package sim.explainer.library.util.utilstructure;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns names, i.e., concept, role and existential names, as dense integer ids. A table belongs to one loaded
+ * ontology and is dropped together with it, so that the names of earlier ontologies are not kept alive. Lookups of
+ * known names are lock-free; only new names are registered under a lock. {@code null} is represented by
+ * {@link #NULL_ID}.
+ */
+public class SymbolTable {
+
+    public static final int NULL_ID = -1;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    private volatile String[] names = new String[64];
+    private int size = 0;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    // Public //////////////////////////////////////////////////////////////////////////////////////////////////////////
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the id of a name, registering the name on its first use.
+     *
+     * @param name the name
+     * @return the id of that name
+     */
+    public int intern(String name) {
+        if (name == null) {
+            return NULL_ID;
+        }
+
+        Integer id = ids.get(name);
+
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = name;
+            names = current;
+
+            id = size++;
+            ids.put(name, id);
+
+            return id;
+        }
+    }
+
+    /**
+     * Returns the name of an id returned by {@link #intern(String)}.
+     *
+     * @param id the id
+     * @return the name
+     */
+    public String name(int id) {
+        return id == NULL_ID ? null : names[id];
+    }
+
+    /**
+     * @return the number of names interned so far
+     */
+    public int size() {
+        return ids.size();
+    }
+}
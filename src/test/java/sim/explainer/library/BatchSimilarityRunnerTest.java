@@ -0,0 +1,89 @@
+package sim.explainer.library;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.enumeration.ImplementationMethod;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchSimilarityRunnerTest {
+
+    private static final ImplementationMethod METHOD = ImplementationMethod.DYNAMIC_SIMPI;
+
+    private static String run(BatchSimilarityRunner runner, String pairs) throws IOException {
+        StringWriter writer = new StringWriter();
+        runner.run(new BufferedReader(new StringReader(pairs)), writer, null);
+
+        return writer.toString();
+    }
+
+    @Test
+    void csvLinesFollowTheInputOrder() throws IOException {
+        SimExplainer explainer = TestOntologies.explainer();
+        List<String> names = TestOntologies.conceptNames(explainer);
+
+        StringBuilder pairs = new StringBuilder("# every pair of the test ontology\n\n");
+        List<String> expected = new ArrayList<String>();
+        expected.add("concept1,concept2,similarity,error");
+        for (String concept1 : names) {
+            for (String concept2 : names) {
+                pairs.append(concept1).append('\t').append(concept2).append('\n');
+                expected.add(concept1 + "," + concept2 + "," + explainer.similarity(METHOD, concept1, concept2).toPlainString() + ",");
+            }
+        }
+
+        BatchSimilarityRunner runner = new BatchSimilarityRunner(TestOntologies.explainer(), METHOD, 4, BatchSimilarityRunner.Format.CSV, false);
+
+        assertThat(run(runner, pairs.toString()).split("\n")).containsExactlyElementsOf(expected);
+        assertThat(runner.getScoredCount()).isEqualTo(names.size() * names.size());
+        assertThat(runner.getFailedCount()).isZero();
+    }
+
+    @Test
+    void scoresAloneRetainNothing() throws IOException {
+        SimExplainer explainer = TestOntologies.explainer();
+        BatchSimilarityRunner runner = new BatchSimilarityRunner(explainer, METHOD, 2, BatchSimilarityRunner.Format.CSV, false);
+
+        run(runner, "Lake Lagoon\nBeach Bay\nMountain Volcano\n");
+
+        assertThat(runner.getScoredCount()).isEqualTo(3);
+        assertThat(explainer.getExplanationCacheStatistics().getSize()).isZero();
+    }
+
+    @Test
+    void failedPairsAreWrittenWithTheirError() throws IOException {
+        BatchSimilarityRunner runner = new BatchSimilarityRunner(TestOntologies.explainer(), METHOD, 2, BatchSimilarityRunner.Format.JSONL, false);
+
+        String[] lines = run(runner, "Lake, Lagoon\nLake Nowhere\nLake\n").split("\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(new JSONObject(lines[0]).has("similarity")).isTrue();
+        assertThat(new JSONObject(lines[1]).getString("concept2")).isEqualTo("Nowhere");
+        assertThat(new JSONObject(lines[1]).has("error")).isTrue();
+        assertThat(new JSONObject(lines[2]).has("error")).isTrue();
+        assertThat(runner.getScoredCount()).isEqualTo(1);
+        assertThat(runner.getFailedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void explanationsAreWrittenWithTheirScore() throws IOException {
+        SimExplainer explainer = TestOntologies.explainer();
+        BatchSimilarityRunner runner = new BatchSimilarityRunner(TestOntologies.explainer(), METHOD, 2, BatchSimilarityRunner.Format.JSONL, true);
+
+        for (String line : run(runner, "Lake Lagoon\nBeach Bay\nMountain Volcano\n").split("\n")) {
+            JSONObject result = new JSONObject(line);
+            BigDecimal similarity = explainer.similarity(METHOD, result.getString("concept1"), result.getString("concept2"));
+
+            assertThat(result.getBigDecimal("similarity")).isEqualByComparingTo(similarity);
+            assertThat(result.getJSONObject("explanation").getBigDecimal("similarity")).isEqualByComparingTo(similarity);
+        }
+    }
+}
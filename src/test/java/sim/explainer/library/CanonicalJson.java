@@ -0,0 +1,45 @@
+package sim.explainer.library;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Renders JSON in a canonical form, i.e., with the keys of every object and the elements of every array sorted, so that
+ * explanations can be compared regardless of the iteration order of the sets they were rendered from.
+ */
+public final class CanonicalJson {
+
+    private CanonicalJson() {}
+
+    /**
+     * @param json a {@code JSONObject}, a {@code JSONArray} or a value
+     * @return the canonical form of that JSON
+     */
+    public static String of(Object json) {
+        if (json instanceof JSONObject object) {
+            TreeMap<String, String> entries = new TreeMap<String, String>();
+            for (String key : object.keySet()) {
+                entries.put(key, of(object.get(key)));
+            }
+
+            return entries.toString();
+        }
+
+        if (json instanceof JSONArray array) {
+            List<String> elements = new ArrayList<String>();
+            for (int i = 0; i < array.length(); i++) {
+                elements.add(of(array.get(i)));
+            }
+            Collections.sort(elements);
+
+            return elements.toString();
+        }
+
+        return String.valueOf(json);
+    }
+}
@@ -0,0 +1,113 @@
+package sim.explainer.library;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OntologyRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    private final OntologyRegistry registry = new OntologyRegistry();
+
+    @BeforeEach
+    void copyOntologies() throws IOException {
+        try (Stream<Path> files = Files.list(TestOntologies.directory())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.copy(file, directory.resolve(file.getFileName()));
+            }
+        }
+
+        // a second ontology, i.e., the places without water
+        String places = Files.readString(TestOntologies.ontologyFile());
+        StringBuilder dryPlaces = new StringBuilder();
+        for (String line : places.split("\n")) {
+            if (!line.contains("Water") && !line.contains("canSwim")) {
+                dryPlaces.append(line).append('\n');
+            }
+        }
+        Files.writeString(directory.resolve("dry-places.krss"), dryPlaces);
+    }
+
+    @Test
+    void explainerRefusesDirectoryWithSeveralOntologies() {
+        assertThatThrownBy(() -> new SimExplainer(directory.toString()))
+                .isInstanceOf(JSimPiException.class)
+                .hasMessageContaining("OntologyRegistry.registerDirectory");
+    }
+
+    @Test
+    void registerDirectoryLoadsEveryOntologyWithTheProfileOfThatDirectory() {
+        assertThat(registry.registerDirectory(directory.toString())).containsExactly("dry-places", "places");
+        assertThat(registry.getOntologyIds()).containsExactly("dry-places", "places");
+
+        assertThat(registry.get("places").retrieveConceptName()).contains("Lake", "Reef");
+        assertThat(registry.get("dry-places").retrieveConceptName()).contains("Mountain").doesNotContain("Lake", "Reef");
+
+        SimExplainer expected = TestOntologies.explainer();
+        List<String> names = TestOntologies.conceptNames(expected);
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    assertThat(registry.similarity("places", method, concept1, concept2))
+                            .as("%s(%s, %s)", method, concept1, concept2)
+                            .isEqualByComparingTo(expected.similarity(method, concept1, concept2));
+                }
+            }
+        }
+    }
+
+    @Test
+    void ontologiesOfTheSameIdAreRejected() throws IOException {
+        Files.copy(TestOntologies.ontologyFile(), Files.createDirectory(directory.resolve("copy")).resolve("places.krss"));
+
+        assertThatThrownBy(() -> registry.registerDirectory(directory.toString())).isInstanceOf(JSimPiException.class);
+        assertThat(registry.getOntologyIds()).isEmpty();
+    }
+
+    @Test
+    void unregisteredOntologyCannotBeQueried() {
+        registry.registerDirectory(directory.toString());
+
+        assertThat(registry.unregister("dry-places")).isNotNull();
+        assertThatThrownBy(() -> registry.similarity("dry-places", ImplementationMethod.DYNAMIC_SIM, "Beach", "Trail"))
+                .isInstanceOf(JSimPiException.class);
+    }
+
+    @Test
+    void residentSizesAreReportedPerOntology() {
+        registry.registerDirectory(directory.toString());
+        Map<String, SimExplainer.ResidentSize> before = registry.getResidentSizes();
+
+        assertThat(before).containsOnlyKeys("dry-places", "places");
+        assertThat(before.get("places").getSourceBytes()).isGreaterThan(before.get("dry-places").getSourceBytes());
+
+        SimExplainer places = registry.get("places");
+        List<String> names = TestOntologies.conceptNames(places);
+        for (String concept1 : names) {
+            for (String concept2 : names) {
+                places.similarity(ImplementationMethod.DYNAMIC_SIMPI, concept1, concept2);
+            }
+        }
+
+        Map<String, SimExplainer.ResidentSize> after = registry.getResidentSizes();
+        assertThat(after.get("places").getCompiledBytes()).isGreaterThan(before.get("places").getCompiledBytes());
+        assertThat(after.get("places").getExplanationBytes()).isGreaterThan(before.get("places").getExplanationBytes());
+        assertThat(after.get("dry-places").getTotalBytes()).isEqualTo(before.get("dry-places").getTotalBytes());
+        assertThat(registry.getTotalResidentBytes())
+                .isEqualTo(after.get("places").getTotalBytes() + after.get("dry-places").getTotalBytes());
+    }
+}
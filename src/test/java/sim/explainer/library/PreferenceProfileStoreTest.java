@@ -0,0 +1,146 @@
+package sim.explainer.library;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.PreferenceProfile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PreferenceProfileStoreTest {
+
+    private static final BigDecimal SWIMMING_IMPORTANCE = new BigDecimal("3");
+
+    @TempDir
+    Path directory;
+
+    private SimExplainer explainer;
+    private List<String> names;
+
+    @BeforeEach
+    void load() {
+        explainer = TestOntologies.explainer();
+        names = TestOntologies.conceptNames(explainer);
+    }
+
+    private PreferenceProfile swimming() {
+        PreferenceProfile overlay = explainer.getPreferenceProfileSnapshot().overlay();
+        overlay.addRoleImportance("canSwim", SWIMMING_IMPORTANCE);
+
+        return overlay;
+    }
+
+    private void measureAll(PreferenceProfileStore store, String profileId) {
+        for (String concept1 : names) {
+            for (String concept2 : names) {
+                store.similarity(profileId, ImplementationMethod.DYNAMIC_SIMPI, concept1, concept2);
+            }
+        }
+    }
+
+    @Test
+    void everyProfileMeasuresWithItsOwnEntries() throws IOException {
+        PreferenceProfileStore store = new PreferenceProfileStore(explainer);
+        store.register("default", explainer.getPreferenceProfileSnapshot());
+        store.register("swimming", swimming());
+
+        Path importances = Files.writeString(directory.resolve("role-importance.txt"), "canSwim " + SWIMMING_IMPORTANCE + "\n");
+        SimExplainer swimmingExplainer = TestOntologies.explainer();
+        swimmingExplainer.ReadInputRoleImportances(importances.toString());
+        SimExplainer defaultExplainer = TestOntologies.explainer();
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    String key = String.format("%s(%s, %s)", method, concept1, concept2);
+
+                    assertThat(store.similarity("swimming", method, concept1, concept2)).as(key)
+                            .isEqualByComparingTo(swimmingExplainer.similarity(method, concept1, concept2));
+                    assertThat(store.similarity("default", method, concept1, concept2)).as(key)
+                            .isEqualByComparingTo(defaultExplainer.similarity(method, concept1, concept2));
+                    assertThat(explainer.similarity(method, concept1, concept2)).as(key)
+                            .isEqualByComparingTo(defaultExplainer.similarity(method, concept1, concept2));
+                }
+            }
+        }
+    }
+
+    @Test
+    void budgetClearsTheCachesOfTheLeastRecentlyQueriedProfiles() {
+        PreferenceProfileStore unbounded = new PreferenceProfileStore(explainer);
+        unbounded.register("swimming", swimming());
+        long profileBytes = unbounded.getResidentBytes().get("swimming");
+        measureAll(unbounded, "swimming");
+        long cacheBytes = unbounded.getResidentBytes().get("swimming") - profileBytes;
+        assertThat(cacheBytes).isPositive();
+
+        PreferenceProfileStore store = new PreferenceProfileStore(explainer, cacheBytes * 3 / 2);
+        store.register("cold", swimming());
+        store.register("hot", swimming());
+
+        measureAll(store, "cold");
+        assertThat(store.getResidentBytes().get("cold")).isGreaterThan(profileBytes);
+
+        measureAll(store, "hot");
+        Map<String, Long> residentBytes = store.getResidentBytes();
+        assertThat(residentBytes.get("cold")).isEqualTo(profileBytes);
+        assertThat(residentBytes.get("hot")).isGreaterThan(profileBytes);
+        assertThat(store.getTotalResidentBytes()).isEqualTo(residentBytes.get("cold") + residentBytes.get("hot"));
+    }
+
+    @Test
+    void unregisteredProfilesNoLongerCountTowardsTheBudget() {
+        PreferenceProfileStore unbounded = new PreferenceProfileStore(explainer);
+        unbounded.register("swimming", swimming());
+        long profileBytes = unbounded.getResidentBytes().get("swimming");
+        measureAll(unbounded, "swimming");
+        long cacheBytes = unbounded.getResidentBytes().get("swimming") - profileBytes;
+
+        PreferenceProfileStore store = new PreferenceProfileStore(explainer, cacheBytes * 3 / 2);
+        store.register("gone", swimming());
+        measureAll(store, "gone");
+        store.unregister("gone");
+
+        store.register("cold", swimming());
+        store.register("hot", swimming());
+        measureAll(store, "cold");
+        store.similarity("hot", ImplementationMethod.DYNAMIC_SIM, "Beach", "Trail");
+
+        assertThat(store.getResidentBytes().get("cold")).isGreaterThan(profileBytes);
+    }
+
+    @Test
+    void idleProfilesAreClearedButStayRegistered() {
+        PreferenceProfileStore store = new PreferenceProfileStore(explainer);
+        store.register("idle", swimming());
+        store.register("unqueried", swimming());
+        long profileBytes = store.getResidentBytes().get("idle");
+
+        measureAll(store, "idle");
+
+        assertThat(store.evictIdle(0)).containsExactly("idle");
+        assertThat(store.getResidentBytes().get("idle")).isEqualTo(profileBytes);
+        assertThat(store.getProfileIds()).containsExactly("idle", "unqueried");
+    }
+
+    @Test
+    void unregisteredProfileCannotBeQueried() {
+        PreferenceProfileStore store = new PreferenceProfileStore(explainer);
+        store.register("swimming", swimming());
+
+        assertThat(store.unregister("swimming")).isNotNull();
+        assertThatThrownBy(() -> store.similarity("swimming", ImplementationMethod.DYNAMIC_SIM, "Beach", "Trail"))
+                .isInstanceOf(JSimPiException.class);
+        assertThatThrownBy(() -> new PreferenceProfileStore(explainer, -1)).isInstanceOf(JSimPiException.class);
+    }
+}
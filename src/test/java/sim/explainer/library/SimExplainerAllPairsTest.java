@@ -0,0 +1,75 @@
+package sim.explainer.library;
+
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimExplainerAllPairsTest {
+
+    @Test
+    void allPairsMatchSimilarityWithoutCountingLookups() {
+        SimExplainer explainer = TestOntologies.explainer();
+        SimExplainer reference = TestOntologies.explainer();
+        List<String> names = TestOntologies.conceptNames(explainer);
+
+        StringWriter writer = new StringWriter();
+        long pairs = explainer.similarityAllPairs(ImplementationMethod.DYNAMIC_SIMPI, writer);
+
+        String[] lines = writer.toString().split("\n");
+        assertThat(pairs).isEqualTo((long) names.size() * (names.size() - 1) / 2).isEqualTo(lines.length);
+
+        for (String line : lines) {
+            String[] columns = line.split("\t");
+
+            assertThat(new BigDecimal(columns[2])).as(line)
+                    .isEqualByComparingTo(reference.similarity(ImplementationMethod.DYNAMIC_SIMPI, columns[0], columns[1]));
+        }
+
+        // the pairs are measured without looking up retained results
+        assertThat(explainer.getMetricsSnapshot().getCacheMisses(ImplementationMethod.DYNAMIC_SIMPI)).isZero();
+    }
+
+    @Test
+    void firstFailureStopsTheRemainingRows() {
+        SimExplainer explainer = TestOntologies.explainer();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        explainer.setExecutor(executor);
+
+        AtomicInteger writes = new AtomicInteger();
+        Writer failing = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                writes.incrementAndGet();
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        };
+
+        try {
+            assertThatThrownBy(() -> explainer.similarityAllPairs(ImplementationMethod.DYNAMIC_SIMPI, failing))
+                    .isInstanceOfSatisfying(JSimPiException.class, e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.Application_IOException));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(writes).hasValue(1);
+    }
+}
@@ -0,0 +1,69 @@
+package sim.explainer.library;
+
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.enumeration.ImplementationMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimExplainerConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 3;
+
+    private static String key(String concept1, String concept2) {
+        return "(" + concept1 + ", " + concept2 + ")";
+    }
+
+    @Test
+    void concurrentSimilarityMatchesSerialSimilarity() throws Exception {
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            SimExplainer serial = TestOntologies.explainer();
+            List<String> names = TestOntologies.conceptNames(serial);
+
+            Map<String, BigDecimal> expected = new HashMap<String, BigDecimal>();
+            List<String[]> pairs = new ArrayList<String[]>();
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    expected.put(key(concept1, concept2), serial.similarity(method, concept1, concept2));
+                    pairs.add(new String[]{concept1, concept2});
+                }
+            }
+
+            // every pair is measured several times, so that measurements race with each other and with retained results
+            List<String[]> calls = new ArrayList<String[]>();
+            for (int i = 0; i < ROUNDS; i++) {
+                calls.addAll(pairs);
+            }
+            Collections.shuffle(calls, new Random(1));
+
+            SimExplainer concurrent = TestOntologies.explainer();
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<BigDecimal>> futures = new ArrayList<Future<BigDecimal>>(calls.size());
+                for (String[] call : calls) {
+                    futures.add(pool.submit(() -> concurrent.similarity(method, call[0], call[1])));
+                }
+
+                for (int i = 0; i < calls.size(); i++) {
+                    String key = key(calls.get(i)[0], calls.get(i)[1]);
+
+                    assertThat(futures.get(i).get(1, TimeUnit.MINUTES)).as("%s%s", method, key).isEqualByComparingTo(expected.get(key));
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package sim.explainer.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sim.explainer.library.enumeration.ImplementationMethod;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that modifying the preference profile or the ontology invalidates exactly the retained results that depend on
+ * the modified entries or definitions. A retained result is returned as the very instance that was measured, so that
+ * reuse can be told apart from measuring again, while the results that depend on the modifications have to match those
+ * of a fresh explainer.
+ */
+class SimExplainerInvalidationTest {
+
+    // the concepts whose description trees have canSwim edges
+    private static final Set<String> SWIMMING = Set.of("Lake", "Reef", "Lagoon", "Island");
+
+    @TempDir
+    Path directory;
+
+    private static Map<String, BigDecimal> measureAll(SimExplainer explainer, ImplementationMethod method, List<String> names) {
+        Map<String, BigDecimal> similarities = new HashMap<String, BigDecimal>();
+        for (String concept1 : names) {
+            for (String concept2 : names) {
+                similarities.put(concept1 + ", " + concept2, explainer.similarity(method, concept1, concept2));
+            }
+        }
+
+        return similarities;
+    }
+
+    private void raiseSwimmingImportance(SimExplainer explainer) throws IOException {
+        Path importances = directory.resolve("role-importance.txt");
+        Files.write(importances, "canSwim 3\n".getBytes(StandardCharsets.UTF_8));
+
+        explainer.ReadInputRoleImportances(importances.toString());
+    }
+
+    @Test
+    void roleImportanceInvalidatesOnlyDependentPairs() throws IOException {
+        SimExplainer explainer = TestOntologies.explainer();
+        List<String> names = TestOntologies.conceptNames(explainer);
+        Map<String, BigDecimal> before = measureAll(explainer, ImplementationMethod.DYNAMIC_SIMPI, names);
+
+        raiseSwimmingImportance(explainer);
+        SimExplainer fresh = TestOntologies.explainer();
+        raiseSwimmingImportance(fresh);
+
+        Map<String, BigDecimal> after = measureAll(explainer, ImplementationMethod.DYNAMIC_SIMPI, names);
+        Map<String, BigDecimal> expected = measureAll(fresh, ImplementationMethod.DYNAMIC_SIMPI, names);
+
+        int changed = 0;
+        for (String concept1 : names) {
+            for (String concept2 : names) {
+                String key = concept1 + ", " + concept2;
+
+                assertThat(after.get(key)).as(key).isEqualByComparingTo(expected.get(key));
+                if (SWIMMING.contains(concept1) || SWIMMING.contains(concept2)) {
+                    changed += after.get(key).compareTo(before.get(key)) != 0 ? 1 : 0;
+                } else {
+                    assertThat(after.get(key)).as(key).isSameAs(before.get(key));
+                }
+            }
+        }
+        assertThat(changed).isPositive();
+    }
+
+    @Test
+    void profileUpdateInvalidatesOnlyDependentPairs() throws IOException {
+        SimExplainer explainer = TestOntologies.explainer();
+        List<String> names = TestOntologies.conceptNames(explainer);
+        Map<String, BigDecimal> before = measureAll(explainer, ImplementationMethod.DYNAMIC_SIMPI, names);
+
+        explainer.updatePreferenceProfile(profile -> profile.addRoleImportance("canSwim", new BigDecimal("3")));
+        SimExplainer fresh = TestOntologies.explainer();
+        raiseSwimmingImportance(fresh);
+
+        // measured twice, so that the second lookup goes through the results stamped with the new snapshot
+        measureAll(explainer, ImplementationMethod.DYNAMIC_SIMPI, names);
+        Map<String, BigDecimal> after = measureAll(explainer, ImplementationMethod.DYNAMIC_SIMPI, names);
+        Map<String, BigDecimal> expected = measureAll(fresh, ImplementationMethod.DYNAMIC_SIMPI, names);
+
+        for (String key : before.keySet()) {
+            assertThat(after.get(key)).as(key).isEqualByComparingTo(expected.get(key));
+        }
+        assertThat(after.get("Beach, Mountain")).isSameAs(before.get("Beach, Mountain"));
+    }
+
+    @Test
+    void simIgnoresRoleImportances() throws IOException {
+        SimExplainer explainer = TestOntologies.explainer();
+        List<String> names = TestOntologies.conceptNames(explainer);
+        Map<String, BigDecimal> before = measureAll(explainer, ImplementationMethod.DYNAMIC_SIM, names);
+
+        raiseSwimmingImportance(explainer);
+        Map<String, BigDecimal> after = measureAll(explainer, ImplementationMethod.DYNAMIC_SIM, names);
+
+        for (String key : before.keySet()) {
+            assertThat(after.get(key)).as(key).isSameAs(before.get(key));
+        }
+    }
+
+    @Test
+    void defaultRoleDiscountFactorInvalidatesEverything() {
+        SimExplainer explainer = TestOntologies.explainer();
+        List<String> names = TestOntologies.conceptNames(explainer);
+        Map<String, BigDecimal> before = measureAll(explainer, ImplementationMethod.DYNAMIC_SIM, names);
+
+        explainer.setDefaultRoleDiscountFactor(new BigDecimal("0.2"));
+        Map<String, BigDecimal> after = measureAll(explainer, ImplementationMethod.DYNAMIC_SIM, names);
+
+        for (String key : before.keySet()) {
+            assertThat(after.get(key)).as(key).isNotSameAs(before.get(key));
+        }
+    }
+
+    /**
+     * Modifies the ontology of every method's explainer and checks it against an explainer that loads the modified
+     * ontology together with the same preference profile.
+     *
+     * @param original a definition of the test ontology
+     * @param modified the definition replacing it
+     * @param update the modification applied to the explainer, which returns the invalidated names
+     * @param dependents the concepts that depend on the modified definition
+     */
+    private void assertUpdateInvalidatesOnlyDependents(String original, String modified, Function<SimExplainer, Set<String>> update,
+                                                       Set<String> dependents) throws IOException {
+        String ontology = Files.readString(TestOntologies.ontologyFile());
+        assertThat(ontology).contains(original);
+        Files.writeString(directory.resolve("places.krss"), ontology.replace(original, modified));
+        for (String profile : new String[]{"primitive-concept-importance.txt", "primitive-concepts-similarity.txt", "role-discount-factor.txt"}) {
+            Files.copy(TestOntologies.directory().resolve(profile), directory.resolve(profile));
+        }
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            SimExplainer explainer = TestOntologies.explainer();
+            List<String> names = TestOntologies.conceptNames(explainer);
+            Map<String, BigDecimal> before = measureAll(explainer, method, names);
+
+            assertThat(update.apply(explainer)).containsAll(dependents).doesNotContain("Lake", "Reef");
+
+            Map<String, BigDecimal> after = measureAll(explainer, method, names);
+            Map<String, BigDecimal> expected = measureAll(new SimExplainer(directory.toString()), method, names);
+
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    String key = concept1 + ", " + concept2;
+
+                    assertThat(after.get(key)).as("%s(%s)", method, key).isEqualByComparingTo(expected.get(key));
+                    if (!dependents.contains(concept1) && !dependents.contains(concept2)) {
+                        assertThat(after.get(key)).as("%s(%s)", method, key).isSameAs(before.get(key));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void conceptDefinitionInvalidatesOnlyDependentPairs() throws IOException {
+        String original = "(define-concept Mountain (and Place (some canWalk (and Trekking (some canWalk Trekking)))))";
+        String modified = "(define-concept Mountain (and Place (some canWalk Trekking)))";
+
+        assertUpdateInvalidatesOnlyDependents(original, modified, explainer -> explainer.defineConcept(modified),
+                Set.of("Mountain", "Volcano"));
+    }
+
+    @Test
+    void roleDefinitionInvalidatesOnlyDependentPairs() throws IOException {
+        String original = "(define-role canTravelWithSail canSail)";
+        String modified = "(define-role canTravelWithSail canWalk)";
+
+        assertUpdateInvalidatesOnlyDependents(original, modified, explainer -> explainer.defineRole(modified),
+                Set.of("Beach", "Bay", "Lagoon"));
+    }
+}
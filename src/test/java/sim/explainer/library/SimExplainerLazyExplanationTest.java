@@ -0,0 +1,77 @@
+package sim.explainer.library;
+
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimExplainerLazyExplanationTest {
+
+    @Test
+    void recomputedExplanationsEqualRetainedOnes() {
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            // both modes run on the same explainer, so that they share the description trees and render the pairs of a
+            // node in the same order
+            SimExplainer explainer = TestOntologies.explainer();
+            List<String> names = TestOntologies.conceptNames(explainer);
+
+            Map<String, String> retained = new HashMap<String, String>();
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    explainer.similarity(method, concept1, concept2);
+                    retained.put(concept1 + ", " + concept2, CanonicalJson.of(explainer.getExplanationAsJson(concept1, concept2)));
+                }
+            }
+
+            explainer.setLazyExplanations(true);
+            // nothing is cached, so that every explanation is recomputed from its record
+            explainer.configureExplanationCache(0, false);
+
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    explainer.similarity(method, concept1, concept2);
+                }
+            }
+
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    // a self-pair is measured against a new copy of its tree every time, and the node pairs of a level
+                    // are rendered in the iteration order of their identity hashes, so its rendering is not repeatable
+                    if (concept1.equals(concept2)) {
+                        continue;
+                    }
+
+                    String key = concept1 + ", " + concept2;
+
+                    assertThat(CanonicalJson.of(explainer.getExplanationAsJson(concept1, concept2))).as("%s(%s)", method, key).isEqualTo(retained.get(key));
+                }
+            }
+        }
+    }
+
+    @Test
+    void measuringKeepsOnlyRecords() {
+        SimExplainer lazy = TestOntologies.explainer();
+        lazy.setLazyExplanations(true);
+
+        lazy.similarity(ImplementationMethod.DYNAMIC_SIMPI, "Beach", "Lake");
+        assertThat(lazy.getExplanationCacheStatistics().getSize()).isZero();
+
+        lazy.getExplanationAsJson("Beach", "Lake");
+        assertThat(lazy.getExplanationCacheStatistics().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void unmeasuredPairCannotBeExplained() {
+        SimExplainer lazy = TestOntologies.explainer();
+        lazy.setLazyExplanations(true);
+
+        assertThatThrownBy(() -> lazy.getExplanationAsJson("Beach", "Lake")).isInstanceOf(JSimPiException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package sim.explainer.library;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.enumeration.ImplementationMethod;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the pruned searches, i.e., {@code topK} and {@code similarityJoin}, find what measuring every pair finds.
+ */
+class SimExplainerSearchTest {
+
+    private List<String> names;
+
+    @BeforeEach
+    void load() {
+        names = TestOntologies.conceptNames(TestOntologies.explainer());
+    }
+
+    private static String entry(String concept, BigDecimal similarity) {
+        return concept + "=" + similarity.stripTrailingZeros().toPlainString();
+    }
+
+    @Test
+    void topKMatchesBruteForce() {
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            // retained results are keyed by pair, so that every method is searched with explainers of its own
+            SimExplainer bruteForce = TestOntologies.explainer();
+            SimExplainer explainer = TestOntologies.explainer();
+
+            for (String concept : names) {
+                List<Map.Entry<String, BigDecimal>> all = new ArrayList<Map.Entry<String, BigDecimal>>();
+                for (String other : names) {
+                    if (!other.equals(concept)) {
+                        all.add(Map.entry(other, bruteForce.similarity(method, concept, other)));
+                    }
+                }
+                all.sort(Map.Entry.<String, BigDecimal>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()));
+
+                for (int k : new int[]{1, 3, names.size() - 1, names.size() + 1}) {
+                    List<String> expected = all.stream().limit(k)
+                            .map(e -> entry(e.getKey(), e.getValue()))
+                            .collect(Collectors.toList());
+                    List<String> actual = explainer.topK(concept, k, method).entrySet().stream()
+                            .map(e -> entry(e.getKey(), e.getValue()))
+                            .collect(Collectors.toList());
+
+                    assertThat(actual).as("top %d of %s with %s", k, concept, method).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void similarityJoinMatchesFullScan() {
+        List<String> rows = names.subList(0, names.size() / 2 + 1);
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            SimExplainer bruteForce = TestOntologies.explainer();
+            SimExplainer explainer = TestOntologies.explainer();
+
+            for (String threshold : new String[]{"0", "0.3", "0.6", "0.9", "1"}) {
+                BigDecimal minimum = new BigDecimal(threshold);
+
+                Set<String> expected = new HashSet<String>();
+                for (String row : rows) {
+                    for (String col : names) {
+                        BigDecimal similarity = bruteForce.similarity(method, row, col);
+                        if (similarity.compareTo(minimum) >= 0) {
+                            expected.add(row + ":" + entry(col, similarity));
+                        }
+                    }
+                }
+
+                Set<String> actual = new HashSet<String>();
+                long count = explainer.similarityJoin(method, rows, names, minimum,
+                        match -> actual.add(match.getConcept1() + ":" + entry(match.getConcept2(), match.getSimilarity())));
+
+                assertThat(actual).as("join at %s with %s", threshold, method).isEqualTo(expected);
+                assertThat(count).isEqualTo(expected.size());
+            }
+        }
+    }
+}
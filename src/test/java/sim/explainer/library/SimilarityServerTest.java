@@ -0,0 +1,131 @@
+package sim.explainer.library;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.ErrorCode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimilarityServerTest {
+
+    private static final int MAX_BATCH_SIZE = 3;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private SimExplainer explainer;
+    private SimilarityServer server;
+
+    @BeforeEach
+    void start() {
+        explainer = TestOntologies.explainer();
+        server = SimilarityServer.start(TestOntologies.explainer(), 0, 2, 16, MAX_BATCH_SIZE, 1);
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(pathAndQuery)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://localhost:" + server.getPort() + pathAndQuery);
+    }
+
+    @Test
+    void similarityIsThatOfTheExplainer() throws Exception {
+        HttpResponse<String> response = get("/similarity?concept1=Lake&concept2=Lagoon&method=dynamic_sim");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(new JSONObject(response.body()).getBigDecimal("similarity"))
+                .isEqualByComparingTo(explainer.similarity(ImplementationMethod.DYNAMIC_SIM, "Lake", "Lagoon"));
+    }
+
+    @Test
+    void batchIsAnsweredInOrder() throws Exception {
+        String[][] pairs = {{"Lake", "Lagoon"}, {"Beach", "Bay"}, {"Mountain", "Volcano"}};
+        JSONObject request = new JSONObject().put("method", "TOPDOWN_SIMPI").put("pairs", new JSONArray(pairs));
+
+        HttpResponse<String> response = post("/similarity/batch", request.toString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        JSONArray results = new JSONObject(response.body()).getJSONArray("results");
+        assertThat(results.length()).isEqualTo(pairs.length);
+        for (int i = 0; i < pairs.length; i++) {
+            JSONObject result = results.getJSONObject(i);
+            BigDecimal expected = explainer.similarity(ImplementationMethod.TOPDOWN_SIMPI, pairs[i][0], pairs[i][1]);
+
+            assertThat(result.getString("concept1")).isEqualTo(pairs[i][0]);
+            assertThat(result.getString("concept2")).isEqualTo(pairs[i][1]);
+            assertThat(result.getBigDecimal("similarity")).isEqualByComparingTo(expected);
+        }
+    }
+
+    @Test
+    void oversizedBatchIsRejected() throws Exception {
+        JSONArray pairs = new JSONArray();
+        for (int i = 0; i <= MAX_BATCH_SIZE; i++) {
+            pairs.put(new JSONArray().put("Lake").put("Lagoon"));
+        }
+
+        assertThat(post("/similarity/batch", new JSONObject().put("pairs", pairs).toString()).statusCode()).isEqualTo(413);
+    }
+
+    @Test
+    void oversizedBodyIsRejected() throws Exception {
+        String padding = " ".repeat((MAX_BATCH_SIZE + 1) * SimilarityServer.MAX_PAIR_BYTES);
+
+        assertThat(post("/similarity/batch", "{\"pairs\": []" + padding + "}").statusCode()).isEqualTo(413);
+    }
+
+    @Test
+    void onlyArgumentErrorsAreTheClients() {
+        assertThat(SimilarityServer.status(ErrorCode.Application_IllegalArguments)).isEqualTo(400);
+        assertThat(SimilarityServer.status(ErrorCode.KrssSimilarityController_InvalidConceptNames)).isEqualTo(400);
+        assertThat(SimilarityServer.status(ErrorCode.Application_IOException)).isEqualTo(500);
+        assertThat(SimilarityServer.status(ErrorCode.Application_ExecutionException)).isEqualTo(500);
+    }
+
+    @Test
+    void invalidRequestsAreRejected() throws Exception {
+        assertThat(get("/similarity?concept1=Lake").statusCode()).isEqualTo(400);
+        assertThat(get("/similarity?concept1=Lake&concept2=Nowhere").statusCode()).isEqualTo(400);
+        assertThat(get("/similarity?concept1=Lake&concept2=Lagoon&method=unknown").statusCode()).isEqualTo(400);
+        assertThat(post("/similarity/batch", "{").statusCode()).isEqualTo(400);
+        assertThat(post("/similarity", "").statusCode()).isEqualTo(405);
+        assertThat(get("/similarity/unknown").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void topKAndExplanationAreServed() throws Exception {
+        HttpResponse<String> topK = get("/topk?concept=Lake&k=2");
+        assertThat(topK.statusCode()).isEqualTo(200);
+        assertThat(new JSONObject(topK.body()).getJSONArray("results").length()).isEqualTo(2);
+
+        HttpResponse<String> explanation = get("/explanation?concept1=Lake&concept2=Lagoon");
+        assertThat(explanation.statusCode()).isEqualTo(200);
+        assertThat(new JSONObject(explanation.body()).getBigDecimal("similarity"))
+                .isEqualByComparingTo(explainer.similarity(ImplementationMethod.DYNAMIC_SIMPI, "Lake", "Lagoon"));
+
+        HttpResponse<String> health = get("/health");
+        assertThat(health.statusCode()).isEqualTo(200);
+        assertThat(new JSONObject(health.body()).getString("status")).isEqualTo("ok");
+    }
+}
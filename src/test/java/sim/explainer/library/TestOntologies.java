@@ -0,0 +1,55 @@
+package sim.explainer.library;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ontology of the tests, i.e., {@code src/test/resources/ontology}, a KRSS ontology of places together with a
+ * preference profile.
+ */
+public final class TestOntologies {
+
+    private TestOntologies() {}
+
+    /**
+     * @return the directory holding the ontology and preference profile files
+     */
+    public static Path directory() {
+        try {
+            return Paths.get(TestOntologies.class.getResource("/ontology").toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the ontology file
+     */
+    public static Path ontologyFile() {
+        return directory().resolve("places.krss");
+    }
+
+    /**
+     * Loads the ontology and its preference profile.
+     *
+     * @return a new explainer
+     */
+    public static SimExplainer explainer() {
+        return new SimExplainer(directory().toString());
+    }
+
+    /**
+     * @param explainer the explainer
+     * @return the concept names of the loaded ontology, sorted
+     */
+    public static List<String> conceptNames(SimExplainer explainer) {
+        List<String> names = new ArrayList<String>(explainer.retrieveConceptName());
+        Collections.sort(names);
+
+        return names;
+    }
+}
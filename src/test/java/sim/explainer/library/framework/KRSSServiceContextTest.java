@@ -0,0 +1,42 @@
+package sim.explainer.library.framework;
+
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.exception.JSimPiException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KRSSServiceContextTest {
+
+    private final KRSSServiceContext context = new KRSSServiceContext();
+
+    @Test
+    void conceptDefinitionMovesBetweenMaps() {
+        assertThat(context.putConceptDefinition("(define-concept Lake (and Place (some hasPart Water)))")).isEqualTo("Lake");
+        assertThat(context.getFullConceptDefinitionMap()).containsEntry("Lake", "(and Place (some hasPart Water))");
+
+        context.putConceptDefinition("(define-primitive-concept Lake Place)");
+        assertThat(context.getFullConceptDefinitionMap()).doesNotContainKey("Lake");
+        assertThat(context.getPrimitiveConceptDefinitionMap().get("Lake")).endsWith(" Place)");
+
+        context.putConceptDefinition("(define-concept Lake Place)");
+        assertThat(context.getFullConceptDefinitionMap()).containsEntry("Lake", "Place");
+        assertThat(context.getPrimitiveConceptDefinitionMap()).doesNotContainKey("Lake");
+    }
+
+    @Test
+    void roleDefinitionMovesBetweenMaps() {
+        assertThat(context.putRoleDefinition("(define-primitive-role canSwim canMove)")).isEqualTo("canSwim");
+        assertThat(context.getPrimitiveRoleDefinitionMap()).containsEntry("canSwim", "(and canSwim canMove)");
+
+        context.putRoleDefinition("(define-role canSwim canMove)");
+        assertThat(context.getFullRoleDefinitionMap()).containsEntry("canSwim", "canMove");
+        assertThat(context.getPrimitiveRoleDefinitionMap()).doesNotContainKey("canSwim");
+    }
+
+    @Test
+    void otherStatementsAreRejected() {
+        assertThatThrownBy(() -> context.putConceptDefinition("(define-role canSwim canMove)")).isInstanceOf(JSimPiException.class);
+        assertThatThrownBy(() -> context.putRoleDefinition("(define-concept Lake Place)")).isInstanceOf(JSimPiException.class);
+    }
+}
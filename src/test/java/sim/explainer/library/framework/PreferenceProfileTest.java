@@ -0,0 +1,51 @@
+package sim.explainer.library.framework;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PreferenceProfileTest {
+
+    @Test
+    void modificationsAreTrackedByName() {
+        PreferenceProfile profile = new PreferenceProfile();
+        assertThat(profile.isModifiedSince(0, Set.of("canSwim"))).isFalse();
+
+        profile.addRoleImportance("canSwim", new BigDecimal("3"));
+        long version = profile.getVersion();
+        profile.addPrimitiveConceptImportance("Water", new BigDecimal("2"));
+
+        assertThat(profile.isModifiedSince(0, Set.of("canSwim"))).isTrue();
+        assertThat(profile.isModifiedSince(0, Set.of("canWalk"))).isFalse();
+        assertThat(profile.isModifiedSince(version, Set.of("canSwim"))).isFalse();
+        assertThat(profile.isModifiedSince(version, Set.of("Water"))).isTrue();
+        assertThat(profile.isModifiedSince(profile.getVersion(), Set.of("Water"))).isFalse();
+    }
+
+    @Test
+    void unknownModificationsModifyEveryName() {
+        PreferenceProfile profile = new PreferenceProfile();
+        profile.setDefaultRoleDiscountFactor(new BigDecimal("0.2"));
+
+        assertThat(profile.isModifiedSince(0, Collections.emptySet())).isTrue();
+        assertThat(profile.isModifiedSince(profile.getVersion(), Collections.emptySet())).isFalse();
+        // a version the profile has not reached yet
+        assertThat(profile.isModifiedSince(profile.getVersion() + 1, Collections.emptySet())).isTrue();
+    }
+
+    @Test
+    void snapshotKeepsTheVersionButNoLog() {
+        PreferenceProfile profile = new PreferenceProfile();
+        profile.addRoleImportance("canSwim", new BigDecimal("3"));
+
+        PreferenceProfile snapshot = profile.snapshot();
+
+        assertThat(snapshot.getVersion()).isEqualTo(profile.getVersion());
+        assertThat(snapshot.isModifiedSince(snapshot.getVersion(), Set.of("canSwim"))).isFalse();
+        assertThat(snapshot.isModifiedSince(0, Set.of("canWalk"))).isTrue();
+    }
+}
@@ -0,0 +1,168 @@
+package sim.explainer.library.framework.explainer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sim.explainer.library.TestOntologies;
+import sim.explainer.library.enumeration.FileTypeConstant;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.framework.KRSSServiceContext;
+import sim.explainer.library.framework.OWLServiceContext;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.descriptiontree.TreeNode;
+import sim.explainer.library.service.SimilarityService;
+import sim.explainer.library.util.utilstructure.SymbolTable;
+import sim.explainer.library.util.utilstructure.SymmetricPair;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BacktraceTableTest {
+
+    private static final Pattern CONCEPT_DEFINITION = Pattern.compile("^\\(define-concept (\\S+) (.*)\\)$", Pattern.MULTILINE);
+
+    private SimilarityService similarityService;
+    private PreferenceProfile profile;
+    private List<String> names;
+
+    @BeforeEach
+    void load() {
+        KRSSServiceContext krssServiceContext = new KRSSServiceContext();
+        krssServiceContext.init(TestOntologies.ontologyFile().toString());
+
+        similarityService = new SimilarityService(new OWLServiceContext(), krssServiceContext);
+        profile = new PreferenceProfile().snapshot();
+
+        names = new ArrayList<String>(krssServiceContext.getFullConceptDefinitionMap().keySet());
+        names.addAll(krssServiceContext.getPrimitiveConceptDefinitionMap().keySet());
+        Collections.sort(names);
+    }
+
+    /**
+     * Finds the pair of a node the way explanations used to be rendered, i.e., by scanning the level.
+     */
+    private static SymmetricPair<TreeNode<Set<String>>> scan(HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord> level, TreeNode<Set<String>> node) {
+        return level.keySet().stream()
+                .filter(pair -> pair.getFirst().equals(node) || pair.getSecond().equals(node))
+                .findFirst().orElse(null);
+    }
+
+    @Test
+    void indexedPairIsThePairALevelScanFinds() {
+        long checked = 0;
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    SimilarityResult result = similarityService.measureConceptWithType(concept1, concept2, method, FileTypeConstant.KRSS_FILE, profile);
+
+                    for (BacktraceTable backtraceTable : List.of(result.getForwardBacktraceTable(), result.getBackwardBacktraceTable())) {
+                        for (Map.Entry<Integer, HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord>> level : backtraceTable.getTable().entrySet()) {
+                            for (SymmetricPair<TreeNode<Set<String>>> pair : level.getValue().keySet()) {
+                                SymmetricPair<TreeNode<Set<String>>> indexed = backtraceTable.getPair(level.getKey(), pair.getFirst());
+
+                                assertThat(indexed).as("%s(%s, %s) at level %d", method, concept1, concept2, level.getKey())
+                                        .isSameAs(scan(level.getValue(), pair.getFirst()));
+                                assertThat(backtraceTable.getRecord(level.getKey(), indexed)).isSameAs(level.getValue().get(indexed));
+                                checked++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        assertThat(checked).isPositive();
+    }
+
+    /**
+     * Summarizes a backtrace table by the degrees of the records of every level, which do not depend on the identity
+     * of the nodes.
+     */
+    private static Map<Integer, List<BigDecimal>> degrees(BacktraceTable backtraceTable) {
+        Map<Integer, List<BigDecimal>> degrees = new TreeMap<Integer, List<BigDecimal>>();
+
+        for (Map.Entry<Integer, HashMap<SymmetricPair<TreeNode<Set<String>>>, SimRecord>> level : backtraceTable.getTable().entrySet()) {
+            List<BigDecimal> levelDegrees = new ArrayList<BigDecimal>();
+            for (SimRecord record : level.getValue().values()) {
+                levelDegrees.add(record.getDeg().stripTrailingZeros());
+            }
+            Collections.sort(levelDegrees);
+
+            degrees.put(level.getKey(), levelDegrees);
+        }
+
+        return degrees;
+    }
+
+    @Test
+    void selfPairTracesBackLikeAPairOfDuplicates(@TempDir Path directory) throws IOException {
+        // every defined concept gets a duplicate, i.e., a concept of another name with the same definition
+        String ontology = Files.readString(TestOntologies.ontologyFile());
+        StringBuilder duplicated = new StringBuilder(ontology);
+        List<String> definedNames = new ArrayList<String>();
+        Matcher definition = CONCEPT_DEFINITION.matcher(ontology);
+        while (definition.find()) {
+            definedNames.add(definition.group(1));
+            duplicated.append("(define-concept ").append(definition.group(1)).append("Duplicate ").append(definition.group(2)).append(")\n");
+        }
+        assertThat(definedNames).isNotEmpty();
+
+        Path ontologyFile = Files.writeString(directory.resolve("places.krss"), duplicated);
+        KRSSServiceContext krssServiceContext = new KRSSServiceContext();
+        krssServiceContext.init(ontologyFile.toString());
+        SimilarityService duplicatedService = new SimilarityService(new OWLServiceContext(), krssServiceContext);
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            for (String concept : definedNames) {
+                SimilarityResult self = duplicatedService.measureConceptWithType(concept, concept, method, FileTypeConstant.KRSS_FILE, profile);
+                SimilarityResult duplicate = duplicatedService.measureConceptWithType(concept, concept + "Duplicate", method, FileTypeConstant.KRSS_FILE, profile);
+
+                assertThat(self.getSimilarity()).as("%s(%s, %s)", method, concept, concept).isEqualByComparingTo(duplicate.getSimilarity());
+                assertThat(degrees(self.getForwardBacktraceTable())).as("%s(%s, %s) forward", method, concept, concept)
+                        .isEqualTo(degrees(duplicate.getForwardBacktraceTable()));
+                assertThat(degrees(self.getBackwardBacktraceTable())).as("%s(%s, %s) backward", method, concept, concept)
+                        .isEqualTo(degrees(duplicate.getBackwardBacktraceTable()));
+            }
+        }
+    }
+
+    @Test
+    void addingARecordUpdatesTheIndex() {
+        TreeNode<Set<String>> node1 = new TreeNode<Set<String>>("A", null, Set.of("A"), 0);
+        TreeNode<Set<String>> node2 = new TreeNode<Set<String>>("B", null, Set.of("B"), 0);
+        TreeNode<Set<String>> node3 = new TreeNode<Set<String>>("C", null, Set.of("C"), 1);
+
+        SymbolTable symbolTable = new SymbolTable();
+        BacktraceTable backtraceTable = new BacktraceTable();
+        assertThat(backtraceTable.getPair(0, node1)).isNull();
+
+        SimRecord worse = new SimRecord(symbolTable);
+        worse.setDeg(new BigDecimal("0.5"));
+        backtraceTable.addRecord(0, node1, node2, worse);
+        assertThat(backtraceTable.getPair(0, node1)).isEqualTo(new SymmetricPair<TreeNode<Set<String>>>(node1, node2));
+        assertThat(backtraceTable.getPair(0, node3)).isNull();
+
+        SimRecord better = new SimRecord(symbolTable);
+        better.setDeg(BigDecimal.ONE);
+        backtraceTable.addRecord(0, node1, node2, better);
+        backtraceTable.addRecord(1, node3, node2, worse);
+
+        assertThat(backtraceTable.getRecord(0, backtraceTable.getPair(0, node1))).isSameAs(better);
+        assertThat(backtraceTable.getPair(1, node3)).isEqualTo(new SymmetricPair<TreeNode<Set<String>>>(node3, node2));
+        assertThat(backtraceTable.getPair(1, node1)).isNull();
+    }
+}
@@ -0,0 +1,125 @@
+package sim.explainer.library.framework.explainer;
+
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.util.utilstructure.SymbolTable;
+import sim.explainer.library.util.utilstructure.SymmetricPair;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the packed record against the collections it replaced, i.e., {@code HashSet}s and a {@code HashMap} of
+ * {@code SymmetricPair}s.
+ */
+class SimRecordTest {
+
+    private static final int NAMES = 40;
+
+    private final SymbolTable symbolTable = new SymbolTable();
+    private final Random random = new Random(1);
+
+    private String name() {
+        return "N" + random.nextInt(NAMES);
+    }
+
+    @Test
+    void emptyRecordHasEmptyCollections() {
+        SimRecord record = new SimRecord(symbolTable);
+
+        assertThat(record.getDeg()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(record.getPri()).isEmpty();
+        assertThat(record.getExi()).isEmpty();
+        assertThat(record.getEmb()).isEmpty();
+        assertThat(record.getPriSize() + record.getExiSize() + record.getEmbSize()).isZero();
+    }
+
+    @Test
+    void appendsMatchTheFormerCollections() {
+        for (int round = 0; round < 50; round++) {
+            SimRecord record = new SimRecord(symbolTable);
+
+            HashSet<SymmetricPair<String>> pri = new HashSet<SymmetricPair<String>>();
+            HashSet<SymmetricPair<String>> exi = new HashSet<SymmetricPair<String>>();
+            HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>> emb = new HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>>();
+
+            // enough appends to go beyond the pairs that are looked up by a linear scan
+            int appends = random.nextInt(200);
+            for (int i = 0; i < appends; i++) {
+                String name1 = name();
+                String name2 = name();
+
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        record.appendPri(name1, name2);
+                        pri.add(new SymmetricPair<String>(name1, name2));
+                    }
+                    case 1 -> {
+                        record.appendExi(name1, name2);
+                        exi.add(new SymmetricPair<String>(name1, name2));
+                    }
+                    default -> {
+                        String value1 = name();
+                        String value2 = name();
+                        record.appendEmb(name1, name2, value1, value2);
+                        emb.computeIfAbsent(new SymmetricPair<String>(name1, name2), key -> new HashSet<SymmetricPair<String>>())
+                                .add(new SymmetricPair<String>(value1, value2));
+                    }
+                }
+            }
+
+            assertThat(record.getPri()).isEqualTo(pri);
+            assertThat(record.getExi()).isEqualTo(exi);
+            assertThat(record.getEmb()).isEqualTo(emb);
+            assertThat(record.getPriSize()).isEqualTo(pri.size());
+            assertThat(record.getExiSize()).isEqualTo(exi.size());
+            assertThat(record.getEmbSize()).isEqualTo(emb.size());
+
+            // the materialized sets iterate as the former ones, so that explanations render the same
+            assertThat(record.getPri()).containsExactlyElementsOf(pri);
+        }
+    }
+
+    @Test
+    void reversedPairIsNotAppendedAgain() {
+        SimRecord record = new SimRecord(symbolTable);
+
+        record.appendPri("A", "B");
+        record.appendPri("B", "A");
+        record.appendEmb("R", "S", "A", "B");
+        record.appendEmb("S", "R", "B", "A");
+
+        assertThat(record.getPriSize()).isEqualTo(1);
+        assertThat(record.getEmbSize()).isEqualTo(1);
+        assertThat(record.getEmb().get(new SymmetricPair<String>("R", "S"))).hasSize(1);
+    }
+
+    @Test
+    void setEmbReplacesTheEmbeddings() {
+        SimRecord record = new SimRecord(symbolTable);
+        record.appendEmb("R", "S", "A", "B");
+
+        HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>> emb = new HashMap<SymmetricPair<String>, Set<SymmetricPair<String>>>();
+        emb.put(new SymmetricPair<String>("T", "U"), Set.of(new SymmetricPair<String>("C", "D"), new SymmetricPair<String>("E", "F")));
+        record.setEmb(emb);
+
+        assertThat(record.getEmb()).isEqualTo(emb);
+    }
+
+    @Test
+    void recordsMaterializeWithTheirOwnSymbolTable() {
+        SymbolTable other = new SymbolTable();
+        other.intern("X");
+
+        SimRecord record = new SimRecord(symbolTable);
+        SimRecord otherRecord = new SimRecord(other);
+        record.appendPri("A", "B");
+        otherRecord.appendPri("A", "B");
+
+        assertThat(record.getPri()).isEqualTo(otherRecord.getPri()).containsExactly(new SymmetricPair<String>("A", "B"));
+    }
+}
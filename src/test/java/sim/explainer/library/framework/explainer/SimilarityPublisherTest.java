@@ -0,0 +1,176 @@
+package sim.explainer.library.framework.explainer;
+
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.exception.ErrorCode;
+import sim.explainer.library.exception.JSimPiException;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimilarityPublisherTest {
+
+    private static final int TASKS = 10;
+    private static final int MAX_IN_FLIGHT = 3;
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    /**
+     * Creates the tasks of one run, every one of them publishing a single result.
+     */
+    private Supplier<Iterator<Supplier<List<ConceptPairSimilarity>>>> tasks(int count) {
+        return () -> {
+            List<Supplier<List<ConceptPairSimilarity>>> tasks = new ArrayList<Supplier<List<ConceptPairSimilarity>>>();
+            for (int i = 0; i < count; i++) {
+                String concept = "C" + i;
+                tasks.add(() -> {
+                    started.incrementAndGet();
+                    return Collections.singletonList(new ConceptPairSimilarity(concept, concept, BigDecimal.ONE));
+                });
+            }
+
+            return tasks.iterator();
+        };
+    }
+
+    /**
+     * Queues the tasks until the test runs them.
+     */
+    private static class ManualExecutor implements Executor {
+        private final Queue<Runnable> queue = new ArrayDeque<Runnable>();
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        synchronized int queued() {
+            return queue.size();
+        }
+
+        void runAll() {
+            Runnable command;
+            while ((command = poll()) != null) {
+                command.run();
+            }
+        }
+
+        private synchronized Runnable poll() {
+            return queue.poll();
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<ConceptPairSimilarity> {
+        private final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ConceptPairSimilarity item) {
+            received.add(item.getConcept1());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+
+    @Test
+    void publishesEveryResultAndCompletes() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new SimilarityPublisher(tasks(TASKS), Runnable::run, MAX_IN_FLIGHT).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertThat(subscriber.received).hasSize(TASKS).doesNotHaveDuplicates();
+        assertThat(subscriber.completed).isTrue();
+        assertThat(subscriber.error).isNull();
+    }
+
+    @Test
+    void runsTasksOnlyAsFarAsDemanded() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new SimilarityPublisher(tasks(TASKS), Runnable::run, MAX_IN_FLIGHT).subscribe(subscriber);
+        assertThat(started).hasValue(0);
+
+        subscriber.subscription.request(1);
+        assertThat(started).hasValue(1);
+        assertThat(subscriber.received).hasSize(1);
+
+        subscriber.subscription.request(2);
+        assertThat(started).hasValue(3);
+        assertThat(subscriber.received).hasSize(3);
+        assertThat(subscriber.completed).isFalse();
+
+        subscriber.subscription.request(TASKS);
+        assertThat(started).hasValue(TASKS);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    void boundsTheTasksInFlight() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new SimilarityPublisher(tasks(TASKS), executor, MAX_IN_FLIGHT).subscribe(subscriber);
+
+        subscriber.subscription.request(TASKS);
+        assertThat(executor.queued()).isEqualTo(MAX_IN_FLIGHT);
+
+        executor.runAll();
+
+        assertThat(subscriber.received).hasSize(TASKS);
+        assertThat(subscriber.completed).isTrue();
+    }
+
+    @Test
+    void cancellingStopsStartingTasksAndDropsResults() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new SimilarityPublisher(tasks(TASKS), executor, MAX_IN_FLIGHT).subscribe(subscriber);
+
+        subscriber.subscription.request(TASKS);
+        subscriber.subscription.cancel();
+        executor.runAll();
+
+        assertThat(started).hasValue(MAX_IN_FLIGHT);
+        assertThat(subscriber.received).isEmpty();
+        assertThat(subscriber.completed).isFalse();
+        assertThat(subscriber.error).isNull();
+    }
+
+    @Test
+    void failingTaskIsSignalled() {
+        JSimPiException failure = new JSimPiException("Unable to measure.", ErrorCode.Application_IllegalArguments);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new SimilarityPublisher(() -> Collections.<Supplier<List<ConceptPairSimilarity>>>singletonList(() -> {
+            throw failure;
+        }).iterator(), Runnable::run, MAX_IN_FLIGHT).subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+
+        assertThat(subscriber.error).isSameAs(failure);
+        assertThat(subscriber.completed).isFalse();
+    }
+}
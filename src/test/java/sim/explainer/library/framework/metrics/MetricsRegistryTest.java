@@ -0,0 +1,102 @@
+package sim.explainer.library.framework.metrics;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.SimExplainer;
+import sim.explainer.library.TestOntologies;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.enumeration.MetricStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsRegistryTest {
+
+    private static final ImplementationMethod METHOD = ImplementationMethod.TOPDOWN_SIMPI;
+
+    @Test
+    void timersAggregateTheirLatencies() {
+        MetricsRegistry registry = new MetricsRegistry();
+        for (long nanos = 1000; nanos <= 100000; nanos += 1000) {
+            registry.record(MetricStage.FORWARD_REASONING, METHOD, nanos);
+        }
+
+        MetricsSnapshot.TimerSnapshot timer = registry.snapshot().getTimer(MetricStage.FORWARD_REASONING, METHOD);
+        assertThat(timer.getCount()).isEqualTo(100);
+        assertThat(timer.getTotalNanos()).isEqualTo(5050000);
+        assertThat(timer.getMeanNanos()).isEqualTo(50500);
+        assertThat(timer.getMaxNanos()).isEqualTo(100000);
+        // a percentile is approximated by the upper bound of its bucket, which exceeds it by at most a factor of 2.5
+        assertThat(timer.getPercentileNanos(0.5)).isBetween(50000L, 125000L);
+        assertThat(timer.getPercentileNanos(0.99)).isBetween(99000L, 100000L);
+
+        assertThat(registry.snapshot().getTimer(MetricStage.BACKWARD_REASONING, METHOD)).isNull();
+    }
+
+    @Test
+    void failedStagesAreTimedToo() {
+        MetricsRegistry registry = new MetricsRegistry();
+
+        assertThatThrownBy(() -> registry.time(MetricStage.EXPLANATION_RENDERING, null, () -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.snapshot().getTimer(MetricStage.EXPLANATION_RENDERING, null).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void resetDropsEveryRecording() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.record(MetricStage.UNFOLDING, null, 1000);
+        registry.addNodePairs(METHOD, 3);
+        registry.recordCacheHit(METHOD);
+        registry.recordCacheMiss(METHOD);
+
+        registry.reset();
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        assertThat(snapshot.getTimers()).isEmpty();
+        assertThat(snapshot.getNodePairs(METHOD)).isZero();
+        assertThat(snapshot.getCacheHits(METHOD)).isZero();
+        assertThat(snapshot.getCacheMisses(METHOD)).isZero();
+    }
+
+    @Test
+    void snapshotIsExportedAsJsonAndPrometheusText() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.record(MetricStage.TREE_BUILDING, null, 2000);
+        registry.record(MetricStage.TREE_BUILDING, null, 4000);
+        registry.addNodePairs(METHOD, 7);
+
+        MetricsSnapshot snapshot = registry.snapshot();
+
+        JSONObject timer = snapshot.toJson().getJSONArray("timers").getJSONObject(0);
+        assertThat(timer.getString("stage")).isEqualTo("tree_building");
+        assertThat(timer.has("method")).isFalse();
+        assertThat(timer.getLong("count")).isEqualTo(2);
+        assertThat(snapshot.toJson().getJSONObject("nodePairs").getLong(METHOD.toString())).isEqualTo(7);
+
+        assertThat(snapshot.toPrometheus())
+                .contains("simexplainer_stage_duration_seconds_bucket{stage=\"tree_building\",le=\"+Inf\"} 2\n")
+                .contains("simexplainer_stage_duration_seconds_count{stage=\"tree_building\"} 2\n")
+                .contains("simexplainer_node_pairs_total{method=\"" + METHOD + "\"} 7\n");
+    }
+
+    @Test
+    void explainerRecordsEveryStageOfAnEvaluation() {
+        SimExplainer explainer = TestOntologies.explainer();
+
+        explainer.similarity(METHOD, "Lake", "Lagoon");
+        explainer.similarity(METHOD, "Lake", "Lagoon");
+        explainer.getExplanationAsJson("Lake", "Lagoon");
+
+        MetricsSnapshot snapshot = explainer.getMetricsSnapshot();
+        assertThat(snapshot.getTimer(MetricStage.FORWARD_REASONING, METHOD).getCount()).isEqualTo(1);
+        assertThat(snapshot.getTimer(MetricStage.BACKWARD_REASONING, METHOD).getCount()).isEqualTo(1);
+        assertThat(snapshot.getTimer(MetricStage.TREE_BUILDING, null).getCount()).isPositive();
+        assertThat(snapshot.getTimer(MetricStage.EXPLANATION_RENDERING, null).getCount()).isEqualTo(1);
+        assertThat(snapshot.getNodePairs(METHOD)).isPositive();
+        assertThat(snapshot.getCacheMisses(METHOD)).isEqualTo(1);
+        assertThat(snapshot.getCacheHits(METHOD)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,148 @@
+package sim.explainer.library.service;
+
+import org.junit.jupiter.api.Test;
+import sim.explainer.library.SimExplainer;
+import sim.explainer.library.TestOntologies;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.exception.JSimPiException;
+import sim.explainer.library.framework.PreferenceProfile;
+import sim.explainer.library.framework.explainer.BacktraceTable;
+import sim.explainer.library.framework.explainer.ExplanationRecord;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExplanationCacheServiceTest {
+
+    private static ExplanationService explanation() {
+        return new ExplanationService(BigDecimal.ONE, new BacktraceTable(), new BacktraceTable());
+    }
+
+    private static ExplanationRecord record(String concept1) {
+        PreferenceProfile profile = new PreferenceProfile().snapshot();
+
+        return new ExplanationRecord(concept1, BigDecimal.ONE, ImplementationMethod.DYNAMIC_SIM, 0, profile.getVersion());
+    }
+
+    @Test
+    void statisticsCountHitsMissesAndEntries() {
+        ExplanationCacheService cache = new ExplanationCacheService();
+        ExplanationService explanationService = explanation();
+
+        cache.put("A", "B", record("A"), explanationService);
+
+        assertThat(cache.get("A", "B").getExplanationService()).isSameAs(explanationService);
+        assertThat(cache.get("B", "A")).isNotNull();
+        assertThat(cache.get("A", "C")).isNull();
+
+        ExplanationCacheService.Statistics statistics = cache.getStatistics();
+        assertThat(statistics.getHitCount()).isEqualTo(2);
+        assertThat(statistics.getMissCount()).isEqualTo(1);
+        assertThat(statistics.getEvictionCount()).isZero();
+        assertThat(statistics.getSize()).isEqualTo(1);
+        assertThat(statistics.getEstimatedBytes()).isEqualTo(ExplanationCacheService.estimateBytes(explanationService));
+        assertThat(statistics.getMaxBytes()).isEqualTo(ExplanationCacheService.DEFAULT_MAX_BYTES);
+        assertThat(statistics.getHitRate()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    void reversedLookupSwapsTheBacktraceTables() {
+        ExplanationCacheService cache = new ExplanationCacheService();
+        ExplanationService explanationService = explanation();
+        cache.put("A", "B", record("A"), explanationService);
+
+        ExplanationService reversed = cache.get("B", "A").getExplanationService();
+
+        assertThat(reversed.getForwardBacktraceTable()).isSameAs(explanationService.getBackwardBacktraceTable());
+        assertThat(reversed.getBackwardBacktraceTable()).isSameAs(explanationService.getForwardBacktraceTable());
+        assertThat(reversed.getSimilarity()).isEqualTo(explanationService.getSimilarity());
+    }
+
+    @Test
+    void replacedRecordKeepsTheExplanationAndItsWeight() {
+        ExplanationCacheService cache = new ExplanationCacheService();
+        ExplanationService explanationService = explanation();
+        ExplanationRecord record = record("A");
+        cache.put("A", "B", record, explanationService);
+        long bytes = cache.getEstimatedBytes();
+
+        ExplanationRecord restamped = record.withProfileVersion(record.getProfileVersion() + 1);
+        cache.replaceRecord("B", "A", record, restamped);
+        // a stale record no longer matches the cached one
+        cache.replaceRecord("A", "B", record, record("A"));
+
+        assertThat(cache.get("A", "B").getRecord()).isSameAs(restamped);
+        assertThat(cache.get("A", "B").getExplanationService()).isSameAs(explanationService);
+        assertThat(cache.getEstimatedBytes()).isEqualTo(bytes).isEqualTo(cache.getStatistics().getEstimatedBytes());
+    }
+
+    @Test
+    void entriesAreEvictedOnceTheBudgetIsExceeded() {
+        int weight = ExplanationCacheService.estimateBytes(explanation());
+        ExplanationCacheService cache = new ExplanationCacheService(8L * weight, false);
+
+        int puts = 20;
+        for (int i = 0; i < puts; i++) {
+            cache.put("A" + i, "B" + i, record("A" + i), explanation());
+        }
+
+        ExplanationCacheService.Statistics statistics = cache.getStatistics();
+        assertThat(statistics.getSize()).isPositive();
+        assertThat(statistics.getEstimatedBytes()).isEqualTo(statistics.getSize() * weight).isLessThanOrEqualTo(statistics.getMaxBytes());
+        assertThat(statistics.getEvictionCount()).isEqualTo(puts - statistics.getSize());
+    }
+
+    @Test
+    void smallBudgetIsNotSplitAcrossSegments() {
+        int weight = ExplanationCacheService.estimateBytes(explanation());
+        ExplanationCacheService cache = new ExplanationCacheService(2L * weight, false);
+
+        cache.put("A", "B", record("A"), explanation());
+        cache.put("C", "D", record("C"), explanation());
+
+        assertThat(cache.get("A", "B")).isNotNull();
+        assertThat(cache.get("C", "D")).isNotNull();
+    }
+
+    @Test
+    void emptyBudgetKeepsNothing() {
+        ExplanationCacheService cache = new ExplanationCacheService(0, false);
+
+        cache.put("A", "B", record("A"), explanation());
+
+        assertThat(cache.get("A", "B")).isNull();
+        assertThat(cache.getStatistics().getSize()).isZero();
+        assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void negativeBudgetIsRejected() {
+        assertThatThrownBy(() -> new ExplanationCacheService(-1, false)).isInstanceOf(JSimPiException.class);
+    }
+
+    @Test
+    void evictedPairsAreMeasuredAgain() {
+        SimExplainer cached = TestOntologies.explainer();
+        SimExplainer uncached = TestOntologies.explainer();
+        uncached.configureExplanationCache(0, false);
+
+        List<String> names = TestOntologies.conceptNames(cached);
+        for (int round = 0; round < 2; round++) {
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    assertThat(uncached.similarity(ImplementationMethod.DYNAMIC_SIM, concept1, concept2))
+                            .as("(%s, %s)", concept1, concept2)
+                            .isEqualByComparingTo(cached.similarity(ImplementationMethod.DYNAMIC_SIM, concept1, concept2));
+                }
+            }
+        }
+
+        long calls = 2L * names.size() * names.size();
+        assertThat(uncached.getExplanationCacheStatistics().getMissCount()).isEqualTo(calls);
+        assertThat(uncached.getExplanationCacheStatistics().getSize()).isZero();
+        assertThat(cached.getExplanationCacheStatistics().getHitCount()).isPositive();
+    }
+}
@@ -0,0 +1,115 @@
+package sim.explainer.library.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sim.explainer.library.SimExplainer;
+import sim.explainer.library.TestOntologies;
+import sim.explainer.library.enumeration.FileTypeConstant;
+import sim.explainer.library.enumeration.ImplementationMethod;
+import sim.explainer.library.framework.compiled.CompiledOntology;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OntologySnapshotServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private Path ontology;
+    private Path snapshot;
+
+    // the service only uses the similarity service to compile, which these tests do through SimExplainer
+    private final OntologySnapshotService snapshotService = new OntologySnapshotService(null);
+
+    @BeforeEach
+    void copyOntology() throws IOException {
+        ontology = Files.copy(TestOntologies.ontologyFile(), directory.resolve("places.krss"));
+        snapshot = directory.resolve("places.snapshot");
+    }
+
+    @Test
+    void snapshotRoundTripPreservesEverySimilarity() throws IOException {
+        SimExplainer written = SimExplainer.withSnapshot(ontology.toString(), snapshot.toString());
+        assertThat(snapshot).isRegularFile();
+
+        SimExplainer read = SimExplainer.withSnapshot(ontology.toString(), snapshot.toString());
+        SimExplainer parsed = new SimExplainer(directory.toString());
+
+        List<String> names = TestOntologies.conceptNames(parsed);
+        assertThat(TestOntologies.conceptNames(read)).isEqualTo(names);
+
+        for (ImplementationMethod method : ImplementationMethod.values()) {
+            for (String concept1 : names) {
+                for (String concept2 : names) {
+                    assertThat(read.similarity(method, concept1, concept2))
+                            .as("%s(%s, %s)", method, concept1, concept2)
+                            .isEqualByComparingTo(parsed.similarity(method, concept1, concept2))
+                            .isEqualByComparingTo(written.similarity(method, concept1, concept2));
+                }
+            }
+        }
+    }
+
+    @Test
+    void snapshotIsWrittenWithoutLeavingTemporaryFiles() throws IOException {
+        SimExplainer.withSnapshot(ontology.toString(), snapshot.toString());
+        SimExplainer.withSnapshot(ontology.toString(), snapshot.toString()).writeSnapshot(snapshot.toString());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactlyInAnyOrder(ontology, snapshot);
+        }
+    }
+
+    @Test
+    void snapshotOfAnotherContentIsStale() {
+        SimExplainer.withSnapshot(ontology.toString(), snapshot.toString());
+
+        String sourceHash = OntologySnapshotService.contentHash(ontology.toString());
+        String otherHash = OntologySnapshotService.contentHash(TestOntologies.directory().resolve("role-discount-factor.txt").toString());
+
+        assertThat(snapshotService.readIfFresh(snapshot.toString(), sourceHash)).isNotNull();
+        assertThat(snapshotService.readIfFresh(snapshot.toString(), otherHash)).isNull();
+    }
+
+    @Test
+    void staleSnapshotIsRebuilt() throws IOException {
+        SimExplainer.withSnapshot(ontology.toString(), snapshot.toString());
+
+        Files.write(ontology, "(define-concept Cove (and Beach Water (some canSwim Snorkeling)))\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        String sourceHash = OntologySnapshotService.contentHash(ontology.toString());
+        assertThat(snapshotService.readIfFresh(snapshot.toString(), sourceHash)).isNull();
+
+        SimExplainer rebuilt = SimExplainer.withSnapshot(ontology.toString(), snapshot.toString());
+
+        assertThat(rebuilt.retrieveConceptName()).contains("Cove");
+        assertThat(rebuilt.similarity(ImplementationMethod.DYNAMIC_SIM, "Cove", "Bay")).isPositive();
+
+        CompiledOntology compiledOntology = snapshotService.readIfFresh(snapshot.toString(), sourceHash);
+        assertThat(compiledOntology).isNotNull();
+        assertThat(compiledOntology.getConceptNames()).contains("Cove");
+    }
+
+    @Test
+    void partialSnapshotIsNeverFresh() {
+        CompiledOntology partial = new CompiledOntology(FileTypeConstant.KRSS_FILE, "hash", List.of("Beach"),
+                Collections.emptyMap(), Collections.emptyMap(), Set.of("Beach"));
+        snapshotService.write(partial, snapshot.toString());
+
+        CompiledOntology read = snapshotService.read(snapshot.toString());
+        assertThat(read.isComplete()).isFalse();
+        assertThat(read.getSkippedConceptNames()).containsExactly("Beach");
+
+        assertThat(snapshotService.readIfFresh(snapshot.toString(), "hash")).isNull();
+    }
+}
@@ -0,0 +1,82 @@
+package sim.explainer.library.util.utilstructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class OverlayMapTest {
+
+    private static <K, V> Map<K, V> mapOf(K key1, V value1, K key2, V value2) {
+        Map<K, V> map = new LinkedHashMap<K, V>();
+        map.put(key1, value1);
+        map.put(key2, value2);
+
+        return map;
+    }
+
+    @Test
+    void overridesShadowTheBase() {
+        Map<String, Integer> view = new OverlayMap<String, Integer>(mapOf("a", 1, "b", 2), mapOf("b", 20, "c", 30));
+
+        assertThat(view.get("a")).isEqualTo(1);
+        assertThat(view.get("b")).isEqualTo(20);
+        assertThat(view.get("c")).isEqualTo(30);
+        assertThat(view.get("d")).isNull();
+        assertThat(view.containsKey("c")).isTrue();
+        assertThat(view.containsKey("d")).isFalse();
+
+        assertThat(view).hasSize(3).containsOnly(entry("a", 1), entry("b", 20), entry("c", 30));
+        assertThat(view).isEqualTo(Map.of("a", 1, "b", 20, "c", 30));
+    }
+
+    @Test
+    void viewReflectsLaterModifications() {
+        Map<String, Integer> base = new HashMap<String, Integer>();
+        Map<String, Integer> overrides = new HashMap<String, Integer>();
+        Map<String, Integer> view = new OverlayMap<String, Integer>(base, overrides);
+
+        base.put("a", 1);
+        assertThat(view).containsOnly(entry("a", 1));
+
+        overrides.put("a", 10);
+        assertThat(view).containsOnly(entry("a", 10));
+
+        overrides.remove("a");
+        base.put("b", 2);
+        assertThat(view).containsOnly(entry("a", 1), entry("b", 2));
+    }
+
+    @Test
+    void viewIsReadOnly() {
+        Map<String, Integer> view = new OverlayMap<String, Integer>(new HashMap<String, Integer>(), new HashMap<String, Integer>());
+
+        assertThatThrownBy(() -> view.put("a", 1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void nestedOverridesReplaceSingleInnerEntries() {
+        Map<String, Map<String, Integer>> base = new HashMap<String, Map<String, Integer>>();
+        base.put("x", mapOf("p", 1, "q", 2));
+        base.put("y", mapOf("p", 3, "q", 4));
+
+        Map<String, Map<String, Integer>> overrides = new HashMap<String, Map<String, Integer>>();
+        overrides.put("x", new HashMap<String, Integer>(Map.of("q", 20)));
+        overrides.put("z", new HashMap<String, Integer>(Map.of("p", 50)));
+
+        Map<String, Map<String, Integer>> view = OverlayMap.nested(base, overrides);
+
+        assertThat(view.get("x")).containsOnly(entry("p", 1), entry("q", 20));
+        assertThat(view.get("y")).containsOnly(entry("p", 3), entry("q", 4));
+        assertThat(view.get("z")).containsOnly(entry("p", 50));
+        assertThat(view).hasSize(3);
+
+        // the base is not modified by the overrides
+        assertThat(base.get("x")).containsOnly(entry("p", 1), entry("q", 2));
+    }
+}